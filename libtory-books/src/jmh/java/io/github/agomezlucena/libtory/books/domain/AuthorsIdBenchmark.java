@@ -0,0 +1,130 @@
+package io.github.agomezlucena.libtory.books.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/// compares the [AuthorsId] backed by sorted pairs of longs with the set of uuids it replaced, for the
+/// operations made on every update of the authors of a book.
+///
+/// run it with `./gradlew :libtory-books:jmh`, the gc profiler is enabled for this module so the allocation rate
+/// of both versions is reported with `gc.alloc.rate.norm`.
+///
+/// the benchmarks return [Object] because [AuthorsId] is not visible from the code generated by jmh.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthorsIdBenchmark {
+    @Param({"2", "16"})
+    private int amountOfAuthors;
+
+    private UUID[] initialIds;
+    private UUID[] addedIds;
+    private UUID presentId;
+    private AuthorsId authorsId;
+    private AuthorsId sameAuthorsId;
+    private SetBackedAuthorsId setBackedAuthorsId;
+    private SetBackedAuthorsId sameSetBackedAuthorsId;
+
+    @Setup
+    public void setUp() {
+        initialIds = Stream.generate(UUID::randomUUID).limit(amountOfAuthors).toArray(UUID[]::new);
+        addedIds = Stream.generate(UUID::randomUUID).limit(amountOfAuthors / 2 + 1).toArray(UUID[]::new);
+        presentId = initialIds[initialIds.length / 2];
+
+        authorsId = AuthorsId.from(initialIds);
+        sameAuthorsId = AuthorsId.from(initialIds.clone());
+        setBackedAuthorsId = SetBackedAuthorsId.from(initialIds);
+        sameSetBackedAuthorsId = SetBackedAuthorsId.from(initialIds.clone());
+    }
+
+    @Benchmark
+    public Object create() {
+        return AuthorsId.from(initialIds);
+    }
+
+    @Benchmark
+    public SetBackedAuthorsId createSetBacked() {
+        return SetBackedAuthorsId.from(initialIds);
+    }
+
+    @Benchmark
+    public Object addAuthors() {
+        return authorsId.addAuthors(addedIds);
+    }
+
+    @Benchmark
+    public SetBackedAuthorsId addAuthorsSetBacked() {
+        return setBackedAuthorsId.addAuthors(addedIds);
+    }
+
+    @Benchmark
+    public Object removeAuthor() {
+        return authorsId.remove(presentId);
+    }
+
+    @Benchmark
+    public SetBackedAuthorsId removeAuthorSetBacked() {
+        return setBackedAuthorsId.remove(presentId);
+    }
+
+    @Benchmark
+    public boolean contains() {
+        return authorsId.contains(presentId);
+    }
+
+    @Benchmark
+    public boolean containsSetBacked() {
+        return setBackedAuthorsId.ids().contains(presentId);
+    }
+
+    @Benchmark
+    public boolean sameAuthors() {
+        return authorsId.equals(sameAuthorsId);
+    }
+
+    @Benchmark
+    public boolean sameAuthorsSetBacked() {
+        return setBackedAuthorsId.equals(sameSetBackedAuthorsId);
+    }
+
+    /// the implementation of the authors of a book before they were kept as pairs of longs.
+    public record SetBackedAuthorsId(Set<UUID> ids) {
+        private static final SetBackedAuthorsId EMPTY_AUTHORS = new SetBackedAuthorsId(Collections.emptySet());
+
+        static SetBackedAuthorsId from(UUID... authorsId) {
+            if (authorsId == null || authorsId.length == 0) return EMPTY_AUTHORS;
+            return new SetBackedAuthorsId(Set.of(authorsId));
+        }
+
+        SetBackedAuthorsId addAuthors(UUID... ids) {
+            if (ids == null || ids.length == 0) return this;
+            if (this.ids.isEmpty()) return from(ids);
+            return new SetBackedAuthorsId(
+                    Stream.concat(this.ids.stream(), Arrays.stream(ids)).collect(Collectors.toUnmodifiableSet())
+            );
+        }
+
+        SetBackedAuthorsId remove(UUID... ids) {
+            if (this.ids.isEmpty() || ids == null || ids.length == 0) return this;
+            var authorsToRemove = Set.of(ids);
+            if (this.ids.equals(authorsToRemove)) return EMPTY_AUTHORS;
+            return new SetBackedAuthorsId(
+                    this.ids.stream().filter(id -> !authorsToRemove.contains(id)).collect(Collectors.toSet())
+            );
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.agomezlucena.libtory.books.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/// measures the creation of isbns from the literals received by the api and their use as keys of a map, as
+/// done by the cache of book projections.
+///
+/// run it with `./gradlew :libtory-books:jmh`, the gc profiler reports the allocations of every operation.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IsbnBenchmark {
+    private static final String ISBN = "9780134685991";
+    private static final String HYPHENATED_ISBN = "978-0-13-468599-1";
+    private static final String INVALID_ISBN = "978-0-13-468599-2";
+
+    private final Map<Isbn, String> booksByIsbn = new HashMap<>();
+    private Isbn isbn;
+
+    @Setup
+    public void setUp() {
+        isbn = Isbn.fromString(ISBN);
+        booksByIsbn.put(isbn, "Effective Java");
+        booksByIsbn.put(Isbn.fromString("9780596520687"), "JavaScript: The Good Parts");
+    }
+
+    @Benchmark
+    public Isbn fromString() {
+        return Isbn.fromString(ISBN);
+    }
+
+    @Benchmark
+    public Isbn fromHyphenatedString() {
+        return Isbn.fromString(HYPHENATED_ISBN);
+    }
+
+    @Benchmark
+    public boolean validateInvalidIsbn() {
+        return Isbn.isValidISBN(INVALID_ISBN);
+    }
+
+    @Benchmark
+    public String mapLookup() {
+        return booksByIsbn.get(Isbn.fromString(HYPHENATED_ISBN));
+    }
+
+    @Benchmark
+    public String isbnLiteral() {
+        return isbn.isbnLiteral();
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.github.agomezlucena.libtory.books.domain.Book;
+import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import liquibase.integration.spring.SpringLiquibase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/// compares saving and deleting a book with a single statement per write, as [BookSqlRepository] does, with the
+/// statements per write that it replaced, against a postgres container.
+///
+/// run it with `./gradlew :libtory-books:jmh -Pjmh.includes=BookWritesBenchmark`, docker must be available.
+/// Every invocation saves a new book with its authors and deletes it, each write in its own transaction, so both
+/// versions pay the same commits and the difference is the round trips inside the transactions.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookWritesBenchmark {
+    private static final String BOOK_ISBN = "9780306406157";
+
+    @Param({"1", "8"})
+    private int amountOfAuthors;
+
+    private PostgreSQLContainer<?> postgresContainer;
+    private HikariDataSource dataSource;
+    private NamedParameterJdbcTemplate jdbcOperations;
+    private TransactionTemplate transactionTemplate;
+    private BookSqlRepository bookSqlRepository;
+    private UUID[] authorIds;
+
+    @Setup
+    public void setUp() throws Exception {
+        postgresContainer = new PostgreSQLContainer<>(DockerImageName.parse("postgres:latest"));
+        postgresContainer.start();
+
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgresContainer.getJdbcUrl());
+        dataSource.setUsername(postgresContainer.getUsername());
+        dataSource.setPassword(postgresContainer.getPassword());
+
+        var liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/books-changelogs.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+
+        jdbcOperations = new NamedParameterJdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        bookSqlRepository = new BookSqlRepository(new BookQueries(), jdbcOperations);
+
+        authorIds = Stream.generate(UUID::randomUUID).limit(amountOfAuthors).toArray(UUID[]::new);
+        for (var authorId : authorIds) {
+            jdbcOperations.update(
+                    "insert into books.authors (author_id,author_name) values (:author_id,:author_name)",
+                    new MapSqlParameterSource("author_id", authorId).addValue("author_name", "benchmarked author")
+            );
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+        postgresContainer.stop();
+    }
+
+    @Benchmark
+    public void saveAndDeleteInOneStatementEach() {
+        var book = Book.createBook(new BookPrimitives(BOOK_ISBN, "benchmarked book", authorIds), ids -> true);
+        transactionTemplate.executeWithoutResult(status -> bookSqlRepository.save(book));
+        transactionTemplate.executeWithoutResult(status -> bookSqlRepository.delete(Isbn.fromString(BOOK_ISBN)));
+    }
+
+    @Benchmark
+    public void saveAndDeleteInSeveralStatements() {
+        transactionTemplate.executeWithoutResult(status -> LegacyBookWrites.save(jdbcOperations, BOOK_ISBN, authorIds));
+        transactionTemplate.executeWithoutResult(status -> LegacyBookWrites.delete(jdbcOperations, BOOK_ISBN));
+    }
+
+    /// the statements that were run by [BookSqlRepository] before every write was a single statement.
+    static final class LegacyBookWrites {
+        private static final String SAVE_BOOK = """
+                with saved_book as (
+                    insert into books.books as b (isbn,title)
+                    values (:book_isbn,:book_title)
+                    on conflict (isbn) do update set title = excluded.title
+                    returning (xmax = 0) as inserted
+                )
+                insert into books.book_counter as c (slot,amount)
+                select :counter_slot, 1 from saved_book where inserted
+                on conflict (slot) do update set amount = c.amount + excluded.amount
+                """;
+        private static final String DERELATE_NOT_GIVEN_AUTHORS = """
+                delete from books.book_authors where book_isbn = :book_isbn and author_id not in (:author_id)
+                """;
+        private static final String RELATE_AUTHOR = """
+                insert into books.book_authors (book_isbn,author_id) values (:book_isbn,:author_id)
+                on conflict do nothing
+                """;
+        private static final String DELETE_RELATIONSHIPS = """
+                delete from books.book_authors where book_isbn = :book_isbn
+                """;
+        private static final String DELETE_BOOK = """
+                with deleted_book as (
+                    delete from books.books where isbn = :book_isbn returning isbn
+                )
+                insert into books.book_counter as c (slot,amount)
+                select :counter_slot, -count(*) from deleted_book having count(*) > 0
+                on conflict (slot) do update set amount = c.amount + excluded.amount
+                """;
+
+        private LegacyBookWrites() {
+        }
+
+        static void save(NamedParameterJdbcTemplate jdbcOperations, String isbn, UUID[] authorIds) {
+            jdbcOperations.update(
+                    SAVE_BOOK,
+                    withCounterSlot(new MapSqlParameterSource("book_isbn", isbn).addValue("book_title", "benchmarked book"))
+            );
+            jdbcOperations.update(
+                    DERELATE_NOT_GIVEN_AUTHORS,
+                    new MapSqlParameterSource("book_isbn", isbn).addValue("author_id", Arrays.asList(authorIds))
+            );
+            jdbcOperations.batchUpdate(
+                    RELATE_AUTHOR,
+                    Arrays.stream(authorIds)
+                            .map(authorId -> new MapSqlParameterSource("book_isbn", isbn).addValue("author_id", authorId))
+                            .toArray(SqlParameterSource[]::new)
+            );
+        }
+
+        static void delete(NamedParameterJdbcTemplate jdbcOperations, String isbn) {
+            jdbcOperations.update(DELETE_RELATIONSHIPS, new MapSqlParameterSource("book_isbn", isbn));
+            jdbcOperations.update(DELETE_BOOK, withCounterSlot(new MapSqlParameterSource("book_isbn", isbn)));
+        }
+
+        private static MapSqlParameterSource withCounterSlot(MapSqlParameterSource params) {
+            return params.addValue("counter_slot", ThreadLocalRandom.current().nextInt(BookSqlRepository.COUNTER_SLOTS));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package io.github.agomezlucena.libtory.books.application;
+
+/// how far an import of books has gone.
+///
+/// @param readRows     the records read from the document, without its header.
+/// @param loadedRows   the records loaded into the catalog.
+/// @param rejectedRows the records that could not be imported.
+/// @param createdBooks the loaded books that were not in the catalog before.
+public record BookImportProgress(long readRows, long loadedRows, long rejectedRows, long createdBooks) {
+}
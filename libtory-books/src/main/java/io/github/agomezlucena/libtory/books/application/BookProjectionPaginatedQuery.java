@@ -1,7 +1,10 @@
 package io.github.agomezlucena.libtory.books.application;
 
 import io.github.agomezlucena.libtory.books.domain.BookProjection;
+import io.github.agomezlucena.libtory.books.domain.BookProjectionCursor;
 import io.github.agomezlucena.libtory.shared.cqrs.AbstractPagedQuery;
+import io.github.agomezlucena.libtory.shared.cqrs.InvalidQuery;
+import io.github.agomezlucena.libtory.shared.cqrs.TotalMode;
 
 import java.util.Objects;
 import java.util.Set;
@@ -10,7 +13,40 @@ public class BookProjectionPaginatedQuery extends AbstractPagedQuery<BookProject
     private static final Set<String> validSortingFields = Set.of("isbn","title","author_name");
 
     public BookProjectionPaginatedQuery(Integer page, Integer size, String sortingField, String sortingDirection) {
-        super(page, size, sortingField, sortingDirection);
+        this(page, size, sortingField, sortingDirection, null);
+    }
+
+    /// when a cursor is given the sorting can be omitted, in that case the one stored in the cursor will be used,
+    /// otherwise it should be the same that was used to obtain the cursor.
+    public BookProjectionPaginatedQuery(
+            Integer page,
+            Integer size,
+            String sortingField,
+            String sortingDirection,
+            String cursor
+    ) {
+        this(page, size, sortingField, sortingDirection, cursor, TotalMode.EXACT);
+    }
+
+    public BookProjectionPaginatedQuery(
+            Integer page,
+            Integer size,
+            String sortingField,
+            String sortingDirection,
+            String cursor,
+            TotalMode totalMode
+    ) {
+        super(page, size, sortingField, sortingDirection, cursor, totalMode);
+        if (getCursor() == null) return;
+
+        var decodedCursor = BookProjectionCursor.decode(getCursor());
+        if (!BookProjectionCursor.supports(decodedCursor.sortingField())) {
+            throw new InvalidQuery("invalid paginated query the pages sorted by author_name have no cursor");
+        }
+        if (getSortingField() != null &&
+                !decodedCursor.isCompatibleWith(getSortingField().toLowerCase(), getSortingDirection())) {
+            throw new InvalidQuery("invalid paginated query the given cursor was created with another sorting");
+        }
     }
 
     @Override
@@ -0,0 +1,81 @@
+package io.github.agomezlucena.libtory.books.application;
+
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.shared.cqrs.CommandCoalescer;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/// asks to add and remove the given authors to and from a book at once, it has the effect of several
+/// [UpdateAuthorsCommand] sent one after the other to the same book.
+///
+/// @param addedAuthorIds   the authors to add, none of them is also removed.
+/// @param removedAuthorIds the authors to remove.
+/// @param checkedAuthorIds the authors that should exist, every author added by one of the updates even when a
+///                         later one removes it, so the command fails as the updates would have.
+public record ChangeAuthorsCommand(
+        String isbn,
+        Set<UUID> addedAuthorIds,
+        Set<UUID> removedAuthorIds,
+        Set<UUID> checkedAuthorIds
+) {
+    private static final CommandCoalescer<UpdateAuthorsCommand, ChangeAuthorsCommand> COALESCER =
+            new CommandCoalescer<>() {
+                @Override
+                public ChangeAuthorsCommand open(UpdateAuthorsCommand command) {
+                    if (command.expectedVersion() != null) return null;
+                    return new ChangeAuthorsCommand(command.isbn(), Set.of(), Set.of()).then(command);
+                }
+
+                @Override
+                public ChangeAuthorsCommand merge(ChangeAuthorsCommand pending, UpdateAuthorsCommand command) {
+                    if (command.expectedVersion() != null || !pending.isbn().equals(command.isbn())) return null;
+                    return pending.then(command);
+                }
+            };
+
+    public ChangeAuthorsCommand {
+        if (!Isbn.isValidISBN(isbn))
+            throw new InvalidUpdateAuthorCommand("the provided isbn is not a valid ISBN 13");
+        addedAuthorIds = Set.copyOf(addedAuthorIds);
+        removedAuthorIds = Set.copyOf(removedAuthorIds);
+        checkedAuthorIds = Set.copyOf(checkedAuthorIds);
+    }
+
+    /// creates a command that checks only the authors it adds.
+    public ChangeAuthorsCommand(String isbn, Set<UUID> addedAuthorIds, Set<UUID> removedAuthorIds) {
+        this(isbn, addedAuthorIds, removedAuthorIds, addedAuthorIds);
+    }
+
+    /// merges the author updates sent to the same book without an expected version, the ones that expect a
+    /// version are handled on their own.
+    public static CommandCoalescer<UpdateAuthorsCommand, ChangeAuthorsCommand> coalescer() {
+        return COALESCER;
+    }
+
+    /// @return a command with the effect of this one followed by the given author update.
+    public ChangeAuthorsCommand then(UpdateAuthorsCommand command) {
+        var added = new HashSet<>(addedAuthorIds);
+        var removed = new HashSet<>(removedAuthorIds);
+        var checked = new HashSet<>(checkedAuthorIds);
+        var updatedIds = List.of(command.authorsIds());
+        switch (command.updateType()) {
+            case ADDITION -> {
+                added.addAll(updatedIds);
+                removed.removeAll(updatedIds);
+                checked.addAll(updatedIds);
+            }
+            case DELETION -> {
+                removed.addAll(updatedIds);
+                added.removeAll(updatedIds);
+            }
+        }
+        return new ChangeAuthorsCommand(isbn, added, removed, checked);
+    }
+
+    public Isbn getIsbn() {
+        return Isbn.fromString(isbn);
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.agomezlucena.libtory.books.application;
+
+import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
+import io.github.agomezlucena.libtory.books.domain.AuthorUpdateCommand;
+import io.github.agomezlucena.libtory.books.domain.BookNotFound;
+import io.github.agomezlucena.libtory.books.domain.BookRepository;
+import io.github.agomezlucena.libtory.shared.cqrs.CommandHandler;
+import org.jspecify.annotations.NonNull;
+
+/// This class represent the use case of when several author updates of a book are applied at once
+/// @author Alejandro Gómez Lucena.
+/// @see ChangeAuthorsCommand
+public class ChangeBookAuthorsUseCase implements CommandHandler<ChangeAuthorsCommand> {
+    private final AuthorChecker authorChecker;
+    private final BookRepository bookRepository;
+
+    public ChangeBookAuthorsUseCase(AuthorChecker authorChecker, BookRepository bookRepository) {
+        this.authorChecker = authorChecker;
+        this.bookRepository = bookRepository;
+    }
+
+    /// will add and remove the authors of the command to and from the book, checking the checked authors once and
+    /// saving the book once.
+    /// @param command the net change of the authors of a book.
+    /// @throws io.github.agomezlucena.libtory.books.domain.InvalidAuthor InvalidAuthor when one of the checked
+    /// authors does not exist.
+    /// @throws BookNotFound BookNotFound when the book does not exist.
+    @Override
+    public void handleCommand(@NonNull ChangeAuthorsCommand command) {
+        if (command == null) throw new InvalidUpdateAuthorCommand("you can't update without data");
+
+        var book = bookRepository.findByIsbn(command.getIsbn()).orElseThrow(BookNotFound::new);
+        book.updateAuthors(
+                AuthorUpdateCommand.changeAuthors(
+                        authorChecker,
+                        bookRepository,
+                        command.addedAuthorIds(),
+                        command.removedAuthorIds(),
+                        command.checkedAuthorIds()
+                )
+        );
+    }
+}
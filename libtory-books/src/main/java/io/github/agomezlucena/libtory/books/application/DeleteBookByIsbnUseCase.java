@@ -1,14 +1,14 @@
 package io.github.agomezlucena.libtory.books.application;
 
 import io.github.agomezlucena.libtory.books.domain.BookRepository;
-import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.books.domain.BookVersionMismatch;
 import io.github.agomezlucena.libtory.shared.cqrs.CommandHandler;
 import org.jspecify.annotations.NonNull;
 
 /// this class represent the use case of removing a book
 ///
 /// @author Alejandro Gómez Lucena
-public class DeleteBookByIsbnUseCase implements CommandHandler<Isbn> {
+public class DeleteBookByIsbnUseCase implements CommandHandler<DeleteBookCommand> {
     private final BookRepository bookRepository;
 
     public DeleteBookByIsbnUseCase(BookRepository bookRepository) {
@@ -17,9 +17,10 @@ public class DeleteBookByIsbnUseCase implements CommandHandler<Isbn> {
 
     /// will remove the book and the associations with another entities to that book in persistence
     ///
-    /// @param bookIsbn a well-formed isbn 13
+    /// @param command the well-formed isbn 13 of the book and the version it is expected to have, if any.
+    /// @throws BookVersionMismatch when an expected version is given and the book is not in that version.
     @Override
-    public void handleCommand(@NonNull Isbn bookIsbn) {
-        bookRepository.delete(bookIsbn);
+    public void handleCommand(@NonNull DeleteBookCommand command) {
+        bookRepository.delete(command.isbn(), command.expectedVersion());
     }
 }
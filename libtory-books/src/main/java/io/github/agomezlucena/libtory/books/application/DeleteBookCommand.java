@@ -0,0 +1,12 @@
+package io.github.agomezlucena.libtory.books.application;
+
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+
+/// asks to delete the book with the given isbn.
+///
+/// @param expectedVersion the version that the book must have to be deleted, null to delete it in any version.
+public record DeleteBookCommand(Isbn isbn, Long expectedVersion) {
+    public DeleteBookCommand(Isbn isbn) {
+        this(isbn, null);
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.agomezlucena.libtory.books.application;
+
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/// asks to import the books of a csv document into the catalog.
+///
+/// every record of the document has the isbn, the title and, optionally, the ids of the authors of a book
+/// separated by `;`, and the first record can be a header starting with `isbn`.
+///
+/// @param source           the document with the books to import.
+/// @param rejectedRows     where the records that can not be imported are written, with the reason of each one.
+/// @param progressListener is told the progress of the import every time a chunk of books is loaded.
+public record ImportBooksCommand(Path source, Path rejectedRows, Consumer<BookImportProgress> progressListener) {
+    public ImportBooksCommand {
+        Objects.requireNonNull(source, "source is required");
+        Objects.requireNonNull(rejectedRows, "rejected rows file is required");
+        Objects.requireNonNull(progressListener, "progress listener is required");
+    }
+
+    public ImportBooksCommand(Path source, Path rejectedRows) {
+        this(source, rejectedRows, progress -> {
+        });
+    }
+}
@@ -0,0 +1,231 @@
+package io.github.agomezlucena.libtory.books.application;
+
+import io.github.agomezlucena.libtory.books.domain.*;
+import io.github.agomezlucena.libtory.shared.cqrs.CommandHandler;
+import io.github.agomezlucena.libtory.shared.csv.CsvReader;
+import io.github.agomezlucena.libtory.shared.csv.CsvWriter;
+import org.jspecify.annotations.NonNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/// This use case allows you to import a whole catalog of books from a csv document
+///
+/// the document is read in chunks, so it can have any size. The records of every chunk are validated in parallel,
+/// the authors of the whole chunk are resolved at once, and then the chunk is loaded with a single call to the
+/// [BookCatalogLoader] while the next chunk is read and validated. The chunks are loaded one after the other in
+/// the order of the document, so when an isbn appears more than once its last record wins.
+///
+/// @author Alejandro Gómez Lucena
+/// @see ImportBooksCommand
+public class ImportBooksUseCase implements CommandHandler<ImportBooksCommand> {
+    // the length of the title column of the books.
+    static final int MAX_TITLE_LENGTH = 100;
+    private static final String AUTHOR_SEPARATOR = ";";
+    private static final String HEADER_FIRST_FIELD = "isbn";
+    private static final List<String> REJECTED_ROWS_HEADER = List.of("line", "reason", "isbn", "title", "authors");
+
+    private final BookCatalogLoader loader;
+    private final AuthorChecker checker;
+    private final Executor loadExecutor;
+    private final int chunkSize;
+
+    /// @param loadExecutor where the chunks are loaded, while the next one is read in the calling thread.
+    /// @param chunkSize    the amount of records loaded at once.
+    public ImportBooksUseCase(BookCatalogLoader loader, AuthorChecker checker, Executor loadExecutor, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size should be at least 1");
+        }
+        this.loader = loader;
+        this.checker = checker;
+        this.loadExecutor = loadExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    /// will import every valid record of the document and write the rest to the rejected rows file.
+    ///
+    /// a record is rejected when it has not two or three fields, its isbn is not a valid ISBN 13, its title is
+    /// blank or too long, or any of its authors is not a valid id or does not exist.
+    ///
+    /// @param command the document to import and where to write its rejected records.
+    /// @throws UncheckedIOException when the document can not be read or the rejected records can not be written.
+    @Override
+    public void handleCommand(@NonNull ImportBooksCommand command) {
+        try (
+                var reader = new CsvReader(Files.newBufferedReader(command.source(), StandardCharsets.UTF_8));
+                var rejectedRows = new CsvWriter(Files.newBufferedWriter(command.rejectedRows(), StandardCharsets.UTF_8))
+        ) {
+            rejectedRows.writeRecord(REJECTED_ROWS_HEADER);
+            new Import(reader, rejectedRows, command).run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /// the state of a single import, only used by the thread that handles the command.
+    private final class Import {
+        private final CsvReader reader;
+        private final CsvWriter rejectedRows;
+        private final ImportBooksCommand command;
+        private boolean firstRecord = true;
+        private long readRows;
+        private long loadedRows;
+        private long rejectedRowsCount;
+        private long createdBooks;
+        private CompletableFuture<Long> pendingLoad;
+        private int pendingLoadRows;
+
+        private Import(CsvReader reader, CsvWriter rejectedRows, ImportBooksCommand command) {
+            this.reader = reader;
+            this.rejectedRows = rejectedRows;
+            this.command = command;
+        }
+
+        void run() throws IOException {
+            for (var chunk = readChunk(); !chunk.isEmpty(); chunk = readChunk()) {
+                var rows = resolveAuthors(chunk.parallelStream().map(ImportBooksUseCase::validate).toList());
+                var books = new ArrayList<Book>(rows.size());
+                for (var row : rows) {
+                    if (row.isRejected()) {
+                        reject(row);
+                    } else {
+                        books.add(row.book());
+                    }
+                }
+                readRows += rows.size();
+
+                awaitPendingLoad();
+                if (!books.isEmpty()) {
+                    pendingLoad = CompletableFuture.supplyAsync(() -> loader.load(books), loadExecutor);
+                    pendingLoadRows = books.size();
+                }
+                reportProgress();
+            }
+            awaitPendingLoad();
+            rejectedRows.flush();
+            reportProgress();
+        }
+
+        private List<CsvRow> readChunk() throws IOException {
+            var chunk = new ArrayList<CsvRow>(chunkSize);
+            List<String> fields;
+            while (chunk.size() < chunkSize && (fields = reader.readRecord()) != null) {
+                var isHeader = firstRecord && HEADER_FIRST_FIELD.equalsIgnoreCase(fields.getFirst().trim());
+                firstRecord = false;
+                if (!isHeader) {
+                    chunk.add(new CsvRow(reader.getRecordLineNumber(), fields));
+                }
+            }
+            return chunk;
+        }
+
+        private void awaitPendingLoad() {
+            if (pendingLoad == null) return;
+            try {
+                createdBooks += pendingLoad.join();
+                loadedRows += pendingLoadRows;
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) throw cause;
+                throw e;
+            } finally {
+                pendingLoad = null;
+                pendingLoadRows = 0;
+            }
+        }
+
+        private void reject(ImportedRow row) throws IOException {
+            var record = new ArrayList<String>();
+            record.add(String.valueOf(row.source().line()));
+            record.add(row.rejection());
+            record.addAll(row.source().fields());
+            rejectedRows.writeRecord(record);
+            rejectedRowsCount++;
+        }
+
+        private void reportProgress() {
+            command.progressListener().accept(
+                    new BookImportProgress(readRows, loadedRows, rejectedRowsCount, createdBooks)
+            );
+        }
+    }
+
+    private static ImportedRow validate(CsvRow row) {
+        var fields = row.fields();
+        if (fields.size() < 2 || fields.size() > 3) {
+            return ImportedRow.rejected(row, "expected the isbn, the title and optionally the authors");
+        }
+
+        var title = fields.get(1);
+        if (title.codePointCount(0, title.length()) > MAX_TITLE_LENGTH) {
+            return ImportedRow.rejected(row, "the title is longer than " + MAX_TITLE_LENGTH + " characters");
+        }
+
+        try {
+            var authors = parseAuthors(fields.size() == 3 ? fields.get(2) : "");
+            return ImportedRow.accepted(row, new BookPrimitives(fields.getFirst().trim(), title, authors).toBook());
+        } catch (InvalidIsbn | InvalidTitle e) {
+            return ImportedRow.rejected(row, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ImportedRow.rejected(row, "invalid author id: " + e.getMessage());
+        }
+    }
+
+    private static Set<UUID> parseAuthors(String authors) {
+        var authorIds = new HashSet<UUID>();
+        for (var authorId : authors.split(AUTHOR_SEPARATOR)) {
+            if (!authorId.isBlank()) authorIds.add(UUID.fromString(authorId.trim()));
+        }
+        return authorIds;
+    }
+
+    /// the authors of every accepted row of the chunk are looked up at once, the rows with unknown authors are
+    /// rejected.
+    private List<ImportedRow> resolveAuthors(List<ImportedRow> rows) {
+        var authorIds = new HashSet<UUID>();
+        rows.stream().filter(it -> !it.isRejected()).forEach(it -> authorIds.addAll(it.book().getAuthorsIds()));
+        if (authorIds.isEmpty()) return rows;
+
+        var existingAuthors = checker.existingAuthors(authorIds);
+        if (existingAuthors.size() == authorIds.size()) return rows;
+
+        return rows.stream().map(row -> {
+            if (row.isRejected() || existingAuthors.containsAll(row.book().getAuthorsIds())) return row;
+
+            var unknownAuthors = row.book().getAuthorsIds().stream()
+                    .filter(it -> !existingAuthors.contains(it))
+                    .map(UUID::toString)
+                    .sorted()
+                    .collect(Collectors.joining(AUTHOR_SEPARATOR));
+            return ImportedRow.rejected(row.source(), "unknown authors: " + unknownAuthors);
+        }).toList();
+    }
+
+    private record CsvRow(long line, List<String> fields) {
+    }
+
+    /// a record of the document with either the book it describes or the reason why it was rejected.
+    private record ImportedRow(CsvRow source, Book book, String rejection) {
+        static ImportedRow accepted(CsvRow source, Book book) {
+            return new ImportedRow(source, book, null);
+        }
+
+        static ImportedRow rejected(CsvRow source, String rejection) {
+            return new ImportedRow(source, null, rejection);
+        }
+
+        boolean isRejected() {
+            return rejection != null;
+        }
+    }
+}
@@ -2,11 +2,16 @@ package io.github.agomezlucena.libtory.books.application;
 
 import io.github.agomezlucena.libtory.books.domain.BookProjection;
 import io.github.agomezlucena.libtory.books.domain.BookProjectionRepository;
-import io.github.agomezlucena.libtory.shared.cqrs.QueryHandler;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.shared.cqrs.BatchQueryHandler;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
-public class QueryBookByIsbnUseCase implements QueryHandler<BookProjectionIsbnQuery, Optional<BookProjection>> {
+public class QueryBookByIsbnUseCase
+        implements BatchQueryHandler<BookProjectionIsbnQuery, Isbn, Optional<BookProjection>> {
     private final BookProjectionRepository repository;
 
     public QueryBookByIsbnUseCase(BookProjectionRepository repository) {
@@ -17,4 +22,13 @@ public class QueryBookByIsbnUseCase implements QueryHandler<BookProjectionIsbnQu
     public Optional<BookProjection> handle(BookProjectionIsbnQuery query) {
         return repository.findProjectionByIsbn(query.getDiscriminatorValue());
     }
+
+    /// looks for all the given isbns with only one call to the repository.
+    @Override
+    public Map<Isbn, Optional<BookProjection>> handleAll(Set<Isbn> isbns) {
+        var foundProjections = repository.findProjectionsByIsbns(isbns);
+        var result = new HashMap<Isbn, Optional<BookProjection>>();
+        isbns.forEach(isbn -> result.put(isbn, Optional.ofNullable(foundProjections.get(isbn))));
+        return result;
+    }
 }
@@ -4,9 +4,13 @@ import io.github.agomezlucena.libtory.books.domain.Isbn;
 
 import java.util.UUID;
 
+/// asks to add or remove the given authors to or from a book.
+///
+/// @param expectedVersion the version that the book must have to be updated, null to update it in any version.
 public record UpdateAuthorsCommand(
         UpdateType updateType,
         String isbn,
+        Long expectedVersion,
         UUID... authorsIds
 ) {
     enum UpdateType {
@@ -14,6 +18,18 @@ public record UpdateAuthorsCommand(
         DELETION
     }
 
+    public UpdateAuthorsCommand(UpdateType updateType, String isbn, UUID... authorsIds) {
+        this(updateType, isbn, null, authorsIds);
+    }
+
+    public static UpdateAuthorsCommand addition(String isbn, Long expectedVersion, UUID... authorsIds) {
+        return new UpdateAuthorsCommand(UpdateType.ADDITION, isbn, expectedVersion, authorsIds);
+    }
+
+    public static UpdateAuthorsCommand deletion(String isbn, Long expectedVersion, UUID... authorsIds) {
+        return new UpdateAuthorsCommand(UpdateType.DELETION, isbn, expectedVersion, authorsIds);
+    }
+
     public UpdateAuthorsCommand {
         if (updateType == null)
             throw new InvalidUpdateAuthorCommand("is mandatory to provide an update type");
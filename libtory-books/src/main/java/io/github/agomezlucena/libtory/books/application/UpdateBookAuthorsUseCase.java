@@ -2,7 +2,9 @@ package io.github.agomezlucena.libtory.books.application;
 
 import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
 import io.github.agomezlucena.libtory.books.domain.AuthorUpdateCommand;
+import io.github.agomezlucena.libtory.books.domain.BookNotFound;
 import io.github.agomezlucena.libtory.books.domain.BookRepository;
+import io.github.agomezlucena.libtory.books.domain.BookVersionMismatch;
 import io.github.agomezlucena.libtory.shared.cqrs.CommandHandler;
 import org.jspecify.annotations.NonNull;
 
@@ -20,6 +22,8 @@ public class UpdateBookAuthorsUseCase implements CommandHandler<UpdateAuthorsCom
 
     /// will manage the given author update command and will modify the entity based on the information of the command
     /// @param command a command that indicates to add or delete the given authors from a book.
+    /// @throws BookVersionMismatch when the command expects a version and the book is not in that version.
+    /// @throws BookNotFound when the book does not exist and the command does not expect any version of it.
     /// @see AuthorUpdateCommand
     /// @see io.github.agomezlucena.libtory.books.domain.Book Book
     @Override
@@ -31,7 +35,15 @@ public class UpdateBookAuthorsUseCase implements CommandHandler<UpdateAuthorsCom
             case DELETION -> AuthorUpdateCommand.deleteAuthors(bookRepository, command.authorsIds());
         };
 
-        bookRepository.findByIsbn(command.getIsbn())
-                .ifPresent(book -> book.updateAuthors(authorUpdateCommand));
+        var book = bookRepository.findByIsbn(command.getIsbn());
+        if (book.isEmpty()) {
+            if (command.expectedVersion() != null) {
+                throw new BookVersionMismatch(command.isbn(), command.expectedVersion());
+            }
+            throw new BookNotFound();
+        }
+
+        book.get().checkVersion(command.expectedVersion());
+        book.get().updateAuthors(authorUpdateCommand);
     }
 }
@@ -1,13 +1,22 @@
 package io.github.agomezlucena.libtory.books.application;
 
 import io.github.agomezlucena.libtory.books.domain.*;
+import io.github.agomezlucena.libtory.shared.cqrs.BatchCommandHandler;
 import io.github.agomezlucena.libtory.shared.cqrs.CommandHandler;
 import org.jspecify.annotations.NonNull;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 /// This use case allows you to create or update an existing book
 /// @author Alejandro Gómez Lucena
 /// @see CommandHandler
-public class UpdateBookUseCase implements CommandHandler<BookPrimitives> {
+/// @see BatchCommandHandler
+public class UpdateBookUseCase implements CommandHandler<BookPrimitives>, BatchCommandHandler<BookPrimitives> {
     private final BookRepository repository;
     private final AuthorChecker checker;
 
@@ -18,7 +27,11 @@ public class UpdateBookUseCase implements CommandHandler<BookPrimitives> {
 
     /// will create or update an existing book with the information of the given book primitive object.
     ///
-    /// @param command this object contains the information of the book to create or update
+    /// an existing book is only written when the given information changes it, and then only what has changed.
+    ///
+    /// @param command this object contains the information of the book to create or update, and the version that
+    ///                the book is expected to have if any.
+    /// @throws BookVersionMismatch when the command expects a version and the book is not in that version.
     /// @throws InvalidAuthor when one of the present authors id not exists.
     /// @throws InvalidIsbn   when the given isbn is not a valid ISBN 13
     /// @throws InvalidTitle  when the given title is invalid
@@ -27,6 +40,74 @@ public class UpdateBookUseCase implements CommandHandler<BookPrimitives> {
     @Override
     public void handleCommand(@NonNull BookPrimitives command) {
         var createdBook = Book.createBook(command,checker);
-        repository.save(createdBook);
+        var book = repository.findByIsbn(Isbn.fromString(createdBook.getIsbn()))
+                .map(storedBook -> {
+                    storedBook.checkVersion(command.version());
+                    storedBook.replaceWith(createdBook);
+                    return storedBook;
+                })
+                .orElseGet(() -> {
+                    if (command.version() != null) throw new BookVersionMismatch(command.isbn(), command.version());
+                    return createdBook;
+                });
+
+        if (book.hasChanges()) {
+            repository.save(book);
+        }
+    }
+
+    /// will create or update the books of all the given commands together, so the books received at the same time
+    /// are written at once.
+    ///
+    /// the commands that expect a version are handled one by one as with [#handleCommand]. The rest replace the
+    /// whole stored book, if any, without reading it first, and when several of them have the same isbn the last
+    /// one wins. The failure of a command, e.g. because of an invalid isbn, title or author, does not prevent the
+    /// rest from being handled.
+    ///
+    /// @param commands the information of the books to create or update, in the order they were received.
+    /// @return the failures of the commands that could not be handled.
+    @Override
+    public Map<BookPrimitives, RuntimeException> handleAll(@NonNull List<BookPrimitives> commands) {
+        var failures = new IdentityHashMap<BookPrimitives, RuntimeException>();
+        var unversionedCommands = commands.stream().filter(it -> it.version() == null).toList();
+        // the authors of every command are checked at once, only when some of them do not exist are they checked
+        // again command by command to find out which ones.
+        AuthorChecker batchChecker = allAuthorsExist(unversionedCommands) ? authorIds -> true : checker;
+
+        var createdCommands = new ArrayList<BookPrimitives>();
+        var createdBooks = new ArrayList<Book>();
+        for (var command : commands) {
+            try {
+                if (command.version() != null) {
+                    handleCommand(command);
+                } else {
+                    createdBooks.add(Book.createBook(command, batchChecker));
+                    createdCommands.add(command);
+                }
+            } catch (RuntimeException e) {
+                failures.put(command, e);
+            }
+        }
+        if (createdBooks.isEmpty()) return failures;
+
+        try {
+            repository.saveAll(createdBooks);
+        } catch (RuntimeException e) {
+            // nothing has been written, every book is saved on its own so only the failing ones fail.
+            for (int i = 0; i < createdBooks.size(); i++) {
+                try {
+                    repository.save(createdBooks.get(i));
+                } catch (RuntimeException saveFailure) {
+                    failures.put(createdCommands.get(i), saveFailure);
+                }
+            }
+        }
+        return failures;
+    }
+
+    private boolean allAuthorsExist(List<BookPrimitives> commands) {
+        var authorIds = new HashSet<UUID>();
+        commands.stream().filter(it -> it.authors() != null).forEach(it -> authorIds.addAll(it.authors()));
+        return authorIds.isEmpty() || checker.authorsExists(authorIds.toArray(UUID[]::new));
     }
 }
@@ -1,7 +1,18 @@
 package io.github.agomezlucena.libtory.books.domain;
 
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 public interface AuthorChecker {
     boolean authorsExists(UUID... authorIds);
+
+    /// resolves many authors at once, the checkers able to look them all up together should override it.
+    ///
+    /// @return the given authors that exist.
+    default Set<UUID> existingAuthors(Set<UUID> authorIds) {
+        return authorIds.stream()
+                .filter(this::authorsExists)
+                .collect(Collectors.toUnmodifiableSet());
+    }
 }
@@ -1,5 +1,6 @@
 package io.github.agomezlucena.libtory.books.domain;
 
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -33,6 +34,52 @@ public sealed interface AuthorUpdateCommand {
         return new DeleteAuthor(repository, authorIds);
     }
 
+    /**
+     * Will create a command that will add and remove authors from the book at once, checking the existence of
+     * every added author together.
+     *
+     * @param authorChecker    will check that the added authors exists.
+     * @param repository       persistence representation that contains the book aggregates.
+     * @param addedAuthorIds   the authors to add to the book.
+     * @param removedAuthorIds the authors to remove from the book, an author both added and removed is added.
+     * @return an AuthorCommand that allows to add and remove authors.
+     */
+    static AuthorUpdateCommand changeAuthors(
+            AuthorChecker authorChecker,
+            BookRepository repository,
+            Set<UUID> addedAuthorIds,
+            Set<UUID> removedAuthorIds
+    ) {
+        return changeAuthors(authorChecker, repository, addedAuthorIds, removedAuthorIds, addedAuthorIds);
+    }
+
+    /**
+     * Will create a command that will add and remove authors from the book at once, checking the existence of
+     * every given author to check together, even the ones that are not added.
+     *
+     * @param authorChecker    will check that the checked authors exists.
+     * @param repository       persistence representation that contains the book aggregates.
+     * @param addedAuthorIds   the authors to add to the book.
+     * @param removedAuthorIds the authors to remove from the book, an author both added and removed is added.
+     * @param checkedAuthorIds the authors that should exist, the added authors are always checked.
+     * @return an AuthorCommand that allows to add and remove authors.
+     */
+    static AuthorUpdateCommand changeAuthors(
+            AuthorChecker authorChecker,
+            BookRepository repository,
+            Set<UUID> addedAuthorIds,
+            Set<UUID> removedAuthorIds,
+            Set<UUID> checkedAuthorIds
+    ) {
+        return new ChangeAuthors(
+                authorChecker,
+                repository,
+                Set.copyOf(addedAuthorIds),
+                Set.copyOf(removedAuthorIds),
+                Set.copyOf(checkedAuthorIds)
+        );
+    }
+
     record AddAuthors(AuthorChecker authorChecker, BookRepository repository, UUID... authorIds)
             implements AuthorUpdateCommand {
 
@@ -42,4 +89,14 @@ public sealed interface AuthorUpdateCommand {
             implements AuthorUpdateCommand {
 
     }
+
+    record ChangeAuthors(
+            AuthorChecker authorChecker,
+            BookRepository repository,
+            Set<UUID> addedAuthorIds,
+            Set<UUID> removedAuthorIds,
+            Set<UUID> checkedAuthorIds
+    ) implements AuthorUpdateCommand {
+
+    }
 }
@@ -4,16 +4,24 @@ import org.jspecify.annotations.NonNull;
 import org.jspecify.annotations.Nullable;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
- * This record represent a set of authors ids that have a book.
- * @param ids a set of author ids.
+ * This class represent a set of authors ids that have a book.
+ * <p>
+ * The ids are kept as a sorted array of pairs with the most and the least significant bits of every id,
+ * without duplicates, so the set operations are merges of sorted arrays and no object is created per id.
+ *
  * @author Alejandro Gómez Lucena.
  */
-record AuthorsId(Set<UUID> ids) {
-    private static final AuthorsId EMPTY_AUTHORS = new AuthorsId(Collections.emptySet());
+final class AuthorsId {
+    private static final long[] NO_IDS = new long[0];
+    private static final AuthorsId EMPTY_AUTHORS = new AuthorsId(NO_IDS);
+
+    private final long[] ids;
+
+    private AuthorsId(long[] ids) {
+        this.ids = ids;
+    }
 
     /**
      * create a new instance with the given authors ids.
@@ -21,12 +29,19 @@ record AuthorsId(Set<UUID> ids) {
      * @return an instance with the passed by parameters ids, in case that you pass a null or empty value
      * will return an empty shared instance.
      */
-    public static @NonNull AuthorsId from (@Nullable UUID... authorsId){
-        return Optional.ofNullable(authorsId)
-                .filter(it -> it.length > 0)
-                .map(Set::of)
-                .map(AuthorsId::new)
-                .orElse(EMPTY_AUTHORS);
+    public static @NonNull AuthorsId from(@Nullable UUID... authorsId) {
+        if (authorsId == null || authorsId.length == 0) return EMPTY_AUTHORS;
+        return new AuthorsId(toSortedIds(authorsId));
+    }
+
+    /**
+     * create a new instance with the given authors ids.
+     * @param authorsId authors id
+     * @return an instance with the given ids, or the empty shared instance when there is none.
+     */
+    public static @NonNull AuthorsId from(@Nullable Collection<UUID> authorsId) {
+        if (authorsId == null) return EMPTY_AUTHORS;
+        return from(authorsId.toArray(UUID[]::new));
     }
 
     /**
@@ -35,18 +50,14 @@ record AuthorsId(Set<UUID> ids) {
      * @return <p>if ids is not null and is not empty return the expected value.</p>
      * <p>if ids are null or empty return the called object.</p>
      * <p>if called object is empty return a new AuthorId with the input</p>
-     * <p>if both are empty will return the empty shared instance</p>
+     * <p>if every id was already hold by the called object return the called object.</p>
      */
-    public @NonNull AuthorsId addAuthors(@Nullable UUID... ids){
-        if(ids == null || ids.length == 0) return this;
-        if(this.ids.isEmpty()) return from(ids);
+    public @NonNull AuthorsId addAuthors(@Nullable UUID... ids) {
+        if (ids == null || ids.length == 0) return this;
+        if (this.ids.length == 0) return from(ids);
 
-        return new AuthorsId(
-                Stream.concat(
-                    this.ids.stream(),
-                    Arrays.stream(ids)
-                ).collect(Collectors.toUnmodifiableSet())
-        );
+        var union = union(this.ids, toSortedIds(ids));
+        return union.length == this.ids.length ? this : new AuthorsId(union);
     }
 
     /**
@@ -55,23 +66,177 @@ record AuthorsId(Set<UUID> ids) {
      * @return will return a set without the passed ids.
      * <p>if called object has not id hold will return themself.</p>
      * <p>if ids are null or empty will return the called object.</p>
-     * <p>if ids are the same that holds the called object will return the shared empty instance.</p>
+     * <p>if none of the ids is hold by the called object will return the called object.</p>
+     * <p>if every id hold by the called object is removed will return the shared empty instance.</p>
+     */
+    public @NonNull AuthorsId remove(@Nullable UUID... ids) {
+        if (this.ids.length == 0 || ids == null || ids.length == 0) return this;
+        return without(new AuthorsId(toSortedIds(ids)));
+    }
+
+    /**
+     * @param other the ids to leave out.
+     * @return the ids held by this object that are not held by the given one, this object when there is none
+     * of them in common and the shared empty instance when every id is in common.
      */
-    public @NonNull AuthorsId remove(@Nullable UUID... ids){
-        if(this.ids.isEmpty() || ids == null || ids.length == 0) return this;
+    @NonNull AuthorsId without(@NonNull AuthorsId other) {
+        if (this.ids.length == 0 || other.ids.length == 0) return this;
+
+        var difference = difference(this.ids, other.ids);
+        if (difference.length == this.ids.length) return this;
+        return difference.length == 0 ? EMPTY_AUTHORS : new AuthorsId(difference);
+    }
 
-        var authorsToRemove = Set.of(ids);
-        if(this.ids.equals(authorsToRemove)) return EMPTY_AUTHORS;
+    public boolean contains(@Nullable UUID id) {
+        return id != null && indexOf(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0;
+    }
 
+    public int size() {
+        return ids.length / 2;
+    }
 
-        return new AuthorsId(
-                this.ids.stream()
-                        .filter(id -> !authorsToRemove.contains(id))
-                        .collect(Collectors.toSet())
-        );
+    public boolean isEmpty() {
+        return ids.length == 0;
     }
 
-    public boolean isEmpty(){
-        return ids.isEmpty();
+    /**
+     * @return an unmodifiable view of the ids as a set, which creates the ids while it is iterated.
+     */
+    public @NonNull Set<UUID> ids() {
+        return new IdsView();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof AuthorsId other)) return false;
+        return Arrays.equals(ids, other.ids);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(ids);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthorsId[ids=" + ids() + "]";
+    }
+
+    private static long[] toSortedIds(UUID[] authorsId) {
+        var sortedAuthors = authorsId.clone();
+        for (var author : sortedAuthors) {
+            Objects.requireNonNull(author, "author ids can not be null");
+        }
+        Arrays.sort(sortedAuthors);
+
+        var ids = new long[sortedAuthors.length * 2];
+        var length = 0;
+        for (var author : sortedAuthors) {
+            var mostSignificantBits = author.getMostSignificantBits();
+            var leastSignificantBits = author.getLeastSignificantBits();
+            if (length > 0 && ids[length - 2] == mostSignificantBits && ids[length - 1] == leastSignificantBits) {
+                continue;
+            }
+            ids[length++] = mostSignificantBits;
+            ids[length++] = leastSignificantBits;
+        }
+        return length == ids.length ? ids : Arrays.copyOf(ids, length);
+    }
+
+    private static long[] union(long[] left, long[] right) {
+        var result = new long[left.length + right.length];
+        int i = 0, j = 0, length = 0;
+        while (i < left.length && j < right.length) {
+            var comparison = compare(left, i, right, j);
+            if (comparison <= 0) {
+                result[length++] = left[i];
+                result[length++] = left[i + 1];
+                i += 2;
+                if (comparison == 0) j += 2;
+            } else {
+                result[length++] = right[j];
+                result[length++] = right[j + 1];
+                j += 2;
+            }
+        }
+        System.arraycopy(left, i, result, length, left.length - i);
+        length += left.length - i;
+        System.arraycopy(right, j, result, length, right.length - j);
+        length += right.length - j;
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    private static long[] difference(long[] left, long[] right) {
+        var result = new long[left.length];
+        int i = 0, j = 0, length = 0;
+        while (i < left.length) {
+            var comparison = j < right.length ? compare(left, i, right, j) : -1;
+            if (comparison < 0) {
+                result[length++] = left[i];
+                result[length++] = left[i + 1];
+                i += 2;
+            } else {
+                if (comparison == 0) i += 2;
+                j += 2;
+            }
+        }
+        return length == result.length ? result : Arrays.copyOf(result, length);
+    }
+
+    // same order as UUID#compareTo, so the ids can be sorted as uuids before being split in pairs.
+    private static int compare(long[] left, int leftIndex, long[] right, int rightIndex) {
+        var comparison = Long.compare(left[leftIndex], right[rightIndex]);
+        return comparison != 0 ? comparison : Long.compare(left[leftIndex + 1], right[rightIndex + 1]);
+    }
+
+    private int indexOf(long mostSignificantBits, long leastSignificantBits) {
+        int low = 0, high = size() - 1;
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var comparison = Long.compare(ids[middle * 2], mostSignificantBits);
+            if (comparison == 0) comparison = Long.compare(ids[middle * 2 + 1], leastSignificantBits);
+
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private final class IdsView extends AbstractSet<UUID> {
+        @Override
+        public int size() {
+            return AuthorsId.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof UUID id && AuthorsId.this.contains(id);
+        }
+
+        @Override
+        public Iterator<UUID> iterator() {
+            return new Iterator<>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < ids.length;
+                }
+
+                @Override
+                public UUID next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    var id = new UUID(ids[next], ids[next + 1]);
+                    next += 2;
+                    return id;
+                }
+            };
+        }
     }
 }
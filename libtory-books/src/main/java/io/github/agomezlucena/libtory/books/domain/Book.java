@@ -2,11 +2,13 @@ package io.github.agomezlucena.libtory.books.domain;
 
 import org.jspecify.annotations.NonNull;
 
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
 import static io.github.agomezlucena.libtory.books.domain.AuthorUpdateCommand.AddAuthors;
+import static io.github.agomezlucena.libtory.books.domain.AuthorUpdateCommand.ChangeAuthors;
 import static io.github.agomezlucena.libtory.books.domain.AuthorUpdateCommand.DeleteAuthor;
 
 /**
@@ -17,8 +19,12 @@ import static io.github.agomezlucena.libtory.books.domain.AuthorUpdateCommand.De
  */
 public class Book {
     private final Isbn isbn;
-    private final Title title;
+    private Title title;
     private AuthorsId authorsId;
+    // the state of the book in its repository, null until the book has been read from or written to it
+    private Title storedTitle;
+    private AuthorsId storedAuthorsId;
+    private long version;
 
     /**
      * create a book from inputs ports with the information of the given primitives, and will check
@@ -45,6 +51,15 @@ public class Book {
         this.authorsId = authorsId;
     }
 
+    /**
+     * create a book with the state and the version that it has in its repository, so it has no changes to write.
+     */
+    static Book stored(Isbn isbn, Title title, AuthorsId authorsId, long version) {
+        var book = new Book(isbn, title, authorsId);
+        book.changesWritten(version);
+        return book;
+    }
+
     public @NonNull String getIsbn() {
         return isbn.isbnLiteral();
     }
@@ -62,6 +77,27 @@ public class Book {
         return authorsId.ids();
     }
 
+    /**
+     * will return the version of the book in its repository, which changes on every write of the book.
+     *
+     * @return the version that the book had when it was read from or written to its repository, 0 until then.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * will check that the book is in the version that a writer expects.
+     *
+     * @param expectedVersion the version that the writer expects, null when it does not expect any.
+     * @throws BookVersionMismatch if the book is not in the expected version.
+     */
+    public void checkVersion(Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != version) {
+            throw new BookVersionMismatch(getIsbn(), expectedVersion);
+        }
+    }
+
     /**
      * will return if the book has authors
      *
@@ -71,10 +107,62 @@ public class Book {
         return !authorsId.isEmpty();
     }
 
+    /**
+     * will return what has changed in the book since it was read from or written to its repository.
+     *
+     * @return the changes of the book, a book that was not read from its repository has its whole state as changes.
+     */
+    public @NonNull BookChanges getChanges() {
+        if (storedTitle == null) {
+            return new BookChanges(true, true, authorsId.ids(), Set.of());
+        }
+        return new BookChanges(
+                false,
+                !title.equals(storedTitle),
+                authorsId.without(storedAuthorsId).ids(),
+                storedAuthorsId.without(authorsId).ids()
+        );
+    }
+
+    /**
+     * will return if the book has changes to write.
+     *
+     * @return true when the book was not read from its repository or it has been modified since then.
+     */
+    public boolean hasChanges() {
+        return storedTitle == null || !title.equals(storedTitle) || !authorsId.equals(storedAuthorsId);
+    }
+
+    /**
+     * marks the current state of the book as the one in its repository, should be called by the repositories
+     * once they have written the changes of the book.
+     *
+     * @param version the version of the book after writing its changes.
+     */
+    public void changesWritten(long version) {
+        this.storedTitle = title;
+        this.storedAuthorsId = authorsId;
+        this.version = version;
+    }
+
+    /**
+     * replaces the title and the authors of the book with the ones of the given book, which should already be
+     * validated, e.g. because it was created with {@link #createBook(BookPrimitives, AuthorChecker)}.
+     *
+     * @param book a book with the same isbn that this one.
+     * @throws InvalidIsbn if the given book has a different isbn.
+     */
+    public void replaceWith(@NonNull Book book) {
+        if (!isbn.equals(book.isbn)) throw new InvalidIsbn(book.getIsbn());
+
+        this.title = book.title;
+        this.authorsId = book.authorsId;
+    }
+
     /**
      * update authors adding or deleting the given authors based in the command past by parameter.
      *
-     * @param command and adding author command or deleting author command.
+     * @param command and adding author command, deleting author command or changing authors command.
      * @throws InvalidAuthor if you try to add a not registered author in our systems.
      * @see AuthorUpdateCommand
      */
@@ -82,6 +170,8 @@ public class Book {
         switch (command) {
             case AddAuthors(var checker, var repo, var ids) -> addAuthors(repo, checker, ids);
             case DeleteAuthor(var repo, var ids) -> deleteAuthors(repo, ids);
+            case ChangeAuthors(var checker, var repo, var added, var removed, var checked) ->
+                    changeAuthors(repo, checker, added, removed, checked);
         }
     }
 
@@ -92,7 +182,7 @@ public class Book {
 
         if(currentAuthors.equals(newAuthors)) return;
 
-        this.authorsId = this.authorsId.addAuthors(authorIds);
+        this.authorsId = newAuthors;
         repository.save(this);
     }
 
@@ -107,6 +197,27 @@ public class Book {
         repository.save(this);
     }
 
+    private void changeAuthors(
+            BookRepository repository,
+            AuthorChecker checker,
+            Set<UUID> addedAuthorIds,
+            Set<UUID> removedAuthorIds,
+            Set<UUID> checkedAuthorIds
+    ) {
+        var addedIds = addedAuthorIds.toArray(UUID[]::new);
+        var checkedIds = new HashSet<>(checkedAuthorIds);
+        checkedIds.addAll(addedAuthorIds);
+        if (!checkedIds.isEmpty() && !checker.authorsExists(checkedIds.toArray(UUID[]::new))) throw new InvalidAuthor();
+        var currentAuthors = this.authorsId;
+        var newAuthors = currentAuthors.remove(removedAuthorIds.toArray(UUID[]::new)).addAuthors(addedIds);
+        if (currentAuthors.equals(newAuthors)) {
+            return;
+        }
+
+        this.authorsId = newAuthors;
+        repository.save(this);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,13 @@
+package io.github.agomezlucena.libtory.books.domain;
+
+import java.util.List;
+
+/// loads many books at once into the catalog, e.g. when a whole catalog is imported.
+public interface BookCatalogLoader {
+    /// stores every given book, replacing the stored book with the same isbn, if any. When the same isbn is given
+    /// more than once the last of its books wins.
+    ///
+    /// @param books books already validated, with authors that exist.
+    /// @return the amount of books that were not stored before.
+    long load(List<Book> books);
+}
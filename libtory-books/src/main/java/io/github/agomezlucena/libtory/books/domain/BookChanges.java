@@ -0,0 +1,29 @@
+package io.github.agomezlucena.libtory.books.domain;
+
+import org.jspecify.annotations.NonNull;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The changes made to a book since it was read from or written to its repository, so only them are written.
+ *
+ * @param isNewBook      true when the book was not read from its repository, so its whole state must be written.
+ * @param isTitleChanged true when the title of the book has been changed.
+ * @param addedAuthors   the authors that have been added to the book.
+ * @param removedAuthors the authors that have been removed from the book.
+ * @author Alejandro Gómez Lucena.
+ */
+public record BookChanges(
+        boolean isNewBook,
+        boolean isTitleChanged,
+        @NonNull Set<UUID> addedAuthors,
+        @NonNull Set<UUID> removedAuthors
+) {
+    /**
+     * @return true if there is anything to write.
+     */
+    public boolean hasChanges() {
+        return isNewBook || isTitleChanged || !addedAuthors.isEmpty() || !removedAuthors.isEmpty();
+    }
+}
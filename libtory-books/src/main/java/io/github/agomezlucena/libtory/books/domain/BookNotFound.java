@@ -0,0 +1,10 @@
+package io.github.agomezlucena.libtory.books.domain;
+
+/**
+ * thrown when the writer changes a book that does not exist without expecting any version of it.
+ */
+public class BookNotFound extends RuntimeException {
+    public BookNotFound() {
+        super("the given isbn is not associated to any book in our library.");
+    }
+}
@@ -8,17 +8,30 @@ import java.util.stream.Stream;
 
 /// This object represent the literals of a book
 ///
+/// the version is the one that the book has in its repository when it is read from it, and the one that the book
+/// is expected to have when it is used to update the book; it is null when it is not known or not expected.
+///
 /// @author Alejandro Gómez Lucena
 public record BookPrimitives(
         String isbn,
         String title,
-        Set<UUID> authors
+        Set<UUID> authors,
+        Long version
 ) {
 
+    public BookPrimitives(String isbn, String title, Set<UUID> authors) {
+        this(isbn, title, authors, null);
+    }
+
     public BookPrimitives(String isbn, String title, UUID... authors) {
         this(isbn, title, Stream.of(authors).collect(Collectors.toCollection(HashSet::new)));
     }
 
+    /// will create a copy of these primitives with the given version.
+    public BookPrimitives withVersion(Long version) {
+        return new BookPrimitives(isbn, title, authors, version);
+    }
+
     /// allows you to add an author
     public void addAuthor(UUID author) {
         if (author == null || authors.contains(author)) return;
@@ -35,7 +48,18 @@ public record BookPrimitives(
         return new Book(
                 Isbn.fromString(isbn),
                 Title.fromText(title),
-                new AuthorsId(authors)
+                AuthorsId.from(authors)
+        );
+    }
+
+    /// will create a book with the information retained as it is stored in its repository, so it does not have
+    /// changes to write.
+    public Book toStoredBook() {
+        return Book.stored(
+                Isbn.fromString(isbn),
+                Title.fromText(title),
+                AuthorsId.from(authors),
+                version == null ? 0 : version
         );
     }
 }
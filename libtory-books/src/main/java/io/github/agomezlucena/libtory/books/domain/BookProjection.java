@@ -3,12 +3,22 @@ package io.github.agomezlucena.libtory.books.domain;
 import java.util.ArrayList;
 import java.util.List;
 
+/// @param version the version of the book when it was read, see [Book#getVersion()].
 public record BookProjection(
         String isbn,
         String title,
-        List<Author> authors
+        List<Author> authors,
+        long version
 ){
+    public BookProjection(String isbn, String title, List<Author> authors) {
+        this(isbn, title, authors, 0);
+    }
+
+    public BookProjection(String isbn, String title, long version) {
+        this(isbn, title, new ArrayList<>(), version);
+    }
+
     public BookProjection(String isbn, String title) {
-        this(isbn, title, new ArrayList<>());
+        this(isbn, title, 0);
     }
 }
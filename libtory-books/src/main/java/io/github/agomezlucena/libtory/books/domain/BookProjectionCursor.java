@@ -0,0 +1,70 @@
+package io.github.agomezlucena.libtory.books.domain;
+
+import io.github.agomezlucena.libtory.shared.cqrs.InvalidQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/// Position of the last book returned by a keyset paginated query.
+///
+/// It is exposed to the clients as an opaque token, so the next page can be obtained seeking directly after
+/// the pair `(sortKey, isbn)` instead of skipping all the previous rows; the isbn acts as tie-breaker so the
+/// position is stable even when several books share the same sort key.
+///
+/// there are no cursors for the pages sorted by author name: the author name of a book is computed from its
+/// authors for every book, so there is no index to seek after it and a cursor would not make a page cheaper.
+///
+/// @param sortingField     the field used to sort the page that produced this cursor.
+/// @param sortingDirection the direction used to sort the page that produced this cursor.
+/// @param sortKey          the value of the sorting field for the last book of the page.
+/// @param isbn             the isbn of the last book of the page.
+public record BookProjectionCursor(
+        String sortingField,
+        String sortingDirection,
+        String sortKey,
+        String isbn
+) {
+    private static final String VERSION = "v1";
+    // postgres text values can not contain the NUL character, so it is safe to use it as separator.
+    private static final String SEPARATOR = "\u0000";
+    private static final int AMOUNT_OF_PARTS = 5;
+    private static final String MALFORMED_CURSOR = "invalid paginated query the given cursor is malformed";
+    private static final String UNSUPPORTED_SORTING_FIELD = "author_name";
+
+    public BookProjectionCursor {
+        Objects.requireNonNull(sortingField, "sorting field is required");
+        Objects.requireNonNull(sortingDirection, "sorting direction is required");
+        Objects.requireNonNull(sortKey, "sort key is required");
+        Objects.requireNonNull(isbn, "isbn is required");
+    }
+
+    public static BookProjectionCursor decode(String token) {
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            var parts = decoded.split(SEPARATOR, AMOUNT_OF_PARTS);
+            if (parts.length != AMOUNT_OF_PARTS || !VERSION.equals(parts[0])) {
+                throw new InvalidQuery(MALFORMED_CURSOR);
+            }
+            return new BookProjectionCursor(parts[1], parts[2], parts[4], parts[3]);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQuery(MALFORMED_CURSOR);
+        }
+    }
+
+    public String encode() {
+        var raw = String.join(SEPARATOR, VERSION, sortingField, sortingDirection, isbn, sortKey);
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /// @return true when the pages sorted by the given field can be continued with a cursor.
+    public static boolean supports(String sortingField) {
+        return !UNSUPPORTED_SORTING_FIELD.equals(sortingField);
+    }
+
+    public boolean isCompatibleWith(String sortingField, String sortingDirection) {
+        return this.sortingField.equals(sortingField) && this.sortingDirection.equals(sortingDirection);
+    }
+}
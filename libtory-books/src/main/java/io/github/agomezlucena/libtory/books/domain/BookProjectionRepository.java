@@ -3,9 +3,14 @@ package io.github.agomezlucena.libtory.books.domain;
 import io.github.agomezlucena.libtory.shared.cqrs.PagedQuery;
 import io.github.agomezlucena.libtory.shared.cqrs.PaginatedResult;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 public interface BookProjectionRepository {
     PaginatedResult<BookProjection> findAllProjections(PagedQuery<BookProjection> query);
     Optional<BookProjection> findProjectionByIsbn(Isbn isbn);
+
+    /// @return the projections of the books that exist for the given isbns, the isbns without book are omitted.
+    Map<Isbn, BookProjection> findProjectionsByIsbns(Set<Isbn> isbns);
 }
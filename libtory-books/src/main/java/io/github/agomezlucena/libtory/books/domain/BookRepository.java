@@ -1,9 +1,31 @@
 package io.github.agomezlucena.libtory.books.domain;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface BookRepository {
     Optional<Book> findByIsbn(Isbn isbn);
-    void delete(Isbn isbn);
+
+    /// deletes the book only when it is in the expected version.
+    ///
+    /// @param expectedVersion the version that the book is expected to have, null to delete it in any version.
+    /// @throws BookVersionMismatch when an expected version is given and the book is not in that version.
+    void delete(Isbn isbn, Long expectedVersion);
+
     void save(Book book);
+
+    /// saves every given book, the repositories able to write several books at once should override it.
+    ///
+    /// the books that were not read from the repository replace the stored ones with the same isbn, if any.
+    ///
+    /// @return the books that have been written, the ones that were already stored as given are left as they were.
+    default List<Book> saveAll(List<Book> books) {
+        var writtenBooks = books.stream().filter(Book::hasChanges).toList();
+        writtenBooks.forEach(this::save);
+        return writtenBooks;
+    }
+
+    default void delete(Isbn isbn) {
+        delete(isbn, null);
+    }
 }
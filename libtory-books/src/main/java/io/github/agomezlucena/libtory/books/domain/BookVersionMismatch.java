@@ -0,0 +1,18 @@
+package io.github.agomezlucena.libtory.books.domain;
+
+/**
+ * thrown when a book has not the version that the writer expected, because it has been written since the
+ * writer read it or because it does not exist.
+ */
+public class BookVersionMismatch extends RuntimeException {
+    public BookVersionMismatch(final String isbn, final long expectedVersion) {
+        super(String.format("the book with ISBN: %s is not in the expected version %d", isbn, expectedVersion));
+    }
+
+    /**
+     * @param etag an entity tag given by the writer that is not the tag of any version of a book.
+     */
+    public BookVersionMismatch(final String isbn, final String etag) {
+        super(String.format("the book with ISBN: %s has no version with the entity tag %s", isbn, etag));
+    }
+}
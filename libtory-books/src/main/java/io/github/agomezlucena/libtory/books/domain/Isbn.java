@@ -1,39 +1,47 @@
 package io.github.agomezlucena.libtory.books.domain;
 
-import java.util.regex.Pattern;
-import java.util.Objects;
+import java.nio.charset.StandardCharsets;
 
 /**
  * An ISBN is a string of digits or digits and hyphens than identifies a book.
+ * <p>
+ * The 13 digits are kept as a number, as an ISBN is created on every request and every command and
+ * compared or hashed on every cache lookup.
  *
  * @author Alejandro Gómez Lucena.
  */
 public class Isbn {
-    private final String isbnLiteral;
-    private static final Pattern PATTERN_FOR_CHECKING_INVALID_CHARACTERS = Pattern.compile(
-            ".*[a-zA-Z!@#$%^&*()_+=\\[\\]{};':\"\\\\|,.<>\\/?].*"
-    );
+    private static final int ISBN_LENGTH = 13;
+    private static final long INVALID_ISBN = -1L;
 
-    private Isbn (String isbnLiteral) {
-        if (!isValidISBN(isbnLiteral)) {
-            throw new InvalidIsbn(isbnLiteral);
-        }
-        this.isbnLiteral = isbnLiteral.replace("-","");
+    private final long digits;
+
+    private Isbn(long digits) {
+        this.digits = digits;
     }
 
-    public String isbnLiteral(){
-        return isbnLiteral;
+    /**
+     * @return the 13 digits of the ISBN without hyphens.
+     */
+    public String isbnLiteral() {
+        var literal = new byte[ISBN_LENGTH];
+        var remainingDigits = digits;
+        for (int i = ISBN_LENGTH - 1; i >= 0; i--) {
+            literal[i] = (byte) ('0' + remainingDigits % 10);
+            remainingDigits /= 10;
+        }
+        return new String(literal, StandardCharsets.US_ASCII);
     }
 
     @Override
     public boolean equals(Object obj) {
-        if(!(obj instanceof Isbn other)) return false;
-        return Objects.equals(isbnLiteral, other.isbnLiteral);
+        if (!(obj instanceof Isbn other)) return false;
+        return digits == other.digits;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(isbnLiteral);
+        return Long.hashCode(digits);
     }
 
     /**
@@ -44,9 +52,7 @@ public class Isbn {
      * @return true if is a not null string with the shape of an ISBN 13 and has a valid checksum digit.
      */
     public static boolean isValidISBN(String isbn) {
-        if (isbn == null || isbn.isBlank()) return false;
-        if (PATTERN_FOR_CHECKING_INVALID_CHARACTERS.matcher(isbn).matches()) return false;
-        return hasValidChecksumDigit(isbn);
+        return parseDigits(isbn) != INVALID_ISBN;
     }
 
     /**
@@ -57,27 +63,39 @@ public class Isbn {
      * @throws InvalidIsbn if the passed isbn is invalid
      */
     public static Isbn fromString(String isbn) {
-        return new Isbn(isbn);
+        var digits = parseDigits(isbn);
+        if (digits == INVALID_ISBN) {
+            throw new InvalidIsbn(isbn);
+        }
+        return new Isbn(digits);
     }
 
-    private static boolean hasValidChecksumDigit(String isbn) {
-        long isbnCheckSumNumber = Integer.parseInt(isbn.substring(isbn.length() - 1));
-        //obtain all digits from the isbn except the last
-        long isbnAsLong = Long.parseLong(String.join("", isbn.split("-"))) / 10;
+    /**
+     * validates the shape and the checksum of the given isbn in a single pass, without allocating.
+     * <p>
+     * An ISBN 13 is valid when the sum of its digits weighted alternately by 1 and 3, including the
+     * checksum digit, is a multiple of 10. The hyphens are ignored, but the isbn must end with its checksum digit.
+     *
+     * @return the 13 digits as a number, or {@link #INVALID_ISBN} when the isbn is not valid.
+     */
+    private static long parseDigits(String isbn) {
+        if (isbn == null || isbn.isEmpty() || isbn.charAt(isbn.length() - 1) == '-') return INVALID_ISBN;
 
-        boolean mustMultiplyByThree = true;
-        long acc = 0;
+        long digits = 0;
+        int amountOfDigits = 0;
+        int weightedSum = 0;
+        for (int i = 0; i < isbn.length(); i++) {
+            var character = isbn.charAt(i);
+            if (character == '-') continue;
+            if (character < '0' || character > '9' || amountOfDigits == ISBN_LENGTH) return INVALID_ISBN;
 
-        //going backwards through the ISBN to apply the weighted sum
-        while (isbnAsLong != 0) {
-            acc += (isbnAsLong % 10) * ((mustMultiplyByThree) ? 3 : 1);
-            isbnAsLong /= 10;
-            mustMultiplyByThree = !mustMultiplyByThree;
+            var digit = character - '0';
+            digits = digits * 10 + digit;
+            weightedSum += (amountOfDigits & 1) == 0 ? digit : digit * 3;
+            amountOfDigits++;
         }
 
-        acc %= 10;
-        return ((acc == 0) ? 0L : 10 - acc) == isbnCheckSumNumber;
+        if (amountOfDigits != ISBN_LENGTH || weightedSum % 10 != 0) return INVALID_ISBN;
+        return digits;
     }
-
-
 }
@@ -0,0 +1,117 @@
+package io.github.agomezlucena.libtory.books.infrastructure.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.agomezlucena.libtory.books.domain.Author;
+import io.github.agomezlucena.libtory.books.domain.BookProjection;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/// bounded cache of book projections by isbn.
+///
+/// the cache is bounded by the approximated size of the projections instead of by the amount of them, so a
+/// few books with many authors can not use all the memory. When it is full the admission of a new book is
+/// decided by how frequently it has been requested compared with the victim (W-TinyLFU), so a scan of rarely
+/// read books does not evict the popular ones.
+///
+/// the absence of a book is also cached, every write of a book invalidates its isbn. A load that was running
+/// when its isbn was invalidated may have read the book before the write, so its result is returned to its
+/// callers but not cached.
+public class BookProjectionCache {
+    private static final int ISBN_WEIGHT = 13;
+    private static final int AUTHOR_ID_WEIGHT = 36;
+
+    private final Cache<Isbn, Optional<BookProjection>> cache;
+    // the bulk loads running for every isbn, an invalidation removes the load of its isbn so it is not cached.
+    private final Map<Isbn, Object> loadsInFlight = new ConcurrentHashMap<>();
+
+    public BookProjectionCache(BookProjectionCacheSettings settings) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(settings.maximumWeight())
+                .weigher((Isbn isbn, Optional<BookProjection> projection) -> weigh(projection))
+                .expireAfterWrite(settings.timeToLive())
+                .recordStats()
+                .build();
+    }
+
+    /// the isbn is loaded while holding its entry, so an invalidation of it waits until the load is cached.
+    public Optional<BookProjection> get(Isbn isbn, Function<Isbn, Optional<BookProjection>> loader) {
+        return cache.get(isbn, loader);
+    }
+
+    /// @param loader obtains the projections of the isbns that are not cached, it must return a value for each
+    ///               of them.
+    public Map<Isbn, Optional<BookProjection>> getAll(
+            Set<Isbn> isbns,
+            Function<Set<Isbn>, Map<Isbn, Optional<BookProjection>>> loader
+    ) {
+        var result = new HashMap<>(cache.getAllPresent(isbns));
+        if (result.size() == isbns.size()) return result;
+
+        var missingIsbns = isbns.stream()
+                .filter(it -> !result.containsKey(it))
+                .collect(Collectors.toUnmodifiableSet());
+        var load = new Object();
+        missingIsbns.forEach(isbn -> loadsInFlight.put(isbn, load));
+        try {
+            loader.apply(missingIsbns).forEach((isbn, projection) -> {
+                result.put(isbn, projection);
+                // checked and stored atomically with the invalidations of the isbn.
+                cache.asMap().compute(isbn, (key, cached) -> loadsInFlight.remove(key, load) ? projection : cached);
+            });
+        } finally {
+            missingIsbns.forEach(isbn -> loadsInFlight.remove(isbn, load));
+        }
+        return result;
+    }
+
+    public void invalidate(Isbn isbn) {
+        cache.asMap().compute(isbn, (key, cached) -> {
+            loadsInFlight.remove(key);
+            return null;
+        });
+    }
+
+    public void invalidateAll() {
+        loadsInFlight.clear();
+        cache.invalidateAll();
+    }
+
+    public BookProjectionCacheStatistics statistics() {
+        var stats = cache.stats();
+        var weightedSize = cache.policy()
+                .eviction()
+                .map(it -> it.weightedSize().orElse(0L))
+                .orElse(0L);
+        return new BookProjectionCacheStatistics(
+                stats.hitCount(),
+                stats.missCount(),
+                stats.evictionCount(),
+                stats.evictionWeight(),
+                cache.estimatedSize(),
+                weightedSize
+        );
+    }
+
+    /// runs the pending maintenance, like evictions, that otherwise is done asynchronously.
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private static int weigh(Optional<BookProjection> projection) {
+        return ISBN_WEIGHT + projection
+                .map(it -> it.title().length() + it.authors().stream().mapToInt(BookProjectionCache::weigh).sum())
+                .orElse(0);
+    }
+
+    private static int weigh(Author author) {
+        return AUTHOR_ID_WEIGHT + Optional.ofNullable(author.name()).map(String::length).orElse(0);
+    }
+}
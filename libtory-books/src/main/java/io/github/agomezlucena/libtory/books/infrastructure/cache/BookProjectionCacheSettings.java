@@ -0,0 +1,18 @@
+package io.github.agomezlucena.libtory.books.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/// @param timeToLive    maximum time that a projection will be served from the cache since it was loaded.
+/// @param maximumWeight maximum amount of characters that all the cached projections can hold together.
+public record BookProjectionCacheSettings(Duration timeToLive, long maximumWeight) {
+    public BookProjectionCacheSettings {
+        Objects.requireNonNull(timeToLive, "time to live is required");
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("time to live should be positive");
+        }
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("maximum weight should be at least 1");
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.github.agomezlucena.libtory.books.infrastructure.cache;
+
+/// snapshot of the usage of the [BookProjectionCache] since it was created.
+public record BookProjectionCacheStatistics(
+        long hitCount,
+        long missCount,
+        long evictionCount,
+        long evictionWeight,
+        long estimatedSize,
+        long weightedSize
+) {
+    public double hitRate() {
+        var requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+}
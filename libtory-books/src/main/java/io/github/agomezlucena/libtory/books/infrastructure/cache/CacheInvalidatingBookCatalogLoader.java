@@ -0,0 +1,30 @@
+package io.github.agomezlucena.libtory.books.infrastructure.cache;
+
+import io.github.agomezlucena.libtory.books.domain.Book;
+import io.github.agomezlucena.libtory.books.domain.BookCatalogLoader;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+
+import java.util.List;
+
+/// invalidates the cached projection of every book loaded through the given loader.
+///
+/// every load commits its own transaction, so the projections are invalidated once the load has finished.
+public class CacheInvalidatingBookCatalogLoader implements BookCatalogLoader {
+    private final BookCatalogLoader loader;
+    private final BookProjectionCache cache;
+
+    public CacheInvalidatingBookCatalogLoader(BookCatalogLoader loader, BookProjectionCache cache) {
+        this.loader = loader;
+        this.cache = cache;
+    }
+
+    @Override
+    public long load(List<Book> books) {
+        var createdBooks = loader.load(books);
+        books.stream()
+                .map(it -> Isbn.fromString(it.getIsbn()))
+                .distinct()
+                .forEach(cache::invalidate);
+        return createdBooks;
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.agomezlucena.libtory.books.infrastructure.cache;
+
+import io.github.agomezlucena.libtory.books.domain.Book;
+import io.github.agomezlucena.libtory.books.domain.BookRepository;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+/// invalidates the cached projection of every book written through the given repository.
+///
+/// the projection is invalidated when the write finishes and, if the write is part of a transaction, again
+/// when the transaction completes, because until then a concurrent reader can load and cache the previous
+/// state of the book.
+public class CacheInvalidatingBookRepository implements BookRepository {
+    private final BookRepository repository;
+    private final BookProjectionCache cache;
+
+    public CacheInvalidatingBookRepository(BookRepository repository, BookProjectionCache cache) {
+        this.repository = repository;
+        this.cache = cache;
+    }
+
+    @Override
+    public Optional<Book> findByIsbn(Isbn isbn) {
+        return repository.findByIsbn(isbn);
+    }
+
+    @Override
+    public void delete(Isbn isbn, Long expectedVersion) {
+        repository.delete(isbn, expectedVersion);
+        invalidate(isbn);
+    }
+
+    @Override
+    public void save(Book book) {
+        if (!book.hasChanges()) return;
+
+        repository.save(book);
+        invalidate(Isbn.fromString(book.getIsbn()));
+    }
+
+    /// only the books that have been written are invalidated, the cached projection of a book already stored as
+    /// given is still valid.
+    @Override
+    public List<Book> saveAll(List<Book> books) {
+        var writtenBooks = repository.saveAll(books);
+        writtenBooks.stream()
+                .map(it -> Isbn.fromString(it.getIsbn()))
+                .distinct()
+                .forEach(this::invalidate);
+        return writtenBooks;
+    }
+
+    private void invalidate(Isbn isbn) {
+        cache.invalidate(isbn);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) return;
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                cache.invalidate(isbn);
+            }
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.agomezlucena.libtory.books.infrastructure.cache;
+
+import io.github.agomezlucena.libtory.books.domain.BookProjection;
+import io.github.agomezlucena.libtory.books.domain.BookProjectionRepository;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.shared.cqrs.PagedQuery;
+import io.github.agomezlucena.libtory.shared.cqrs.PaginatedResult;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/// serves the projections by isbn from the [BookProjectionCache] loading them from the given repository when
+/// they are not cached, the pages of books are always obtained from the given repository.
+public class CachingBookProjectionRepository implements BookProjectionRepository {
+    private final BookProjectionRepository repository;
+    private final BookProjectionCache cache;
+
+    public CachingBookProjectionRepository(BookProjectionRepository repository, BookProjectionCache cache) {
+        this.repository = repository;
+        this.cache = cache;
+    }
+
+    @Override
+    public PaginatedResult<BookProjection> findAllProjections(PagedQuery<BookProjection> query) {
+        return repository.findAllProjections(query);
+    }
+
+    @Override
+    public Optional<BookProjection> findProjectionByIsbn(Isbn isbn) {
+        return cache.get(isbn, repository::findProjectionByIsbn);
+    }
+
+    @Override
+    public Map<Isbn, BookProjection> findProjectionsByIsbns(Set<Isbn> isbns) {
+        var result = new HashMap<Isbn, BookProjection>();
+        cache.getAll(isbns, this::loadProjections)
+                .forEach((isbn, projection) -> projection.ifPresent(it -> result.put(isbn, it)));
+        return result;
+    }
+
+    private Map<Isbn, Optional<BookProjection>> loadProjections(Set<Isbn> isbns) {
+        var foundProjections = repository.findProjectionsByIsbns(isbns);
+        var result = new HashMap<Isbn, Optional<BookProjection>>();
+        isbns.forEach(isbn -> result.put(isbn, Optional.ofNullable(foundProjections.get(isbn))));
+        return result;
+    }
+}
@@ -4,6 +4,7 @@ import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
 import io.github.agomezlucena.libtory.books.infrastructure.database.BookQueries.BookQueryName;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -26,8 +27,20 @@ public class AuthorSqlChecker implements AuthorChecker {
         return Optional.ofNullable(jdbcOperations.queryForObject(
                 queries.getQuery(BookQueryName.CHECK_AUTHOR_EXISTENCE),
                 new MapSqlParameterSource("expectedAmount",ids.size())
-                        .addValue("expectedAuthors",ids),
+                        .addValue("expectedAuthors", SqlArrayParameter.ofUuids(ids)),
                 Boolean.class
         )).orElse(false);
     }
+
+    /// looks every given author up with a single statement.
+    @Override
+    public Set<UUID> existingAuthors(Set<UUID> authorIds) {
+        if (authorIds.isEmpty()) return Set.of();
+
+        return new HashSet<>(jdbcOperations.queryForList(
+                queries.getQuery(BookQueryName.FIND_EXISTING_AUTHORS),
+                new MapSqlParameterSource("author_ids", SqlArrayParameter.ofUuids(authorIds)),
+                UUID.class
+        ));
+    }
 }
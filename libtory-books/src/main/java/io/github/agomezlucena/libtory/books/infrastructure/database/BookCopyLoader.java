@@ -0,0 +1,102 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import io.github.agomezlucena.libtory.books.domain.Book;
+import io.github.agomezlucena.libtory.books.domain.BookCatalogLoader;
+import io.github.agomezlucena.libtory.shared.csv.CsvWriter;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static io.github.agomezlucena.libtory.books.infrastructure.database.BookQueries.BookQueryName;
+
+/// loads the books with the postgres `COPY` protocol, which avoids binding every value of every book as a
+/// parameter of an insert.
+///
+/// every load runs in its own transaction: the books are copied into a temporary staging table and then merged
+/// into the books, their authors and the amount of books with a single statement, so the books of a load are
+/// stored all together or not at all.
+///
+/// the version of a stored book is only increased when the load changes its title or its authors, loading the
+/// same books again leaves them as they were.
+public class BookCopyLoader implements BookCatalogLoader {
+    private static final String COUNTER_SLOT_QUERY_PARAM = "counter_slot";
+
+    private final BookQueries bookQueries;
+    private final NamedParameterJdbcOperations jdbcOperations;
+    private final TransactionTemplate transactionTemplate;
+
+    public BookCopyLoader(
+            BookQueries bookQueries,
+            NamedParameterJdbcOperations jdbcOperations,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.bookQueries = bookQueries;
+        this.jdbcOperations = jdbcOperations;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public long load(List<Book> books) {
+        if (books.isEmpty()) return 0;
+
+        var stagedBooks = toCsv(books);
+        var createdBooks = transactionTemplate.execute(status -> {
+            jdbcOperations.getJdbcOperations().execute(bookQueries.getQuery(BookQueryName.CREATE_BOOK_IMPORT_STAGING));
+            jdbcOperations.getJdbcOperations().execute((ConnectionCallback<Long>) connection -> {
+                try {
+                    return connection.unwrap(PGConnection.class)
+                            .getCopyAPI()
+                            .copyIn(
+                                    bookQueries.getQuery(BookQueryName.COPY_BOOK_IMPORT_STAGING),
+                                    new StringReader(stagedBooks)
+                            );
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return jdbcOperations.queryForObject(
+                    bookQueries.getQuery(BookQueryName.MERGE_IMPORTED_BOOKS),
+                    new MapSqlParameterSource(
+                            COUNTER_SLOT_QUERY_PARAM,
+                            ThreadLocalRandom.current().nextInt(BookSqlRepository.COUNTER_SLOTS)
+                    ),
+                    Long.class
+            );
+        });
+        return Objects.requireNonNull(createdBooks);
+    }
+
+    /// every book is written in the position it was given, so the merge can keep the last book of every isbn.
+    private static String toCsv(List<Book> books) {
+        var csv = new StringWriter();
+        try (var writer = new CsvWriter(csv)) {
+            for (int position = 0; position < books.size(); position++) {
+                var book = books.get(position);
+                writer.writeRecord(List.of(
+                        String.valueOf(position),
+                        book.getIsbn(),
+                        book.getTitle(),
+                        book.getAuthorsIds().stream()
+                                .map(UUID::toString)
+                                .collect(Collectors.joining(",", "{", "}"))
+                ));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import io.github.agomezlucena.libtory.books.infrastructure.database.BookQueries.BookQueryName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+/// repairs the maintained amount of books when it drifts from the real one, which can happen when the books
+/// table is modified without using the [BookSqlRepository], e.g. manual fixes or bulk loads.
+///
+/// the drift is counted and added to the counter with a single statement, which reads the books and the counter
+/// from the same snapshot, so no lock is taken and the writers are never blocked by it.
+public class BookCounterReconciler {
+    private static final String COUNTER_SLOT_QUERY_PARAM = "counter_slot";
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    private final BookQueries bookQueries;
+    private final NamedParameterJdbcOperations jdbcOperations;
+
+    public BookCounterReconciler(
+            final BookQueries bookQueries,
+            final NamedParameterJdbcOperations jdbcOperations
+    ) {
+        this.bookQueries = bookQueries;
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    /// @return the difference between the real amount of books and the maintained one before repairing it.
+    public long reconcile() {
+        var drift = Optional.ofNullable(
+                jdbcOperations.queryForObject(
+                        bookQueries.getQuery(BookQueryName.RECONCILE_BOOK_COUNTER),
+                        new MapSqlParameterSource(
+                                COUNTER_SLOT_QUERY_PARAM,
+                                ThreadLocalRandom.current().nextInt(BookSqlRepository.COUNTER_SLOTS)
+                        ),
+                        Long.class
+                )
+        ).orElse(0L);
+
+        if (drift != 0) {
+            log.warn("book counter had drifted by {} books, it has been repaired", drift);
+        }
+        return drift;
+    }
+}
@@ -1,16 +1,27 @@
 package io.github.agomezlucena.libtory.books.infrastructure.database;
 
 import io.github.agomezlucena.libtory.books.domain.BookProjection;
+import io.github.agomezlucena.libtory.books.domain.BookProjectionCursor;
 import io.github.agomezlucena.libtory.books.domain.BookProjectionRepository;
 import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.books.infrastructure.database.mappers.BookPageEntry;
+import io.github.agomezlucena.libtory.books.infrastructure.database.mappers.BookPageRequest;
 import io.github.agomezlucena.libtory.books.infrastructure.database.mappers.BookProjectionMapper;
+import io.github.agomezlucena.libtory.shared.concurrent.Deadline;
 import io.github.agomezlucena.libtory.shared.cqrs.PagedQuery;
 import io.github.agomezlucena.libtory.shared.cqrs.PaginatedResult;
+import io.github.agomezlucena.libtory.shared.cqrs.TotalMode;
 
-import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class BookProjectionMybatisRepository implements BookProjectionRepository {
     private final BookProjectionMapper mapper;
@@ -24,27 +35,119 @@ public class BookProjectionMybatisRepository implements BookProjectionRepository
         this.executorService = executorService;
     }
 
+    /// the page and the total are loaded in parallel within the [Deadline] of the caller, when one of them fails
+    /// or the deadline expires the other one is cancelled instead of keeping its connection busy until it ends.
     @Override
     public PaginatedResult<BookProjection> findAllProjections(PagedQuery<BookProjection> query) {
-        var itemsFuture = CompletableFuture.supplyAsync(()->mapper.getAllBooks(query),executorService);
-        var totalBooksFuture = CompletableFuture.supplyAsync(mapper::countAllBooks,executorService);
-        CompletableFuture.allOf(itemsFuture,totalBooksFuture).join();
-        var items = itemsFuture.join();
+        var pageRequest = BookPageRequest.from(query);
+        var fanOut = Deadline.current().orElseGet(Deadline::unbounded).child();
+        var pageFuture = CompletableFuture.supplyAsync(
+                () -> fanOut.call(() -> getBookPage(pageRequest, query.getSize())),
+                executorService
+        );
+        var totalBooksFuture = getTotalBooks(query.getTotalMode(), fanOut);
+
+        var firstFailure = new CompletableFuture<Void>();
+        pageFuture.exceptionally(error -> failFast(firstFailure, fanOut, error));
+        totalBooksFuture.exceptionally(error -> failFast(firstFailure, fanOut, error));
+        try {
+            fanOut.await(CompletableFuture.anyOf(
+                    CompletableFuture.allOf(pageFuture, totalBooksFuture),
+                    firstFailure
+            ));
+        } finally {
+            // nothing is left running once answered, and it unregisters the fan out from the caller deadline
+            fanOut.cancel();
+        }
+        var page = pageFuture.join();
         var totalBooks = totalBooksFuture.join();
 
         return new PaginatedResult<>(
-                items,
-                Optional.ofNullable(items).map(Collection::size).orElse(0),
+                page.items(),
+                page.items().size(),
                 totalBooks,
-                query.getSortingField(),
-                Optional.ofNullable(query.getSortingField())
-                        .map(it -> query.getSortingDirection())
-                        .orElse(null)
+                pageRequest.getSortingField(),
+                pageRequest.getSortingDirection(),
+                page.nextCursor(),
+                query.getTotalMode() == TotalMode.EXACT ? null : page.hasNext()
         );
     }
 
+    /// both totals run on their own connection in parallel with the page, so they do not add a round trip to
+    /// it. The estimation is a lookup of the table statistics, falling back to count when the table was never
+    /// analyzed.
+    private CompletableFuture<Integer> getTotalBooks(TotalMode totalMode, Deadline fanOut) {
+        return switch (totalMode) {
+            case EXACT -> CompletableFuture.supplyAsync(() -> fanOut.call(mapper::countAllBooks), executorService);
+            case ESTIMATED -> CompletableFuture.supplyAsync(() -> fanOut.call(this::estimateAllBooks), executorService);
+            case NONE -> CompletableFuture.completedFuture(null);
+        };
+    }
+
+    private Integer estimateAllBooks() {
+        return Optional.ofNullable(mapper.estimateAllBooks()).orElseGet(mapper::countAllBooks);
+    }
+
+    /// pagination is made in two phases so a page always contains `size` books no matter how many authors
+    /// they have: first is selected the page of isbns using only the books table, and then are loaded the
+    /// authors of exactly those books.
+    ///
+    /// the first phase fetches one extra row, when it exists the position of the last book is returned as cursor,
+    /// so the next page can seek directly to it instead of using an offset, except for the sortings that do not
+    /// support cursors.
+    private BookPage getBookPage(BookPageRequest pageRequest, int size) {
+        var entries = mapper.getBookPage(pageRequest);
+        if (entries.isEmpty()) return new BookPage(List.of(), null, false);
+
+        var hasNextPage = entries.size() > size;
+        var pageEntries = hasNextPage ? entries.subList(0, size) : entries;
+        var pageIsbns = pageEntries.stream().map(BookPageEntry::isbn).toList();
+
+        var booksByIsbn = mapper.findByIsbns(pageIsbns.toArray(String[]::new))
+                .stream()
+                .collect(Collectors.toMap(BookProjection::isbn, Function.identity()));
+
+        var items = pageIsbns.stream()
+                .map(booksByIsbn::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        return new BookPage(items, nextCursor(pageRequest, pageEntries, hasNextPage), hasNextPage);
+    }
+
+    private <R> R failFast(CompletableFuture<Void> firstFailure, Deadline fanOut, Throwable error) {
+        if (firstFailure.completeExceptionally(error instanceof CompletionException ? error.getCause() : error)) {
+            fanOut.cancel();
+        }
+        return null;
+    }
+
+    private String nextCursor(BookPageRequest pageRequest, List<BookPageEntry> pageEntries, boolean hasNextPage) {
+        if (!hasNextPage || !BookProjectionCursor.supports(pageRequest.getSortingField())) return null;
+        var lastEntry = pageEntries.getLast();
+        return new BookProjectionCursor(
+                pageRequest.getSortingField(),
+                pageRequest.getSortingDirection(),
+                lastEntry.sortKey(),
+                lastEntry.isbn()
+        ).encode();
+    }
+
     @Override
     public Optional<BookProjection> findProjectionByIsbn(Isbn isbn) {
         return Optional.ofNullable(mapper.findByIsbn(isbn.isbnLiteral()));
     }
+
+    @Override
+    public Map<Isbn, BookProjection> findProjectionsByIsbns(Set<Isbn> isbns) {
+        if (isbns.isEmpty()) return Map.of();
+
+        var isbnLiterals = isbns.stream().map(Isbn::isbnLiteral).toArray(String[]::new);
+        return mapper.findByIsbns(isbnLiterals)
+                .stream()
+                .collect(Collectors.toMap(it -> Isbn.fromString(it.isbn()), Function.identity()));
+    }
+
+    private record BookPage(List<BookProjection> items, String nextCursor, boolean hasNext) {
+    }
 }
@@ -21,13 +21,17 @@ public class BookQueries {
 
     public enum BookQueryName {
         CHECK_AUTHOR_EXISTENCE("check-author-existence"),
+        FIND_EXISTING_AUTHORS("find-existing-authors"),
         GET_BOOK_INFORMATION("get-book-information"),
         SAVE_BOOK_INFORMATION("save-book-information"),
+        SAVE_BOOKS_INFORMATION("save-books-information"),
+        SAVE_BOOK_CHANGES("save-book-changes"),
         SAVE_AUTHOR_INFORMATION("save-author-information"),
-        RELATE_BOOK_WITH_AUTHOR("relate-book-with-author"),
         DELETE_BOOK("delete-book"),
-        DELETE_BOOK_RELATIONSHIP_WITH_AUTHORS("delete-book-relationship-with-authors"),
-        DERELATE_BOOK_WITH_NOT_GIVEN_AUTHORS("derelate-book-with-not-given-authors");
+        RECONCILE_BOOK_COUNTER("reconcile-book-counter"),
+        CREATE_BOOK_IMPORT_STAGING("create-book-import-staging"),
+        COPY_BOOK_IMPORT_STAGING("copy-book-import-staging"),
+        MERGE_IMPORTED_BOOKS("merge-imported-books");
 
         final String queryName;
 
@@ -1,16 +1,20 @@
 package io.github.agomezlucena.libtory.books.infrastructure.database;
 
 import io.github.agomezlucena.libtory.books.domain.Book;
+import io.github.agomezlucena.libtory.books.domain.BookChanges;
 import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
 import io.github.agomezlucena.libtory.books.domain.BookRepository;
+import io.github.agomezlucena.libtory.books.domain.BookVersionMismatch;
 import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.shared.cqrs.WriteConflict;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
-import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Types;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static io.github.agomezlucena.libtory.books.infrastructure.database.BookQueries.BookQueryName;
 
@@ -18,6 +22,19 @@ public class  BookSqlRepository implements BookRepository {
     private static final String BOOK_ISBN_QUERY_PARAM = "book_isbn";
     private static final String BOOK_TITLE_QUERY_PARAM = "book_title";
     private static final String AUTHOR_ID_QUERY_PARAMS = "author_id";
+    private static final String AUTHOR_IDS_QUERY_PARAM = "author_ids";
+    private static final String ADDED_AUTHOR_IDS_QUERY_PARAM = "added_author_ids";
+    private static final String REMOVED_AUTHOR_IDS_QUERY_PARAM = "removed_author_ids";
+    private static final String TITLE_CHANGED_QUERY_PARAM = "title_changed";
+    private static final String BOOK_VERSION_QUERY_PARAM = "book_version";
+    private static final String BOOK_WRITTEN_QUERY_PARAM = "book_written";
+    private static final String COUNTER_SLOT_QUERY_PARAM = "counter_slot";
+    private static final String BOOK_ISBNS_QUERY_PARAM = "book_isbns";
+    private static final String BOOK_TITLES_QUERY_PARAM = "book_titles";
+    private static final String AUTHOR_BOOK_ISBNS_QUERY_PARAM = "author_book_isbns";
+    private static final String VARCHAR_SQL_TYPE = "varchar";
+    /// the amount of books is split in several slots, so concurrent writers usually update different rows
+    static final int COUNTER_SLOTS = 16;
 
     private final BookQueries bookQueries;
     private final NamedParameterJdbcOperations jdbcOperations;
@@ -30,8 +47,10 @@ public class  BookSqlRepository implements BookRepository {
         this.jdbcOperations = jdbcOperations;
     }
 
+    /// the pending writes of the current [UnitOfWork] are run first, so the book is read as it has been written.
     @Override
     public Optional<Book> findByIsbn(Isbn isbn) {
+        UnitOfWork.current().ifPresent(UnitOfWork::flush);
         return jdbcOperations.query(
                 bookQueries.getQuery(BookQueryName.GET_BOOK_INFORMATION),
                 new MapSqlParameterSource(BOOK_ISBN_QUERY_PARAM, isbn.isbnLiteral()),
@@ -45,82 +64,211 @@ public class  BookSqlRepository implements BookRepository {
             while (rs.next()) {
                 var isbn = rs.getString(BOOK_ISBN_QUERY_PARAM);
                 var title = rs.getString(BOOK_TITLE_QUERY_PARAM);
+                var version = rs.getLong(BOOK_VERSION_QUERY_PARAM);
                 var authorId = rs.getObject(AUTHOR_ID_QUERY_PARAMS, UUID.class);
-                Optional.ofNullable(resultMap.get(isbn))
-                        .ifPresentOrElse(
-                                it -> it.addAuthor(authorId),
-                                () -> {
-                                    var mutableBook = new BookPrimitives(isbn, title);
-                                    mutableBook.addAuthor(authorId);
-                                    resultMap.put(isbn, mutableBook);
-                                }
-                        );
+                resultMap.computeIfAbsent(isbn, it -> new BookPrimitives(it, title, new HashSet<>(), version))
+                        .addAuthor(authorId);
             }
 
             return Optional.ofNullable(resultMap.get(queryIsbn))
-                    .map(BookPrimitives::toBook);
+                    .map(BookPrimitives::toStoredBook);
         };
     }
 
+    /// deletes the book and its relationships with its authors in a single statement, when the book is in the
+    /// expected version.
+    ///
+    /// within a [UnitOfWork] the book is deleted when the unit of work is flushed, replacing any pending write of it.
     @Override
     @Transactional
-    public void delete(Isbn isbn) {
-        var deleteRelationshipQuery = bookQueries.getQuery(BookQueryName.DELETE_BOOK_RELATIONSHIP_WITH_AUTHORS);
-        var deleteBook = bookQueries.getQuery(BookQueryName.DELETE_BOOK);
-        var params = new MapSqlParameterSource(BOOK_ISBN_QUERY_PARAM, isbn.isbnLiteral());
-        jdbcOperations.update(deleteRelationshipQuery, params);
-        jdbcOperations.update(deleteBook, params);
+    public void delete(Isbn isbn, Long expectedVersion) {
+        var unitOfWork = UnitOfWork.current();
+        if (unitOfWork.isPresent()) {
+            unitOfWork.get().register(isbn, () -> deleteBook(isbn, expectedVersion));
+        } else {
+            deleteBook(isbn, expectedVersion);
+        }
+    }
+
+    private void deleteBook(Isbn isbn, Long expectedVersion) {
+        var deletedBooks = jdbcOperations.queryForObject(
+                bookQueries.getQuery(BookQueryName.DELETE_BOOK),
+                withCounterSlot(
+                        new MapSqlParameterSource(BOOK_ISBN_QUERY_PARAM, isbn.isbnLiteral())
+                                .addValue(BOOK_VERSION_QUERY_PARAM, expectedVersion, Types.BIGINT)
+                ),
+                Long.class
+        );
+        if (expectedVersion != null && (deletedBooks == null || deletedBooks == 0)) {
+            throw new BookVersionMismatch(isbn.isbnLiteral(), expectedVersion);
+        }
     }
 
+    /// writes only what has changed in the book since it was read, so a book without changes is not written at all.
+    ///
+    /// the books that were not read from this repository may already be stored, so their whole state is written
+    /// replacing the stored one. Either way the book and its authors are written in a single statement, with the
+    /// authors bound as one array.
+    ///
+    /// the changes of a book read from this repository are only written when the stored book is still in the
+    /// version that was read, the books are not locked while they are read.
+    ///
+    /// within a [UnitOfWork] the book is written when the unit of work is flushed, with the changes it has then.
+    ///
+    /// @throws WriteConflict when the book has been written by someone else since it was read, nothing is written
+    ///                       then and the book can be read and changed again.
     @Override
     @Transactional
     public void save(Book book) {
-        updateBook(book);
-        derelateNotContainedAuthors(book);
-        relateContainedAuthors(book);
-    }
+        if (!book.hasChanges()) return;
 
+        var unitOfWork = UnitOfWork.current();
+        if (unitOfWork.isPresent()) {
+            unitOfWork.get().register(Isbn.fromString(book.getIsbn()), () -> writeBook(book));
+        } else {
+            writeBook(book);
+        }
+    }
 
-    private void updateBook(Book book) {
-        var cleansedIsbn = book.getIsbn();
+    private void writeBook(Book book) {
+        var changes = book.getChanges();
+        if (!changes.hasChanges()) return;
 
-        var insertBookQuery = bookQueries.getQuery(BookQueryName.SAVE_BOOK_INFORMATION);
+        var version = changes.isNewBook() ? saveBook(book) : saveChanges(book, changes);
+        book.changesWritten(version);
+    }
 
+    private long saveBook(Book book) {
         var queryParams = new MapSqlParameterSource()
-                .addValue(BOOK_ISBN_QUERY_PARAM, cleansedIsbn)
-                .addValue(BOOK_TITLE_QUERY_PARAM, book.getTitle());
+                .addValue(BOOK_ISBN_QUERY_PARAM, book.getIsbn())
+                .addValue(BOOK_TITLE_QUERY_PARAM, book.getTitle())
+                .addValue(AUTHOR_IDS_QUERY_PARAM, SqlArrayParameter.ofUuids(book.getAuthorsIds()));
 
-        jdbcOperations.update(insertBookQuery, queryParams);
+        return Optional.ofNullable(
+                jdbcOperations.queryForObject(
+                        bookQueries.getQuery(BookQueryName.SAVE_BOOK_INFORMATION),
+                        withCounterSlot(queryParams),
+                        Long.class
+                )
+        ).orElse(0L);
     }
 
-    private void derelateNotContainedAuthors(Book book) {
-        if(!book.hasAuthors()){
-            jdbcOperations.update(
-                    bookQueries.getQuery(BookQueryName.DELETE_BOOK_RELATIONSHIP_WITH_AUTHORS),
-                    new MapSqlParameterSource(BOOK_ISBN_QUERY_PARAM, book.getIsbn())
-            );
-            return;
+    /// writes every given book that was not read from this repository in a single statement, with their isbns,
+    /// titles and authors bound as arrays, replacing the stored books with the same isbn. When an isbn is given
+    /// more than once only its last book is written, and the books are written in isbn order, so concurrent
+    /// writers of the same books lock them in the same order instead of deadlocking. A stored book that already
+    /// has the given title and authors is left as it is, keeping its version.
+    ///
+    /// the books read from this repository are saved one by one as with [#save], so their changes are still only
+    /// written when the stored book is in the version that was read. Within a [UnitOfWork] every book is saved as
+    /// with [#save].
+    @Override
+    @Transactional
+    public List<Book> saveAll(List<Book> books) {
+        var writtenBooks = new ArrayList<Book>();
+        if (UnitOfWork.current().isPresent()) {
+            for (var book : books) {
+                if (!book.hasChanges()) continue;
+                save(book);
+                writtenBooks.add(book);
+            }
+            return writtenBooks;
         }
 
-        jdbcOperations.update(
-                bookQueries.getQuery(BookQueryName.DERELATE_BOOK_WITH_NOT_GIVEN_AUTHORS),
-                new MapSqlParameterSource(BOOK_ISBN_QUERY_PARAM, book.getIsbn())
-                        .addValue(AUTHOR_ID_QUERY_PARAMS, book.getAuthorsIds())
-        );
+        var newBooks = new ArrayList<Book>();
+        var lastBookOfEveryIsbn = new TreeMap<String, Book>();
+        for (var book : books) {
+            if (!book.hasChanges()) continue;
+            if (!book.getChanges().isNewBook()) {
+                writeBook(book);
+                writtenBooks.add(book);
+                continue;
+            }
+            newBooks.add(book);
+            lastBookOfEveryIsbn.put(book.getIsbn(), book);
+        }
+        if (newBooks.isEmpty()) return writtenBooks;
+
+        var savedBooks = saveBooks(lastBookOfEveryIsbn.values());
+        for (var book : newBooks) {
+            var savedBook = savedBooks.get(book.getIsbn());
+            book.changesWritten(savedBook == null ? 0L : savedBook.version());
+            if (savedBook == null || savedBook.written()) {
+                writtenBooks.add(book);
+            }
+        }
+        return writtenBooks;
     }
 
-    private void relateContainedAuthors(Book book) {
-        if(!book.hasAuthors()) return;
+    private Map<String, SavedBook> saveBooks(Collection<Book> books) {
+        var isbns = new ArrayList<String>(books.size());
+        var titles = new ArrayList<String>(books.size());
+        var authorBookIsbns = new ArrayList<String>();
+        var authorIds = new ArrayList<UUID>();
+        for (var book : books) {
+            isbns.add(book.getIsbn());
+            titles.add(book.getTitle());
+            for (var authorId : book.getAuthorsIds()) {
+                authorBookIsbns.add(book.getIsbn());
+                authorIds.add(authorId);
+            }
+        }
+
+        var queryParams = new MapSqlParameterSource()
+                .addValue(BOOK_ISBNS_QUERY_PARAM, SqlArrayParameter.of(VARCHAR_SQL_TYPE, isbns))
+                .addValue(BOOK_TITLES_QUERY_PARAM, SqlArrayParameter.of(VARCHAR_SQL_TYPE, titles))
+                .addValue(AUTHOR_BOOK_ISBNS_QUERY_PARAM, SqlArrayParameter.of(VARCHAR_SQL_TYPE, authorBookIsbns))
+                .addValue(AUTHOR_IDS_QUERY_PARAM, SqlArrayParameter.ofUuids(authorIds));
+
+        return Optional.ofNullable(
+                jdbcOperations.query(
+                        bookQueries.getQuery(BookQueryName.SAVE_BOOKS_INFORMATION),
+                        withCounterSlot(queryParams),
+                        extractSavedBooks()
+                )
+        ).orElse(Map.of());
+    }
+
+    private ResultSetExtractor<Map<String, SavedBook>> extractSavedBooks() {
+        return rs -> {
+            var savedBooks = new HashMap<String, SavedBook>();
+            while (rs.next()) {
+                savedBooks.put(
+                        rs.getString(BOOK_ISBN_QUERY_PARAM),
+                        new SavedBook(rs.getLong(BOOK_VERSION_QUERY_PARAM), rs.getBoolean(BOOK_WRITTEN_QUERY_PARAM))
+                );
+            }
+            return savedBooks;
+        };
+    }
 
-        var authorsAsParameters = book.getAuthorsIds().stream()
-                .map(authorId -> new MapSqlParameterSource(BOOK_ISBN_QUERY_PARAM, book.getIsbn())
-                        .addValue(AUTHOR_ID_QUERY_PARAMS, authorId))
-                .toArray(SqlParameterSource[]::new);
+    private long saveChanges(Book book, BookChanges changes) {
+        var queryParams = new MapSqlParameterSource()
+                .addValue(BOOK_ISBN_QUERY_PARAM, book.getIsbn())
+                .addValue(BOOK_TITLE_QUERY_PARAM, book.getTitle())
+                .addValue(BOOK_VERSION_QUERY_PARAM, book.getVersion())
+                .addValue(TITLE_CHANGED_QUERY_PARAM, changes.isTitleChanged())
+                .addValue(REMOVED_AUTHOR_IDS_QUERY_PARAM, SqlArrayParameter.ofUuids(changes.removedAuthors()))
+                .addValue(ADDED_AUTHOR_IDS_QUERY_PARAM, SqlArrayParameter.ofUuids(changes.addedAuthors()));
 
-        jdbcOperations.batchUpdate(
-                bookQueries.getQuery(BookQueryName.RELATE_BOOK_WITH_AUTHOR),
-                authorsAsParameters
+        var versions = jdbcOperations.queryForList(
+                bookQueries.getQuery(BookQueryName.SAVE_BOOK_CHANGES),
+                queryParams,
+                Long.class
         );
+        if (versions.isEmpty()) {
+            throw new WriteConflict(
+                    "the book with ISBN: " + book.getIsbn() + " has been written since version " + book.getVersion()
+            );
+        }
+        return versions.getFirst();
+    }
+
+    private MapSqlParameterSource withCounterSlot(MapSqlParameterSource params) {
+        return params.addValue(COUNTER_SLOT_QUERY_PARAM, ThreadLocalRandom.current().nextInt(COUNTER_SLOTS));
     }
 
+    /// the version of a book given to [#saveAll], which was not written when it was already stored as given.
+    record SavedBook(long version, boolean written) {
+    }
 }
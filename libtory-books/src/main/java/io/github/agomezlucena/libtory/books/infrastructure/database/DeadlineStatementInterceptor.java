@@ -0,0 +1,73 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import io.github.agomezlucena.libtory.shared.concurrent.Deadline;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/// mybatis plugin that bounds every statement to the [Deadline] of the thread that runs it.
+///
+/// the statements are not even sent when the deadline has already expired, otherwise they get as query timeout
+/// the time that remains, and while they run they are cancelled on the database as soon as their deadline is
+/// cancelled, e.g. because the caller gave up or a sibling query failed.
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}),
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class}),
+})
+public class DeadlineStatementInterceptor implements Interceptor {
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        var deadline = Deadline.current();
+        if (deadline.isEmpty()) {
+            return invocation.proceed();
+        }
+        deadline.get().checkNotExpired();
+
+        if ("prepare".equals(invocation.getMethod().getName())) {
+            var statement = (Statement) invocation.proceed();
+            applyQueryTimeout(statement, deadline.get());
+            return statement;
+        }
+
+        var statement = (Statement) invocation.getArgs()[0];
+        try (var ignored = deadline.get().onCancel(() -> cancel(statement))) {
+            return invocation.proceed();
+        }
+    }
+
+    /// the query timeout of jdbc is set in seconds, so the remaining time is rounded up to not cancel a
+    /// statement before its deadline, and a shorter timeout configured in the mapper is kept.
+    private void applyQueryTimeout(Statement statement, Deadline deadline) throws SQLException {
+        if (deadline.isUnbounded()) return;
+
+        var remainingSeconds = Math.max(1, (int) Math.min(
+                Integer.MAX_VALUE,
+                TimeUnit.NANOSECONDS.toSeconds(deadline.remaining().toNanos() + TimeUnit.SECONDS.toNanos(1) - 1)
+        ));
+        var configuredTimeout = statement.getQueryTimeout();
+        if (configuredTimeout == 0 || remainingSeconds < configuredTimeout) {
+            statement.setQueryTimeout(remainingSeconds);
+        }
+    }
+
+    private void cancel(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            log.warn("the statement could not be cancelled: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import org.springframework.jdbc.core.support.AbstractSqlTypeValue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.UUID;
+
+/// binds a set of values as a single typed sql array, to be compared with `= any(:param)` or `<> all(:param)`.
+///
+/// a collection given as a named parameter is expanded into one placeholder per value, so the text of the
+/// statement changes with the amount of values and neither the driver nor postgres can reuse its plan. Bound
+/// as an array the statement is always the same.
+public final class SqlArrayParameter extends AbstractSqlTypeValue {
+    private static final String UUID_TYPE = "uuid";
+
+    private final String elementType;
+    private final Object[] elements;
+
+    private SqlArrayParameter(String elementType, Object[] elements) {
+        this.elementType = elementType;
+        this.elements = elements;
+    }
+
+    /// @param elementType the name of the postgres type of the elements of the array.
+    public static SqlArrayParameter of(String elementType, Collection<?> elements) {
+        Objects.requireNonNull(elementType, "element type is required");
+        return new SqlArrayParameter(elementType, elements.toArray());
+    }
+
+    public static SqlArrayParameter ofUuids(Collection<UUID> ids) {
+        return of(UUID_TYPE, ids);
+    }
+
+    public String getElementType() {
+        return elementType;
+    }
+
+    public Object[] getElements() {
+        return elements.clone();
+    }
+
+    @Override
+    protected Object createTypeValue(Connection connection, int sqlType, String typeName) throws SQLException {
+        return connection.createArrayOf(elementType, elements);
+    }
+}
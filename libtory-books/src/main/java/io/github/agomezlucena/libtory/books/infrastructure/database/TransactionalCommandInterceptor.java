@@ -0,0 +1,45 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import io.github.agomezlucena.libtory.shared.cqrs.BusInterceptor;
+import io.github.agomezlucena.libtory.shared.cqrs.Dispatch;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// handles every command within a single transaction with its own [UnitOfWork].
+///
+/// the reads and writes of the repositories join that transaction, so a command takes a single connection from
+/// the pool and pays a single commit, and its writes are only run when the handler has finished, right before
+/// the commit, holding the locks of the written rows for the shortest time.
+///
+/// it should be the last interceptor of the bus, so the connection is only held while the handler runs.
+public class TransactionalCommandInterceptor implements BusInterceptor {
+    private final TransactionTemplate transactionTemplate;
+    private final Set<Class<?>> excludedTypes = ConcurrentHashMap.newKeySet();
+
+    public TransactionalCommandInterceptor(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /// the commands of the given type will be handled without a transaction of their own, e.g. because their
+    /// handler writes them together with other commands and manages its own transactions.
+    public TransactionalCommandInterceptor excluding(Class<?> commandType) {
+        excludedTypes.add(Objects.requireNonNull(commandType, "command type is required"));
+        return this;
+    }
+
+    @Override
+    public Object around(Dispatch dispatch) {
+        if (excludedTypes.contains(dispatch.messageType())) {
+            return dispatch.proceed();
+        }
+
+        return transactionTemplate.execute(status -> {
+            UnitOfWork.begin();
+            return dispatch.proceed();
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/// collects the writes of the repositories during a transaction and runs them right before it commits.
+///
+/// the writes are kept by the aggregate they write, so an aggregate written several times during the transaction
+/// is written once with its last write, and they are run in the order in which their aggregates were last
+/// written. A write that fails when it is run rolls back the whole transaction.
+///
+/// the unit of work is bound to the transaction of the calling thread with [#begin] and the repositories find it
+/// with [#current], a repository used out of a unit of work should write straight away.
+public final class UnitOfWork {
+    private final Map<Object, Runnable> pendingWrites = new LinkedHashMap<>();
+
+    private UnitOfWork() {
+    }
+
+    /// binds a new unit of work to the transaction of the calling thread, which is flushed before the transaction
+    /// commits and discarded when it completes.
+    ///
+    /// @throws IllegalStateException when the calling thread has no transaction or it already has a unit of work.
+    public static UnitOfWork begin() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("a unit of work can only be started within a transaction");
+        }
+        var unitOfWork = new UnitOfWork();
+        TransactionSynchronizationManager.bindResource(UnitOfWork.class, unitOfWork);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                unitOfWork.flush();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                unitOfWork.pendingWrites.clear();
+                TransactionSynchronizationManager.unbindResourceIfPossible(UnitOfWork.class);
+            }
+        });
+        return unitOfWork;
+    }
+
+    /// @return the unit of work bound to the transaction of the calling thread, if any.
+    public static Optional<UnitOfWork> current() {
+        return Optional.ofNullable((UnitOfWork) TransactionSynchronizationManager.getResource(UnitOfWork.class));
+    }
+
+    /// @param aggregateKey identifies the aggregate written, a pending write of the same aggregate is replaced.
+    /// @param write        writes the aggregate when the unit of work is flushed.
+    public void register(Object aggregateKey, Runnable write) {
+        Objects.requireNonNull(aggregateKey, "aggregate key is required");
+        Objects.requireNonNull(write, "write is required");
+        pendingWrites.remove(aggregateKey);
+        pendingWrites.put(aggregateKey, write);
+    }
+
+    public boolean hasPendingWrites() {
+        return !pendingWrites.isEmpty();
+    }
+
+    /// runs the pending writes, e.g. before reading something they may have changed.
+    public void flush() {
+        var iterator = pendingWrites.values().iterator();
+        while (iterator.hasNext()) {
+            var write = iterator.next();
+            iterator.remove();
+            write.run();
+        }
+    }
+}
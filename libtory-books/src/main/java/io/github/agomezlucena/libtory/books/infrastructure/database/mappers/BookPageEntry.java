@@ -0,0 +1,5 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database.mappers;
+
+/// a row of the first phase of the book pagination, the sort key is kept so the page can be continued from it.
+public record BookPageEntry(String isbn, String sortKey) {
+}
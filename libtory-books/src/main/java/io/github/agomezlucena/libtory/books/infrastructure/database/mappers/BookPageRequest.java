@@ -0,0 +1,91 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database.mappers;
+
+import io.github.agomezlucena.libtory.books.domain.BookProjection;
+import io.github.agomezlucena.libtory.books.domain.BookProjectionCursor;
+import io.github.agomezlucena.libtory.shared.cqrs.PagedQuery;
+
+import java.util.Optional;
+
+/// parameters used to select a page of isbns.
+///
+/// when the query contains a cursor the page is obtained seeking after the position stored in it, so the
+/// offset is always 0 and the sorting is the one used to create the cursor; otherwise the page is obtained
+/// skipping `page * size` rows. In both cases is requested one book more than the page size so it can be
+/// known if there is a next page without counting.
+///
+/// the pages without sorting are sorted by isbn in ascending order, which is covered by the primary key, so they
+/// have a stable order and can be continued with a cursor too.
+public class BookPageRequest {
+    private static final String DEFAULT_SORTING_FIELD = "isbn";
+
+    private final String sortingField;
+    private final String sortingDirection;
+    private final int limit;
+    private final int offset;
+    private final String afterSortKey;
+    private final String afterIsbn;
+
+    private BookPageRequest(
+            String sortingField,
+            String sortingDirection,
+            int limit,
+            int offset,
+            String afterSortKey,
+            String afterIsbn
+    ) {
+        this.sortingField = sortingField;
+        this.sortingDirection = sortingDirection;
+        this.limit = limit;
+        this.offset = offset;
+        this.afterSortKey = afterSortKey;
+        this.afterIsbn = afterIsbn;
+    }
+
+    public static BookPageRequest from(PagedQuery<BookProjection> query) {
+        var limit = query.getSize() + 1;
+        if (query.getCursor() != null) {
+            var cursor = BookProjectionCursor.decode(query.getCursor());
+            return new BookPageRequest(
+                    cursor.sortingField(),
+                    cursor.sortingDirection(),
+                    limit,
+                    0,
+                    cursor.sortKey(),
+                    cursor.isbn()
+            );
+        }
+
+        return new BookPageRequest(
+                Optional.ofNullable(query.getSortingField()).map(String::toLowerCase).orElse(DEFAULT_SORTING_FIELD),
+                query.getSortingDirection(),
+                limit,
+                query.getPage() * query.getSize(),
+                null,
+                null
+        );
+    }
+
+    public String getSortingField() {
+        return sortingField;
+    }
+
+    public String getSortingDirection() {
+        return sortingDirection;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public String getAfterSortKey() {
+        return afterSortKey;
+    }
+
+    public String getAfterIsbn() {
+        return afterIsbn;
+    }
+}
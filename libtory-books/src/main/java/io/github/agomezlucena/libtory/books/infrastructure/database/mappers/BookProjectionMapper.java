@@ -1,7 +1,6 @@
 package io.github.agomezlucena.libtory.books.infrastructure.database.mappers;
 
 import io.github.agomezlucena.libtory.books.domain.BookProjection;
-import io.github.agomezlucena.libtory.shared.cqrs.PagedQuery;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -9,7 +8,9 @@ import java.util.List;
 
 @Mapper
 public interface BookProjectionMapper {
-    List<BookProjection> getAllBooks(PagedQuery<BookProjection> pagedQuery);
+    List<BookPageEntry> getBookPage(BookPageRequest pageRequest);
+    List<BookProjection> findByIsbns(@Param("isbns") String[] isbns);
     int countAllBooks();
+    Integer estimateAllBooks();
     BookProjection findByIsbn(@Param("isbn") String isbn);
 }
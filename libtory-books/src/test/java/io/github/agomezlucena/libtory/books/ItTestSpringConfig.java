@@ -6,9 +6,12 @@ import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
 import io.github.agomezlucena.libtory.books.domain.BookProjectionRepository;
 import io.github.agomezlucena.libtory.books.domain.BookRepository;
 import io.github.agomezlucena.libtory.books.infrastructure.database.AuthorSqlChecker;
+import io.github.agomezlucena.libtory.books.infrastructure.database.BookCopyLoader;
+import io.github.agomezlucena.libtory.books.infrastructure.database.BookCounterReconciler;
 import io.github.agomezlucena.libtory.books.infrastructure.database.BookProjectionMybatisRepository;
 import io.github.agomezlucena.libtory.books.infrastructure.database.BookQueries;
 import io.github.agomezlucena.libtory.books.infrastructure.database.BookSqlRepository;
+import io.github.agomezlucena.libtory.books.infrastructure.database.DeadlineStatementInterceptor;
 import io.github.agomezlucena.libtory.books.infrastructure.database.mappers.BookProjectionMapper;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
@@ -18,6 +21,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.utility.DockerImageName;
 
@@ -55,6 +59,23 @@ public class ItTestSpringConfig {
         return new BookSqlRepository(queries, jdbcOperations);
     }
 
+    @Bean
+    BookCopyLoader bookCopyLoader(
+            BookQueries queries,
+            NamedParameterJdbcOperations jdbcOperations,
+            PlatformTransactionManager transactionManager
+    ) {
+        return new BookCopyLoader(queries, jdbcOperations, transactionManager);
+    }
+
+    @Bean
+    BookCounterReconciler bookCounterReconciler(
+            BookQueries queries,
+            NamedParameterJdbcOperations jdbcOperations
+    ) {
+        return new BookCounterReconciler(queries, jdbcOperations);
+    }
+
     @Bean
     BookProjectionMybatisRepository bookProjectionSqlRepository(
             BookProjectionMapper mapper,
@@ -63,6 +84,11 @@ public class ItTestSpringConfig {
         return new BookProjectionMybatisRepository(mapper,ioExecutor);
     }
 
+    @Bean
+    DeadlineStatementInterceptor deadlineStatementInterceptor() {
+        return new DeadlineStatementInterceptor();
+    }
+
     @Bean
     AuthorChecker authorChecker(
             BookQueries queries,
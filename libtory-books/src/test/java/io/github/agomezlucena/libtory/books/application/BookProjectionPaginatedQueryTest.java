@@ -1,5 +1,6 @@
 package io.github.agomezlucena.libtory.books.application;
 
+import io.github.agomezlucena.libtory.books.domain.BookProjectionCursor;
 import io.github.agomezlucena.libtory.shared.cqrs.InvalidQuery;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -39,4 +40,40 @@ class BookProjectionPaginatedQueryTest {
                 )
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should throw when the cursor was created with a different sorting")
+    void shouldThrowWhenTheCursorWasCreatedWithADifferentSorting() {
+        var givenCursor = new BookProjectionCursor("title", "ASC", "The Iliad", "9781914602108").encode();
+        assertThrows(
+                InvalidQuery.class,
+                () -> new BookProjectionPaginatedQuery(null, 10, "isbn", "ASC", givenCursor)
+        );
+    }
+
+    @Test
+    @DisplayName("should allow to omit the sorting when a cursor is given")
+    void shouldAllowToOmitTheSortingWhenACursorIsGiven() {
+        var givenCursor = new BookProjectionCursor("title", "DESC", "The Iliad", "9781914602108").encode();
+        assertDoesNotThrow(() -> new BookProjectionPaginatedQuery(null, 10, null, null, givenCursor));
+    }
+
+    @Test
+    @DisplayName("should throw when the cursor was created sorting by author name")
+    void shouldThrowWhenTheCursorWasCreatedSortingByAuthorName() {
+        var givenCursor = new BookProjectionCursor("author_name", "ASC", "Homer", "9781914602108").encode();
+        assertThrows(
+                InvalidQuery.class,
+                () -> new BookProjectionPaginatedQuery(null, 10, null, null, givenCursor)
+        );
+    }
+
+    @Test
+    @DisplayName("should throw when the cursor is malformed")
+    void shouldThrowWhenTheCursorIsMalformed() {
+        assertThrows(
+                InvalidQuery.class,
+                () -> new BookProjectionPaginatedQuery(null, 10, "title", "ASC", "not a cursor")
+        );
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.agomezlucena.libtory.books.application;
+
+import io.github.agomezlucena.libtory.shared.DataFakerExtension;
+import io.github.agomezlucena.libtory.shared.FakerIsbn;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(DataFakerExtension.class)
+@DisplayName("a change authors command should")
+class ChangeAuthorsCommandTest {
+
+    @Test
+    @DisplayName("merge several author updates of a book into their net change")
+    void shouldMergeSeveralAuthorUpdatesOfABookIntoTheirNetChange(@FakerIsbn String isbn) {
+        var keptAuthor = UUID.randomUUID();
+        var addedThenRemovedAuthor = UUID.randomUUID();
+        var removedThenAddedAuthor = UUID.randomUUID();
+        var coalescer = ChangeAuthorsCommand.coalescer();
+
+        var pending = coalescer.open(UpdateAuthorsCommand.addition(isbn, null, keptAuthor, addedThenRemovedAuthor));
+        pending = coalescer.merge(pending, UpdateAuthorsCommand.deletion(isbn, null, addedThenRemovedAuthor));
+        pending = coalescer.merge(pending, UpdateAuthorsCommand.deletion(isbn, null, removedThenAddedAuthor));
+        pending = coalescer.merge(pending, UpdateAuthorsCommand.addition(isbn, null, removedThenAddedAuthor));
+
+        assertEquals(isbn, pending.isbn());
+        assertEquals(Set.of(keptAuthor, removedThenAddedAuthor), pending.addedAuthorIds());
+        assertEquals(Set.of(addedThenRemovedAuthor), pending.removedAuthorIds());
+        assertEquals(Set.of(keptAuthor, addedThenRemovedAuthor, removedThenAddedAuthor), pending.checkedAuthorIds());
+    }
+
+    @Test
+    @DisplayName("not merge the author updates that expect a version of the book")
+    void shouldNotMergeTheAuthorUpdatesThatExpectAVersionOfTheBook(@FakerIsbn String isbn) {
+        var coalescer = ChangeAuthorsCommand.coalescer();
+        var versionedCommand = UpdateAuthorsCommand.addition(isbn, 3L, UUID.randomUUID());
+        var pending = coalescer.open(UpdateAuthorsCommand.addition(isbn, null, UUID.randomUUID()));
+
+        assertNull(coalescer.open(versionedCommand));
+        assertNull(coalescer.merge(pending, versionedCommand));
+    }
+
+    @Test
+    @DisplayName("throw an InvalidUpdateAuthorCommand when the isbn is not valid")
+    void shouldThrowAnInvalidUpdateAuthorCommandWhenTheIsbnIsNotValid() {
+        assertThrows(InvalidUpdateAuthorCommand.class, () -> new ChangeAuthorsCommand("", Set.of(), Set.of()));
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.agomezlucena.libtory.books.application;
+
+import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
+import io.github.agomezlucena.libtory.books.domain.BookNotFound;
+import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
+import io.github.agomezlucena.libtory.books.domain.BookRepository;
+import io.github.agomezlucena.libtory.books.domain.InvalidAuthor;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.shared.DataFakerExtension;
+import io.github.agomezlucena.libtory.shared.FakerIsbn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DataFakerExtension.class)
+@DisplayName("change book authors use case should")
+class ChangeBookAuthorsUseCaseTest {
+    private AuthorChecker checker;
+    private BookRepository repository;
+    private ChangeBookAuthorsUseCase testSubject;
+
+    @BeforeEach
+    void setUp() {
+        checker = mock();
+        repository = mock();
+        testSubject = new ChangeBookAuthorsUseCase(checker, repository);
+    }
+
+    @Test
+    @DisplayName("check the added authors once and save the book once with the net change of its authors")
+    void shouldCheckTheAddedAuthorsOnceAndSaveTheBookOnceWithTheNetChangeOfItsAuthors(@FakerIsbn String isbn) {
+        var keptAuthor = UUID.randomUUID();
+        var removedAuthor = UUID.randomUUID();
+        var firstAddedAuthor = UUID.randomUUID();
+        var secondAddedAuthor = UUID.randomUUID();
+        var storedBook = new BookPrimitives(isbn, "test", keptAuthor, removedAuthor).toStoredBook();
+        when(repository.findByIsbn(Isbn.fromString(isbn))).thenReturn(Optional.of(storedBook));
+        when(checker.authorsExists(any(UUID[].class))).thenReturn(true);
+
+        testSubject.handleCommand(new ChangeAuthorsCommand(
+                isbn,
+                Set.of(firstAddedAuthor, secondAddedAuthor),
+                Set.of(removedAuthor)
+        ));
+
+        assertEquals(Set.of(keptAuthor, firstAddedAuthor, secondAddedAuthor), storedBook.getAuthorsIds());
+        verify(checker, times(1)).authorsExists(any(UUID[].class));
+        verify(repository, times(1)).save(storedBook);
+    }
+
+    @Test
+    @DisplayName("not save the book when the net change leaves its authors as they were")
+    void shouldNotSaveTheBookWhenTheNetChangeLeavesItsAuthorsAsTheyWere(@FakerIsbn String isbn) {
+        var keptAuthor = UUID.randomUUID();
+        var storedBook = new BookPrimitives(isbn, "test", keptAuthor).toStoredBook();
+        when(repository.findByIsbn(Isbn.fromString(isbn))).thenReturn(Optional.of(storedBook));
+
+        testSubject.handleCommand(new ChangeAuthorsCommand(isbn, Set.of(), Set.of(UUID.randomUUID())));
+
+        verify(repository, never()).save(any());
+        verifyNoInteractions(checker);
+    }
+
+    @Test
+    @DisplayName("throw an InvalidAuthor exception when one of the added authors does not exist")
+    void shouldThrowAnInvalidAuthorExceptionWhenOneOfTheAddedAuthorsDoesNotExist(@FakerIsbn String isbn) {
+        var storedBook = new BookPrimitives(isbn, "test").toStoredBook();
+        when(repository.findByIsbn(Isbn.fromString(isbn))).thenReturn(Optional.of(storedBook));
+        when(checker.authorsExists(any(UUID[].class))).thenReturn(false);
+
+        var givenCommand = new ChangeAuthorsCommand(isbn, Set.of(UUID.randomUUID()), Set.of());
+        assertThrows(InvalidAuthor.class, () -> testSubject.handleCommand(givenCommand));
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("throw an InvalidAuthor exception when an author added and then removed does not exist")
+    void shouldThrowAnInvalidAuthorExceptionWhenAnAuthorAddedAndThenRemovedDoesNotExist(@FakerIsbn String isbn) {
+        var unknownAuthor = UUID.randomUUID();
+        var storedBook = new BookPrimitives(isbn, "test").toStoredBook();
+        when(repository.findByIsbn(Isbn.fromString(isbn))).thenReturn(Optional.of(storedBook));
+        when(checker.authorsExists(unknownAuthor)).thenReturn(false);
+
+        var givenCommand = new ChangeAuthorsCommand(isbn, Set.of(), Set.of(unknownAuthor), Set.of(unknownAuthor));
+        assertThrows(InvalidAuthor.class, () -> testSubject.handleCommand(givenCommand));
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("throw a book not found when the book does not exist")
+    void shouldThrowABookNotFoundWhenTheBookDoesNotExist(@FakerIsbn String isbn) {
+        when(repository.findByIsbn(Isbn.fromString(isbn))).thenReturn(Optional.empty());
+
+        var givenCommand = new ChangeAuthorsCommand(isbn, Set.of(UUID.randomUUID()), Set.of());
+        assertThrows(BookNotFound.class, () -> testSubject.handleCommand(givenCommand));
+
+        verify(repository, never()).save(any());
+        verifyNoInteractions(checker);
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.agomezlucena.libtory.books.application;
+
+import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
+import io.github.agomezlucena.libtory.books.domain.Book;
+import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
+import io.github.agomezlucena.libtory.books.domain.BookRepository;
+import io.github.agomezlucena.libtory.books.domain.InvalidAuthor;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.shared.DataFakerExtension;
+import io.github.agomezlucena.libtory.shared.FakerIsbn;
+import io.github.agomezlucena.libtory.shared.cqrs.CommandBus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DataFakerExtension.class)
+@DisplayName("the author updates merged by the command bus should")
+class CoalescedAuthorUpdatesTest {
+    private final UUID unknownAuthor = UUID.randomUUID();
+    private final AuthorChecker checker = authorIds -> !List.of(authorIds).contains(unknownAuthor);
+    private final List<Runnable> queuedTasks = new ArrayList<>();
+
+    @Test
+    @DisplayName("fail only the update that adds an author that does not exist")
+    void shouldFailOnlyTheUpdateThatAddsAnAuthorThatDoesNotExist(@FakerIsbn String isbn) throws Exception {
+        var knownAuthor = UUID.randomUUID();
+        var storedBook = new BookPrimitives(isbn, "test").toStoredBook();
+        var testSubject = commandBus(repositoryOf(storedBook));
+
+        var validAddition = testSubject.sendCommandAsync(UpdateAuthorsCommand.addition(isbn, null, knownAuthor));
+        var invalidAddition = testSubject.sendCommandAsync(UpdateAuthorsCommand.addition(isbn, null, unknownAuthor));
+        queuedTasks.forEach(Runnable::run);
+
+        assertNull(validAddition.get());
+        assertInstanceOf(InvalidAuthor.class, assertThrows(ExecutionException.class, invalidAddition::get).getCause());
+        assertEquals(1, testSubject.getCoalescedCommands(UpdateAuthorsCommand.class));
+        assertEquals(Set.of(knownAuthor), storedBook.getAuthorsIds());
+    }
+
+    @Test
+    @DisplayName("fail the addition of an author that does not exist even when it is removed afterwards")
+    void shouldFailTheAdditionOfAnAuthorThatDoesNotExistEvenWhenItIsRemovedAfterwards(@FakerIsbn String isbn)
+            throws Exception {
+        var keptAuthor = UUID.randomUUID();
+        var storedBook = new BookPrimitives(isbn, "test", keptAuthor).toStoredBook();
+        var testSubject = commandBus(repositoryOf(storedBook));
+
+        var invalidAddition = testSubject.sendCommandAsync(UpdateAuthorsCommand.addition(isbn, null, unknownAuthor));
+        var deletion = testSubject.sendCommandAsync(UpdateAuthorsCommand.deletion(isbn, null, unknownAuthor));
+        queuedTasks.forEach(Runnable::run);
+
+        assertInstanceOf(InvalidAuthor.class, assertThrows(ExecutionException.class, invalidAddition::get).getCause());
+        assertNull(deletion.get());
+        assertEquals(1, testSubject.getCoalescedCommands(UpdateAuthorsCommand.class));
+        assertEquals(Set.of(keptAuthor), storedBook.getAuthorsIds());
+    }
+
+    private BookRepository repositoryOf(Book storedBook) {
+        BookRepository repository = mock();
+        when(repository.findByIsbn(Isbn.fromString(storedBook.getIsbn()))).thenReturn(Optional.of(storedBook));
+        return repository;
+    }
+
+    private CommandBus commandBus(BookRepository repository) {
+        return CommandBus.getNewCommandBus(1, queuedTasks::add)
+                .addHandler(UpdateAuthorsCommand.class, new UpdateBookAuthorsUseCase(checker, repository))
+                .addHandler(ChangeAuthorsCommand.class, new ChangeBookAuthorsUseCase(checker, repository))
+                .routeBy(UpdateAuthorsCommand.class, UpdateAuthorsCommand::getIsbn)
+                .routeBy(ChangeAuthorsCommand.class, ChangeAuthorsCommand::getIsbn)
+                .enableCoalescing(UpdateAuthorsCommand.class, ChangeAuthorsCommand.coalescer());
+    }
+}
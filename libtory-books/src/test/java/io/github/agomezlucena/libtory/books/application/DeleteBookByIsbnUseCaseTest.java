@@ -25,9 +25,9 @@ class DeleteBookByIsbnUseCaseTest {
     }
 
     @Test
-    @DisplayName("should allow to accept isbn as command")
+    @DisplayName("should allow to accept a delete book command as command")
     void shouldAllowToAcceptIsbnAsCommand() {
-        assertTrue(testSubject.canHandle(Isbn.class));
+        assertTrue(testSubject.canHandle(DeleteBookCommand.class));
         assertFalse(testSubject.canHandle(Integer.class));
     }
 
@@ -35,7 +35,15 @@ class DeleteBookByIsbnUseCaseTest {
     @DisplayName("should call to the repository for deleting the book with the given isbn")
     void shouldCallToRepositoryForDeletingIsbn(@FakerIsbn String givenIsbn) {
         var isbn = Isbn.fromString(givenIsbn);
-        testSubject.handleCommand(isbn);
-        verify(bookRepository).delete(isbn);
+        testSubject.handleCommand(new DeleteBookCommand(isbn));
+        verify(bookRepository).delete(isbn, null);
+    }
+
+    @Test
+    @DisplayName("should call to the repository for deleting the book only in the expected version")
+    void shouldCallToRepositoryForDeletingTheBookOnlyInTheExpectedVersion(@FakerIsbn String givenIsbn) {
+        var isbn = Isbn.fromString(givenIsbn);
+        testSubject.handleCommand(new DeleteBookCommand(isbn, 4L));
+        verify(bookRepository).delete(isbn, 4L);
     }
 }
\ No newline at end of file
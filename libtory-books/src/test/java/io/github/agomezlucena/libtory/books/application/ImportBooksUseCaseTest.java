@@ -0,0 +1,167 @@
+package io.github.agomezlucena.libtory.books.application;
+
+import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
+import io.github.agomezlucena.libtory.books.domain.Book;
+import io.github.agomezlucena.libtory.books.domain.BookCatalogLoader;
+import io.github.agomezlucena.libtory.shared.DataFakerExtension;
+import io.github.agomezlucena.libtory.shared.FakerIsbn;
+import io.github.agomezlucena.libtory.shared.csv.CsvReader;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DataFakerExtension.class)
+@DisplayName("import books use case should")
+class ImportBooksUseCaseTest {
+    @TempDir
+    private Path directory;
+    private Path source;
+    private Path rejectedRows;
+    private AuthorChecker checker;
+    private List<List<Book>> loadedChunks;
+    private BookCatalogLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        source = directory.resolve("books.csv");
+        rejectedRows = directory.resolve("books.rejected.csv");
+        checker = mock();
+        loadedChunks = new ArrayList<>();
+        loader = books -> {
+            loadedChunks.add(books);
+            return books.size();
+        };
+    }
+
+    @Test
+    @DisplayName("load the books of the document in chunks skipping its header")
+    void shouldLoadTheBooksOfTheDocumentInChunksSkippingItsHeader(
+            @FakerIsbn String firstIsbn,
+            @FakerIsbn String secondIsbn,
+            @FakerIsbn String thirdIsbn
+    ) throws IOException {
+        var author = UUID.randomUUID();
+        Files.writeString(source, String.join("\n",
+                "isbn,title,authors",
+                firstIsbn + ",first title," + author,
+                secondIsbn + ",\"second, title\"",
+                thirdIsbn + ",third title,"
+        ));
+        when(checker.existingAuthors(Set.of(author))).thenReturn(Set.of(author));
+        var progress = new ArrayList<BookImportProgress>();
+
+        testSubject(2).handleCommand(new ImportBooksCommand(source, rejectedRows, progress::add));
+
+        assertEquals(2, loadedChunks.size());
+        assertEquals(List.of(firstIsbn, secondIsbn), loadedChunks.get(0).stream().map(Book::getIsbn).toList());
+        assertEquals(Set.of(author), loadedChunks.get(0).getFirst().getAuthorsIds());
+        assertEquals("second, title", loadedChunks.get(0).get(1).getTitle());
+        assertEquals(List.of(thirdIsbn), loadedChunks.get(1).stream().map(Book::getIsbn).toList());
+        assertEquals(new BookImportProgress(3, 3, 0, 3), progress.getLast());
+        assertEquals(List.of(List.of("line", "reason", "isbn", "title", "authors")), readRejectedRows());
+    }
+
+    @Test
+    @DisplayName("write the invalid rows with their reason to the rejected rows file")
+    void shouldWriteTheInvalidRowsWithTheirReasonToTheRejectedRowsFile(@FakerIsbn String isbn) throws IOException {
+        var unknownAuthor = UUID.randomUUID();
+        Files.writeString(source, String.join("\n",
+                "not an isbn,a title",
+                isbn + ",",
+                isbn + ",a title,not an uuid",
+                isbn + ",a title," + unknownAuthor,
+                isbn + "," + "a".repeat(ImportBooksUseCase.MAX_TITLE_LENGTH + 1),
+                isbn,
+                isbn + ",a valid title"
+        ));
+        when(checker.existingAuthors(Set.of(unknownAuthor))).thenReturn(Set.of());
+        var progress = new ArrayList<BookImportProgress>();
+
+        testSubject(100).handleCommand(new ImportBooksCommand(source, rejectedRows, progress::add));
+
+        var rejected = readRejectedRows();
+        assertEquals(7, rejected.size());
+        assertEquals(List.of("1", "2", "3", "4", "5", "6"), rejected.stream().skip(1).map(List::getFirst).toList());
+        assertEquals("unknown authors: " + unknownAuthor, rejected.get(4).get(1));
+        assertEquals(List.of(isbn, "a title", unknownAuthor.toString()), rejected.get(4).subList(2, 5));
+        assertEquals(1, loadedChunks.size());
+        assertEquals("a valid title", loadedChunks.getFirst().getFirst().getTitle());
+        assertEquals(new BookImportProgress(7, 1, 6, 1), progress.getLast());
+    }
+
+    @Test
+    @DisplayName("resolve the authors of a whole chunk at once")
+    void shouldResolveTheAuthorsOfAWholeChunkAtOnce(
+            @FakerIsbn String firstIsbn,
+            @FakerIsbn String secondIsbn
+    ) throws IOException {
+        var firstAuthor = UUID.randomUUID();
+        var secondAuthor = UUID.randomUUID();
+        Files.writeString(source, String.join("\n",
+                firstIsbn + ",first title," + firstAuthor + ";" + secondAuthor,
+                secondIsbn + ",second title," + secondAuthor
+        ));
+        when(checker.existingAuthors(any())).thenReturn(Set.of(firstAuthor, secondAuthor));
+
+        testSubject(100).handleCommand(new ImportBooksCommand(source, rejectedRows));
+
+        verify(checker, times(1)).existingAuthors(Set.of(firstAuthor, secondAuthor));
+        verify(checker, never()).authorsExists(any(UUID[].class));
+        assertEquals(2, loadedChunks.getFirst().size());
+    }
+
+    @Test
+    @DisplayName("fail when the document can not be read")
+    void shouldFailWhenTheDocumentCanNotBeRead() {
+        var command = new ImportBooksCommand(directory.resolve("missing.csv"), rejectedRows);
+
+        assertThrows(UncheckedIOException.class, () -> testSubject(100).handleCommand(command));
+        assertTrue(loadedChunks.isEmpty());
+    }
+
+    @Test
+    @DisplayName("propagate the failures of the loader")
+    void shouldPropagateTheFailuresOfTheLoader(@FakerIsbn String isbn) throws IOException {
+        var expectedException = new IllegalStateException("load failed");
+        Files.writeString(source, isbn + ",a title");
+        loader = books -> {
+            throw expectedException;
+        };
+
+        var obtainedException = assertThrows(
+                IllegalStateException.class,
+                () -> testSubject(100).handleCommand(new ImportBooksCommand(source, rejectedRows))
+        );
+
+        assertSame(expectedException, obtainedException);
+    }
+
+    private ImportBooksUseCase testSubject(int chunkSize) {
+        return new ImportBooksUseCase(loader, checker, Runnable::run, chunkSize);
+    }
+
+    private List<List<String>> readRejectedRows() throws IOException {
+        var records = new ArrayList<List<String>>();
+        try (var reader = new CsvReader(Files.newBufferedReader(rejectedRows))) {
+            for (var record = reader.readRecord(); record != null; record = reader.readRecord()) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -8,7 +8,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.spy;
@@ -46,4 +48,25 @@ public class QueryBookByIsbnUseCaseITTest {
 
         verify(bookProjectionRepository).findProjectionByIsbn(Isbn.fromString(expectedValue.isbn()));
     }
+
+    @Test
+    public void shouldFindAllTheGivenIsbnsWithOneCallToTheRepository(){
+        var givenIsbns = Set.of(
+                Isbn.fromString(BooksTestUtils.createTheIliad().isbn()),
+                Isbn.fromString("9780306406157")
+        );
+        var obtainedValue = queryBookByIsbnUseCase.handleAll(givenIsbns);
+
+        assertEquals(
+                Map.of(
+                        Isbn.fromString(BooksTestUtils.createTheIliad().isbn()),
+                        Optional.of(BooksTestUtils.createTheIliad()),
+                        Isbn.fromString("9780306406157"),
+                        Optional.empty()
+                ),
+                obtainedValue
+        );
+
+        verify(bookProjectionRepository).findProjectionsByIsbns(givenIsbns);
+    }
 }
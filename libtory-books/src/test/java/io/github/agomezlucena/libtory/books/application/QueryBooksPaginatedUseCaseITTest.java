@@ -1,5 +1,6 @@
 package io.github.agomezlucena.libtory.books.application;
 
+import io.github.agomezlucena.libtory.books.domain.BookProjectionCursor;
 import io.github.agomezlucena.libtory.shared.cqrs.PaginatedResult;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
@@ -31,7 +32,10 @@ class QueryBooksPaginatedUseCaseITTest {
     @Test
     @DisplayName("should call to the book repository when is called")
     void shouldCallToTheBookRepositoryWhenIsCalled() {
-        var expectedResult = new PaginatedResult<>(List.of(createTheIliad()),1,3,null,null);
+        var expectedCursor = new BookProjectionCursor("isbn","ASC","9780201616224","9780201616224").encode();
+        var expectedResult = new PaginatedResult<>(
+                List.of(createThePragmaticProgrammer()),1,3,"isbn","ASC",expectedCursor
+        );
         var givenPagedQuery = new BookProjectionPaginatedQuery(0,1,null,null);
 
         var result = testSubject.handle(givenPagedQuery);
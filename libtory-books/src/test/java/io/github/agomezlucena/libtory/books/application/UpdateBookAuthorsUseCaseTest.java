@@ -1,8 +1,10 @@
 package io.github.agomezlucena.libtory.books.application;
 
 import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
+import io.github.agomezlucena.libtory.books.domain.BookNotFound;
 import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
 import io.github.agomezlucena.libtory.books.domain.BookRepository;
+import io.github.agomezlucena.libtory.books.domain.BookVersionMismatch;
 import io.github.agomezlucena.libtory.books.domain.Isbn;
 import io.github.agomezlucena.libtory.shared.DataFakerExtension;
 import io.github.agomezlucena.libtory.shared.FakerIsbn;
@@ -105,4 +107,40 @@ class UpdateBookAuthorsUseCaseTest {
         verifyNoInteractions(checker);
         verifyNoMoreInteractions(repository);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should not update the authors of a book that is not in the expected version")
+    void shouldNotUpdateTheAuthorsOfABookThatIsNotInTheExpectedVersion(@FakerIsbn String isbn) {
+        var givenCommand = UpdateAuthorsCommand.deletion(isbn, 1L, UUID.randomUUID());
+        var returnedBook = new BookPrimitives(isbn, "test", givenCommand.authorsIds()).withVersion(2L).toStoredBook();
+
+        when(repository.findByIsbn(Isbn.fromString(isbn))).thenReturn(Optional.of(returnedBook));
+
+        assertThrows(BookVersionMismatch.class, () -> testSubject.handleCommand(givenCommand));
+        assertFalse(returnedBook.hasChanges());
+        verify(repository).findByIsbn(Isbn.fromString(isbn));
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    @DisplayName("should throw a version mismatch when a version is expected from a book that does not exist")
+    void shouldThrowAVersionMismatchWhenAVersionIsExpectedFromABookThatDoesNotExist(@FakerIsbn String isbn) {
+        var givenCommand = UpdateAuthorsCommand.deletion(isbn, 1L, UUID.randomUUID());
+
+        when(repository.findByIsbn(Isbn.fromString(isbn))).thenReturn(Optional.empty());
+
+        assertThrows(BookVersionMismatch.class, () -> testSubject.handleCommand(givenCommand));
+    }
+
+    @Test
+    @DisplayName("should throw a book not found when the book does not exist and no version is expected")
+    void shouldThrowABookNotFoundWhenTheBookDoesNotExistAndNoVersionIsExpected(@FakerIsbn String isbn) {
+        var givenCommand = UpdateAuthorsCommand.addition(isbn, null, UUID.randomUUID());
+
+        when(repository.findByIsbn(Isbn.fromString(isbn))).thenReturn(Optional.empty());
+
+        assertThrows(BookNotFound.class, () -> testSubject.handleCommand(givenCommand));
+        verify(repository).findByIsbn(Isbn.fromString(isbn));
+        verifyNoMoreInteractions(repository);
+    }
+}
@@ -10,6 +10,9 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -68,6 +71,69 @@ class UpdateBookUseCaseTest {
         verify(repository).save(givenPrimitive.toBook());
     }
 
+    @Test
+    @DisplayName("not save the given book when it is identical to the stored one")
+    void shouldNotSaveTheGivenBookWhenItIsIdenticalToTheStoredOne(
+            @FakerIsbn String givenIsbn,
+            @FakerBookTitle String givenTitle
+    ) {
+        var givenPrimitive = new BookPrimitives(givenIsbn, givenTitle, UUID.randomUUID());
+        when(authorChecker.authorsExists(any(UUID[].class))).thenReturn(true);
+        when(repository.findByIsbn(Isbn.fromString(givenIsbn))).thenReturn(Optional.of(givenPrimitive.toStoredBook()));
+
+        testSubject.handleCommand(givenPrimitive);
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("save only the changes of the stored book")
+    void shouldSaveOnlyTheChangesOfTheStoredBook(
+            @FakerIsbn String givenIsbn,
+            @FakerBookTitle String givenTitle
+    ) {
+        var givenAuthorId = UUID.randomUUID();
+        var storedBook = new BookPrimitives(givenIsbn, givenTitle).toStoredBook();
+        when(authorChecker.authorsExists(any(UUID[].class))).thenReturn(true);
+        when(repository.findByIsbn(Isbn.fromString(givenIsbn))).thenReturn(Optional.of(storedBook));
+
+        testSubject.handleCommand(new BookPrimitives(givenIsbn, givenTitle, givenAuthorId));
+
+        verify(repository).save(storedBook);
+        assertFalse(storedBook.getChanges().isTitleChanged());
+        assertEquals(Set.of(givenAuthorId), storedBook.getChanges().addedAuthors());
+    }
+
+    @Test
+    @DisplayName("not save the stored book when it is not in the expected version")
+    void shouldNotSaveTheStoredBookWhenItIsNotInTheExpectedVersion(
+            @FakerIsbn String givenIsbn,
+            @FakerBookTitle String givenTitle
+    ) {
+        var storedBook = new BookPrimitives(givenIsbn, givenTitle).withVersion(5L).toStoredBook();
+        when(repository.findByIsbn(Isbn.fromString(givenIsbn))).thenReturn(Optional.of(storedBook));
+
+        var givenPrimitive = new BookPrimitives(givenIsbn, "another " + givenTitle).withVersion(4L);
+        assertThrows(BookVersionMismatch.class, () -> testSubject.handleCommand(givenPrimitive));
+
+        assertFalse(storedBook.hasChanges());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("not create a book when a version of it is expected")
+    void shouldNotCreateABookWhenAVersionOfItIsExpected(
+            @FakerIsbn String givenIsbn,
+            @FakerBookTitle String givenTitle
+    ) {
+        when(repository.findByIsbn(Isbn.fromString(givenIsbn))).thenReturn(Optional.empty());
+
+        var givenPrimitive = new BookPrimitives(givenIsbn, givenTitle).withVersion(1L);
+        assertThrows(BookVersionMismatch.class, () -> testSubject.handleCommand(givenPrimitive));
+
+        verify(repository, never()).save(any());
+    }
+
     @Test
     @DisplayName("throw an InvalidAuthor exception when the given author does not exists")
     void shouldThrowAnInvalidAuthorExceptionWhenTheGivenAuthorDoesNotExist(
@@ -97,4 +163,81 @@ class UpdateBookUseCaseTest {
         verifyNoInteractions(authorChecker,repository);
     }
 
-}
\ No newline at end of file
+    @Test
+    @DisplayName("write the books of several commands at once")
+    void shouldWriteTheBooksOfSeveralCommandsAtOnce(
+            @FakerIsbn String firstIsbn,
+            @FakerIsbn String secondIsbn,
+            @FakerBookTitle String givenTitle
+    ) {
+        var firstCommand = new BookPrimitives(firstIsbn, givenTitle, UUID.randomUUID());
+        var secondCommand = new BookPrimitives(secondIsbn, givenTitle, UUID.randomUUID());
+        when(authorChecker.authorsExists(any(UUID[].class))).thenReturn(true);
+
+        var failures = testSubject.handleAll(List.of(firstCommand, secondCommand));
+
+        assertTrue(failures.isEmpty());
+        verify(authorChecker, times(1)).authorsExists(any(UUID[].class));
+        verify(repository).saveAll(List.of(firstCommand.toBook(), secondCommand.toBook()));
+        verify(repository, never()).findByIsbn(any());
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("write the rest of the books when some of the commands are invalid")
+    void shouldWriteTheRestOfTheBooksWhenSomeOfTheCommandsAreInvalid(
+            @FakerIsbn String validIsbn,
+            @FakerIsbn String anotherValidIsbn,
+            @FakerBookTitle String givenTitle
+    ) {
+        var existingAuthor = UUID.randomUUID();
+        var validCommand = new BookPrimitives(validIsbn, givenTitle, existingAuthor);
+        var invalidIsbnCommand = new BookPrimitives("", givenTitle);
+        var invalidAuthorCommand = new BookPrimitives(anotherValidIsbn, givenTitle, UUID.randomUUID());
+        when(authorChecker.authorsExists(existingAuthor)).thenReturn(true);
+
+        var failures = testSubject.handleAll(List.of(validCommand, invalidIsbnCommand, invalidAuthorCommand));
+
+        assertEquals(2, failures.size());
+        assertInstanceOf(InvalidIsbn.class, failures.get(invalidIsbnCommand));
+        assertInstanceOf(InvalidAuthor.class, failures.get(invalidAuthorCommand));
+        verify(repository).saveAll(List.of(validCommand.toBook()));
+    }
+
+    @Test
+    @DisplayName("save the books one by one when they can not be written at once")
+    void shouldSaveTheBooksOneByOneWhenTheyCanNotBeWrittenAtOnce(
+            @FakerIsbn String firstIsbn,
+            @FakerIsbn String secondIsbn,
+            @FakerBookTitle String givenTitle
+    ) {
+        var firstCommand = new BookPrimitives(firstIsbn, givenTitle);
+        var secondCommand = new BookPrimitives(secondIsbn, givenTitle);
+        var expectedException = new IllegalStateException("write failed");
+        doThrow(expectedException).when(repository).saveAll(any());
+        doThrow(expectedException).when(repository).save(secondCommand.toBook());
+
+        var failures = testSubject.handleAll(List.of(firstCommand, secondCommand));
+
+        assertEquals(1, failures.size());
+        assertSame(expectedException, failures.get(secondCommand));
+        verify(repository).save(firstCommand.toBook());
+    }
+
+    @Test
+    @DisplayName("handle on their own the commands that expect a version when they are handled at once")
+    void shouldHandleOnTheirOwnTheCommandsThatExpectAVersionWhenTheyAreHandledAtOnce(
+            @FakerIsbn String givenIsbn,
+            @FakerBookTitle String givenTitle
+    ) {
+        var storedBook = new BookPrimitives(givenIsbn, givenTitle).withVersion(5L).toStoredBook();
+        when(repository.findByIsbn(Isbn.fromString(givenIsbn))).thenReturn(Optional.of(storedBook));
+        var mismatchedCommand = new BookPrimitives(givenIsbn, "another " + givenTitle).withVersion(4L);
+
+        var failures = testSubject.handleAll(List.of(mismatchedCommand));
+
+        assertInstanceOf(BookVersionMismatch.class, failures.get(mismatchedCommand));
+        verify(repository, never()).saveAll(any());
+        verify(repository, never()).save(any());
+    }
+}
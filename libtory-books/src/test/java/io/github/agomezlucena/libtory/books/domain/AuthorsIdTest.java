@@ -0,0 +1,108 @@
+package io.github.agomezlucena.libtory.books.domain;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Label("AuthorsId should")
+class AuthorsIdTest {
+    // a small pool of ids, some of them with the same most significant bits, so the operations overlap often
+    private static final List<UUID> IDS = List.of(
+            new UUID(0, 1), new UUID(0, 2), new UUID(0, -1),
+            new UUID(-5, 7), new UUID(-5, 8), new UUID(Long.MIN_VALUE, 0),
+            new UUID(Long.MAX_VALUE, Long.MAX_VALUE), UUID.fromString("4e3b1c56-8a2f-4bb4-9f0e-2c1d3e4f5a6b")
+    );
+
+    @Property
+    @Label("hold the union of its ids and the added ones")
+    void shouldHoldTheUnionOfItsIdsAndTheAddedOnes(@ForAll("ids") UUID[] initialIds, @ForAll("ids") UUID[] addedIds) {
+        var expectedValue = new HashSet<>(List.of(initialIds));
+        expectedValue.addAll(List.of(addedIds));
+
+        var obtainedValue = AuthorsId.from(initialIds).addAuthors(addedIds);
+
+        assertEquals(expectedValue, obtainedValue.ids());
+        assertEquals(AuthorsId.from(expectedValue), obtainedValue);
+    }
+
+    @Property
+    @Label("hold the difference of its ids and the removed ones")
+    void shouldHoldTheDifferenceOfItsIdsAndTheRemovedOnes(@ForAll("ids") UUID[] initialIds, @ForAll("ids") UUID[] removedIds) {
+        var expectedValue = new HashSet<>(List.of(initialIds));
+        List.of(removedIds).forEach(expectedValue::remove);
+
+        var obtainedValue = AuthorsId.from(initialIds).remove(removedIds);
+
+        assertEquals(expectedValue, obtainedValue.ids());
+        assertEquals(expectedValue.isEmpty(), obtainedValue.isEmpty());
+        assertEquals(AuthorsId.from(expectedValue), obtainedValue);
+    }
+
+    @Property
+    @Label("contain exactly its ids")
+    void shouldContainExactlyItsIds(@ForAll("ids") UUID[] givenIds) {
+        var testSubject = AuthorsId.from(givenIds);
+        var expectedIds = Set.copyOf(List.of(givenIds));
+
+        for (var id : IDS) {
+            assertEquals(expectedIds.contains(id), testSubject.contains(id));
+            assertEquals(expectedIds.contains(id), testSubject.ids().contains(id));
+        }
+        assertEquals(expectedIds.size(), testSubject.size());
+    }
+
+    @Property
+    @Label("be equal to other instance with the same ids no matter their order")
+    void shouldBeEqualToOtherInstanceWithTheSameIdsNoMatterTheirOrder(@ForAll("ids") UUID[] givenIds) {
+        var reversedIds = givenIds.clone();
+        Collections.reverse(Arrays.asList(reversedIds));
+
+        var testSubject = AuthorsId.from(givenIds);
+        var other = AuthorsId.from(reversedIds);
+
+        assertEquals(testSubject, other);
+        assertEquals(testSubject.hashCode(), other.hashCode());
+    }
+
+    @Example
+    @Label("return the same instance when the ids do not change it")
+    void shouldReturnTheSameInstanceWhenTheIdsDoNotChangeIt() {
+        var testSubject = AuthorsId.from(IDS.get(0), IDS.get(1));
+
+        assertSame(testSubject, testSubject.addAuthors(IDS.get(1)));
+        assertSame(testSubject, testSubject.remove(IDS.get(2)));
+        assertSame(testSubject, testSubject.addAuthors());
+        assertSame(testSubject, testSubject.remove((UUID[]) null));
+    }
+
+    @Example
+    @Label("return the shared empty instance when every id is removed")
+    void shouldReturnTheSharedEmptyInstanceWhenEveryIdIsRemoved() {
+        var testSubject = AuthorsId.from(IDS.get(0), IDS.get(1));
+        assertSame(AuthorsId.from(), testSubject.remove(IDS.get(1), IDS.get(0)));
+    }
+
+    @Example
+    @Label("not allow null ids")
+    void shouldNotAllowNullIds() {
+        assertThrows(NullPointerException.class, () -> AuthorsId.from(IDS.get(0), null));
+    }
+
+    @Provide
+    Arbitrary<UUID[]> ids() {
+        return Arbitraries.of(IDS).array(UUID[].class).ofMaxSize(6);
+    }
+}
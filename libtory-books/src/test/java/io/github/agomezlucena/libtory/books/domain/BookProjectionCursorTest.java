@@ -0,0 +1,50 @@
+package io.github.agomezlucena.libtory.books.domain;
+
+import io.github.agomezlucena.libtory.shared.cqrs.InvalidQuery;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BookProjectionCursor should")
+class BookProjectionCursorTest {
+
+    @ParameterizedTest(name = "sort key: {0}")
+    @ValueSource(strings = {"The Iliad", "", "título con acentos: ¿y ahora?", "a/b+c=d"})
+    @DisplayName("obtain the same cursor after encoding and decoding it")
+    void shouldObtainTheSameCursorAfterEncodingAndDecodingIt(String sortKey) {
+        var expectedValue = new BookProjectionCursor("title", "DESC", sortKey, "9781914602108");
+
+        var obtainedValue = BookProjectionCursor.decode(expectedValue.encode());
+        assertEquals(expectedValue, obtainedValue);
+    }
+
+    @Test
+    @DisplayName("produce a token that can be used in an url")
+    void shouldProduceATokenThatCanBeUsedInAnUrl() {
+        var givenCursor = new BookProjectionCursor("title", "ASC", "¿?/+=&", "9781914602108");
+        assertTrue(givenCursor.encode().matches("[A-Za-z0-9_-]+"));
+    }
+
+    @ParameterizedTest(name = "token: {0}")
+    @ValueSource(strings = {"not a cursor", "dGl0bGU", "djI\u0000"})
+    @DisplayName("throw an InvalidQuery when the token is malformed")
+    void shouldThrowAnInvalidQueryWhenTheTokenIsMalformed(String givenToken) {
+        assertThrows(InvalidQuery.class, () -> BookProjectionCursor.decode(givenToken));
+    }
+
+    @Test
+    @DisplayName("throw an InvalidQuery when the token has an unknown version")
+    void shouldThrowAnInvalidQueryWhenTheTokenHasAnUnknownVersion() {
+        var givenToken = Base64.getUrlEncoder().encodeToString(
+                String.join("\u0000", "v0", "title", "ASC", "9781914602108", "The Iliad")
+                        .getBytes(StandardCharsets.UTF_8)
+        );
+        assertThrows(InvalidQuery.class, () -> BookProjectionCursor.decode(givenToken));
+    }
+}
@@ -197,6 +197,76 @@ class BookTest {
         verify(mockedRepository, times(0)).save(testSubject);
     }
 
+    @Test
+    @DisplayName("have its whole state as changes when it has not been stored")
+    void shouldHaveItsWholeStateAsChangesWhenItHasNotBeenStored(Faker faker) {
+        final var givenAuthorId = UUID.randomUUID();
+        final var testSubject = new BookPrimitives(faker.code().isbn13(), faker.book().title(), givenAuthorId).toBook();
+
+        var obtainedChanges = testSubject.getChanges();
+
+        assertTrue(testSubject.hasChanges());
+        assertTrue(obtainedChanges.isNewBook());
+        assertTrue(obtainedChanges.isTitleChanged());
+        assertEquals(Set.of(givenAuthorId), obtainedChanges.addedAuthors());
+        assertEquals(Set.of(), obtainedChanges.removedAuthors());
+    }
+
+    @Test
+    @DisplayName("not have changes when it is replaced by an identical book")
+    void shouldNotHaveChangesWhenItIsReplacedByAnIdenticalBook(Faker faker) {
+        final var givenPrimitives = new BookPrimitives(faker.code().isbn13(), faker.book().title(), UUID.randomUUID());
+        final var testSubject = givenPrimitives.toStoredBook();
+
+        testSubject.replaceWith(givenPrimitives.toBook());
+
+        assertFalse(testSubject.hasChanges());
+        assertFalse(testSubject.getChanges().hasChanges());
+    }
+
+    @Test
+    @DisplayName("record only what has changed since it was stored")
+    void shouldRecordOnlyWhatHasChangedSinceItWasStored(Faker faker) {
+        final var givenIsbn = faker.code().isbn13();
+        final var keptAuthorId = UUID.randomUUID();
+        final var removedAuthorId = UUID.randomUUID();
+        final var addedAuthorId = UUID.randomUUID();
+        final var testSubject = new BookPrimitives(givenIsbn, "old title", keptAuthorId, removedAuthorId).toStoredBook();
+
+        testSubject.replaceWith(new BookPrimitives(givenIsbn, "new title", keptAuthorId, addedAuthorId).toBook());
+
+        var obtainedChanges = testSubject.getChanges();
+        assertFalse(obtainedChanges.isNewBook());
+        assertTrue(obtainedChanges.isTitleChanged());
+        assertEquals(Set.of(addedAuthorId), obtainedChanges.addedAuthors());
+        assertEquals(Set.of(removedAuthorId), obtainedChanges.removedAuthors());
+
+        testSubject.changesWritten(1);
+        assertFalse(testSubject.hasChanges());
+        assertEquals(1, testSubject.getVersion());
+    }
+
+    @Test
+    @DisplayName("accept the expected version only when it is the version of the book")
+    void shouldAcceptTheExpectedVersionOnlyWhenItIsTheVersionOfTheBook() {
+        final var testSubject = new BookPrimitives("9780596520687", "a title").withVersion(3L).toStoredBook();
+
+        assertEquals(3, testSubject.getVersion());
+        assertDoesNotThrow(() -> testSubject.checkVersion(null));
+        assertDoesNotThrow(() -> testSubject.checkVersion(3L));
+        assertThrows(BookVersionMismatch.class, () -> testSubject.checkVersion(2L));
+    }
+
+    @Test
+    @DisplayName("not be replaced by a book with a different isbn")
+    void shouldNotBeReplacedByABookWithADifferentIsbn() {
+        final var testSubject = new BookPrimitives("9780596520687", "a title").toStoredBook();
+        final var otherBook = new BookPrimitives("9780134685991", "a title").toBook();
+
+        assertThrows(InvalidIsbn.class, () -> testSubject.replaceWith(otherBook));
+        assertFalse(testSubject.hasChanges());
+    }
+
     private static Stream<Arguments> emptyTitles() {
         return Stream.of(
                 arguments("is null", null),
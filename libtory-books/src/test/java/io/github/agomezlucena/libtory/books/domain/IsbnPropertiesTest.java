@@ -0,0 +1,115 @@
+package io.github.agomezlucena.libtory.books.domain;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.Combinators;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Label;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+
+import java.util.regex.Pattern;
+
+import static io.github.agomezlucena.libtory.books.testutils.BooksTestUtils.withCheckDigit;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Label("ISBN should")
+class IsbnPropertiesTest {
+    private static final Pattern LEGACY_INVALID_CHARACTERS = Pattern.compile(
+            ".*[a-zA-Z!@#$%^&*()_+=\\[\\]{};':\"\\\\|,.<>\\/?].*"
+    );
+
+    @Property
+    @Label("accept every isbn with a valid checksum no matter its hyphens")
+    void shouldAcceptEveryIsbnWithAValidChecksumNoMatterItsHyphens(@ForAll("validIsbns") String givenIsbn) {
+        assertTrue(Isbn.isValidISBN(givenIsbn));
+        assertTrue(isValidByLegacyRules(givenIsbn));
+        assertEquals(givenIsbn.replace("-", ""), Isbn.fromString(givenIsbn).isbnLiteral());
+    }
+
+    @Property
+    @Label("validate any 13 digits like the regex based validation")
+    void shouldValidateAny13DigitsLikeTheRegexBasedValidation(@ForAll("thirteenDigits") String givenIsbn) {
+        assertEquals(isValidByLegacyRules(givenIsbn), Isbn.isValidISBN(givenIsbn));
+    }
+
+    @Property
+    @Label("only accept what the regex based validation accepted with exactly 13 digits")
+    void shouldOnlyAcceptWhatTheRegexBasedValidationAcceptedWithExactly13Digits(@ForAll("anyIsbnLikeText") String givenText) {
+        var expectedValue = isValidByLegacyRules(givenText) && givenText.replace("-", "").length() == 13;
+        assertEquals(expectedValue, Isbn.isValidISBN(givenText));
+    }
+
+    @Property
+    @Label("be equal to the same isbn written with other hyphens")
+    void shouldBeEqualToTheSameIsbnWrittenWithOtherHyphens(
+            @ForAll("validIsbns") String givenIsbn,
+            @ForAll("hyphenPositions") int otherHyphens
+    ) {
+        var sameIsbn = withHyphens(givenIsbn.replace("-", ""), otherHyphens);
+
+        assertEquals(Isbn.fromString(givenIsbn), Isbn.fromString(sameIsbn));
+        assertEquals(Isbn.fromString(givenIsbn).hashCode(), Isbn.fromString(sameIsbn).hashCode());
+    }
+
+    @Provide
+    Arbitrary<String> validIsbns() {
+        return Combinators.combine(Arbitraries.strings().numeric().ofLength(12), hyphenPositions())
+                .as((digits, hyphens) -> withHyphens(withCheckDigit(digits), hyphens));
+    }
+
+    @Provide
+    Arbitrary<String> thirteenDigits() {
+        return Combinators.combine(Arbitraries.strings().numeric().ofLength(13), hyphenPositions())
+                .as(IsbnPropertiesTest::withHyphens);
+    }
+
+    @Provide
+    Arbitrary<String> anyIsbnLikeText() {
+        return Arbitraries.strings()
+                .withChars("0123456789-")
+                .withChars("0123456789")
+                .withChars("ax +.@ _#")
+                .ofMaxLength(20);
+    }
+
+    @Provide
+    Arbitrary<Integer> hyphenPositions() {
+        return Arbitraries.integers().between(0, (1 << 12) - 1);
+    }
+
+    /// adds a hyphen after the digit i of the isbn when the bit i of the given positions is set.
+    private static String withHyphens(String digits, int positions) {
+        var result = new StringBuilder();
+        for (int i = 0; i < digits.length(); i++) {
+            result.append(digits.charAt(i));
+            if (i < digits.length() - 1 && (positions & (1 << i)) != 0) {
+                result.append('-');
+            }
+        }
+        return result.toString();
+    }
+
+    /// the validation used before parsing the isbn in a single pass, taking its exceptions as invalid isbns.
+    private static boolean isValidByLegacyRules(String isbn) {
+        if (isbn == null || isbn.isBlank()) return false;
+        if (LEGACY_INVALID_CHARACTERS.matcher(isbn).matches()) return false;
+        try {
+            long isbnCheckSumNumber = Integer.parseInt(isbn.substring(isbn.length() - 1));
+            long isbnAsLong = Long.parseLong(String.join("", isbn.split("-"))) / 10;
+
+            boolean mustMultiplyByThree = true;
+            long acc = 0;
+            while (isbnAsLong != 0) {
+                acc += (isbnAsLong % 10) * ((mustMultiplyByThree) ? 3 : 1);
+                isbnAsLong /= 10;
+                mustMultiplyByThree = !mustMultiplyByThree;
+            }
+
+            acc %= 10;
+            return ((acc == 0) ? 0L : 10 - acc) == isbnCheckSumNumber;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.agomezlucena.libtory.books.infrastructure.cache;
+
+import io.github.agomezlucena.libtory.books.domain.BookProjection;
+import io.github.agomezlucena.libtory.books.domain.BookProjectionRepository;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.shared.DataFakerExtension;
+import io.github.agomezlucena.libtory.shared.FakerIsbn;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DataFakerExtension.class)
+@DisplayName("a book projection cache should")
+class BookProjectionCacheTest {
+    private BookProjectionRepository repository;
+    private BookProjectionCache cache;
+    private CachingBookProjectionRepository testSubject;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock();
+        cache = new BookProjectionCache(new BookProjectionCacheSettings(Duration.ofMinutes(10), 1_000));
+        testSubject = new CachingBookProjectionRepository(repository, cache);
+    }
+
+    @Test
+    @DisplayName("load a projection only once while it is cached")
+    void shouldLoadAProjectionOnlyOnceWhileItIsCached(@FakerIsbn String givenIsbn) {
+        var isbn = Isbn.fromString(givenIsbn);
+        var expectedValue = Optional.of(new BookProjection(givenIsbn, "test title"));
+        when(repository.findProjectionByIsbn(isbn)).thenReturn(expectedValue);
+
+        assertEquals(expectedValue, testSubject.findProjectionByIsbn(isbn));
+        assertEquals(expectedValue, testSubject.findProjectionByIsbn(isbn));
+
+        verify(repository, times(1)).findProjectionByIsbn(isbn);
+        var statistics = cache.statistics();
+        assertEquals(1, statistics.hitCount());
+        assertEquals(1, statistics.missCount());
+        assertEquals(0.5, statistics.hitRate());
+    }
+
+    @Test
+    @DisplayName("cache that a book does not exist")
+    void shouldCacheThatABookDoesNotExist(@FakerIsbn String givenIsbn) {
+        var isbn = Isbn.fromString(givenIsbn);
+        when(repository.findProjectionByIsbn(isbn)).thenReturn(Optional.empty());
+
+        assertEquals(Optional.empty(), testSubject.findProjectionByIsbn(isbn));
+        assertEquals(Optional.empty(), testSubject.findProjectionByIsbn(isbn));
+
+        verify(repository, times(1)).findProjectionByIsbn(isbn);
+    }
+
+    @Test
+    @DisplayName("load again a projection after it is invalidated")
+    void shouldLoadAgainAProjectionAfterItIsInvalidated(@FakerIsbn String givenIsbn) {
+        var isbn = Isbn.fromString(givenIsbn);
+        var expectedValue = Optional.of(new BookProjection(givenIsbn, "updated title"));
+        when(repository.findProjectionByIsbn(isbn))
+                .thenReturn(Optional.of(new BookProjection(givenIsbn, "test title")))
+                .thenReturn(expectedValue);
+
+        testSubject.findProjectionByIsbn(isbn);
+        cache.invalidate(isbn);
+
+        assertEquals(expectedValue, testSubject.findProjectionByIsbn(isbn));
+        verify(repository, times(2)).findProjectionByIsbn(isbn);
+    }
+
+    @Test
+    @DisplayName("load together only the projections that are not cached")
+    void shouldLoadTogetherOnlyTheProjectionsThatAreNotCached() {
+        var cachedIsbn = Isbn.fromString("9781914602108");
+        var notCachedIsbn = Isbn.fromString("9780785839996");
+        var notExistingIsbn = Isbn.fromString("9780201616224");
+        var cachedProjection = new BookProjection(cachedIsbn.isbnLiteral(), "cached");
+        var loadedProjection = new BookProjection(notCachedIsbn.isbnLiteral(), "loaded");
+        when(repository.findProjectionByIsbn(cachedIsbn)).thenReturn(Optional.of(cachedProjection));
+        when(repository.findProjectionsByIsbns(Set.of(notCachedIsbn, notExistingIsbn)))
+                .thenReturn(Map.of(notCachedIsbn, loadedProjection));
+        testSubject.findProjectionByIsbn(cachedIsbn);
+
+        var obtainedValue = testSubject.findProjectionsByIsbns(Set.of(cachedIsbn, notCachedIsbn, notExistingIsbn));
+
+        assertEquals(Map.of(cachedIsbn, cachedProjection, notCachedIsbn, loadedProjection), obtainedValue);
+        verify(repository).findProjectionsByIsbns(Set.of(notCachedIsbn, notExistingIsbn));
+        assertEquals(Optional.empty(), testSubject.findProjectionByIsbn(notExistingIsbn));
+        verify(repository, never()).findProjectionByIsbn(notExistingIsbn);
+    }
+
+    @Test
+    @DisplayName("not cache the projections of a bulk load that was running when they were invalidated")
+    void shouldNotCacheTheProjectionsOfABulkLoadThatWasRunningWhenTheyWereInvalidated() {
+        var writtenIsbn = Isbn.fromString("9781914602108");
+        var notWrittenIsbn = Isbn.fromString("9780785839996");
+        var staleProjection = new BookProjection(writtenIsbn.isbnLiteral(), "stale title");
+        var updatedProjection = new BookProjection(writtenIsbn.isbnLiteral(), "updated title");
+        var notWrittenProjection = new BookProjection(notWrittenIsbn.isbnLiteral(), "not written");
+        when(repository.findProjectionsByIsbns(Set.of(writtenIsbn, notWrittenIsbn))).thenAnswer(it -> {
+            // the book is written and invalidated after the load has read it.
+            cache.invalidate(writtenIsbn);
+            return Map.of(writtenIsbn, staleProjection, notWrittenIsbn, notWrittenProjection);
+        });
+        when(repository.findProjectionsByIsbns(Set.of(writtenIsbn)))
+                .thenReturn(Map.of(writtenIsbn, updatedProjection));
+
+        var loadedValue = testSubject.findProjectionsByIsbns(Set.of(writtenIsbn, notWrittenIsbn));
+        var obtainedValue = testSubject.findProjectionsByIsbns(Set.of(writtenIsbn, notWrittenIsbn));
+
+        assertEquals(staleProjection, loadedValue.get(writtenIsbn));
+        assertEquals(Map.of(writtenIsbn, updatedProjection, notWrittenIsbn, notWrittenProjection), obtainedValue);
+        verify(repository).findProjectionsByIsbns(Set.of(writtenIsbn));
+    }
+
+    @Test
+    @DisplayName("not cache that a book does not exist when it was created during the bulk load")
+    void shouldNotCacheThatABookDoesNotExistWhenItWasCreatedDuringTheBulkLoad(@FakerIsbn String givenIsbn) {
+        var isbn = Isbn.fromString(givenIsbn);
+        var createdProjection = new BookProjection(givenIsbn, "created");
+        when(repository.findProjectionsByIsbns(Set.of(isbn)))
+                .thenAnswer(it -> {
+                    cache.invalidate(isbn);
+                    return Map.of();
+                })
+                .thenReturn(Map.of(isbn, createdProjection));
+
+        assertEquals(Map.of(), testSubject.findProjectionsByIsbns(Set.of(isbn)));
+        assertEquals(Map.of(isbn, createdProjection), testSubject.findProjectionsByIsbns(Set.of(isbn)));
+    }
+
+    @Test
+    @DisplayName("evict projections when their weight exceeds the maximum")
+    void shouldEvictProjectionsWhenTheirWeightExceedsTheMaximum() {
+        var longTitle = "a".repeat(400);
+        when(repository.findProjectionByIsbn(any()))
+                .thenAnswer(it -> Optional.of(new BookProjection(it.<Isbn>getArgument(0).isbnLiteral(), longTitle)));
+
+        for (var isbn : new String[]{"9781914602108", "9780785839996", "9780201616224", "9780306406157"}) {
+            testSubject.findProjectionByIsbn(Isbn.fromString(isbn));
+        }
+        cache.cleanUp();
+
+        var statistics = cache.statistics();
+        assertTrue(statistics.evictionCount() >= 2);
+        assertTrue(statistics.weightedSize() <= 1_000);
+    }
+
+    @Test
+    @DisplayName("delegate the pages of books to the given repository")
+    void shouldDelegateThePagesOfBooksToTheGivenRepository() {
+        testSubject.findAllProjections(null);
+        verify(repository).findAllProjections(null);
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.agomezlucena.libtory.books.infrastructure.cache;
+
+import io.github.agomezlucena.libtory.books.domain.BookCatalogLoader;
+import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.shared.DataFakerExtension;
+import io.github.agomezlucena.libtory.shared.FakerIsbn;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DataFakerExtension.class)
+@DisplayName("a cache invalidating book catalog loader should")
+class CacheInvalidatingBookCatalogLoaderTest {
+
+    @Test
+    @DisplayName("invalidate every loaded book once after loading them")
+    void shouldInvalidateEveryLoadedBookOnceAfterLoadingThem(
+            @FakerIsbn(dontRepeat = true) String firstIsbn,
+            @FakerIsbn(dontRepeat = true) String secondIsbn
+    ) {
+        BookCatalogLoader loader = mock();
+        BookProjectionCache cache = mock();
+        var givenBooks = List.of(
+                new BookPrimitives(firstIsbn, "first title").toBook(),
+                new BookPrimitives(secondIsbn, "second title").toBook(),
+                new BookPrimitives(firstIsbn, "last title").toBook()
+        );
+        when(loader.load(givenBooks)).thenReturn(2L);
+
+        var createdBooks = new CacheInvalidatingBookCatalogLoader(loader, cache).load(givenBooks);
+
+        assertEquals(2, createdBooks);
+        var inOrder = inOrder(loader, cache);
+        inOrder.verify(loader).load(givenBooks);
+        inOrder.verify(cache).invalidate(Isbn.fromString(firstIsbn));
+        inOrder.verify(cache).invalidate(Isbn.fromString(secondIsbn));
+        verifyNoMoreInteractions(cache);
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.agomezlucena.libtory.books.infrastructure.cache;
+
+import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
+import io.github.agomezlucena.libtory.books.domain.Book;
+import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
+import io.github.agomezlucena.libtory.books.domain.BookRepository;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.shared.DataFakerExtension;
+import io.github.agomezlucena.libtory.shared.FakerIsbn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(DataFakerExtension.class)
+@DisplayName("a cache invalidating book repository should")
+class CacheInvalidatingBookRepositoryTest {
+    private BookRepository repository;
+    private BookProjectionCache cache;
+    private CacheInvalidatingBookRepository testSubject;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock();
+        cache = mock();
+        testSubject = new CacheInvalidatingBookRepository(repository, cache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("invalidate the saved book after saving it")
+    void shouldInvalidateTheSavedBookAfterSavingIt(@FakerIsbn String givenIsbn) {
+        var givenBook = createBook(givenIsbn);
+
+        testSubject.save(givenBook);
+
+        var inOrder = inOrder(repository, cache);
+        inOrder.verify(repository).save(givenBook);
+        inOrder.verify(cache).invalidate(Isbn.fromString(givenIsbn));
+    }
+
+    @Test
+    @DisplayName("invalidate every saved book after saving them at once")
+    void shouldInvalidateEverySavedBookAfterSavingThemAtOnce(
+            @FakerIsbn String firstIsbn,
+            @FakerIsbn String secondIsbn
+    ) {
+        var givenBooks = List.of(createBook(firstIsbn), createBook(secondIsbn));
+        when(repository.saveAll(givenBooks)).thenReturn(givenBooks);
+
+        testSubject.saveAll(givenBooks);
+
+        var inOrder = inOrder(repository, cache);
+        inOrder.verify(repository).saveAll(givenBooks);
+        inOrder.verify(cache).invalidate(Isbn.fromString(firstIsbn));
+        inOrder.verify(cache).invalidate(Isbn.fromString(secondIsbn));
+    }
+
+    @Test
+    @DisplayName("invalidate only the books that were written when saving them at once")
+    void shouldInvalidateOnlyTheBooksThatWereWrittenWhenSavingThemAtOnce(
+            @FakerIsbn String writtenIsbn,
+            @FakerIsbn String unchangedIsbn
+    ) {
+        var writtenBook = createBook(writtenIsbn);
+        var givenBooks = List.of(writtenBook, createBook(unchangedIsbn));
+        when(repository.saveAll(givenBooks)).thenReturn(List.of(writtenBook));
+
+        assertEquals(List.of(writtenBook), testSubject.saveAll(givenBooks));
+
+        verify(cache).invalidate(Isbn.fromString(writtenIsbn));
+        verify(cache, never()).invalidate(Isbn.fromString(unchangedIsbn));
+    }
+
+    @Test
+    @DisplayName("neither save nor invalidate a book without changes")
+    void shouldNeitherSaveNorInvalidateABookWithoutChanges(@FakerIsbn String givenIsbn) {
+        var givenBook = new BookPrimitives(givenIsbn, "a title").toStoredBook();
+
+        testSubject.save(givenBook);
+
+        verifyNoInteractions(repository, cache);
+    }
+
+    @Test
+    @DisplayName("invalidate the deleted book after deleting it")
+    void shouldInvalidateTheDeletedBookAfterDeletingIt(@FakerIsbn String givenIsbn) {
+        var isbn = Isbn.fromString(givenIsbn);
+
+        testSubject.delete(isbn);
+
+        var inOrder = inOrder(repository, cache);
+        inOrder.verify(repository).delete(isbn, null);
+        inOrder.verify(cache).invalidate(isbn);
+    }
+
+    @Test
+    @DisplayName("invalidate again the book when the transaction completes")
+    void shouldInvalidateAgainTheBookWhenTheTransactionCompletes(@FakerIsbn String givenIsbn) {
+        var isbn = Isbn.fromString(givenIsbn);
+        TransactionSynchronizationManager.initSynchronization();
+
+        testSubject.delete(isbn);
+        verify(cache, times(1)).invalidate(isbn);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(it -> it.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        verify(cache, times(2)).invalidate(isbn);
+    }
+
+    @Test
+    @DisplayName("not invalidate anything when looking for a book")
+    void shouldNotInvalidateAnythingWhenLookingForABook(@FakerIsbn String givenIsbn) {
+        var isbn = Isbn.fromString(givenIsbn);
+
+        testSubject.findByIsbn(isbn);
+
+        verify(repository).findByIsbn(isbn);
+        verifyNoInteractions(cache);
+    }
+
+    private Book createBook(String isbn) {
+        var mockedAuthorChecker = mock(AuthorChecker.class);
+        when(mockedAuthorChecker.authorsExists(any())).thenReturn(true);
+        return Book.createBook(new BookPrimitives(isbn, "test title"), mockedAuthorChecker);
+    }
+}
@@ -6,18 +6,22 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.jdbc.core.namedparam.NamedParameterUtils;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.random.RandomGenerator;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @DisplayName("an author sql checker should")
@@ -54,7 +58,49 @@ class AuthorSqlCheckerTest {
         assertTrue(result);
         var parameters = captor.getValue();
         assertEquals(givenAuthorsIds.length,parameters.getValue("expectedAmount"));
-        assertThat((Set<UUID>)parameters.getValue("expectedAuthors"))
-                .containsOnly(givenAuthorsIds);
+        assertThat(((SqlArrayParameter) parameters.getValue("expectedAuthors")).getElements())
+                .containsOnly((Object[]) givenAuthorsIds);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("send the same statement whatever the amount of authors is")
+    void shouldSendTheSameStatementWhateverTheAmountOfAuthorsIs() {
+        var captor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        var query = queries.getQuery(BookQueryName.CHECK_AUTHOR_EXISTENCE);
+        when(jdbcOperations.queryForObject(eq(query), captor.capture(), eq(Boolean.class))).thenReturn(true);
+
+        checker.authorsExists(UUID.randomUUID());
+        checker.authorsExists(Stream.generate(UUID::randomUUID).limit(20).toArray(UUID[]::new));
+
+        var sentStatements = captor.getAllValues().stream()
+                .map(parameters -> NamedParameterUtils.substituteNamedParameters(query, parameters))
+                .collect(Collectors.toSet());
+        assertEquals(1, sentStatements.size());
+    }
+
+    @Test
+    @DisplayName("look every given author up with a single statement")
+    void shouldLookEveryGivenAuthorUpWithASingleStatement() {
+        var existingAuthor = UUID.randomUUID();
+        var givenAuthorsIds = Set.of(existingAuthor, UUID.randomUUID());
+        var captor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        when(jdbcOperations.queryForList(
+                eq(queries.getQuery(BookQueryName.FIND_EXISTING_AUTHORS)),
+                captor.capture(),
+                eq(UUID.class)
+        )).thenReturn(List.of(existingAuthor));
+
+        var result = checker.existingAuthors(givenAuthorsIds);
+
+        assertEquals(Set.of(existingAuthor), result);
+        assertThat(((SqlArrayParameter) captor.getValue().getValue("author_ids")).getElements())
+                .containsOnly(givenAuthorsIds.toArray());
+    }
+
+    @Test
+    @DisplayName("not look up an empty set of authors")
+    void shouldNotLookUpAnEmptySetOfAuthors() {
+        assertTrue(checker.existingAuthors(Set.of()).isEmpty());
+        verifyNoInteractions(jdbcOperations);
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.shared.DataFakerExtension;
+import io.github.agomezlucena.libtory.shared.FakerIsbn;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static io.github.agomezlucena.libtory.books.testutils.BooksTestUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BookCopyLoader should do in database")
+@ExtendWith(DataFakerExtension.class)
+@SpringBootTest
+class BookCopyLoaderItTest {
+    @Autowired
+    private BookCopyLoader bookCopyLoader;
+    @Autowired
+    private BookSqlRepository bookSqlRepository;
+    @Autowired
+    private NamedParameterJdbcOperations namedParameterJdbcOperations;
+
+    @BeforeAll
+    public static void setUpTestSuite(@Autowired NamedParameterJdbcOperations operations) throws InterruptedException {
+        createTestData(operations);
+    }
+
+    @BeforeEach
+    public void deletedNonFixedTestData() {
+        cleanupDatabase(namedParameterJdbcOperations);
+    }
+
+    @AfterAll
+    public static void cleanData(@Autowired NamedParameterJdbcOperations operations) throws InterruptedException {
+        deleteAllRegisters(operations);
+    }
+
+    @Test
+    @DisplayName("when loading books will create the new ones and replace the stored ones with their authors")
+    void shouldCreateTheNewBooksAndReplaceTheStoredOnesWhenLoadingBooks(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224", dontRepeat = true) String newIsbn,
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224", dontRepeat = true) String storedIsbn
+    ) {
+        var authorId = UUID.fromString("123e4567-e89b-12d3-a456-426614174001");
+        bookSqlRepository.save(new BookPrimitives(storedIsbn, "stored title", authorId).toBook());
+        var storedVersion = bookSqlRepository.findByIsbn(Isbn.fromString(storedIsbn)).orElseThrow().getVersion();
+
+        var createdBooks = bookCopyLoader.load(List.of(
+                new BookPrimitives(newIsbn, "a title, with \"quotes\"", authorId).toBook(),
+                new BookPrimitives(storedIsbn, "replaced title").toBook()
+        ));
+
+        assertEquals(1, createdBooks);
+        var obtainedNewBook = bookSqlRepository.findByIsbn(Isbn.fromString(newIsbn)).orElseThrow();
+        assertEquals("a title, with \"quotes\"", obtainedNewBook.getTitle());
+        assertEquals(Set.of(authorId), obtainedNewBook.getAuthorsIds());
+        var obtainedStoredBook = bookSqlRepository.findByIsbn(Isbn.fromString(storedIsbn)).orElseThrow();
+        assertEquals("replaced title", obtainedStoredBook.getTitle());
+        assertTrue(obtainedStoredBook.getAuthorsIds().isEmpty());
+        assertEquals(storedVersion + 1, obtainedStoredBook.getVersion());
+    }
+
+    @Test
+    @DisplayName("when loading a stored book without changes will keep its version")
+    void shouldKeepTheVersionOfAStoredBookLoadedWithoutChanges(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String isbn
+    ) {
+        var authorId = UUID.fromString("123e4567-e89b-12d3-a456-426614174001");
+        bookSqlRepository.save(new BookPrimitives(isbn, "stored title", authorId).toBook());
+        var storedVersion = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow().getVersion();
+
+        var createdBooks = bookCopyLoader.load(List.of(new BookPrimitives(isbn, "stored title", authorId).toBook()));
+
+        assertEquals(0, createdBooks);
+        assertEquals(storedVersion, bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("when loading a stored book with other authors will increase its version")
+    void shouldIncreaseTheVersionOfAStoredBookLoadedWithOtherAuthors(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String isbn
+    ) {
+        var authorId = UUID.fromString("123e4567-e89b-12d3-a456-426614174001");
+        bookSqlRepository.save(new BookPrimitives(isbn, "stored title").toBook());
+        var storedVersion = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow().getVersion();
+
+        bookCopyLoader.load(List.of(new BookPrimitives(isbn, "stored title", authorId).toBook()));
+
+        var obtainedBook = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow();
+        assertEquals(Set.of(authorId), obtainedBook.getAuthorsIds());
+        assertEquals(storedVersion + 1, obtainedBook.getVersion());
+    }
+
+    @Test
+    @DisplayName("when loading the same isbn more than once will keep its last book")
+    void shouldKeepTheLastBookOfAnIsbnLoadedMoreThanOnce(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String isbn
+    ) {
+        var createdBooks = bookCopyLoader.load(List.of(
+                new BookPrimitives(isbn, "first title").toBook(),
+                new BookPrimitives(isbn, "last title").toBook()
+        ));
+
+        assertEquals(1, createdBooks);
+        assertEquals("last title", bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow().getTitle());
+    }
+
+    @Test
+    @DisplayName("when loading books will add the created ones to the amount of books")
+    void shouldAddTheCreatedBooksToTheAmountOfBooksWhenLoadingBooks(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String isbn
+    ) {
+        var amountQuery = "select coalesce(sum(amount), 0) from books.book_counter";
+        var amountBefore = namedParameterJdbcOperations.queryForObject(amountQuery, Map.of(), Long.class);
+
+        bookCopyLoader.load(List.of(new BookPrimitives(isbn, "a title").toBook()));
+
+        assertEquals(amountBefore + 1, namedParameterJdbcOperations.queryForObject(amountQuery, Map.of(), Long.class));
+    }
+}
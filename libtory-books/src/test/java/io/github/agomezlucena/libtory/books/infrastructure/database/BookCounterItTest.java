@@ -0,0 +1,127 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
+import io.github.agomezlucena.libtory.books.domain.Book;
+import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
+import io.github.agomezlucena.libtory.books.domain.Isbn;
+import io.github.agomezlucena.libtory.books.infrastructure.database.mappers.BookProjectionMapper;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static io.github.agomezlucena.libtory.books.testutils.BooksTestUtils.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DisplayName("the maintained book counter should")
+@SpringBootTest
+class BookCounterItTest {
+    private static final int EXISTING_BOOKS = 100;
+    private static final int NEW_BOOKS = 100;
+
+    @Autowired
+    private BookSqlRepository bookSqlRepository;
+    @Autowired
+    private BookCounterReconciler bookCounterReconciler;
+    @Autowired
+    private BookProjectionMapper bookProjectionMapper;
+    @Autowired
+    private NamedParameterJdbcOperations namedParameterJdbcOperations;
+    @Autowired
+    private AuthorChecker authorChecker;
+
+    @BeforeAll
+    static void setUpTestSuite(@Autowired NamedParameterJdbcOperations operations) throws InterruptedException {
+        createTestData(operations);
+    }
+
+    @BeforeEach
+    void deleteNonFixedTestData() {
+        cleanupDatabase(namedParameterJdbcOperations);
+    }
+
+    @AfterAll
+    static void cleanData(@Autowired NamedParameterJdbcOperations operations) throws InterruptedException {
+        deleteAllRegisters(operations);
+    }
+
+    @Test
+    @DisplayName("stay exact under concurrent inserts and deletes")
+    void shouldStayExactUnderConcurrentInsertsAndDeletes() throws InterruptedException {
+        var existingIsbns = generateIsbns(0, EXISTING_BOOKS);
+        var newIsbns = generateIsbns(EXISTING_BOOKS, NEW_BOOKS);
+        existingIsbns.forEach(isbn -> bookSqlRepository.save(createBook(isbn)));
+        var initialAmount = countBooks();
+
+        var start = new CountDownLatch(1);
+        var tasks = new ArrayList<CompletableFuture<Void>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var isbn : newIsbns) {
+                // the same book is saved twice at the same time, only one of them should be counted
+                tasks.add(CompletableFuture.runAsync(awaiting(start, () -> bookSqlRepository.save(createBook(isbn))), executor));
+                tasks.add(CompletableFuture.runAsync(awaiting(start, () -> bookSqlRepository.save(createBook(isbn))), executor));
+            }
+            for (var isbn : existingIsbns) {
+                // the same book is deleted twice at the same time, only one of them should be discounted
+                tasks.add(CompletableFuture.runAsync(awaiting(start, () -> bookSqlRepository.delete(Isbn.fromString(isbn))), executor));
+                tasks.add(CompletableFuture.runAsync(awaiting(start, () -> bookSqlRepository.delete(Isbn.fromString(isbn))), executor));
+            }
+            start.countDown();
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+        }
+
+        var expectedAmount = initialAmount - EXISTING_BOOKS + NEW_BOOKS;
+        assertEquals(expectedAmount, countBooks());
+        assertEquals(expectedAmount, bookProjectionMapper.countAllBooks());
+        assertEquals(0, bookCounterReconciler.reconcile());
+    }
+
+    @Test
+    @DisplayName("be repaired by the reconciler when books are written without the repository")
+    void shouldBeRepairedByTheReconcilerWhenBooksAreWrittenWithoutTheRepository() {
+        bookCounterReconciler.reconcile();
+        namedParameterJdbcOperations.getJdbcOperations().execute(
+                "insert into books.books (isbn, title) values ('9780306406157', 'written by hand')"
+        );
+        var expectedAmount = countBooks();
+
+        assertEquals(expectedAmount - 1, bookProjectionMapper.countAllBooks());
+        assertEquals(1, bookCounterReconciler.reconcile());
+        assertEquals(expectedAmount, bookProjectionMapper.countAllBooks());
+        assertEquals(0, bookCounterReconciler.reconcile());
+    }
+
+    private Runnable awaiting(CountDownLatch start, Runnable task) {
+        return () -> {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            task.run();
+        };
+    }
+
+    private int countBooks() {
+        return namedParameterJdbcOperations.getJdbcOperations()
+                .queryForObject("select count(*) from books.books", Integer.class);
+    }
+
+    private Book createBook(String isbn) {
+        return Book.createBook(new BookPrimitives(isbn, "counted book " + isbn), authorChecker);
+    }
+
+    private static List<String> generateIsbns(int from, int amount) {
+        return IntStream.range(from, from + amount)
+                .mapToObj(it -> withCheckDigit(String.format("979%09d", it)))
+                .toList();
+    }
+}
@@ -1,10 +1,13 @@
 package io.github.agomezlucena.libtory.books.infrastructure.database;
 
 import io.github.agomezlucena.libtory.books.application.BookProjectionPaginatedQuery;
+import io.github.agomezlucena.libtory.books.domain.BookProjection;
+import io.github.agomezlucena.libtory.books.domain.BookProjectionCursor;
 import io.github.agomezlucena.libtory.books.domain.Isbn;
 import io.github.agomezlucena.libtory.shared.DataFakerExtension;
 import io.github.agomezlucena.libtory.shared.FakerIsbn;
 import io.github.agomezlucena.libtory.shared.cqrs.PaginatedResult;
+import io.github.agomezlucena.libtory.shared.cqrs.TotalMode;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
@@ -14,11 +17,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static io.github.agomezlucena.libtory.books.testutils.BooksTestUtils.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DisplayName("BookProjectionSqlRepository should do in database")
@@ -41,7 +49,15 @@ public class BookProjectionMybatisRepositoryItTest {
     @Test
     @DisplayName("query all the books and return the expected books")
     void queryAllBooksAndReturnExpectedBooks() {
-        var expectedBooks = new PaginatedResult<>(List.of(createTheIliad()), 1, 3, null, null);
+        var expectedCursor = new BookProjectionCursor("isbn", "ASC", "9780201616224", "9780201616224").encode();
+        var expectedBooks = new PaginatedResult<>(
+                List.of(createThePragmaticProgrammer()),
+                1,
+                3,
+                "isbn",
+                "ASC",
+                expectedCursor
+        );
 
         var givenQuery = new BookProjectionPaginatedQuery(0, 1, null, null);
         var obtainedValue = bookProjectionMyBatisRepository.findAllProjections(givenQuery);
@@ -51,13 +67,161 @@ public class BookProjectionMybatisRepositoryItTest {
     @Test
     @DisplayName("should return the expected value ordered by the selected field")
     void shouldReturnTheExpectedValueOrderedByTheSelectedField() {
-        var expectedBooks = new PaginatedResult<>(List.of(createTheGreatGatsby()), 1, 3, "title", "ASC");
+        var expectedCursor = new BookProjectionCursor("title", "ASC", "The Great Gatsby", "9780785839996").encode();
+        var expectedBooks = new PaginatedResult<>(
+                List.of(createTheGreatGatsby()),
+                1,
+                3,
+                "title",
+                "ASC",
+                expectedCursor
+        );
 
         var givenPageRequest = new BookProjectionPaginatedQuery(0, 1, "title", "ASC");
         var obtainedValue = bookProjectionMyBatisRepository.findAllProjections(givenPageRequest);
         assertEquals(expectedBooks, obtainedValue);
     }
 
+    @Test
+    @DisplayName("should return pages of books instead of pages of books joined with their authors")
+    void shouldReturnPagesOfBooksInsteadOfPagesOfBooksJoinedWithTheirAuthors() {
+        var expectedBooks = new PaginatedResult<>(
+                List.of(createThePragmaticProgrammer(), createTheGreatGatsby(), createTheIliad()),
+                3,
+                3,
+                "author_name",
+                "ASC"
+        );
+
+        var givenPageRequest = new BookProjectionPaginatedQuery(0, 3, "author_name", "ASC");
+        var obtainedValue = bookProjectionMyBatisRepository.findAllProjections(givenPageRequest);
+        assertEquals(expectedBooks, obtainedValue);
+    }
+
+    @Test
+    @DisplayName("should return the books of the requested page when the page is not the first one")
+    void shouldReturnTheBooksOfTheRequestedPageWhenThePageIsNotTheFirstOne() {
+        var expectedBooks = new PaginatedResult<>(List.of(createThePragmaticProgrammer()), 1, 3, "title", "ASC");
+
+        var givenPageRequest = new BookProjectionPaginatedQuery(1, 2, "title", "ASC");
+        var obtainedValue = bookProjectionMyBatisRepository.findAllProjections(givenPageRequest);
+        assertEquals(expectedBooks, obtainedValue);
+    }
+
+    @Test
+    @DisplayName("should continue after the cursor of the previous page")
+    void shouldContinueAfterTheCursorOfThePreviousPage() {
+        var firstPage = bookProjectionMyBatisRepository.findAllProjections(
+                new BookProjectionPaginatedQuery(0, 2, "title", "ASC")
+        );
+        assertEquals(List.of(createTheGreatGatsby(), createTheIliad()), firstPage.items());
+        assertNotNull(firstPage.nextCursor());
+
+        var expectedBooks = new PaginatedResult<>(List.of(createThePragmaticProgrammer()), 1, 3, "title", "ASC");
+        var obtainedValue = bookProjectionMyBatisRepository.findAllProjections(
+                new BookProjectionPaginatedQuery(null, 2, null, null, firstPage.nextCursor())
+        );
+        assertEquals(expectedBooks, obtainedValue);
+    }
+
+    @Test
+    @DisplayName("should walk all the books using cursors in descending order")
+    void shouldWalkAllTheBooksUsingCursorsInDescendingOrder() {
+        var expectedBooks = List.of(createThePragmaticProgrammer(), createTheIliad(), createTheGreatGatsby());
+
+        var obtainedBooks = new ArrayList<BookProjection>();
+        String cursor = null;
+        do {
+            var page = bookProjectionMyBatisRepository.findAllProjections(
+                    new BookProjectionPaginatedQuery(null, 1, "title", "DESC", cursor)
+            );
+            obtainedBooks.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(expectedBooks, obtainedBooks);
+    }
+
+    @Test
+    @DisplayName("should not return a cursor when sorting by author name")
+    void shouldNotReturnACursorWhenSortingByAuthorName() {
+        var obtainedValue = bookProjectionMyBatisRepository.findAllProjections(
+                new BookProjectionPaginatedQuery(0, 2, "author_name", "ASC", null, TotalMode.NONE)
+        );
+        assertEquals(List.of(createThePragmaticProgrammer(), createTheGreatGatsby()), obtainedValue.items());
+        assertEquals(true, obtainedValue.hasNext());
+        assertNull(obtainedValue.nextCursor());
+    }
+
+    @Test
+    @DisplayName("should walk all the books by isbn using cursors when the page is not sorted")
+    void shouldWalkAllTheBooksByIsbnUsingCursorsWhenThePageIsNotSorted() {
+        var expectedBooks = List.of(createThePragmaticProgrammer(), createTheGreatGatsby(), createTheIliad());
+
+        var obtainedBooks = new ArrayList<BookProjection>();
+        String cursor = null;
+        do {
+            var page = bookProjectionMyBatisRepository.findAllProjections(
+                    new BookProjectionPaginatedQuery(null, 1, null, null, cursor)
+            );
+            obtainedBooks.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(expectedBooks, obtainedBooks);
+    }
+
+    @Test
+    @DisplayName("should not count the books and inform if there is a next page when total mode is none")
+    void shouldNotCountTheBooksAndInformIfThereIsANextPageWhenTotalModeIsNone() {
+        var expectedCursor = new BookProjectionCursor("isbn", "ASC", "9780201616224", "9780201616224").encode();
+        var expectedBooks = new PaginatedResult<>(
+                List.of(createThePragmaticProgrammer()),
+                1,
+                null,
+                "isbn",
+                "ASC",
+                expectedCursor,
+                true
+        );
+
+        var givenQuery = new BookProjectionPaginatedQuery(0, 1, null, null, null, TotalMode.NONE);
+        var obtainedValue = bookProjectionMyBatisRepository.findAllProjections(givenQuery);
+        assertEquals(expectedBooks, obtainedValue);
+    }
+
+    @Test
+    @DisplayName("should inform that there is no next page on the last page when total mode is none")
+    void shouldInformThatThereIsNoNextPageOnTheLastPageWhenTotalModeIsNone() {
+        var givenQuery = new BookProjectionPaginatedQuery(1, 2, "title", "ASC", null, TotalMode.NONE);
+        var obtainedValue = bookProjectionMyBatisRepository.findAllProjections(givenQuery);
+        assertEquals(List.of(createThePragmaticProgrammer()), obtainedValue.items());
+        assertNull(obtainedValue.totalAmount());
+        assertEquals(false, obtainedValue.hasNext());
+    }
+
+    @Test
+    @DisplayName("should obtain the total from the table statistics when total mode is estimated")
+    void shouldObtainTheTotalFromTheTableStatisticsWhenTotalModeIsEstimated(
+            @Autowired NamedParameterJdbcOperations operations
+    ) {
+        operations.getJdbcOperations().execute("analyze books.books");
+        var expectedCursor = new BookProjectionCursor("isbn", "ASC", "9780201616224", "9780201616224").encode();
+        var expectedBooks = new PaginatedResult<>(
+                List.of(createThePragmaticProgrammer()),
+                1,
+                3,
+                "isbn",
+                "ASC",
+                expectedCursor,
+                true
+        );
+
+        var givenQuery = new BookProjectionPaginatedQuery(0, 1, null, null, null, TotalMode.ESTIMATED);
+        var obtainedValue = bookProjectionMyBatisRepository.findAllProjections(givenQuery);
+        assertEquals(expectedBooks, obtainedValue);
+    }
+
     @Test
     @DisplayName("should return an optional with the expected value when is found")
     void shouldReturnTheExpectedValueWhenIsFound() {
@@ -68,6 +232,25 @@ public class BookProjectionMybatisRepositoryItTest {
         assertEquals(expectedValue, obtainedValue);
     }
 
+    @Test
+    @DisplayName("should return the existing books of the given isbns with one query")
+    void shouldReturnTheExistingBooksOfTheGivenIsbnsWithOneQuery(
+            @FakerIsbn(avoidIsbn = "9780201616224;9780785839996;9781914602108") String notExistingIsbn
+    ) {
+        var expectedValue = Map.of(
+                Isbn.fromString("9780201616224"), createThePragmaticProgrammer(),
+                Isbn.fromString("9781914602108"), createTheIliad()
+        );
+
+        var givenIsbns = Set.of(
+                Isbn.fromString("9780201616224"),
+                Isbn.fromString("9781914602108"),
+                Isbn.fromString(notExistingIsbn)
+        );
+        var obtainedValue = bookProjectionMyBatisRepository.findProjectionsByIsbns(givenIsbns);
+        assertEquals(expectedValue, obtainedValue);
+    }
+
     @Test
     @DisplayName("should return a empty optional when no value is found")
     void shouldReturnAEmptyOptionalWhenNoValueIsFound(
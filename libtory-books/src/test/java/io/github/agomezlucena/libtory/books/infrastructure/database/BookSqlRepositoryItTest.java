@@ -3,10 +3,12 @@ package io.github.agomezlucena.libtory.books.infrastructure.database;
 import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
 import io.github.agomezlucena.libtory.books.domain.Book;
 import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
+import io.github.agomezlucena.libtory.books.domain.BookVersionMismatch;
 import io.github.agomezlucena.libtory.books.domain.Isbn;
 import io.github.agomezlucena.libtory.shared.DataFakerExtension;
 import io.github.agomezlucena.libtory.shared.DataFakerExtension.FakerBookTitle;
 import io.github.agomezlucena.libtory.shared.FakerIsbn;
+import io.github.agomezlucena.libtory.shared.cqrs.WriteConflict;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,8 +17,10 @@ import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static io.github.agomezlucena.libtory.books.testutils.BooksTestUtils.*;
@@ -188,6 +192,124 @@ class BookSqlRepositoryItTest {
         assertTrue(result);
     }
 
+    @Test
+    @DisplayName("when saving the changes of a stored book will write its new title and authors")
+    void shouldWriteTheNewTitleAndAuthorsWhenSavingTheChangesOfAStoredBook(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String isbn
+    ) {
+        var keptAuthorId = UUID.fromString("123e4567-e89b-12d3-a456-426614174001");
+        var removedAuthorId = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        var addedAuthorId = UUID.fromString("123e4567-e89b-12d3-a456-426614174002");
+        bookSqlRepository.save(new BookPrimitives(isbn, "first title", keptAuthorId, removedAuthorId).toBook());
+
+        var storedBook = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow();
+        storedBook.replaceWith(new BookPrimitives(isbn, "second title", keptAuthorId, addedAuthorId).toBook());
+        bookSqlRepository.save(storedBook);
+
+        var obtainedBook = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow();
+        assertEquals("second title", obtainedBook.getTitle());
+        assertEquals(Set.of(keptAuthorId, addedAuthorId), obtainedBook.getAuthorsIds());
+    }
+
+    @Test
+    @DisplayName("when saving the changes of a stored book will increment its version")
+    void shouldIncrementTheVersionWhenSavingTheChangesOfAStoredBook(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String isbn
+    ) {
+        bookSqlRepository.save(new BookPrimitives(isbn, "first title").toBook());
+        var storedBook = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow();
+
+        storedBook.replaceWith(new BookPrimitives(isbn, "second title").toBook());
+        bookSqlRepository.save(storedBook);
+
+        var obtainedBook = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow();
+        assertEquals(storedBook.getVersion(), obtainedBook.getVersion());
+        assertTrue(obtainedBook.getVersion() > 0);
+    }
+
+    @Test
+    @DisplayName("when saving several books at once will create the new ones and replace the stored ones")
+    void shouldCreateTheNewBooksAndReplaceTheStoredOnesWhenSavingSeveralBooksAtOnce(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String storedIsbn,
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String newIsbn
+    ) {
+        var keptAuthorId = UUID.fromString("123e4567-e89b-12d3-a456-426614174001");
+        bookSqlRepository.save(new BookPrimitives(storedIsbn, "first title", keptAuthorId).toBook());
+        var storedVersion = bookSqlRepository.findByIsbn(Isbn.fromString(storedIsbn)).orElseThrow().getVersion();
+
+        var replacedBook = new BookPrimitives(storedIsbn, "second title").toBook();
+        var newBook = new BookPrimitives(newIsbn, "new title", keptAuthorId).toBook();
+        bookSqlRepository.saveAll(List.of(replacedBook, newBook));
+
+        var obtainedReplacedBook = bookSqlRepository.findByIsbn(Isbn.fromString(storedIsbn)).orElseThrow();
+        assertEquals("second title", obtainedReplacedBook.getTitle());
+        assertTrue(obtainedReplacedBook.getAuthorsIds().isEmpty());
+        assertEquals(storedVersion + 1, obtainedReplacedBook.getVersion());
+        assertEquals(obtainedReplacedBook.getVersion(), replacedBook.getVersion());
+        var obtainedNewBook = bookSqlRepository.findByIsbn(Isbn.fromString(newIsbn)).orElseThrow();
+        assertEquals(Set.of(keptAuthorId), obtainedNewBook.getAuthorsIds());
+        assertEquals(obtainedNewBook.getVersion(), newBook.getVersion());
+    }
+
+    @Test
+    @DisplayName("when saving several books at once will keep the version of the stored ones given as they are")
+    void shouldKeepTheVersionOfTheStoredBooksGivenAsTheyAreWhenSavingSeveralBooksAtOnce(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String isbn
+    ) {
+        var authorId = UUID.fromString("123e4567-e89b-12d3-a456-426614174001");
+        bookSqlRepository.save(new BookPrimitives(isbn, "first title", authorId).toBook());
+        var storedVersion = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow().getVersion();
+
+        var givenBook = new BookPrimitives(isbn, "first title", authorId).toBook();
+        var writtenBooks = bookSqlRepository.saveAll(List.of(givenBook));
+
+        assertTrue(writtenBooks.isEmpty());
+        assertEquals(storedVersion, givenBook.getVersion());
+        assertEquals(storedVersion, bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow().getVersion());
+
+        var bookWithoutAuthors = new BookPrimitives(isbn, "first title").toBook();
+        assertEquals(List.of(bookWithoutAuthors), bookSqlRepository.saveAll(List.of(bookWithoutAuthors)));
+        assertEquals(storedVersion + 1, bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow().getVersion());
+    }
+
+    @Test
+    @DisplayName("when saving the changes of a book written since it was read will write nothing and throw a conflict")
+    void shouldWriteNothingWhenSavingTheChangesOfABookWrittenSinceItWasRead(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String isbn
+    ) {
+        var authorId = UUID.fromString("123e4567-e89b-12d3-a456-426614174001");
+        bookSqlRepository.save(new BookPrimitives(isbn, "first title").toBook());
+        var firstReader = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow();
+        var secondReader = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow();
+
+        firstReader.replaceWith(new BookPrimitives(isbn, "second title").toBook());
+        bookSqlRepository.save(firstReader);
+        secondReader.replaceWith(new BookPrimitives(isbn, "third title", authorId).toBook());
+
+        assertThrows(WriteConflict.class, () -> bookSqlRepository.save(secondReader));
+        var obtainedBook = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow();
+        assertEquals("second title", obtainedBook.getTitle());
+        assertTrue(obtainedBook.getAuthorsIds().isEmpty());
+    }
+
+    @Test
+    @DisplayName("when deleting a book that is not in the expected version will keep it and throw a mismatch")
+    void shouldKeepABookWhenDeletingItInAnotherVersion(
+            @FakerIsbn(avoidIsbn = "9781914602108;9780785839996;9780201616224") String isbn
+    ) {
+        bookSqlRepository.save(new BookPrimitives(isbn, "first title").toBook());
+        var storedBook = bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).orElseThrow();
+
+        assertThrows(
+                BookVersionMismatch.class,
+                () -> bookSqlRepository.delete(Isbn.fromString(isbn), storedBook.getVersion() + 1)
+        );
+        assertTrue(bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).isPresent());
+
+        bookSqlRepository.delete(Isbn.fromString(isbn), storedBook.getVersion());
+        assertTrue(bookSqlRepository.findByIsbn(Isbn.fromString(isbn)).isEmpty());
+    }
+
     @Test
     @DisplayName("find the record by id if exist and return an optional with the information of that record")
     void shouldFindTheRecordByIdIfExistAndReturnAnOptionalWithTheInformation(){
@@ -3,9 +3,11 @@ package io.github.agomezlucena.libtory.books.infrastructure.database;
 import io.github.agomezlucena.libtory.books.domain.AuthorChecker;
 import io.github.agomezlucena.libtory.books.domain.Book;
 import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
+import io.github.agomezlucena.libtory.books.domain.BookVersionMismatch;
 import io.github.agomezlucena.libtory.books.domain.Isbn;
 import io.github.agomezlucena.libtory.shared.DataFakerExtension;
 import io.github.agomezlucena.libtory.shared.FakerIsbn;
+import io.github.agomezlucena.libtory.shared.cqrs.WriteConflict;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,15 +16,23 @@ import org.mockito.ArgumentCaptor;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
 
 import static io.github.agomezlucena.libtory.books.infrastructure.database.BookQueries.BookQueryName;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -45,87 +55,262 @@ class BookSqlRepositoryTest {
     @Test
     @DisplayName("save a book without authors if that book does not exists")
     void shouldSaveABookIfThatBookDoesNotExist(@FakerIsbn String isbn) {
-        var saveQueryExistenceParameterCaptor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        var captor = ArgumentCaptor.forClass(SqlParameterSource.class);
         var bookSaveQuery = queries.getQuery(BookQueryName.SAVE_BOOK_INFORMATION);
-        var authorDeletionQuery = queries.getQuery(BookQueryName.DELETE_BOOK_RELATIONSHIP_WITH_AUTHORS);
         var givenBook = createBookWithIsbnAndAuthors(isbn);
 
-        when(jdbcOperations.update(eq(bookSaveQuery), saveQueryExistenceParameterCaptor.capture())).thenReturn(1);
-        when(jdbcOperations.update(eq(authorDeletionQuery),saveQueryExistenceParameterCaptor.capture())).thenReturn(0);
+        when(jdbcOperations.queryForObject(eq(bookSaveQuery), captor.capture(), eq(Long.class))).thenReturn(1L);
 
         repository.save(givenBook);
 
-        var insertQueryParams = saveQueryExistenceParameterCaptor.getAllValues();
-
-        assertEquals(givenBook.getIsbn(), insertQueryParams.getFirst().getValue("book_isbn"));
-        assertEquals(givenBook.getTitle(), insertQueryParams.getFirst().getValue("book_title"));
-        assertEquals(givenBook.getIsbn(),insertQueryParams.get(1).getValue("book_isbn"));
-        verify(jdbcOperations).update(bookSaveQuery, insertQueryParams.getFirst());
-        verify(jdbcOperations).update(authorDeletionQuery, insertQueryParams.get(1));
+        var queryParams = captor.getValue();
+        verify(jdbcOperations).queryForObject(bookSaveQuery, queryParams, Long.class);
+        verifyNoMoreInteractions(jdbcOperations);
+        assertEquals(givenBook.getIsbn(), queryParams.getValue("book_isbn"));
+        assertEquals(givenBook.getTitle(), queryParams.getValue("book_title"));
+        assertArrayEquals(new UUID[0], authorIds(queryParams, "author_ids"));
+        assertEquals(1L, givenBook.getVersion());
     }
 
     @Test
-    @DisplayName("save a new book with authors if not exists")
-    void shouldSaveANewBookWithAuthorsIfNotExists(@FakerIsbn String givenIsbn) {
+    @DisplayName("save a new book with authors in a single statement")
+    void shouldSaveANewBookWithAuthorsInASingleStatement(@FakerIsbn String givenIsbn) {
         var givenAuthorId = UUID.randomUUID();
         var givenBook = createBookWithIsbnAndAuthors(givenIsbn, givenAuthorId);
         var bookQuery = queries.getQuery(BookQueryName.SAVE_BOOK_INFORMATION);
-        var derelateQuery = queries.getQuery(BookQueryName.DERELATE_BOOK_WITH_NOT_GIVEN_AUTHORS);
-        var relateQuery = queries.getQuery(BookQueryName.RELATE_BOOK_WITH_AUTHOR);
+        var captor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        when(jdbcOperations.queryForObject(eq(bookQuery), captor.capture(), eq(Long.class))).thenReturn(1L);
 
-        var updateQueryArgumentCaptor = ArgumentCaptor.forClass(SqlParameterSource.class);
-        var batchUpdateQueryArgumentCaptor = ArgumentCaptor.forClass(SqlParameterSource[].class);
-        when(jdbcOperations.update(eq(bookQuery), updateQueryArgumentCaptor.capture())).thenReturn(1);
-        when(jdbcOperations.update(eq(derelateQuery), updateQueryArgumentCaptor.capture())).thenReturn(0);
-        when(jdbcOperations.batchUpdate(eq(relateQuery), batchUpdateQueryArgumentCaptor.capture()))
-                .thenReturn(new int[]{1});
+        repository.save(givenBook);
+
+        verify(jdbcOperations).queryForObject(eq(bookQuery), notNull(SqlParameterSource.class), eq(Long.class));
+        verifyNoMoreInteractions(jdbcOperations);
+        var queryParams = captor.getValue();
+        assertEquals(givenBook.getIsbn(), queryParams.getValue("book_isbn"));
+        assertEquals(givenBook.getTitle(), queryParams.getValue("book_title"));
+        assertArrayEquals(new UUID[]{givenAuthorId}, authorIds(queryParams, "author_ids"));
+    }
+
+    @Test
+    @DisplayName("not write a stored book without changes")
+    void shouldNotWriteAStoredBookWithoutChanges(@FakerIsbn String givenIsbn) {
+        var givenBook = new BookPrimitives(givenIsbn, "test title", UUID.randomUUID()).toStoredBook();
 
         repository.save(givenBook);
 
-        var updateQueriesArguments = updateQueryArgumentCaptor.getAllValues();
-        assertNotNull(updateQueriesArguments);
-        assertEquals(2, updateQueriesArguments.size());
-        assertEquals(givenBook.getIsbn(), updateQueriesArguments.getFirst().getValue("book_isbn"));
-        assertEquals(givenBook.getTitle(), updateQueriesArguments.getFirst().getValue("book_title"));
-        assertEquals(givenBook.getIsbn(), updateQueriesArguments.get(1).getValue("book_isbn"));
-        assertEquals(Set.of(givenAuthorId), updateQueriesArguments.get(1).getValue("author_id"));
+        verifyNoInteractions(jdbcOperations);
+    }
 
-        var batchUpdateQueriesArguments = batchUpdateQueryArgumentCaptor.getAllValues();
-        assertNotNull(batchUpdateQueriesArguments);
-        assertEquals(1, batchUpdateQueriesArguments.size());
+    @Test
+    @DisplayName("write only the authors added to and removed from a stored book")
+    void shouldWriteOnlyTheAuthorsAddedToAndRemovedFromAStoredBook(@FakerIsbn String givenIsbn) {
+        var keptAuthorId = UUID.randomUUID();
+        var removedAuthorId = UUID.randomUUID();
+        var addedAuthorId = UUID.randomUUID();
+        var givenBook = new BookPrimitives(givenIsbn, "test title", keptAuthorId, removedAuthorId)
+                .withVersion(2L)
+                .toStoredBook();
+        givenBook.replaceWith(new BookPrimitives(givenIsbn, "test title", keptAuthorId, addedAuthorId).toBook());
+        var changesQuery = queries.getQuery(BookQueryName.SAVE_BOOK_CHANGES);
+        var captor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        when(jdbcOperations.queryForList(eq(changesQuery), captor.capture(), eq(Long.class))).thenReturn(List.of(3L));
 
-        var batchUpdateParameters = batchUpdateQueriesArguments.getFirst();
-        assertEquals(1, batchUpdateParameters.length);
-        assertEquals(givenBook.getIsbn(), batchUpdateParameters[0].getValue("book_isbn"));
-        assertEquals(givenAuthorId, batchUpdateParameters[0].getValue("author_id"));
+        repository.save(givenBook);
 
-        verify(jdbcOperations, times(2)).update(anyString(), notNull(SqlParameterSource.class));
-        verify(jdbcOperations).batchUpdate(eq(relateQuery), notNull(SqlParameterSource[].class));
+        verify(jdbcOperations).queryForList(eq(changesQuery), notNull(SqlParameterSource.class), eq(Long.class));
+        verifyNoMoreInteractions(jdbcOperations);
+        var queryParams = captor.getValue();
+        assertEquals(givenBook.getIsbn(), queryParams.getValue("book_isbn"));
+        assertEquals(2L, queryParams.getValue("book_version"));
+        assertEquals(false, queryParams.getValue("title_changed"));
+        assertArrayEquals(new UUID[]{removedAuthorId}, authorIds(queryParams, "removed_author_ids"));
+        assertArrayEquals(new UUID[]{addedAuthorId}, authorIds(queryParams, "added_author_ids"));
+        assertFalse(givenBook.hasChanges());
+        assertEquals(3L, givenBook.getVersion());
     }
 
     @Test
-    @DisplayName("call the expected queries when a book is removed by isbn")
+    @DisplayName("update only the title when it is the only change of a stored book")
+    void shouldUpdateOnlyTheTitleWhenItIsTheOnlyChangeOfAStoredBook(@FakerIsbn String givenIsbn) {
+        var givenAuthorId = UUID.randomUUID();
+        var givenBook = new BookPrimitives(givenIsbn, "test title", givenAuthorId).toStoredBook();
+        givenBook.replaceWith(new BookPrimitives(givenIsbn, "another title", givenAuthorId).toBook());
+        var changesQuery = queries.getQuery(BookQueryName.SAVE_BOOK_CHANGES);
+        var captor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        when(jdbcOperations.queryForList(eq(changesQuery), captor.capture(), eq(Long.class))).thenReturn(List.of(1L));
+
+        repository.save(givenBook);
+
+        verify(jdbcOperations).queryForList(eq(changesQuery), notNull(SqlParameterSource.class), eq(Long.class));
+        verifyNoMoreInteractions(jdbcOperations);
+        var queryParams = captor.getValue();
+        assertEquals(givenBook.getIsbn(), queryParams.getValue("book_isbn"));
+        assertEquals("another title", queryParams.getValue("book_title"));
+        assertEquals(true, queryParams.getValue("title_changed"));
+        assertArrayEquals(new UUID[0], authorIds(queryParams, "removed_author_ids"));
+        assertArrayEquals(new UUID[0], authorIds(queryParams, "added_author_ids"));
+    }
+
+    @Test
+    @DisplayName("throw a write conflict and keep the changes when a stored book has been written since it was read")
+    void shouldThrowAWriteConflictWhenAStoredBookHasBeenWrittenSinceItWasRead(@FakerIsbn String givenIsbn) {
+        var givenBook = new BookPrimitives(givenIsbn, "test title").withVersion(4L).toStoredBook();
+        givenBook.replaceWith(new BookPrimitives(givenIsbn, "another title").toBook());
+        var changesQuery = queries.getQuery(BookQueryName.SAVE_BOOK_CHANGES);
+        when(jdbcOperations.queryForList(eq(changesQuery), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(List.of());
+
+        assertThrows(WriteConflict.class, () -> repository.save(givenBook));
+        assertTrue(givenBook.hasChanges());
+        assertEquals(4L, givenBook.getVersion());
+    }
+
+    @Test
+    @DisplayName("delete a book and its authors in a single statement")
     void shouldRemoveGivenBook(@FakerIsbn String isbn) {
         var givenIsbn = Isbn.fromString(isbn);
         var captor = ArgumentCaptor.forClass(SqlParameterSource.class);
-        var deleteBookRelationshipWithAuthorsQuery = queries.getQuery(BookQueryName.DELETE_BOOK_RELATIONSHIP_WITH_AUTHORS);
         var deleteBookQuery = queries.getQuery(BookQueryName.DELETE_BOOK);
 
-        when(jdbcOperations.update(eq(deleteBookRelationshipWithAuthorsQuery), captor.capture())).thenReturn(1);
-        when(jdbcOperations.update(eq(deleteBookQuery), captor.capture())).thenReturn(1);
+        when(jdbcOperations.queryForObject(eq(deleteBookQuery), captor.capture(), eq(Long.class))).thenReturn(1L);
 
         repository.delete(givenIsbn);
 
-        verify(jdbcOperations, times(2)).update(anyString(), notNull(SqlParameterSource.class));
+        verify(jdbcOperations).queryForObject(eq(deleteBookQuery), notNull(SqlParameterSource.class), eq(Long.class));
+        verifyNoMoreInteractions(jdbcOperations);
+        assertEquals(givenIsbn.isbnLiteral(), captor.getValue().getValue("book_isbn"));
+        assertNull(captor.getValue().getValue("book_version"));
+    }
+
+    @Test
+    @DisplayName("throw a version mismatch when the book to delete is not in the expected version")
+    void shouldThrowAVersionMismatchWhenTheBookToDeleteIsNotInTheExpectedVersion(@FakerIsbn String isbn) {
+        var givenIsbn = Isbn.fromString(isbn);
+        var captor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        var deleteBookQuery = queries.getQuery(BookQueryName.DELETE_BOOK);
+        when(jdbcOperations.queryForObject(eq(deleteBookQuery), captor.capture(), eq(Long.class))).thenReturn(0L);
+
+        assertThrows(BookVersionMismatch.class, () -> repository.delete(givenIsbn, 7L));
+        assertEquals(7L, captor.getValue().getValue("book_version"));
+    }
+
+    @Test
+    @DisplayName("not fail when the book to delete in any version does not exist")
+    void shouldNotFailWhenTheBookToDeleteInAnyVersionDoesNotExist(@FakerIsbn String isbn) {
+        var deleteBookQuery = queries.getQuery(BookQueryName.DELETE_BOOK);
+        when(jdbcOperations.queryForObject(eq(deleteBookQuery), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(0L);
+
+        assertDoesNotThrow(() -> repository.delete(Isbn.fromString(isbn)));
+    }
+
+    @Test
+    @DisplayName("update one of the slots of the book counter when a book is saved or deleted")
+    void shouldUpdateOneOfTheSlotsOfTheBookCounterWhenABookIsSavedOrDeleted(@FakerIsbn String isbn) {
+        var captor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        var bookSaveQuery = queries.getQuery(BookQueryName.SAVE_BOOK_INFORMATION);
+        var deleteBookQuery = queries.getQuery(BookQueryName.DELETE_BOOK);
+        when(jdbcOperations.queryForObject(eq(bookSaveQuery), captor.capture(), eq(Long.class))).thenReturn(1L);
+        when(jdbcOperations.queryForObject(eq(deleteBookQuery), captor.capture(), eq(Long.class))).thenReturn(1L);
+
+        repository.save(createBookWithIsbnAndAuthors(isbn));
+        repository.delete(Isbn.fromString(isbn));
+
         var givenParameters = captor.getAllValues();
-        assertNotNull(givenParameters);
         assertEquals(2, givenParameters.size());
+        for (var parameters : givenParameters) {
+            var counterSlot = (Integer) parameters.getValue("counter_slot");
+            assertNotNull(counterSlot);
+            assertTrue(counterSlot >= 0 && counterSlot < BookSqlRepository.COUNTER_SLOTS);
+        }
+    }
+
+    @Test
+    @DisplayName("write a book within a unit of work only once the unit of work is flushed")
+    void shouldWriteABookWithinAUnitOfWorkOnlyOnceTheUnitOfWorkIsFlushed(@FakerIsbn String isbn) {
+        var bookSaveQuery = queries.getQuery(BookQueryName.SAVE_BOOK_INFORMATION);
+        var givenBook = createBookWithIsbnAndAuthors(isbn);
+        when(jdbcOperations.queryForObject(eq(bookSaveQuery), any(SqlParameterSource.class), eq(Long.class)))
+                .thenReturn(1L);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            var unitOfWork = UnitOfWork.begin();
+            repository.save(givenBook);
+            repository.save(givenBook);
+            verifyNoInteractions(jdbcOperations);
 
-        var firstQueryParam = givenParameters.getFirst();
-        var secondQueryParam = givenParameters.get(1);
+            unitOfWork.flush();
+        } finally {
+            TransactionSynchronizationManager.unbindResourceIfPossible(UnitOfWork.class);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
 
-        assertEquals(givenIsbn.isbnLiteral(), firstQueryParam.getValue("book_isbn"));
-        assertEquals(givenIsbn.isbnLiteral(), secondQueryParam.getValue("book_isbn"));
+        verify(jdbcOperations).queryForObject(eq(bookSaveQuery), any(SqlParameterSource.class), eq(Long.class));
+        verifyNoMoreInteractions(jdbcOperations);
+        assertFalse(givenBook.hasChanges());
+    }
+
+    @Test
+    @DisplayName("save several new books in a single statement keeping the last book of every isbn")
+    void shouldSaveSeveralNewBooksInASingleStatementKeepingTheLastBookOfEveryIsbn(
+            @FakerIsbn String firstIsbn,
+            @FakerIsbn String secondIsbn
+    ) {
+        var givenAuthorId = UUID.randomUUID();
+        var staleBook = createBookWithIsbnAndAuthors(secondIsbn);
+        var firstBook = createBookWithIsbnAndAuthors(firstIsbn, givenAuthorId);
+        var lastBook = createBookWithIsbnAndAuthors(secondIsbn, givenAuthorId);
+        var booksQuery = queries.getQuery(BookQueryName.SAVE_BOOKS_INFORMATION);
+        var captor = ArgumentCaptor.forClass(SqlParameterSource.class);
+        when(jdbcOperations.query(
+                eq(booksQuery),
+                captor.capture(),
+                (ResultSetExtractor<Map<String, BookSqlRepository.SavedBook>>) notNull())
+        ).thenReturn(Map.of(
+                firstIsbn, new BookSqlRepository.SavedBook(1L, true),
+                secondIsbn, new BookSqlRepository.SavedBook(4L, true)
+        ));
+
+        var writtenBooks = repository.saveAll(List.of(staleBook, firstBook, lastBook));
+
+        verify(jdbcOperations).query(eq(booksQuery), notNull(SqlParameterSource.class), any(ResultSetExtractor.class));
+        verifyNoMoreInteractions(jdbcOperations);
+        var queryParams = captor.getValue();
+        var orderedIsbns = firstIsbn.compareTo(secondIsbn) < 0
+                ? new Object[]{firstIsbn, secondIsbn}
+                : new Object[]{secondIsbn, firstIsbn};
+        assertArrayEquals(orderedIsbns, ((SqlArrayParameter) queryParams.getValue("book_isbns")).getElements());
+        assertArrayEquals(new Object[]{givenAuthorId, givenAuthorId}, authorIds(queryParams, "author_ids"));
+        assertEquals(1L, firstBook.getVersion());
+        assertEquals(4L, lastBook.getVersion());
+        assertEquals(4L, staleBook.getVersion());
+        assertFalse(lastBook.hasChanges());
+        assertEquals(List.of(staleBook, firstBook, lastBook), writtenBooks);
+    }
+
+    @Test
+    @DisplayName("not report as written the books that were already stored as given when saving several at once")
+    void shouldNotReportAsWrittenTheBooksAlreadyStoredAsGivenWhenSavingSeveralAtOnce(
+            @FakerIsbn String writtenIsbn,
+            @FakerIsbn String unchangedIsbn
+    ) {
+        var writtenBook = createBookWithIsbnAndAuthors(writtenIsbn);
+        var unchangedBook = createBookWithIsbnAndAuthors(unchangedIsbn);
+        when(jdbcOperations.query(
+                eq(queries.getQuery(BookQueryName.SAVE_BOOKS_INFORMATION)),
+                any(SqlParameterSource.class),
+                (ResultSetExtractor<Map<String, BookSqlRepository.SavedBook>>) notNull())
+        ).thenReturn(Map.of(
+                writtenIsbn, new BookSqlRepository.SavedBook(1L, true),
+                unchangedIsbn, new BookSqlRepository.SavedBook(7L, false)
+        ));
+
+        var writtenBooks = repository.saveAll(List.of(writtenBook, unchangedBook));
+
+        assertEquals(List.of(writtenBook), writtenBooks);
+        assertEquals(7L, unchangedBook.getVersion());
+        assertFalse(unchangedBook.hasChanges());
     }
 
     @Test
@@ -149,6 +334,10 @@ class BookSqlRepositoryTest {
         assertEquals(givenIsbn, params.getValue("book_isbn"));
     }
 
+    private static Object[] authorIds(SqlParameterSource queryParams, String paramName) {
+        return ((SqlArrayParameter) queryParams.getValue(paramName)).getElements();
+    }
+
     private Book createBookWithIsbnAndAuthors(String isbn, UUID... authors) {
         var mockedAuthorChecker = mock(AuthorChecker.class);
         when(mockedAuthorChecker.authorsExists(any())).thenReturn(true);
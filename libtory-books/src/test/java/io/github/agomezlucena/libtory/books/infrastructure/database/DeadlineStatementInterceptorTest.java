@@ -0,0 +1,128 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import io.github.agomezlucena.libtory.shared.concurrent.Deadline;
+import io.github.agomezlucena.libtory.shared.concurrent.DeadlineExceeded;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@DisplayName("DeadlineStatementInterceptor should")
+class DeadlineStatementInterceptorTest {
+    private final DeadlineStatementInterceptor testSubject = new DeadlineStatementInterceptor();
+
+    @Test
+    @DisplayName("not modify the statements when there is no deadline")
+    void shouldNotModifyTheStatementsWhenThereIsNoDeadline() throws Throwable {
+        Statement statement = mock();
+        StatementHandler handler = mock();
+        when(handler.prepare(any(), any())).thenReturn(statement);
+
+        assertSame(statement, testSubject.intercept(prepareInvocation(handler)));
+        verifyNoInteractions(statement);
+    }
+
+    @Test
+    @DisplayName("set the remaining time of the deadline rounded up as query timeout")
+    void shouldSetTheRemainingTimeOfTheDeadlineRoundedUpAsQueryTimeout() throws Throwable {
+        Statement statement = mock();
+        StatementHandler handler = mock();
+        when(handler.prepare(any(), any())).thenReturn(statement);
+
+        Deadline.after(Duration.ofMillis(2500)).call(() -> intercept(prepareInvocation(handler)));
+
+        verify(statement).setQueryTimeout(3);
+    }
+
+    @Test
+    @DisplayName("keep the query timeout of the statement when it is shorter than the deadline")
+    void shouldKeepTheQueryTimeoutOfTheStatementWhenItIsShorterThanTheDeadline() throws Throwable {
+        Statement statement = mock();
+        when(statement.getQueryTimeout()).thenReturn(1);
+        StatementHandler handler = mock();
+        when(handler.prepare(any(), any())).thenReturn(statement);
+
+        Deadline.after(Duration.ofSeconds(30)).call(() -> intercept(prepareInvocation(handler)));
+
+        verify(statement, never()).setQueryTimeout(anyInt());
+    }
+
+    @Test
+    @DisplayName("not run the statements when the deadline has expired")
+    void shouldNotRunTheStatementsWhenTheDeadlineHasExpired() throws Throwable {
+        StatementHandler handler = mock();
+
+        assertThrows(
+                DeadlineExceeded.class,
+                () -> Deadline.after(Duration.ZERO).call(() -> intercept(prepareInvocation(handler)))
+        );
+        verifyNoInteractions(handler);
+    }
+
+    @Test
+    @DisplayName("cancel the running statement when the deadline is cancelled")
+    void shouldCancelTheRunningStatementWhenTheDeadlineIsCancelled() throws Throwable {
+        Statement statement = mock();
+        StatementHandler handler = mock();
+        var deadline = Deadline.after(Duration.ofSeconds(30));
+        when(handler.query(any(), any())).thenAnswer(invocation -> {
+            deadline.cancel();
+            return List.of();
+        });
+
+        deadline.call(() -> intercept(queryInvocation(handler, statement)));
+
+        verify(statement).cancel();
+    }
+
+    @Test
+    @DisplayName("not cancel the statement once it has finished")
+    void shouldNotCancelTheStatementOnceItHasFinished() throws Throwable {
+        Statement statement = mock();
+        StatementHandler handler = mock();
+        when(handler.query(any(), any())).thenReturn(List.of());
+        var deadline = Deadline.after(Duration.ofSeconds(30));
+
+        deadline.call(() -> intercept(queryInvocation(handler, statement)));
+        deadline.cancel();
+
+        verify(statement, never()).cancel();
+    }
+
+    private Object intercept(Invocation invocation) {
+        try {
+            return testSubject.intercept(invocation);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Invocation prepareInvocation(StatementHandler handler) throws NoSuchMethodException {
+        return new Invocation(
+                handler,
+                StatementHandler.class.getMethod("prepare", Connection.class, Integer.class),
+                new Object[]{mock(Connection.class), null}
+        );
+    }
+
+    private static Invocation queryInvocation(StatementHandler handler, Statement statement) throws NoSuchMethodException {
+        return new Invocation(
+                handler,
+                StatementHandler.class.getMethod("query", Statement.class, ResultHandler.class),
+                new Object[]{statement, null}
+        );
+    }
+}
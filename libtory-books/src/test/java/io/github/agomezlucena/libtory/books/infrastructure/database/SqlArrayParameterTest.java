@@ -0,0 +1,49 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+import static org.springframework.jdbc.support.JdbcUtils.TYPE_UNKNOWN;
+
+@DisplayName("a sql array parameter should")
+class SqlArrayParameterTest {
+
+    @Test
+    @DisplayName("bind its elements as a single array of the given type")
+    void shouldBindItsElementsAsASingleArrayOfTheGivenType() throws SQLException {
+        var givenIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        var connection = mock(Connection.class);
+        var statement = mock(PreparedStatement.class);
+        var createdArray = mock(Array.class);
+        when(statement.getConnection()).thenReturn(connection);
+        when(connection.createArrayOf(eq("uuid"), any(Object[].class))).thenReturn(createdArray);
+
+        SqlArrayParameter.ofUuids(givenIds).setTypeValue(statement, 1, TYPE_UNKNOWN, null);
+
+        verify(connection).createArrayOf("uuid", givenIds.toArray());
+        verify(statement).setObject(1, createdArray);
+    }
+
+    @Test
+    @DisplayName("keep its elements when the given collection changes")
+    void shouldKeepItsElementsWhenTheGivenCollectionChanges() {
+        var givenIds = new ArrayList<>(List.of(UUID.randomUUID()));
+        var testSubject = SqlArrayParameter.of("uuid", givenIds);
+
+        givenIds.add(UUID.randomUUID());
+
+        assertEquals("uuid", testSubject.getElementType());
+        assertArrayEquals(new Object[]{givenIds.getFirst()}, testSubject.getElements());
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.agomezlucena.libtory.books.infrastructure.database;
+
+import io.github.agomezlucena.libtory.shared.cqrs.CommandBus;
+import io.github.agomezlucena.libtory.shared.cqrs.CommandHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("the transactional command interceptor should")
+class TransactionalCommandInterceptorTest {
+    private List<String> events;
+    private RecordingTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        events = new ArrayList<>();
+        transactionManager = new RecordingTransactionManager(events);
+    }
+
+    @Test
+    @DisplayName("handle the command in a single transaction and run its writes right before the commit")
+    void shouldHandleTheCommandInASingleTransactionAndRunItsWritesRightBeforeTheCommit() {
+        var testSubject = busWithHandler(command -> {
+            var unitOfWork = UnitOfWork.current().orElseThrow();
+            unitOfWork.register("first", () -> events.add("first write"));
+            unitOfWork.register("second", () -> events.add("second write"));
+            events.add("handled " + command);
+        });
+
+        testSubject.sendCommand("command");
+
+        assertEquals(
+                List.of("begin", "handled command", "first write", "second write", "commit"),
+                events
+        );
+        assertTrue(UnitOfWork.current().isEmpty());
+    }
+
+    @Test
+    @DisplayName("run only the last write of every aggregate, in the order they were last written")
+    void shouldRunOnlyTheLastWriteOfEveryAggregateInTheOrderTheyWereLastWritten() {
+        var testSubject = busWithHandler(command -> {
+            var unitOfWork = UnitOfWork.current().orElseThrow();
+            unitOfWork.register("first", () -> events.add("stale write of first"));
+            unitOfWork.register("second", () -> events.add("write of second"));
+            unitOfWork.register("first", () -> events.add("last write of first"));
+        });
+
+        testSubject.sendCommand("command");
+
+        assertEquals(List.of("begin", "write of second", "last write of first", "commit"), events);
+    }
+
+    @Test
+    @DisplayName("roll back without running the writes when the handler fails")
+    void shouldRollBackWithoutRunningTheWritesWhenTheHandlerFails() {
+        var expectedException = new IllegalStateException("handler failed");
+        var testSubject = busWithHandler(command -> {
+            UnitOfWork.current().orElseThrow().register("first", () -> events.add("first write"));
+            throw expectedException;
+        });
+
+        var obtainedException = assertThrows(IllegalStateException.class, () -> testSubject.sendCommand("command"));
+
+        assertSame(expectedException, obtainedException);
+        assertEquals(List.of("begin", "rollback"), events);
+        assertTrue(UnitOfWork.current().isEmpty());
+    }
+
+    @Test
+    @DisplayName("roll back when one of the writes fails")
+    void shouldRollBackWhenOneOfTheWritesFails() {
+        var testSubject = busWithHandler(command -> UnitOfWork.current().orElseThrow().register("first", () -> {
+            throw new IllegalStateException("write failed");
+        }));
+
+        assertThrows(IllegalStateException.class, () -> testSubject.sendCommand("command"));
+
+        assertEquals(List.of("begin", "rollback"), events);
+    }
+
+    @Test
+    @DisplayName("run the pending writes when they are flushed before the end of the command")
+    void shouldRunThePendingWritesWhenTheyAreFlushedBeforeTheEndOfTheCommand() {
+        var testSubject = busWithHandler(command -> {
+            var unitOfWork = UnitOfWork.current().orElseThrow();
+            unitOfWork.register("first", () -> events.add("first write"));
+            unitOfWork.flush();
+            events.add("read after the flush");
+            assertFalse(unitOfWork.hasPendingWrites());
+        });
+
+        testSubject.sendCommand("command");
+
+        assertEquals(List.of("begin", "first write", "read after the flush", "commit"), events);
+    }
+
+    @Test
+    @DisplayName("handle the commands of an excluded type without a transaction")
+    void shouldHandleTheCommandsOfAnExcludedTypeWithoutATransaction() {
+        var testSubject = busWithHandler(
+                new TransactionalCommandInterceptor(transactionManager).excluding(String.class),
+                command -> {
+                    assertTrue(UnitOfWork.current().isEmpty());
+                    events.add("handled " + command);
+                }
+        );
+
+        testSubject.sendCommand("command");
+
+        assertEquals(List.of("handled command"), events);
+    }
+
+    private CommandBus busWithHandler(Consumer<String> handler) {
+        return busWithHandler(new TransactionalCommandInterceptor(transactionManager), handler);
+    }
+
+    private CommandBus busWithHandler(TransactionalCommandInterceptor interceptor, Consumer<String> handler) {
+        return CommandBus.getNewCommandBus()
+                .addInterceptor(interceptor)
+                .addHandler(String.class, new CommandHandler<String>() {
+                    @Override
+                    public void handleCommand(String command) {
+                        handler.accept(command);
+                    }
+                });
+    }
+
+    private static final class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+        private final List<String> events;
+
+        private RecordingTransactionManager(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            events.add("begin");
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            events.add("commit");
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            events.add("rollback");
+        }
+    }
+}
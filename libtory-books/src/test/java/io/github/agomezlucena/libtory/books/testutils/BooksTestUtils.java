@@ -65,6 +65,7 @@ public interface BooksTestUtils {
 
         namedParameterJdbcOperations.getJdbcOperations().execute(deleteAuthorRelationShip);
         namedParameterJdbcOperations.getJdbcOperations().execute(deleteBookSql);
+        recountBooks(namedParameterJdbcOperations);
     }
 
     static void deleteAllRegisters(NamedParameterJdbcOperations operations) throws InterruptedException {
@@ -76,6 +77,7 @@ public interface BooksTestUtils {
         var deleteAuthorsTask = Thread.ofVirtual().start(() -> operations.update(deleteFromAuthors, Collections.emptyMap()));
         deleteBooksTask.join();
         deleteAuthorsTask.join();
+        recountBooks(operations);
     }
 
     static void createTestData(NamedParameterJdbcOperations operations) throws InterruptedException {
@@ -115,5 +117,24 @@ public interface BooksTestUtils {
         insertBookTask.join();
         insertAuthorTask.join();
         operations.update(insertBookAuthorsSql, Collections.emptyMap());
+        recountBooks(operations);
+    }
+
+    /// @return the given twelve digits followed by their isbn 13 check digit.
+    static String withCheckDigit(String twelveDigits) {
+        var sum = 0;
+        for (int i = 0; i < twelveDigits.length(); i++) {
+            var digit = twelveDigits.charAt(i) - '0';
+            sum += (i % 2 == 0) ? digit : digit * 3;
+        }
+        return twelveDigits + ((10 - sum % 10) % 10);
+    }
+
+    /// the fixtures are written without the book repository, so the maintained amount of books is recalculated
+    static void recountBooks(NamedParameterJdbcOperations operations) {
+        operations.getJdbcOperations().execute("delete from books.book_counter");
+        operations.getJdbcOperations().execute(
+                "insert into books.book_counter (slot, amount) select 0, count(*) from books.books"
+        );
     }
 }
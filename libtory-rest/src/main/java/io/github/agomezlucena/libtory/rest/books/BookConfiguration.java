@@ -2,31 +2,112 @@ package io.github.agomezlucena.libtory.rest.books;
 
 import io.github.agomezlucena.libtory.books.application.*;
 import io.github.agomezlucena.libtory.books.domain.*;
+import io.github.agomezlucena.libtory.books.infrastructure.cache.BookProjectionCache;
+import io.github.agomezlucena.libtory.books.infrastructure.cache.CacheInvalidatingBookCatalogLoader;
+import io.github.agomezlucena.libtory.books.infrastructure.cache.BookProjectionCacheSettings;
+import io.github.agomezlucena.libtory.books.infrastructure.cache.CacheInvalidatingBookRepository;
+import io.github.agomezlucena.libtory.books.infrastructure.cache.CachingBookProjectionRepository;
 import io.github.agomezlucena.libtory.books.infrastructure.database.AuthorSqlChecker;
+import io.github.agomezlucena.libtory.books.infrastructure.database.BookCopyLoader;
+import io.github.agomezlucena.libtory.books.infrastructure.database.BookCounterReconciler;
 import io.github.agomezlucena.libtory.books.infrastructure.database.BookProjectionMybatisRepository;
 import io.github.agomezlucena.libtory.books.infrastructure.database.BookQueries;
 import io.github.agomezlucena.libtory.books.infrastructure.database.BookSqlRepository;
+import io.github.agomezlucena.libtory.books.infrastructure.database.DeadlineStatementInterceptor;
+import io.github.agomezlucena.libtory.books.infrastructure.database.TransactionalCommandInterceptor;
 import io.github.agomezlucena.libtory.books.infrastructure.database.mappers.BookProjectionMapper;
+import io.github.agomezlucena.libtory.shared.concurrent.AdaptiveLimitSettings;
+import io.github.agomezlucena.libtory.shared.concurrent.BoundedIoExecutor;
+import io.github.agomezlucena.libtory.shared.concurrent.RetryBudget;
+import io.github.agomezlucena.libtory.shared.concurrent.RetrySettings;
+import io.github.agomezlucena.libtory.shared.concurrent.VirtualThreadPinningMonitor;
+import io.github.agomezlucena.libtory.shared.cqrs.BatchingQueryHandler;
 import io.github.agomezlucena.libtory.shared.cqrs.CommandBus;
+import io.github.agomezlucena.libtory.shared.cqrs.CommandHandler;
+import io.github.agomezlucena.libtory.shared.cqrs.GroupCommitCommandHandler;
+import io.github.agomezlucena.libtory.shared.cqrs.Query;
 import io.github.agomezlucena.libtory.shared.cqrs.QueryBus;
+import io.github.agomezlucena.libtory.shared.cqrs.WriteConflict;
+import io.github.agomezlucena.libtory.shared.cqrs.interceptors.AdmissionControlInterceptor;
+import io.github.agomezlucena.libtory.shared.cqrs.interceptors.MetricsInterceptor;
+import io.github.agomezlucena.libtory.shared.cqrs.interceptors.RetryInterceptor;
+import io.github.agomezlucena.libtory.shared.cqrs.interceptors.SlowCallLoggingInterceptor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@EnableScheduling
 public class BookConfiguration {
+    private static final String SERIALIZATION_FAILURE = "40001";
+    private static final String DEADLOCK_DETECTED = "40P01";
+    private static final List<Class<?>> RETRIED_COMMANDS = List.of(
+            BookPrimitives.class,
+            UpdateAuthorsCommand.class,
+            ChangeAuthorsCommand.class,
+            DeleteBookCommand.class
+    );
 
+    /// the statements that the books run apart from their caller, the pages and totals of a listing, the batches of
+    /// isbns and the chunks of an import, run in virtual threads, but never more of them than the connections they
+    /// can get from the pool, so the rest of them wait in order in the executor instead of timing out in the pool.
+    ///
+    /// only the statements themselves run here: the buses and their lanes wait for them, so they run in their own
+    /// virtual threads, as a task that waits for a permit held by the task it waits for would never finish.
     @Bean
     @Qualifier("booksIoExecutorService")
-    ExecutorService booksIoExecutorService() {
-        return Executors.newVirtualThreadPerTaskExecutor();
+    ExecutorService booksIoExecutorService(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+            @Value("${libtory.books.io-executor.pool-fraction:0.8}") double poolFraction,
+            MeterRegistry meterRegistry
+    ) {
+        var queueWait = Timer.builder("libtory.io.executor.queue.wait")
+                .tag("executor", "books")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        var executor = new BoundedIoExecutor(
+                "books-io",
+                Math.max(1, (int) (connectionPoolSize * poolFraction)),
+                nanos -> queueWait.record(nanos, TimeUnit.NANOSECONDS)
+        );
+        Gauge.builder("libtory.io.executor.queue.depth", executor, BoundedIoExecutor::getQueueDepth)
+                .tag("executor", "books")
+                .register(meterRegistry);
+        Gauge.builder("libtory.io.executor.active", executor, BoundedIoExecutor::getActiveCount)
+                .tag("executor", "books")
+                .register(meterRegistry);
+        return executor;
+    }
+
+    @Bean(destroyMethod = "close")
+    VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${libtory.virtual-threads.pinning-threshold:PT0.02S}") Duration threshold,
+            MeterRegistry meterRegistry
+    ) {
+        var monitor = new VirtualThreadPinningMonitor(threshold).start();
+        FunctionCounter.builder("libtory.virtual.threads.pinned", monitor, VirtualThreadPinningMonitor::getPinnedEvents)
+                .register(meterRegistry);
+        return monitor;
     }
 
     @Bean
@@ -41,13 +122,48 @@ public class BookConfiguration {
     }
 
     @Bean
-    BookRepository bookRepository(
+    BookProjectionCache bookProjectionCache(
+            @Value("${libtory.books.cache.time-to-live:PT10M}") Duration timeToLive,
+            @Value("${libtory.books.cache.maximum-weight:16777216}") long maximumWeight
+    ){
+        return new BookProjectionCache(new BookProjectionCacheSettings(timeToLive, maximumWeight));
+    }
+
+    @Bean
+    BookSqlRepository bookSqlRepository(
             @Qualifier("booksNamedParameterOperations") NamedParameterJdbcOperations operations,
             BookQueries bookQueries
     ){
         return new BookSqlRepository(bookQueries, operations);
     }
 
+    @Bean
+    @Primary
+    BookRepository bookRepository(BookSqlRepository bookSqlRepository, BookProjectionCache bookProjectionCache){
+        return new CacheInvalidatingBookRepository(bookSqlRepository, bookProjectionCache);
+    }
+
+    @Bean
+    BookCatalogLoader bookCatalogLoader(
+            @Qualifier("booksNamedParameterOperations") NamedParameterJdbcOperations operations,
+            BookQueries bookQueries,
+            PlatformTransactionManager transactionManager,
+            BookProjectionCache bookProjectionCache
+    ){
+        return new CacheInvalidatingBookCatalogLoader(
+                new BookCopyLoader(bookQueries, operations, transactionManager),
+                bookProjectionCache
+        );
+    }
+
+    @Bean
+    BookCounterReconciler bookCounterReconciler(
+            @Qualifier("booksNamedParameterOperations") NamedParameterJdbcOperations operations,
+            BookQueries bookQueries
+    ){
+        return new BookCounterReconciler(bookQueries, operations);
+    }
+
     @Bean
     BookProjectionRepository bookProjectionRepository(
             BookProjectionMapper bookProjectionMapper,
@@ -56,6 +172,12 @@ public class BookConfiguration {
         return new BookProjectionMybatisRepository(bookProjectionMapper,executorService);
     }
 
+    /// picked up by mybatis, bounds the statements of the mappers to the deadline of the request.
+    @Bean
+    DeadlineStatementInterceptor deadlineStatementInterceptor() {
+        return new DeadlineStatementInterceptor();
+    }
+
     @Bean
     AuthorChecker authorChecker(BookQueries queries,NamedParameterJdbcOperations operations) {
         return new AuthorSqlChecker(queries, operations);
@@ -77,14 +199,38 @@ public class BookConfiguration {
         return new UpdateBookAuthorsUseCase(authorChecker, bookRepository);
     }
 
+    @Bean
+    ChangeBookAuthorsUseCase changeBookAuthorsUseCase(
+            BookRepository bookRepository,
+            AuthorChecker authorChecker
+    ){
+        return new ChangeBookAuthorsUseCase(authorChecker, bookRepository);
+    }
+
+    /// the chunks of an import are loaded in the io executor while the next one is read.
+    @Bean
+    ImportBooksUseCase importBooksUseCase(
+            BookCatalogLoader bookCatalogLoader,
+            AuthorChecker authorChecker,
+            @Qualifier("booksIoExecutorService") ExecutorService executorService,
+            @Value("${libtory.books.import.chunk-size:10000}") int chunkSize
+    ){
+        return new ImportBooksUseCase(bookCatalogLoader, authorChecker, executorService, chunkSize);
+    }
+
     @Bean
     DeleteBookByIsbnUseCase deleteBookByIsbnUseCase(BookRepository bookRepository){
         return new DeleteBookByIsbnUseCase(bookRepository);
     }
 
     @Bean
-    QueryBookByIsbnUseCase queryBookByIsbnUseCase(BookProjectionRepository bookProjectionRepository){
-        return new QueryBookByIsbnUseCase(bookProjectionRepository);
+    QueryBookByIsbnUseCase queryBookByIsbnUseCase(
+            BookProjectionRepository bookProjectionRepository,
+            BookProjectionCache bookProjectionCache
+    ){
+        return new QueryBookByIsbnUseCase(
+                new CachingBookProjectionRepository(bookProjectionRepository, bookProjectionCache)
+        );
     }
 
     @Bean
@@ -92,28 +238,191 @@ public class BookConfiguration {
         return new QueryBooksPaginatedUseCase(bookProjectionRepository);
     }
 
+    @Bean
+    SlowCallLoggingInterceptor slowCallLoggingInterceptor(
+            @Value("${libtory.bus.slow-call-threshold:PT0.5S}") Duration threshold
+    ) {
+        return new SlowCallLoggingInterceptor(threshold);
+    }
+
+    @Bean
+    TransactionalCommandInterceptor transactionalCommandInterceptor(PlatformTransactionManager transactionManager) {
+        return new TransactionalCommandInterceptor(transactionManager);
+    }
+
+    /// the commands that lost against a concurrent write of the same rows, because of a deadlock, a serialization
+    /// failure or a book written since it was read, are handled again from the start.
+    @Bean
+    RetryInterceptor commandRetryInterceptor(
+            @Value("${libtory.books.retry.max-attempts:3}") int maxAttempts,
+            @Value("${libtory.books.retry.initial-backoff:PT0.01S}") Duration initialBackoff,
+            @Value("${libtory.books.retry.max-backoff:PT0.2S}") Duration maxBackoff,
+            @Value("${libtory.books.retry.budget-ratio:0.1}") double budgetRatio,
+            @Value("${libtory.books.retry.budget-max-balance:10}") int budgetMaxBalance,
+            MeterRegistry meterRegistry
+    ) {
+        var retryInterceptor = new RetryInterceptor(
+                RetryInterceptor.hasSqlState(SERIALIZATION_FAILURE, DEADLOCK_DETECTED)
+                        .or(error -> error instanceof WriteConflict || error instanceof ConcurrencyFailureException),
+                new RetryBudget(budgetRatio, budgetMaxBalance)
+        );
+        var settings = new RetrySettings(maxAttempts, initialBackoff, maxBackoff);
+        for (var command : RETRIED_COMMANDS) {
+            retryInterceptor.retry(command, settings);
+            FunctionCounter.builder("libtory.bus.retries", retryInterceptor, it -> it.getRetries(command))
+                    .tags("bus", "command", "type", command.getSimpleName())
+                    .register(meterRegistry);
+            FunctionCounter.builder("libtory.bus.retry.give.ups", retryInterceptor, it -> it.getGiveUps(command))
+                    .tags("bus", "command", "type", command.getSimpleName())
+                    .register(meterRegistry);
+        }
+        return retryInterceptor;
+    }
+
+    @Bean
+    AdaptiveLimitSettings busAdmissionSettings(
+            @Value("${libtory.bus.admission.initial-limit:16}") int initialLimit,
+            @Value("${libtory.bus.admission.min-limit:2}") int minLimit,
+            @Value("${libtory.bus.admission.max-limit:64}") int maxLimit,
+            @Value("${libtory.bus.admission.latency-threshold:PT0.25S}") Duration latencyThreshold,
+            @Value("${libtory.bus.admission.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${libtory.bus.admission.max-queue-size:32}") int maxQueueSize,
+            @Value("${libtory.bus.admission.max-queue-wait:PT0.1S}") Duration maxQueueWait
+    ) {
+        return new AdaptiveLimitSettings(
+                initialLimit,
+                minLimit,
+                maxLimit,
+                latencyThreshold,
+                backoffRatio,
+                maxQueueSize,
+                maxQueueWait
+        );
+    }
+
     @Bean
     @Qualifier("booksCommandBus")
     public CommandBus booksCommandBus(
             UpdateBookUseCase updateBookUseCase,
             UpdateBookAuthorsUseCase authorsUseCase,
-            DeleteBookByIsbnUseCase deleteBookByIsbnUseCase
+            ChangeBookAuthorsUseCase changeBookAuthorsUseCase,
+            DeleteBookByIsbnUseCase deleteBookByIsbnUseCase,
+            ImportBooksUseCase importBooksUseCase,
+            @Value("${libtory.books.command-lanes:16}") int commandLanes,
+            SlowCallLoggingInterceptor slowCallLoggingInterceptor,
+            AdaptiveLimitSettings busAdmissionSettings,
+            @Value("${libtory.bus.admission.retry-after:PT1S}") Duration retryAfter,
+            RetryInterceptor commandRetryInterceptor,
+            TransactionalCommandInterceptor transactionalCommandInterceptor,
+            @Value("${libtory.books.group-commit.enabled:false}") boolean groupCommitEnabled,
+            @Value("${libtory.books.group-commit.window:PT0.005S}") Duration groupCommitWindow,
+            @Value("${libtory.books.group-commit.max-size:16}") int groupCommitMaxSize,
+            @Value("${libtory.books.author-coalescing.enabled:true}") boolean authorCoalescingEnabled,
+            MeterRegistry meterRegistry
     ) {
-        return CommandBus.getNewCommandBus()
-                .addHandler(BookPrimitives.class,updateBookUseCase)
+        CommandHandler<BookPrimitives> bookHandler = updateBookUseCase;
+        GroupCommitCommandHandler<BookPrimitives> groupCommit = null;
+        if (groupCommitEnabled) {
+            // the books written at the same time share a single statement and commit, the caller that closes every
+            // group writes it, so a waiting caller does not hold a connection.
+            groupCommit = new GroupCommitCommandHandler<>(updateBookUseCase, groupCommitWindow, groupCommitMaxSize);
+            bookHandler = groupCommit;
+            transactionalCommandInterceptor.excluding(BookPrimitives.class);
+        }
+        // every chunk of an import is loaded in its own transaction.
+        transactionalCommandInterceptor.excluding(ImportBooksCommand.class);
+
+        var commandBus = CommandBus.getNewCommandBus(commandLanes)
+                // admitted when sent, so the commands beyond the limit are rejected instead of queueing in the lanes.
+                .addSendInterceptor(admissionControl(busAdmissionSettings, retryAfter))
+                .addInterceptor(new MetricsInterceptor(meterRegistry, "command"))
+                .addInterceptor(slowCallLoggingInterceptor)
+                // every retry runs in a new transaction.
+                .addInterceptor(commandRetryInterceptor)
+                // the last one, so the connection of a command is only held while its handler runs.
+                .addInterceptor(transactionalCommandInterceptor)
+                .addHandler(BookPrimitives.class,bookHandler)
                 .addHandler(UpdateAuthorsCommand.class,authorsUseCase)
-                .addHandler(Isbn.class,deleteBookByIsbnUseCase);
+                .addHandler(ChangeAuthorsCommand.class,changeBookAuthorsUseCase)
+                .addHandler(DeleteBookCommand.class,deleteBookByIsbnUseCase)
+                .addHandler(ImportBooksCommand.class,importBooksUseCase)
+                .routeBy(BookPrimitives.class, it -> Isbn.fromString(it.isbn()))
+                .routeBy(UpdateAuthorsCommand.class, UpdateAuthorsCommand::getIsbn)
+                .routeBy(ChangeAuthorsCommand.class, ChangeAuthorsCommand::getIsbn)
+                .routeBy(DeleteBookCommand.class, DeleteBookCommand::isbn);
+        if (groupCommit != null) {
+            // the window of a group starts when its first book is sent, so it passes while the books wait in
+            // their lanes. Every grouped book holds its lane until its group is written, so a group can not be
+            // larger than the amount of lanes and a larger max size is rejected here.
+            commandBus.addSendInterceptor(groupCommit.announcer(commandBus));
+        }
+        if (authorCoalescingEnabled) {
+            // the author updates that queue up behind a write of the same book are applied with a single write.
+            commandBus.enableCoalescing(UpdateAuthorsCommand.class, ChangeAuthorsCommand.coalescer());
+        }
+        commandBus.freeze();
 
+        FunctionCounter.builder(
+                        "libtory.bus.coalesced.commands",
+                        commandBus,
+                        it -> it.getCoalescedCommands(UpdateAuthorsCommand.class)
+                )
+                .tags("bus", "command", "type", UpdateAuthorsCommand.class.getSimpleName())
+                .register(meterRegistry);
+        return commandBus;
     }
 
     @Bean
     @Qualifier("booksQueryBus")
     public QueryBus booksQueryBus(
             QueryBookByIsbnUseCase queryBookByIsbnUseCase,
-            QueryBooksPaginatedUseCase queryBooksPaginatedUseCase
+            QueryBooksPaginatedUseCase queryBooksPaginatedUseCase,
+            @Qualifier("booksIoExecutorService") ExecutorService executorService,
+            @Value("${libtory.books.isbn-batching.window:PT0.002S}") Duration isbnBatchingWindow,
+            @Value("${libtory.books.isbn-batching.max-size:64}") int isbnBatchingMaxSize,
+            SlowCallLoggingInterceptor slowCallLoggingInterceptor,
+            AdaptiveLimitSettings busAdmissionSettings,
+            @Value("${libtory.bus.admission.retry-after:PT1S}") Duration retryAfter,
+            MeterRegistry meterRegistry
     ) {
-        return new QueryBus()
-                .addHandler(BookProjectionIsbnQuery.class,queryBookByIsbnUseCase)
-                .addHandler(BookProjectionPaginatedQuery.class,queryBooksPaginatedUseCase);
+        var queryBus = new QueryBus()
+                .addInterceptor(new MetricsInterceptor(meterRegistry, "query"))
+                .addInterceptor(slowCallLoggingInterceptor)
+                .addInterceptor(admissionControl(busAdmissionSettings, retryAfter))
+                .addHandler(
+                        BookProjectionIsbnQuery.class,
+                        new BatchingQueryHandler<>(
+                                queryBookByIsbnUseCase,
+                                isbnBatchingWindow,
+                                isbnBatchingMaxSize,
+                                executorService
+                        )
+                )
+                .addHandler(BookProjectionPaginatedQuery.class,queryBooksPaginatedUseCase)
+                .enableCoalescing(BookProjectionIsbnQuery.class)
+                .enableCoalescing(BookProjectionPaginatedQuery.class)
+                .freeze();
+
+        List<Class<? extends Query<?>>> coalescedQueries = List.of(
+                BookProjectionIsbnQuery.class,
+                BookProjectionPaginatedQuery.class
+        );
+        for (var coalescedQuery : coalescedQueries) {
+            FunctionCounter.builder("libtory.bus.collapsed.calls", queryBus, it -> it.getCollapsedCalls(coalescedQuery))
+                    .tags("bus", "query", "type", coalescedQuery.getSimpleName())
+                    .register(meterRegistry);
+        }
+        return queryBus;
+    }
+
+    /// every bus gets its own limits, the failures to obtain a connection or to finish a statement in time are
+    /// the signals of an overloaded database.
+    private AdmissionControlInterceptor admissionControl(AdaptiveLimitSettings settings, Duration retryAfter) {
+        return new AdmissionControlInterceptor(
+                settings,
+                retryAfter,
+                error -> error instanceof TransientDataAccessException
+                        || error instanceof CannotGetJdbcConnectionException
+        );
     }
 }
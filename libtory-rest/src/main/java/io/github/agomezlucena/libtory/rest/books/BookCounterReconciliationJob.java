@@ -0,0 +1,22 @@
+package io.github.agomezlucena.libtory.rest.books;
+
+import io.github.agomezlucena.libtory.books.infrastructure.database.BookCounterReconciler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookCounterReconciliationJob {
+    private final BookCounterReconciler bookCounterReconciler;
+
+    public BookCounterReconciliationJob(BookCounterReconciler bookCounterReconciler) {
+        this.bookCounterReconciler = bookCounterReconciler;
+    }
+
+    @Scheduled(
+            initialDelayString = "${libtory.books.counter-reconciliation-interval:PT1H}",
+            fixedDelayString = "${libtory.books.counter-reconciliation-interval:PT1H}"
+    )
+    public void reconcileBookCounter() {
+        bookCounterReconciler.reconcile();
+    }
+}
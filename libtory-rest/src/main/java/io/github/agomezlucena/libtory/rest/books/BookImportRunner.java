@@ -0,0 +1,70 @@
+package io.github.agomezlucena.libtory.rest.books;
+
+import io.github.agomezlucena.libtory.books.application.ImportBooksCommand;
+import io.github.agomezlucena.libtory.shared.cqrs.CommandBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+
+/// imports the catalog of books given in `libtory.books.import.file` and then stops the application, e.g.
+///
+/// ```
+/// java -jar libtory-rest.jar --spring.main.web-application-type=none --libtory.books.import.file=books.csv
+/// ```
+///
+/// the rejected records are written to `libtory.books.import.rejected-file`, by default next to the imported
+/// file with the `.rejected.csv` suffix. The application exits with 1 when the import fails.
+@Component
+@ConditionalOnProperty(name = "libtory.books.import.file")
+public class BookImportRunner implements ApplicationRunner {
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    private final CommandBus commandBus;
+    private final ConfigurableApplicationContext context;
+    private final Path source;
+    private final Path rejectedRows;
+
+    public BookImportRunner(
+            @Qualifier("booksCommandBus") CommandBus commandBus,
+            ConfigurableApplicationContext context,
+            @Value("${libtory.books.import.file}") Path source,
+            @Value("${libtory.books.import.rejected-file:}") String rejectedRows
+    ) {
+        this.commandBus = commandBus;
+        this.context = context;
+        this.source = source;
+        this.rejectedRows = rejectedRows.isBlank()
+                ? source.resolveSibling(source.getFileName() + ".rejected.csv")
+                : Path.of(rejectedRows);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        var exitCode = 0;
+        try {
+            log.info("importing the books of {}", source);
+            commandBus.sendCommand(new ImportBooksCommand(source, rejectedRows, progress -> log.info(
+                    "read {} rows, loaded {} rows creating {} books, rejected {} rows",
+                    progress.readRows(),
+                    progress.loadedRows(),
+                    progress.createdBooks(),
+                    progress.rejectedRows()
+            )));
+            log.info("imported the books of {}, the rejected rows are in {}", source, rejectedRows);
+        } catch (RuntimeException e) {
+            log.error("the import of the books of {} failed", source, e);
+            exitCode = 1;
+        }
+
+        final var code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
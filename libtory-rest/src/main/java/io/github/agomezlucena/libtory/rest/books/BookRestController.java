@@ -15,20 +15,21 @@ public class BookRestController implements BooksApi {
     }
 
     @Override
-    public ResponseEntity<Void> addAuthorsToBook(String isbn, LibtoryEntity libtoryEntity) {
-        return BooksApi.super.addAuthorsToBook(isbn, libtoryEntity);
+    public ResponseEntity<Void> addAuthorsToBook(String isbn, LibtoryEntity libtoryEntity, String ifMatch) {
+        bookService.addAuthors(isbn, libtoryEntity, ifMatch);
+        return ResponseEntity.ok().build();
     }
 
     @Override
-    public ResponseEntity<Void> addBook(String isbn, LibtoryEntity libtoryEntity) {
-        bookService.saveBook(isbn,libtoryEntity);
+    public ResponseEntity<Void> addBook(String isbn, LibtoryEntity libtoryEntity, String ifMatch) {
+        bookService.saveBook(isbn,libtoryEntity,ifMatch);
         return ResponseEntity.ok().build();
     }
 
     @Override
     public ResponseEntity<LibtoryEntity> findBookByIsbn(String isbn) {
         return bookService.getByIsbn(isbn)
-                .map(ResponseEntity::ok)
+                .map(it -> ResponseEntity.ok().eTag(String.valueOf(it.version())).body(it.entity()))
                 .orElseThrow(BookNotFoundException::bookNotFoundByIsbn);
     }
 
@@ -37,20 +38,23 @@ public class BookRestController implements BooksApi {
             Integer size,
             Integer page,
             String sortingField,
-            String sortingDirection
+            String sortingDirection,
+            String cursor,
+            String totalMode
     ) {
-        PagedResult result = bookService.getAllBooks(size,page,sortingDirection,sortingField);
+        PagedResult result = bookService.getAllBooks(size,page,sortingField,sortingDirection,cursor,totalMode);
         return ResponseEntity.ok(result);
     }
 
     @Override
-    public ResponseEntity<Void> removeAuthorsFromBook(String isbn, LibtoryEntity libtoryEntity) {
-        return BooksApi.super.removeAuthorsFromBook(isbn, libtoryEntity);
+    public ResponseEntity<Void> removeAuthorsFromBook(String isbn, LibtoryEntity libtoryEntity, String ifMatch) {
+        bookService.removeAuthors(isbn, libtoryEntity, ifMatch);
+        return ResponseEntity.ok().build();
     }
 
     @Override
-    public ResponseEntity<Void> removeBook(String isbn) {
-        bookService.deleteByIsbn(isbn);
+    public ResponseEntity<Void> removeBook(String isbn, String ifMatch) {
+        bookService.deleteByIsbn(isbn, ifMatch);
         return ResponseEntity.noContent().build();
     }
 
@@ -1,17 +1,28 @@
 package io.github.agomezlucena.libtory.rest.books;
 
+import io.github.agomezlucena.libtory.books.application.InvalidUpdateAuthorCommand;
+import io.github.agomezlucena.libtory.books.domain.BookNotFound;
+import io.github.agomezlucena.libtory.books.domain.BookVersionMismatch;
 import io.github.agomezlucena.libtory.books.domain.InvalidAuthor;
 import io.github.agomezlucena.libtory.books.domain.InvalidIsbn;
 import io.github.agomezlucena.libtory.books.domain.InvalidTitle;
 import io.github.agomezlucena.libtory.rest.model.LibtoryError;
+import io.github.agomezlucena.libtory.shared.concurrent.DeadlineExceeded;
+import io.github.agomezlucena.libtory.shared.cqrs.BusOverloaded;
+import io.github.agomezlucena.libtory.shared.cqrs.InvalidQuery;
+import io.github.agomezlucena.libtory.shared.cqrs.WriteConflict;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.NativeWebRequest;
 
+import java.time.Duration;
 import java.util.*;
 
 import static io.github.agomezlucena.libtory.rest.model.LibtoryError.CodeEnum.*;
@@ -20,7 +31,13 @@ import static io.github.agomezlucena.libtory.rest.model.LibtoryError.CodeEnum.*;
 public class BookRestControllerAdvice {
     private final Logger log = LoggerFactory.getLogger(this.getClass());
 
-    @ExceptionHandler({InvalidIsbn.class,InvalidTitle.class,InvalidAuthor.class})
+    @ExceptionHandler({
+            InvalidIsbn.class,
+            InvalidTitle.class,
+            InvalidAuthor.class,
+            InvalidQuery.class,
+            InvalidUpdateAuthorCommand.class
+    })
     public ResponseEntity<LibtoryError> handleInvalidIsbn(NativeWebRequest request, Throwable exception) {
         var error = new LibtoryError()
                 .transactionId(getTransactionId(request))
@@ -31,7 +48,7 @@ public class BookRestControllerAdvice {
         return ResponseEntity.badRequest().body(error);
     }
 
-    @ExceptionHandler(BookNotFoundException.class)
+    @ExceptionHandler({BookNotFoundException.class, BookNotFound.class})
     public ResponseEntity<LibtoryError> handleInvalidTitle(NativeWebRequest request, Throwable exception) {
         var error = new LibtoryError()
                 .transactionId(getTransactionId(request))
@@ -42,6 +59,55 @@ public class BookRestControllerAdvice {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    /// the If-Match header of the request does not match the version of the book.
+    @ExceptionHandler(BookVersionMismatch.class)
+    public ResponseEntity<LibtoryError> handleBookVersionMismatch(NativeWebRequest request, Exception exception) {
+        var error = new LibtoryError()
+                .transactionId(getTransactionId(request))
+                .code(PRECONDITION_FAILED_ERROR)
+                .message(exception.getMessage());
+
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    /// the book was written by another request between the read and the write of this one, or both of them
+    /// deadlocked, even after retrying.
+    @ExceptionHandler({WriteConflict.class, ConcurrencyFailureException.class})
+    public ResponseEntity<LibtoryError> handleWriteConflict(NativeWebRequest request, Exception exception) {
+        var error = new LibtoryError()
+                .transactionId(getTransactionId(request))
+                .code(CONFLICT_ERROR)
+                .message("the book was written by another request at the same time, try again.");
+
+        log.info("request rejected by a concurrent write: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(BusOverloaded.class)
+    public ResponseEntity<LibtoryError> handleBusOverloaded(NativeWebRequest request, BusOverloaded exception) {
+        var error = new LibtoryError()
+                .transactionId(getTransactionId(request))
+                .code(SERVICE_UNAVAILABLE_ERROR)
+                .message("the service is overloaded, try again later.");
+
+        log.warn("request rejected by the admission control: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(toRetryAfterSeconds(exception.getRetryAfter())))
+                .body(error);
+    }
+
+    /// the deadline of the request expired, or the database cancelled a statement that reached its timeout.
+    @ExceptionHandler({DeadlineExceeded.class, QueryTimeoutException.class})
+    public ResponseEntity<LibtoryError> handleDeadlineExceeded(NativeWebRequest request, Exception exception) {
+        var error = new LibtoryError()
+                .transactionId(getTransactionId(request))
+                .code(TIMEOUT_ERROR)
+                .message("the request could not be answered in time.");
+
+        log.warn("request cancelled because it could not be answered in time: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(error);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<LibtoryError> handleException(NativeWebRequest request, Exception exception) {
         var error = new LibtoryError()
@@ -54,6 +120,12 @@ public class BookRestControllerAdvice {
         return ResponseEntity.badRequest().body(error);
     }
 
+    /// the Retry-After header only accepts whole seconds, so the duration is rounded up to at least one second.
+    private long toRetryAfterSeconds(Duration retryAfter) {
+        var seconds = retryAfter.toSeconds() + (retryAfter.toNanosPart() > 0 ? 1 : 0);
+        return Math.max(1, seconds);
+    }
+
     private String getLocalizedMessage(Locale locale, Class<? extends Throwable> exceptionClass) {
         try {
             return ResourceBundle.getBundle("book-errors-messages", locale)
@@ -2,63 +2,185 @@ package io.github.agomezlucena.libtory.rest.books;
 
 import io.github.agomezlucena.libtory.books.application.BookProjectionIsbnQuery;
 import io.github.agomezlucena.libtory.books.application.BookProjectionPaginatedQuery;
+import io.github.agomezlucena.libtory.books.application.DeleteBookCommand;
+import io.github.agomezlucena.libtory.books.application.InvalidUpdateAuthorCommand;
+import io.github.agomezlucena.libtory.books.application.UpdateAuthorsCommand;
 import io.github.agomezlucena.libtory.books.domain.Author;
 import io.github.agomezlucena.libtory.books.domain.BookPrimitives;
 import io.github.agomezlucena.libtory.books.domain.BookProjection;
+import io.github.agomezlucena.libtory.books.domain.BookVersionMismatch;
 import io.github.agomezlucena.libtory.books.domain.Isbn;
 import io.github.agomezlucena.libtory.rest.model.LibtoryEntity;
 import io.github.agomezlucena.libtory.rest.model.PagedResult;
 import io.github.agomezlucena.libtory.rest.model.Property;
+import io.github.agomezlucena.libtory.shared.concurrent.Deadline;
 import io.github.agomezlucena.libtory.shared.cqrs.CommandBus;
 import io.github.agomezlucena.libtory.shared.cqrs.PaginatedResult;
 import io.github.agomezlucena.libtory.shared.cqrs.QueryBus;
+import io.github.agomezlucena.libtory.shared.cqrs.TotalMode;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static io.github.agomezlucena.libtory.rest.model.LibtoryEntity.TypeEnum.AUTHOR;
 import static io.github.agomezlucena.libtory.rest.model.LibtoryEntity.TypeEnum.BOOK;
+import static io.github.agomezlucena.libtory.rest.model.LibtoryEntity.TypeEnum.OPERATION;
 
 @Service
 public class BookService {
     private final CommandBus commandBus;
     private final QueryBus queryBus;
+    private final Duration queryDeadline;
 
     public BookService(
             @Qualifier("booksCommandBus") CommandBus commandBus,
-            @Qualifier("booksQueryBus") QueryBus queryBus
+            @Qualifier("booksQueryBus") QueryBus queryBus,
+            @Value("${libtory.books.query-deadline:PT5S}") Duration queryDeadline
     ) {
         this.commandBus = commandBus;
         this.queryBus = queryBus;
+        this.queryDeadline = queryDeadline;
     }
 
 
-    public PagedResult getAllBooks(Integer size, Integer page, String sortingDirection, String sortingField) {
-        var query = new BookProjectionPaginatedQuery(size, page, sortingDirection, sortingField);
-        PaginatedResult<BookProjection> result = queryBus.handle(query);
-        return new PagedResult(result.map(this::fromBook).items(), result.size(), result.totalAmount());
+    public PagedResult getAllBooks(
+            Integer size,
+            Integer page,
+            String sortingField,
+            String sortingDirection,
+            String cursor,
+            String totalMode
+    ) {
+        var query = new BookProjectionPaginatedQuery(
+                page,
+                size,
+                sortingField,
+                sortingDirection,
+                cursor,
+                TotalMode.fromValue(totalMode)
+        );
+        PaginatedResult<BookProjection> result = withinDeadline(() -> queryBus.handle(query));
+        return new PagedResult(result.map(this::fromBook).items(), result.size())
+                .totalAmount(result.totalAmount())
+                .hasNext(result.hasNext())
+                .sortingField(result.sortingField())
+                .sortingDirection(
+                        Optional.ofNullable(result.sortingDirection())
+                                .map(PagedResult.SortingDirectionEnum::fromValue)
+                                .orElse(null)
+                )
+                .nextCursor(result.nextCursor());
     }
 
-    public void saveBook(String isbn, LibtoryEntity book) {
+    /// @param ifMatch the If-Match header of the request, the book is only written when it is in that version.
+    public void saveBook(String isbn, LibtoryEntity book, String ifMatch) {
         if (book.getType() != BOOK) {
             throw new IllegalArgumentException("the given entity isn't a book");
         }
-        commandBus.sendCommand(bookPrimitivesFromEntity(isbn, book));
+        var command = bookPrimitivesFromEntity(isbn, book).withVersion(expectedVersion(isbn, ifMatch));
+        awaitCommand(commandBus.sendCommandAsync(command));
     }
 
-    public Optional<LibtoryEntity> getByIsbn(String isbn) {
+    /// @return the book with its version, to be given as its ETag.
+    public Optional<VersionedEntity> getByIsbn(String isbn) {
         var isbnQuery = new BookProjectionIsbnQuery(isbn);
-        Optional<BookProjection> result = queryBus.handle(isbnQuery);
-        return result.map(this::fromBook);
+        Optional<BookProjection> result = withinDeadline(() -> queryBus.handle(isbnQuery));
+        return result.map(it -> new VersionedEntity(fromBook(it), it.version()));
+    }
+
+    public void deleteByIsbn(String isbn, String ifMatch) {
+        var command = new DeleteBookCommand(Isbn.fromString(isbn), expectedVersion(isbn, ifMatch));
+        awaitCommand(commandBus.sendCommandAsync(command));
+    }
+
+    public void addAuthors(String isbn, LibtoryEntity operation, String ifMatch) {
+        var authorIds = authorIdsFromOperation(operation);
+        awaitCommand(commandBus.sendCommandAsync(
+                UpdateAuthorsCommand.addition(isbn, expectedVersion(isbn, ifMatch), authorIds)
+        ));
+    }
+
+    public void removeAuthors(String isbn, LibtoryEntity operation, String ifMatch) {
+        var authorIds = authorIdsFromOperation(operation);
+        awaitCommand(commandBus.sendCommandAsync(
+                UpdateAuthorsCommand.deletion(isbn, expectedVersion(isbn, ifMatch), authorIds)
+        ));
+    }
+
+    /// the ETag of a book is its version between quotes, a missing If-Match header or `*` writes the book in
+    /// whichever version it is.
+    ///
+    /// @throws BookVersionMismatch when the header is not the ETag of a version, as no version of the book can
+    /// match it.
+    private Long expectedVersion(String isbn, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) return null;
+
+        var etag = ifMatch.strip();
+        if (etag.startsWith("W/")) etag = etag.substring(2);
+        if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) {
+            etag = etag.substring(1, etag.length() - 1);
+        }
+        try {
+            return Long.parseLong(etag);
+        } catch (NumberFormatException e) {
+            throw new BookVersionMismatch(isbn, ifMatch);
+        }
     }
 
-    public void deleteByIsbn(String isbn) {
-        commandBus.sendCommand(Isbn.fromString(isbn));
+    private UUID[] authorIdsFromOperation(LibtoryEntity operation) {
+        if (operation == null || operation.getType() != OPERATION) {
+            throw new InvalidUpdateAuthorCommand("the type is not supported by this endpoint");
+        }
+        var authors = Optional.ofNullable(operation.getProperties())
+                .orElseGet(List::of)
+                .stream()
+                .filter(it -> "authors".equals(it.getField()))
+                .map(Property::getValue)
+                .findFirst()
+                .orElse(null);
+        if (!(authors instanceof Collection<?> authorIds) || authorIds.isEmpty()) {
+            throw new InvalidUpdateAuthorCommand("required property authors doesn't exists is empty or is null");
+        }
+        try {
+            return authorIds.stream().map(String::valueOf).map(UUID::fromString).toArray(UUID[]::new);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidUpdateAuthorCommand("the given authors must be valid ids");
+        }
+    }
+
+    /// nobody waits for an answer after the deadline of the request, so the queries are stopped once it expires,
+    /// including the statements that are still running on the database.
+    private <R> R withinDeadline(Supplier<R> query) {
+        var deadline = Deadline.after(queryDeadline);
+        try {
+            return deadline.call(query);
+        } finally {
+            deadline.cancel();
+        }
+    }
+
+    /// the commands are sent through the ordered lanes of the bus, so the writes to the same book made by
+    /// concurrent requests wait in memory for their turn instead of waiting for the row locks of the database.
+    private void awaitCommand(CompletableFuture<Void> completion) {
+        try {
+            completion.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
     }
 
     private BookPrimitives bookPrimitivesFromEntity(String isbn, LibtoryEntity entity) {
@@ -98,6 +220,10 @@ public class BookService {
         return result;
     }
 
+    /// a book as it is sent to the clients, with the version it had when it was read.
+    public record VersionedEntity(LibtoryEntity entity, long version) {
+    }
+
     private LibtoryEntity fromAuthor(Author author) {
         if (author.authorId() == null) {
             return null;
@@ -119,6 +119,25 @@ class QueryingBooksWorkflowItTest {
                 .ifValidationFails(LogDetail.ALL);
     }
 
+    @Test
+    void whenUserQueryBooksWithAMalformedCursorWillReturnA400Error() {
+        given()
+                .queryParam("cursor", "not a cursor")
+                .get("/books")
+                .then()
+                .assertThat()
+                .statusCode(400)
+                .contentType(ContentType.JSON)
+                .expect(
+                        libtoryErrorWithMessageAndCode(
+                                "invalid paginated query the given cursor is malformed",
+                                CLIENT_ERROR
+                        )
+                )
+                .log()
+                .ifValidationFails(LogDetail.ALL);
+    }
+
     private ResultMatcher libtoryErrorWithMessageAndCode(String message, CodeEnum errorCode) {
         return result -> {
             var response = result.getResponse();
@@ -0,0 +1,98 @@
+package io.github.agomezlucena.libtory.rest.books;
+
+import io.github.agomezlucena.libtory.rest.model.LibtoryError;
+import io.github.agomezlucena.libtory.rest.model.LibtoryError.CodeEnum;
+import io.restassured.filter.log.LogDetail;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcOperations;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
+
+import static io.github.agomezlucena.libtory.rest.books.BooksTestUtils.cleanupDatabase;
+import static io.github.agomezlucena.libtory.rest.books.BooksTestUtils.createTestData;
+import static io.github.agomezlucena.libtory.rest.model.LibtoryError.CodeEnum.ENTITY_NOT_FOUND_ERROR;
+import static io.restassured.module.mockmvc.RestAssuredMockMvc.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest
+class UpdatingBookAuthorsWorkflowItTest {
+    private static final String AUTHORS_OPERATION = """
+            {
+              "type": "Operation",
+              "properties": [
+                {"field": "authors", "value": ["123e4567-e89b-12d3-a456-426614174000"]}
+              ]
+            }
+            """;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    static void setUpResources(@Autowired NamedParameterJdbcOperations jdbcOperations) throws InterruptedException {
+        createTestData(jdbcOperations);
+    }
+
+    @AfterAll
+    static void tearDownResources(@Autowired NamedParameterJdbcOperations jdbcOperations) {
+        cleanupDatabase(jdbcOperations);
+    }
+
+    @Test
+    void whenUserAddsAuthorsToABookThatDoesNotExistWillReturnA404Error() {
+        given()
+                .pathParam("isbn", "9781234567897")
+                .contentType(ContentType.JSON)
+                .body(AUTHORS_OPERATION)
+                .post("/books/{isbn}/authors")
+                .then()
+                .assertThat()
+                .statusCode(404)
+                .contentType(ContentType.JSON)
+                .expect(
+                        libtoryErrorWithMessageAndCode(
+                                "the given isbn is not associated to any book in our library.",
+                                ENTITY_NOT_FOUND_ERROR
+                        )
+                )
+                .log()
+                .ifValidationFails(LogDetail.ALL);
+    }
+
+    @Test
+    void whenUserRemovesAuthorsFromABookThatDoesNotExistWillReturnA404Error() {
+        given()
+                .pathParam("isbn", "9781234567897")
+                .contentType(ContentType.JSON)
+                .body(AUTHORS_OPERATION)
+                .delete("/books/{isbn}/authors")
+                .then()
+                .assertThat()
+                .statusCode(404)
+                .contentType(ContentType.JSON)
+                .expect(
+                        libtoryErrorWithMessageAndCode(
+                                "the given isbn is not associated to any book in our library.",
+                                ENTITY_NOT_FOUND_ERROR
+                        )
+                )
+                .log()
+                .ifValidationFails(LogDetail.ALL);
+    }
+
+    private ResultMatcher libtoryErrorWithMessageAndCode(String message, CodeEnum errorCode) {
+        return result -> {
+            var response = result.getResponse();
+            var error = objectMapper.readValue(response.getContentAsString(), LibtoryError.class);
+            assertNotNull(error.getTransactionId());
+            assertEquals(errorCode, error.getCode());
+            assertEquals(message, error.getMessage());
+        };
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/// compares the cost of finding the handler of a message with the concurrent map probe used before the
+/// dispatch tables were frozen against the frozen [DispatchTable], and measures the whole dispatch of both buses.
+///
+/// run it with `./gradlew :libtory-shared:jmh`.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BusDispatchBenchmark {
+    private final Map<Class<?>, Object> concurrentMapTable = new ConcurrentHashMap<>();
+    private DispatchTable<Object> dispatchTable;
+    private QueryBus queryBus;
+    private CommandBus commandBus;
+    private final BenchmarkQuery query = new BenchmarkQuery(1);
+    private final BenchmarkCommand command = new BenchmarkCommand(1);
+    private final ChildBenchmarkCommand childCommand = new ChildBenchmarkCommand(1);
+
+    @Setup
+    public void setUp() {
+        var handler = new Object();
+        for (var type : new Class<?>[]{BenchmarkQuery.class, BenchmarkCommand.class, String.class, Integer.class}) {
+            concurrentMapTable.put(type, handler);
+        }
+        dispatchTable = new DispatchTable<>(concurrentMapTable);
+
+        QueryHandler<BenchmarkQuery, Integer> queryHandler = BenchmarkQuery::id;
+        queryBus = new QueryBus().addHandler(BenchmarkQuery.class, queryHandler).freeze();
+        commandBus = CommandBus.getNewCommandBus()
+                .addHandler(BenchmarkCommand.class, new BenchmarkCommandHandler())
+                .freeze();
+    }
+
+    @Benchmark
+    public Object concurrentMapLookup() {
+        return concurrentMapTable.get(command.getClass());
+    }
+
+    @Benchmark
+    public Object dispatchTableLookup() {
+        return dispatchTable.get(command.getClass());
+    }
+
+    @Benchmark
+    public Object dispatchTableSubclassLookup() {
+        return dispatchTable.get(childCommand.getClass());
+    }
+
+    @Benchmark
+    public Object queryBusHandle() {
+        return queryBus.handle(query);
+    }
+
+    @Benchmark
+    public void commandBusSendCommand() {
+        commandBus.sendCommand(command);
+    }
+
+    @Benchmark
+    public void commandBusSendSubclassCommand() {
+        commandBus.sendCommand(childCommand);
+    }
+
+    public record BenchmarkQuery(int id) implements Query<Integer> {
+    }
+
+    public static class BenchmarkCommand {
+        private final int id;
+
+        public BenchmarkCommand(int id) {
+            this.id = id;
+        }
+
+        public int id() {
+            return id;
+        }
+    }
+
+    public static class ChildBenchmarkCommand extends BenchmarkCommand {
+        public ChildBenchmarkCommand(int id) {
+            super(id);
+        }
+    }
+
+    public static class BenchmarkCommandHandler implements CommandHandler<BenchmarkCommand> {
+        @Override
+        public void handleCommand(BenchmarkCommand command) {
+            command.id();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/// settings of an [AimdLimiter].
+///
+/// @param initialLimit     the concurrency limit used until the limiter has observed some latencies.
+/// @param minLimit         the limit will never be decreased below this value.
+/// @param maxLimit         the limit will never be increased above this value.
+/// @param latencyThreshold executions slower than this are taken as a sign of overload and decrease the limit.
+/// @param backoffRatio     the ratio applied to the limit when it is decreased, between 0 and 1.
+/// @param maxQueueSize     the amount of callers that can wait for a permit when the limit has been reached.
+/// @param maxQueueWait     how long a caller can wait for a permit before being rejected.
+public record AdaptiveLimitSettings(
+        int initialLimit,
+        int minLimit,
+        int maxLimit,
+        Duration latencyThreshold,
+        double backoffRatio,
+        int maxQueueSize,
+        Duration maxQueueWait
+) {
+    public AdaptiveLimitSettings {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("limits should satisfy 1 <= min limit <= max limit");
+        }
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("initial limit should be between the min and the max limit");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoff ratio should be between 0 and 1");
+        }
+        if (maxQueueSize < 0) {
+            throw new IllegalArgumentException("max queue size can not be negative");
+        }
+        Objects.requireNonNull(latencyThreshold, "latency threshold is required");
+        Objects.requireNonNull(maxQueueWait, "max queue wait is required");
+    }
+}
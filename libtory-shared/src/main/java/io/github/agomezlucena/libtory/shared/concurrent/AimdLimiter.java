@@ -0,0 +1,131 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// concurrency limiter whose limit adapts to the observed latency following an additive increase,
+/// multiplicative decrease (AIMD) policy.
+///
+/// every execution that finishes faster than the latency threshold while the limiter is busy increases the
+/// limit by one, and every slower one multiplies it by the backoff ratio. When the limit is reached the
+/// callers wait in a bounded queue for a bounded time, and they are rejected when the queue is full or the
+/// time runs out, so the work beyond what the downstream resources can take fails fast instead of piling up.
+public class AimdLimiter {
+    private final AdaptiveLimitSettings settings;
+    private final long latencyThresholdNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private int limit;
+    private int inFlight;
+    private int queued;
+
+    public AimdLimiter(AdaptiveLimitSettings settings) {
+        this.settings = Objects.requireNonNull(settings, "settings are required");
+        this.latencyThresholdNanos = settings.latencyThreshold().toNanos();
+        this.limit = settings.initialLimit();
+    }
+
+    /// @return a permit that must be released once the execution finishes, or an empty optional when the
+    /// caller has been rejected.
+    public Optional<Permit> tryAcquire() {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                return Optional.of(grant());
+            }
+            if (queued >= settings.maxQueueSize()) {
+                return Optional.empty();
+            }
+
+            queued++;
+            try {
+                var remainingNanos = settings.maxQueueWait().toNanos();
+                while (inFlight >= limit) {
+                    if (remainingNanos <= 0) {
+                        return Optional.empty();
+                    }
+                    remainingNanos = permitReleased.awaitNanos(remainingNanos);
+                }
+                return Optional.of(grant());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Optional.empty();
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit grant() {
+        inFlight++;
+        return new Permit(System.nanoTime());
+    }
+
+    private void release(long latencyNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            var wasBusy = inFlight * 2 >= limit;
+            inFlight--;
+            var previousLimit = limit;
+            if (overloaded || latencyNanos > latencyThresholdNanos) {
+                limit = Math.max(settings.minLimit(), (int) (limit * settings.backoffRatio()));
+            } else if (wasBusy) {
+                limit = Math.min(settings.maxLimit(), limit + 1);
+            }
+
+            if (limit > previousLimit) {
+                permitReleased.signalAll();
+            } else if (inFlight < limit) {
+                permitReleased.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// permission to run one execution, it should be released exactly once.
+    public final class Permit {
+        private final long grantedAt;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(long grantedAt) {
+            this.grantedAt = grantedAt;
+        }
+
+        /// releases the permit using the time elapsed since it was granted as the latency of the execution.
+        public void release() {
+            release(false);
+        }
+
+        /// @param overloaded true when the execution failed because the downstream resources were overloaded,
+        ///                   e.g. a timeout, which decreases the limit regardless of the latency.
+        public void release(boolean overloaded) {
+            if (!released.compareAndSet(false, true)) return;
+            AimdLimiter.this.release(System.nanoTime() - grantedAt, overloaded);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+
+/// runs every task in its own virtual thread, but no more than a fixed amount of them at the same time.
+///
+/// it is meant for blocking io against a bounded resource, e.g. a connection pool: the tasks over the limit
+/// wait in the queue of this executor, in the order they were submitted, instead of piling up on the resource
+/// and failing by its timeouts. Tasks should not wait for other tasks of the same executor, as they could wait for a
+/// permit that is held by themselves.
+public final class BoundedIoExecutor extends AbstractExecutorService {
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final Queue<QueuedTask> queue = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LongConsumer queueWaitRecorder;
+    private final ExecutorService threads;
+    private volatile int queueDepth;
+    private volatile boolean shutdown;
+
+    public BoundedIoExecutor(String name, int maxConcurrency) {
+        this(name, maxConcurrency, ignored -> {});
+    }
+
+    /// @param name              prefix of the name of the threads started by the executor.
+    /// @param maxConcurrency    the amount of tasks that can run at the same time.
+    /// @param queueWaitRecorder receives the nanoseconds that every task has waited before running.
+    public BoundedIoExecutor(String name, int maxConcurrency, LongConsumer queueWaitRecorder) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("max concurrency should be at least 1");
+        }
+        Objects.requireNonNull(name, "name is required");
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.queueWaitRecorder = Objects.requireNonNull(queueWaitRecorder, "queue wait recorder is required");
+        this.threads = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        Objects.requireNonNull(task, "task is required");
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("the executor has been shut down");
+            }
+            queue.add(new QueuedTask(task, System.nanoTime()));
+            queueDepth = queue.size();
+        } finally {
+            lock.unlock();
+        }
+        startAdmittedTasks();
+    }
+
+    /// the tasks only get a thread once they have a permit, so the waiting ones are just entries of the queue.
+    /// It is called after every submission and after every finished task, so a permit is never left unused
+    /// while there are tasks waiting.
+    private void startAdmittedTasks() {
+        lock.lock();
+        try {
+            while (!queue.isEmpty() && permits.tryAcquire()) {
+                var queuedTask = queue.poll();
+                queueDepth = queue.size();
+                threads.execute(() -> run(queuedTask));
+            }
+            if (shutdown && queue.isEmpty()) {
+                threads.shutdown();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run(QueuedTask queuedTask) {
+        try {
+            queueWaitRecorder.accept(System.nanoTime() - queuedTask.queuedAt());
+            queuedTask.task().run();
+        } finally {
+            permits.release();
+            startAdmittedTasks();
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /// @return the amount of tasks that are waiting for their turn to run.
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /// @return the amount of tasks that are running.
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    /// the tasks that are waiting are still run, but no new task is accepted.
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+        } finally {
+            lock.unlock();
+        }
+        startAdmittedTasks();
+    }
+
+    /// interrupts the running tasks.
+    ///
+    /// @return the tasks that were waiting, which will not be run.
+    @Override
+    public List<Runnable> shutdownNow() {
+        var waitingTasks = new ArrayList<Runnable>();
+        lock.lock();
+        try {
+            shutdown = true;
+            queue.forEach(it -> waitingTasks.add(it.task()));
+            queue.clear();
+            queueDepth = 0;
+        } finally {
+            lock.unlock();
+        }
+        threads.shutdownNow();
+        return waitingTasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return threads.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return threads.awaitTermination(timeout, unit);
+    }
+
+    private record QueuedTask(Runnable task, long queuedAt) {
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/// point in time after which nobody is waiting for the result of a piece of work, which can also be
+/// cancelled before reaching it.
+///
+/// the deadline of the current thread is set with [#call] and obtained with [#current], so it travels with
+/// the work without being passed as parameter. Work moved to other threads should be run with [#call] there
+/// to keep it. The resources that can be stopped, e.g. running statements, register themselves with [#onCancel].
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+
+    private final long expiresAt;
+    private final Set<Runnable> cancellationCallbacks = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    private Deadline(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public static Deadline after(Duration timeout) {
+        Objects.requireNonNull(timeout, "timeout is required");
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    /// @return a deadline that never expires but that can be cancelled.
+    public static Deadline unbounded() {
+        return new Deadline(UNBOUNDED);
+    }
+
+    public static Optional<Deadline> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /// @return a deadline that expires at the same time as this one and is cancelled with it, but that can be
+    /// cancelled on its own without affecting this one.
+    public Deadline child() {
+        var child = new Deadline(expiresAt);
+        var registration = onCancel(child::cancel);
+        child.onCancel(registration::close);
+        return child;
+    }
+
+    /// runs the given action with this deadline as the current one of the thread.
+    public <R> R call(Supplier<R> action) {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    public boolean isUnbounded() {
+        return expiresAt == UNBOUNDED;
+    }
+
+    /// @return the time until the deadline expires, zero when it has already expired or has been cancelled and
+    /// the longest duration that can be expressed in nanoseconds when it is unbounded.
+    public Duration remaining() {
+        if (cancelled) return Duration.ZERO;
+        if (isUnbounded()) return Duration.ofNanos(Long.MAX_VALUE);
+        return Duration.ofNanos(Math.max(0, expiresAt - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return cancelled || (!isUnbounded() && expiresAt - System.nanoTime() <= 0);
+    }
+
+    /// @throws DeadlineExceeded when the deadline has expired or has been cancelled.
+    public void checkNotExpired() {
+        if (isExpired()) {
+            throw new DeadlineExceeded(cancelled ? "the work was cancelled" : "the deadline of the work has expired");
+        }
+    }
+
+    /// waits for the given future at most until this deadline expires.
+    ///
+    /// @return the result of the future.
+    /// @throws DeadlineExceeded when the deadline expires before the future completes, the future is not
+    ///                          cancelled so the caller can decide what to do with it.
+    public <R> R await(Future<R> future) {
+        try {
+            return isUnbounded() ? future.get() : future.get(remaining().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceeded("the deadline of the work has expired");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceeded("the work was interrupted while waiting");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    /// cancels this deadline and its children, running every registered callback.
+    public void cancel() {
+        cancelled = true;
+        for (var callback : cancellationCallbacks) {
+            if (cancellationCallbacks.remove(callback)) {
+                callback.run();
+            }
+        }
+    }
+
+    /// @return a registration that should be closed once the callback is not needed anymore. The callback runs
+    /// right away when the deadline has already been cancelled.
+    public Registration onCancel(Runnable callback) {
+        Objects.requireNonNull(callback, "callback is required");
+        cancellationCallbacks.add(callback);
+        if (cancelled && cancellationCallbacks.remove(callback)) {
+            callback.run();
+        }
+        return () -> cancellationCallbacks.remove(callback);
+    }
+
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+/// thrown when a piece of work is stopped because nobody is waiting for its result anymore.
+public class DeadlineExceeded extends RuntimeException {
+    public DeadlineExceeded(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,125 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/// gathers the keys submitted concurrently and resolves them together with one call to the batch loader.
+///
+/// a batch is dispatched when the window that started with its first key elapses or when it reaches the
+/// maximum size, whatever happens first. Equal keys submitted to the same batch are loaded only once, and
+/// keys that are not present in the map returned by the loader are completed with null.
+///
+/// @param <K> type of the keys to resolve.
+/// @param <V> type of the resolved values.
+public class MicroBatcher<K, V> {
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Function<Set<K>, Map<K, V>> batchLoader;
+    private final Executor executor;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private Map<K, List<CompletableFuture<V>>> pendingKeys = new LinkedHashMap<>();
+    private long batchGeneration;
+
+    public MicroBatcher(
+            Duration window,
+            int maxBatchSize,
+            Function<Set<K>, Map<K, V>> batchLoader,
+            Executor executor
+    ) {
+        Objects.requireNonNull(window, "window is required");
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window should be positive");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("max batch size should be at least 1");
+        }
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.batchLoader = Objects.requireNonNull(batchLoader, "batch loader is required");
+        this.executor = Objects.requireNonNull(executor, "executor is required");
+    }
+
+    public CompletableFuture<V> submit(K key) {
+        Objects.requireNonNull(key, "key is required");
+        var result = new CompletableFuture<V>();
+        Map<K, List<CompletableFuture<V>>> fullBatch = null;
+
+        lock.lock();
+        try {
+            if (pendingKeys.isEmpty()) {
+                scheduleFlush(batchGeneration);
+            }
+            pendingKeys.computeIfAbsent(key, it -> new ArrayList<>()).add(result);
+            if (pendingKeys.size() >= maxBatchSize) {
+                fullBatch = takePendingKeys();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (fullBatch != null) {
+            dispatch(fullBatch);
+        }
+        return result;
+    }
+
+    private void scheduleFlush(long generation) {
+        CompletableFuture.delayedExecutor(window.toNanos(), TimeUnit.NANOSECONDS, executor)
+                .execute(() -> flush(generation));
+    }
+
+    private void flush(long generation) {
+        Map<K, List<CompletableFuture<V>>> batch;
+        lock.lock();
+        try {
+            // the batch that scheduled this flush was already dispatched because it was full
+            if (generation != batchGeneration || pendingKeys.isEmpty()) return;
+            batch = takePendingKeys();
+        } finally {
+            lock.unlock();
+        }
+        load(batch);
+    }
+
+    private Map<K, List<CompletableFuture<V>>> takePendingKeys() {
+        var batch = pendingKeys;
+        pendingKeys = new LinkedHashMap<>();
+        batchGeneration++;
+        return batch;
+    }
+
+    private void dispatch(Map<K, List<CompletableFuture<V>>> batch) {
+        try {
+            executor.execute(() -> load(batch));
+        } catch (RuntimeException e) {
+            completeExceptionally(batch, e);
+        }
+    }
+
+    private void load(Map<K, List<CompletableFuture<V>>> batch) {
+        try {
+            var values = batchLoader.apply(Set.copyOf(batch.keySet()));
+            batch.forEach((key, callers) -> {
+                var value = values == null ? null : values.get(key);
+                callers.forEach(it -> it.complete(value));
+            });
+        } catch (RuntimeException | Error e) {
+            completeExceptionally(batch, e);
+        }
+    }
+
+    private void completeExceptionally(Map<K, List<CompletableFuture<V>>> batch, Throwable cause) {
+        batch.values().forEach(callers -> callers.forEach(it -> it.completeExceptionally(cause)));
+    }
+}
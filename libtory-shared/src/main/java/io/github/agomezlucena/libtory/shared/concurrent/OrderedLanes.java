@@ -0,0 +1,81 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/// runs tasks in a fixed amount of lanes chosen by the key of the task.
+///
+/// the tasks with the same key always go to the same lane and are run one after the other in the order they
+/// were submitted, while the tasks of different lanes run in parallel in the given executor. A lane is never
+/// stopped by the failure or cancellation of one of its tasks.
+public class OrderedLanes {
+    private final Lane[] lanes;
+    private final Executor executor;
+
+    public OrderedLanes(int amountOfLanes, Executor executor) {
+        if (amountOfLanes < 1) {
+            throw new IllegalArgumentException("amount of lanes should be at least 1");
+        }
+        this.executor = Objects.requireNonNull(executor, "executor is required");
+        this.lanes = new Lane[amountOfLanes];
+        for (int i = 0; i < amountOfLanes; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    /// @return a future completed with the result of the task once it has been run after every task previously
+    /// submitted to its lane. Cancelling it does not interrupt the task.
+    public <R> CompletableFuture<R> submit(Object key, Supplier<R> task) {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(task, "task is required");
+        return lanes[laneOf(key)].enqueue(task, executor);
+    }
+
+    /// runs the given action holding the lane of the given key, so no task can be submitted to that lane by
+    /// anyone else meanwhile, while the other lanes are not blocked. The action can submit tasks to the lane itself.
+    ///
+    /// @return the result of the action.
+    public <R> R withLaneOf(Object key, Supplier<R> action) {
+        Objects.requireNonNull(key, "key is required");
+        Objects.requireNonNull(action, "action is required");
+        var lock = lanes[laneOf(key)].lock;
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getAmountOfLanes() {
+        return lanes.length;
+    }
+
+    /// @return the index of the lane where the tasks with the given key are run, the keys with the same index
+    /// wait for each other.
+    public int laneOf(Object key) {
+        Objects.requireNonNull(key, "key is required");
+        var hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    private static final class Lane {
+        private final ReentrantLock lock = new ReentrantLock();
+        private CompletableFuture<?> tail = CompletableFuture.completedFuture(null);
+
+        <R> CompletableFuture<R> enqueue(Supplier<R> task, Executor executor) {
+            lock.lock();
+            try {
+                var result = tail.handleAsync((ignoredResult, ignoredError) -> task.get(), executor);
+                tail = result;
+                // callers receive a copy so cancelling it can not start the next task before this one finishes.
+                return result.copy();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
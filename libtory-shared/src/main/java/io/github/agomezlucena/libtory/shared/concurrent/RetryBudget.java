@@ -0,0 +1,58 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/// bounds the retries to a ratio of the executions, so when most of the executions fail the retries do not
+/// multiply the load of the resources that are already failing.
+///
+/// every execution deposits the retry ratio in the budget and every retry withdraws one from it, the balance
+/// never goes beyond the max balance, which is also the initial one, so a burst of failures after a calm period
+/// can still be retried.
+public final class RetryBudget {
+    // the balance is kept in thousandths of a retry, so the deposits of a ratio below one are not lost.
+    private static final long RETRY_COST = 1000;
+
+    private final long deposit;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    /// @param retryRatio the amount of retries allowed per execution, e.g. 0.1 for one retry every ten
+    ///                   executions.
+    /// @param maxBalance the amount of retries that can be saved in the budget.
+    public RetryBudget(double retryRatio, int maxBalance) {
+        if (retryRatio < 0) {
+            throw new IllegalArgumentException("retry ratio can not be negative");
+        }
+        if (maxBalance < 0) {
+            throw new IllegalArgumentException("max balance can not be negative");
+        }
+        this.deposit = Math.round(retryRatio * RETRY_COST);
+        this.maxBalance = maxBalance * RETRY_COST;
+        this.balance = new AtomicLong(this.maxBalance);
+    }
+
+    /// a budget that allows every retry.
+    public static RetryBudget unlimited() {
+        return new RetryBudget(1, Integer.MAX_VALUE);
+    }
+
+    /// adds the retries allowed by a new execution to the budget.
+    public void deposit() {
+        balance.accumulateAndGet(deposit, (current, added) -> Math.min(maxBalance, current + added));
+    }
+
+    /// @return true when there was a retry left in the budget, which is taken from it.
+    public boolean tryWithdraw() {
+        var current = balance.get();
+        while (current >= RETRY_COST) {
+            if (balance.compareAndSet(current, current - RETRY_COST)) return true;
+            current = balance.get();
+        }
+        return false;
+    }
+
+    /// @return the amount of whole retries left in the budget.
+    public long getBalance() {
+        return balance.get() / RETRY_COST;
+    }
+}
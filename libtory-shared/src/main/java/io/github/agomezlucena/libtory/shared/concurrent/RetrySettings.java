@@ -0,0 +1,35 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/// settings of the retries of a failed execution.
+///
+/// the wait before every retry is drawn at random between zero and an exponential backoff, so the executions
+/// that failed together, e.g. because they were competing for the same rows, do not retry together again.
+///
+/// @param maxAttempts    the amount of times the execution can be run, including the first one.
+/// @param initialBackoff the longest wait before the first retry, doubled on every following retry.
+/// @param maxBackoff     the longest wait before any retry.
+public record RetrySettings(int maxAttempts, Duration initialBackoff, Duration maxBackoff) {
+    public RetrySettings {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("max attempts should be at least one");
+        }
+        Objects.requireNonNull(initialBackoff, "initial backoff is required");
+        Objects.requireNonNull(maxBackoff, "max backoff is required");
+        if (initialBackoff.isNegative() || maxBackoff.compareTo(initialBackoff) < 0) {
+            throw new IllegalArgumentException("backoffs should satisfy 0 <= initial backoff <= max backoff");
+        }
+    }
+
+    /// @param failedAttempts the amount of attempts that have failed so far, at least one.
+    /// @return a random wait before the next attempt, between zero and the exponential backoff of the attempt.
+    public Duration backoff(int failedAttempts) {
+        var maxNanos = maxBackoff.toNanos();
+        var shift = Math.min(failedAttempts - 1, Long.numberOfLeadingZeros(Math.max(1, initialBackoff.toNanos())) - 1);
+        var backoffNanos = Math.min(maxNanos, initialBackoff.toNanos() << Math.max(0, shift));
+        return Duration.ofNanos(ThreadLocalRandom.current().nextLong(backoffNanos + 1));
+    }
+}
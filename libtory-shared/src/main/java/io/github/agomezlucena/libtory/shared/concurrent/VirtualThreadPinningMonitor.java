@@ -0,0 +1,75 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/// reports the virtual threads that block while pinned to their carrier thread, e.g. doing io inside a
+/// synchronized block of a jdbc driver, as they keep the carrier busy and can starve the rest of virtual threads.
+///
+/// it listens to the `jdk.VirtualThreadPinned` events of the flight recorder that last longer than the given
+/// threshold, logging where they happened and counting them.
+public final class VirtualThreadPinningMonitor implements AutoCloseable {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int REPORTED_FRAMES = 8;
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        Objects.requireNonNull(threshold, "threshold is required");
+        this.recording = new RecordingStream();
+        this.recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        this.recording.onEvent(PINNED_EVENT, this::report);
+    }
+
+    /// starts listening to the events in a background thread.
+    public VirtualThreadPinningMonitor start() {
+        recording.startAsync();
+        return this;
+    }
+
+    /// @return the amount of pinned virtual threads that have been reported.
+    public long getPinnedEvents() {
+        return pinnedEvents.sum();
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedEvents.increment();
+        var thread = event.getThread();
+        log.warn(
+                "virtual thread {} was pinned to its carrier for {} ms at:\n{}",
+                thread == null ? "unknown" : thread.getJavaName(),
+                event.getDuration().toMillis(),
+                describeStackTrace(event)
+        );
+    }
+
+    private String describeStackTrace(RecordedEvent event) {
+        var stackTrace = event.getStackTrace();
+        if (stackTrace == null) return "\tunknown location";
+        return stackTrace.getFrames()
+                .stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .limit(REPORTED_FRAMES)
+                .map(frame -> "\tat %s.%s:%d".formatted(
+                        frame.getMethod().getType().getName(),
+                        frame.getMethod().getName(),
+                        frame.getLineNumber()
+                ))
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
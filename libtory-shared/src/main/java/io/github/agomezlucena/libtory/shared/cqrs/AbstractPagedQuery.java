@@ -1,5 +1,6 @@
 package io.github.agomezlucena.libtory.shared.cqrs;
 
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 
@@ -13,8 +14,31 @@ public abstract class AbstractPagedQuery<T> implements PagedQuery<T> {
     private final Integer size;
     private final String sortingField;
     private final String sortingDirection;
+    private final String cursor;
+    private final TotalMode totalMode;
 
     public AbstractPagedQuery(Integer page, Integer size, String sortingField, String sortingDirection) {
+        this(page, size, sortingField, sortingDirection, null);
+    }
+
+    public AbstractPagedQuery(
+            Integer page,
+            Integer size,
+            String sortingField,
+            String sortingDirection,
+            String cursor
+    ) {
+        this(page, size, sortingField, sortingDirection, cursor, TotalMode.EXACT);
+    }
+
+    public AbstractPagedQuery(
+            Integer page,
+            Integer size,
+            String sortingField,
+            String sortingDirection,
+            String cursor,
+            TotalMode totalMode
+    ) {
         if (pageHaveNegativeValue(page)) {
             throw new InvalidQuery("invalid paginated query page should be at least 0");
         }
@@ -37,12 +61,19 @@ public abstract class AbstractPagedQuery<T> implements PagedQuery<T> {
             throw new InvalidQuery(String.format(INVALID_SORTING_FIELD_TEMPLATE, sortingField));
         }
 
+        if (cursorIsDefinedWithAPageDifferentToTheFirst(page, cursor)) {
+            throw new InvalidQuery("invalid paginated query page can not be defined when a cursor is given");
+        }
+
         this.page = Optional.ofNullable(page).orElse(0);
         this.size = Optional.ofNullable(size).orElse(10);
         this.sortingField = sortingField;
         this.sortingDirection = Optional.ofNullable(sortingDirection)
                 .orElse("ASC");
-
+        this.cursor = Optional.ofNullable(cursor)
+                .filter(it -> !it.isBlank())
+                .orElse(null);
+        this.totalMode = TotalMode.orDefault(totalMode);
     }
 
     protected abstract boolean sortingFieldIsInvalid(String sortingField);
@@ -64,6 +95,10 @@ public abstract class AbstractPagedQuery<T> implements PagedQuery<T> {
                 (sortingDirection != null && !VALID_SORTING_DIRECTIONS.contains(sortingDirection));
     }
 
+    private boolean cursorIsDefinedWithAPageDifferentToTheFirst(Integer page, String cursor) {
+        return cursor != null && !cursor.isBlank() && page != null && page != MINIMUM_PAGE;
+    }
+
     @Override
     public int getPage() {
         return page;
@@ -83,4 +118,33 @@ public abstract class AbstractPagedQuery<T> implements PagedQuery<T> {
     public String getSortingDirection() {
         return sortingDirection;
     }
+
+    @Override
+    public String getCursor() {
+        return cursor;
+    }
+
+    @Override
+    public TotalMode getTotalMode() {
+        return totalMode;
+    }
+
+    /// paged queries are values, two queries of the same type with the same parameters are equal.
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || obj.getClass() != getClass()) return false;
+        var other = (AbstractPagedQuery<?>) obj;
+        return Objects.equals(page, other.page) &&
+                Objects.equals(size, other.size) &&
+                Objects.equals(sortingField, other.sortingField) &&
+                Objects.equals(sortingDirection, other.sortingDirection) &&
+                Objects.equals(cursor, other.cursor) &&
+                totalMode == other.totalMode;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), page, size, sortingField, sortingDirection, cursor, totalMode);
+    }
 }
@@ -0,0 +1,19 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import io.github.agomezlucena.libtory.shared.concurrent.Deadline;
+
+import java.util.concurrent.CompletableFuture;
+
+/// a [QueryHandler] that is able to resolve its queries without blocking the calling thread.
+///
+/// the [QueryBus] calls directly to [#handleAsync] when the query is handled asynchronously instead of
+/// running [#handle] on its executor, and cancelling the returned future is up to the handler.
+public interface AsyncQueryHandler<T extends Query<?>, R> extends QueryHandler<T, R> {
+    CompletableFuture<R> handleAsync(T query);
+
+    /// waits for the asynchronous execution at most until the [Deadline] of the calling thread expires.
+    @Override
+    default R handle(T query) {
+        return Deadline.current().orElseGet(Deadline::unbounded).await(handleAsync(query));
+    }
+}
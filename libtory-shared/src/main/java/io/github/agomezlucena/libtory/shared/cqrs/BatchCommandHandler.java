@@ -0,0 +1,27 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import java.lang.reflect.ParameterizedType;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/// a [CommandHandler] that is also able to handle several commands at once.
+///
+/// @param <T> the type of the handled command.
+public interface BatchCommandHandler<T> extends CommandHandler<T> {
+    /// handles the given commands together, the failure of one of them must not prevent the rest from being
+    /// handled.
+    ///
+    /// @param commands the commands to handle, in the order they were received.
+    /// @return the failure of every command that could not be handled, keyed by the command.
+    Map<T, RuntimeException> handleAll(List<T> commands);
+
+    @Override
+    default boolean canHandle(Class<?> commandClass) {
+        return CommandHandler.super.canHandle(commandClass) || Stream.of(getClass().getGenericInterfaces())
+                .filter(ParameterizedType.class::isInstance)
+                .map(ParameterizedType.class::cast)
+                .filter(it -> BatchCommandHandler.class.equals(it.getRawType()))
+                .anyMatch(it -> it.getActualTypeArguments()[0].equals(commandClass));
+    }
+}
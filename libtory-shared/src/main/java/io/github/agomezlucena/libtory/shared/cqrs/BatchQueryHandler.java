@@ -0,0 +1,15 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import java.util.Map;
+import java.util.Set;
+
+/// a [QueryHandler] of [SingletonQuery] that is also able to resolve several discriminator values at once.
+///
+/// @param <T> the type of the handled query.
+/// @param <D> the type of the discriminator value of the query.
+/// @param <R> the type of the result of the query.
+public interface BatchQueryHandler<T extends SingletonQuery<?, D>, D, R> extends QueryHandler<T, R> {
+    /// @param discriminatorValues the discriminator values of the queries to resolve.
+    /// @return the result for every given discriminator value.
+    Map<D, R> handleAll(Set<D> discriminatorValues);
+}
@@ -0,0 +1,31 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import io.github.agomezlucena.libtory.shared.concurrent.MicroBatcher;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/// resolves the [SingletonQuery] that arrive concurrently with one call to [BatchQueryHandler#handleAll],
+/// gathering their discriminator values during a short window or until the maximum batch size is reached.
+///
+/// the callers wait until the batch of their query is resolved, so this trades a little latency for far fewer
+/// round trips when the same kind of query is received at a high rate. When used asynchronously no thread is
+/// blocked while waiting for the batch.
+public class BatchingQueryHandler<T extends SingletonQuery<?, D>, D, R> implements AsyncQueryHandler<T, R> {
+    private final MicroBatcher<D, R> batcher;
+
+    public BatchingQueryHandler(
+            BatchQueryHandler<T, D, R> handler,
+            Duration window,
+            int maxBatchSize,
+            Executor executor
+    ) {
+        this.batcher = new MicroBatcher<>(window, maxBatchSize, handler::handleAll, executor);
+    }
+
+    @Override
+    public CompletableFuture<R> handleAsync(T query) {
+        return batcher.submit(query.getDiscriminatorValue());
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+/// extension point of the [CommandBus] and the [QueryBus] that is called on every dispatch of a message.
+///
+/// the interceptors of a bus are run in the order they were registered: [#before] from the first to the last
+/// one, [#around] nested so the first interceptor is the outermost, and [#after] from the last to the first
+/// one. [#after] is always called once [#before] has been called, even when the handler or another interceptor
+/// fails.
+///
+/// for handlers that resolve the message asynchronously [#around] wraps the call that starts the execution,
+/// and [#after] is called once the execution completes.
+public interface BusInterceptor {
+    default void before(Dispatch dispatch) {
+    }
+
+    /// @return the result of the dispatch, usually the one obtained with [Dispatch#proceed], but an
+    /// interceptor can also return its own result without calling to the handler.
+    default Object around(Dispatch dispatch) {
+        return dispatch.proceed();
+    }
+
+    /// @param result the result of the dispatch, null when it failed or when the message is a command.
+    /// @param error  the exception thrown by the dispatch, null when it succeeded.
+    default void after(Dispatch dispatch, Object result, Throwable error) {
+    }
+}
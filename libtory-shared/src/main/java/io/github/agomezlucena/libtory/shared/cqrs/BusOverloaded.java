@@ -0,0 +1,18 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import java.time.Duration;
+
+/// thrown when a bus rejects a message because it can not admit more work of its type now.
+public class BusOverloaded extends RuntimeException {
+    private final Duration retryAfter;
+
+    public BusOverloaded(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    /// @return how long the caller should wait before sending the message again.
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -1,26 +1,189 @@
 package io.github.agomezlucena.libtory.shared.cqrs;
 
+import io.github.agomezlucena.libtory.shared.concurrent.OrderedLanes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
+/// sends every command to the handler registered for its type, or for its closest supertype.
+///
+/// every bus has its own handlers, which are registered first and then frozen into an immutable dispatch table
+/// with [#freeze], which also happens on the first command sent at the latest. Once frozen the bus can not be
+/// modified anymore.
 public final class CommandBus {
-    private static final Map<Class<?>, CommandHandler<?>> handlers = new ConcurrentHashMap<>();
+    private static final int DEFAULT_AMOUNT_OF_LANES = 16;
+    private static final String BUS_NAME = "command";
+
+    private final Map<Class<?>, CommandHandler<?>> handlers = new HashMap<>();
+    private final Map<Class<?>, Function<Object, ?>> aggregateKeys = new HashMap<>();
+    private final Map<Class<?>, CommandCoalescer<Object, Object>> coalescers = new HashMap<>();
+    private final Map<Class<?>, LongAdder> coalescedCommandsByType = new ConcurrentHashMap<>();
+    // the pending command of every aggregate that has one, only written holding the lane of the aggregate or by
+    // the pending command itself once it has started.
+    private final Map<Object, PendingCommand> pendingCommands = new ConcurrentHashMap<>();
+    private final OrderedLanes lanes;
+    private final List<BusInterceptor> interceptors = new ArrayList<>();
+    private final List<BusInterceptor> sendInterceptors = new ArrayList<>();
+    // written before the dispatch table, so they are visible to everyone who has read the table.
+    private BusInterceptor[] interceptorChain = Dispatch.noInterceptors();
+    private BusInterceptor[] sendInterceptorChain = Dispatch.noInterceptors();
+    private volatile DispatchTable<CommandRoute> dispatchTable;
+
+    private CommandBus(OrderedLanes lanes) {
+        this.lanes = lanes;
+    }
 
     public static CommandBus getNewCommandBus(){
-        return new CommandBus();
+        return getNewCommandBus(DEFAULT_AMOUNT_OF_LANES);
+    }
+
+    /// runs every asynchronous command in its own virtual thread, the threads share one factory, so they are numbered
+    /// one after the other.
+    ///
+    /// @param amountOfLanes the amount of ordered lanes used to run the asynchronous commands.
+    public static CommandBus getNewCommandBus(int amountOfLanes){
+        var threadFactory = Thread.ofVirtual().name("command-bus-", 0).factory();
+        return getNewCommandBus(amountOfLanes, task -> threadFactory.newThread(task).start());
+    }
+
+    /// @param amountOfLanes the amount of ordered lanes used to run the asynchronous commands.
+    /// @param executor      the executor where the asynchronous commands are run.
+    public static CommandBus getNewCommandBus(int amountOfLanes, Executor executor){
+        return new CommandBus(new OrderedLanes(amountOfLanes, executor));
     }
 
-    @SuppressWarnings("unchecked")
     public <T> void sendCommand (T command){
-        var handler = (CommandHandler<T>) handlers.get(command.getClass());
-        if(handler == null){
-            throw new CqrsError("not handler found for command: "+ command.getClass().getSimpleName());
+        var route = getRoute(command);
+        if (sendInterceptorChain.length == 0) {
+            Dispatch.invoke(BUS_NAME, command, route.target(), interceptorChain);
+            return;
+        }
+        Dispatch.invoke(
+                BUS_NAME,
+                command,
+                message -> Dispatch.invoke(BUS_NAME, message, route.target(), interceptorChain),
+                sendInterceptorChain
+        );
+    }
+
+    /// sends the command without blocking the calling thread.
+    ///
+    /// commands with the same aggregate key are handled one after the other in the order they were sent, so
+    /// writes to the same aggregate do not compete between them, while commands of different aggregates are
+    /// handled in parallel. Commands of types without an aggregate key are routed by the command itself.
+    ///
+    /// @return a future completed when the command has been handled or with the exception thrown by the handler.
+    public <T> CompletableFuture<Void> sendCommandAsync(T command) {
+        final CommandRoute route;
+        final Object aggregateKey;
+        try {
+            route = getRoute(command);
+            aggregateKey = route.aggregateKey().apply(command);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (sendInterceptorChain.length == 0) {
+            return submit(command, route, aggregateKey);
+        }
+        try {
+            return Dispatch.invokeAsync(
+                    BUS_NAME,
+                    command,
+                    message -> submit(message, route, aggregateKey),
+                    sendInterceptorChain
+            );
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Void> submit(Object command, CommandRoute route, Object aggregateKey) {
+        if (coalescers.isEmpty()) {
+            return lanes.submit(aggregateKey, () -> {
+                Dispatch.invoke(BUS_NAME, command, route.target(), interceptorChain);
+                return null;
+            });
+        }
+        return sendCoalescing(command, route, aggregateKey);
+    }
+
+    /// a command waiting in its lane is merged with the commands sent after it to the same aggregate while it
+    /// waits, as long as no other command is sent to the aggregate in between, so the commands are still handled
+    /// in the order they were sent. The decision is taken holding only the lane of the aggregate, so the commands
+    /// of the other lanes are never blocked by it.
+    private CompletableFuture<Void> sendCoalescing(Object command, CommandRoute route, Object aggregateKey) {
+        return lanes.withLaneOf(aggregateKey, () -> {
+            var pending = pendingCommands.get(aggregateKey);
+            if (pending != null && pending.coalescer == route.coalescer()) {
+                var outcome = pending.tryMerge(command);
+                if (outcome != null) {
+                    route.coalescedCommands().increment();
+                    return outcome;
+                }
+            }
+
+            if (route.coalescer() == null) {
+                if (pending != null) pendingCommands.remove(aggregateKey, pending);
+                return lanes.submit(aggregateKey, () -> {
+                    Dispatch.invoke(BUS_NAME, command, route.target(), interceptorChain);
+                    return null;
+                });
+            }
+
+            var opened = new PendingCommand(command, route.coalescer());
+            pendingCommands.put(aggregateKey, opened);
+            lanes.submit(aggregateKey, () -> {
+                handlePending(aggregateKey, opened);
+                return null;
+            });
+            return opened.outcomes.getFirst();
+        });
+    }
+
+    /// handles the merged command, and when it fails handles every sent command on its own instead, so each sender
+    /// gets the outcome of its own command and a command that can not be handled does not fail the ones merged
+    /// with it.
+    private void handlePending(Object aggregateKey, PendingCommand pending) {
+        pending.start();
+        pendingCommands.remove(aggregateKey, pending);
+        if (pending.mergedCommand != null) {
+            try {
+                dispatch(pending.mergedCommand);
+                pending.outcomes.forEach(it -> it.complete(null));
+                return;
+            } catch (RuntimeException ignored) {
+                // the sent commands are handled one by one below.
+            } catch (Error e) {
+                pending.outcomes.forEach(it -> it.completeExceptionally(e));
+                throw e;
+            }
+        }
+        for (int i = 0; i < pending.commands.size(); i++) {
+            var outcome = pending.outcomes.get(i);
+            try {
+                dispatch(pending.commands.get(i));
+                outcome.complete(null);
+            } catch (RuntimeException | Error e) {
+                outcome.completeExceptionally(e);
+            }
         }
-        
-        handler.handleCommand(command);
     }
 
-    public CommandBus addHandler(Class<?> commandClassToHandle, CommandHandler<?> handler){
+    private void dispatch(Object command) {
+        Dispatch.invoke(BUS_NAME, command, getRoute(command).target(), interceptorChain);
+    }
+
+    public synchronized CommandBus addHandler(Class<?> commandClassToHandle, CommandHandler<?> handler){
+        checkIsNotFrozen();
         if (!handler.canHandle(commandClassToHandle)){
             throw new CqrsError(
                     String.format("handler: %s can not handle command: %s",
@@ -31,4 +194,171 @@ public final class CommandBus {
         handlers.put(commandClassToHandle, handler);
         return this;
     }
+
+    /// adds an interceptor that will be called on every command sent through the bus, see [BusInterceptor] for
+    /// the order in which the interceptors are called.
+    public synchronized CommandBus addInterceptor(BusInterceptor interceptor) {
+        checkIsNotFrozen();
+        interceptors.add(Objects.requireNonNull(interceptor, "interceptor is required"));
+        return this;
+    }
+
+    /// adds an interceptor that will be called in the sending thread when a command is sent, before it waits in
+    /// its lane, so it can reject the command without queueing it, e.g. an
+    /// [AdmissionControlInterceptor][io.github.agomezlucena.libtory.shared.cqrs.interceptors.AdmissionControlInterceptor].
+    ///
+    /// for the asynchronous commands the result of the dispatch is the future of their execution, so the
+    /// interceptor can keep its state, like a permit, until the command has been handled. For the synchronous
+    /// commands the dispatch is the whole handling of the command. The send interceptors are called in the order
+    /// they were added, before the ones added with [#addInterceptor].
+    public synchronized CommandBus addSendInterceptor(BusInterceptor interceptor) {
+        checkIsNotFrozen();
+        sendInterceptors.add(Objects.requireNonNull(interceptor, "interceptor is required"));
+        return this;
+    }
+
+    /// asynchronous commands of the given class will be ordered by the aggregate key obtained with the given
+    /// function, the keys of commands of different classes that target the same aggregate should be equal.
+    @SuppressWarnings("unchecked")
+    public synchronized <T> CommandBus routeBy(Class<T> commandClass, Function<? super T, ?> aggregateKey) {
+        checkIsNotFrozen();
+        Objects.requireNonNull(aggregateKey, "aggregate key is required");
+        aggregateKeys.put(commandClass, (Function<Object, ?>) aggregateKey);
+        return this;
+    }
+
+    /// asynchronous commands of the given class sent to an aggregate which previous command is still waiting in its
+    /// lane are merged with it by the given coalescer, so they are handled at once. When the merged command fails
+    /// the merged commands are handled one by one instead, so every sender gets the outcome of its own command.
+    ///
+    /// the commands produced by the coalescer are dispatched as any other command, so they need a handler of their
+    /// own. Only the asynchronous commands are merged.
+    @SuppressWarnings("unchecked")
+    public synchronized <T> CommandBus enableCoalescing(
+            Class<T> commandClass,
+            CommandCoalescer<? super T, ?> coalescer
+    ) {
+        checkIsNotFrozen();
+        Objects.requireNonNull(coalescer, "coalescer is required");
+        coalescers.put(commandClass, (CommandCoalescer<Object, Object>) coalescer);
+        coalescedCommandsByType.putIfAbsent(commandClass, new LongAdder());
+        return this;
+    }
+
+    /// @return the amount of asynchronous commands of the given class that have been merged with a previous one.
+    public long getCoalescedCommands(Class<?> commandClass) {
+        var coalescedCommands = coalescedCommandsByType.get(commandClass);
+        return coalescedCommands == null ? 0 : coalescedCommands.sum();
+    }
+
+    /// builds the dispatch table of the bus, after that no handler can be added to it.
+    public synchronized CommandBus freeze() {
+        if (dispatchTable != null) return this;
+        var routes = new HashMap<Class<?>, CommandRoute>();
+        handlers.forEach((type, handler) -> routes.put(
+                type,
+                CommandRoute.of(
+                        handler,
+                        aggregateKeys.getOrDefault(type, Function.identity()),
+                        coalescers.get(type),
+                        coalescedCommandsByType.get(type)
+                )
+        ));
+        interceptorChain = interceptors.toArray(BusInterceptor[]::new);
+        sendInterceptorChain = sendInterceptors.toArray(BusInterceptor[]::new);
+        dispatchTable = new DispatchTable<>(routes);
+        return this;
+    }
+
+    /// @return the amount of ordered lanes where the asynchronous commands are run.
+    int getAmountOfLanes() {
+        return lanes.getAmountOfLanes();
+    }
+
+    /// @return the index of the lane where the given command waits when it is sent asynchronously.
+    int laneOf(Object command) {
+        return lanes.laneOf(getRoute(command).aggregateKey().apply(command));
+    }
+
+    private CommandRoute getRoute(Object command) {
+        var table = dispatchTable;
+        if (table == null) {
+            table = freeze().dispatchTable;
+        }
+        var route = table.get(command.getClass());
+        if(route == null){
+            throw new CqrsError("not handler found for command: "+ command.getClass().getSimpleName());
+        }
+        return route;
+    }
+
+    private void checkIsNotFrozen() {
+        if (dispatchTable != null) {
+            throw new CqrsError("the bus can not be modified once it has been frozen");
+        }
+    }
+
+    /// everything needed to send the commands of one type, the handler is kept as a function so the interceptor
+    /// chain can call it without allocating.
+    private record CommandRoute(
+            Function<Object, Object> target,
+            Function<Object, ?> aggregateKey,
+            CommandCoalescer<Object, Object> coalescer,
+            LongAdder coalescedCommands
+    ) {
+        @SuppressWarnings("unchecked")
+        static CommandRoute of(
+                CommandHandler<?> handler,
+                Function<Object, ?> aggregateKey,
+                CommandCoalescer<Object, Object> coalescer,
+                LongAdder coalescedCommands
+        ) {
+            var commandHandler = (CommandHandler<Object>) handler;
+            return new CommandRoute(
+                    command -> {
+                        commandHandler.handleCommand(command);
+                        return null;
+                    },
+                    aggregateKey,
+                    coalescer,
+                    coalescedCommands
+            );
+        }
+    }
+
+    /// the commands sent to an aggregate while its first one waits in its lane, together with the command they have
+    /// been merged into and the outcome of every sender. No command is merged once it has started.
+    private static final class PendingCommand {
+        private final CommandCoalescer<Object, Object> coalescer;
+        private final List<Object> commands = new ArrayList<>();
+        private final List<CompletableFuture<Void>> outcomes = new ArrayList<>();
+        private Object mergedCommand;
+        private boolean started;
+
+        private PendingCommand(Object command, CommandCoalescer<Object, Object> coalescer) {
+            this.coalescer = coalescer;
+            commands.add(command);
+            outcomes.add(new CompletableFuture<>());
+        }
+
+        /// @return the outcome of the given command when it has been merged, or null when it can not be.
+        synchronized CompletableFuture<Void> tryMerge(Object nextCommand) {
+            if (started) return null;
+            var current = mergedCommand != null ? mergedCommand : coalescer.open(commands.getFirst());
+            if (current == null) return null;
+
+            var merged = coalescer.merge(current, nextCommand);
+            if (merged == null) return null;
+
+            mergedCommand = merged;
+            commands.add(nextCommand);
+            var outcome = new CompletableFuture<Void>();
+            outcomes.add(outcome);
+            return outcome;
+        }
+
+        synchronized void start() {
+            started = true;
+        }
+    }
 }
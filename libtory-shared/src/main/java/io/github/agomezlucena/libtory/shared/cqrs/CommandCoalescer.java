@@ -0,0 +1,16 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+/// merges the commands sent to the same aggregate one after the other into a single command with the same effect,
+/// so they are handled at once.
+///
+/// @param <T> the type of the merged commands.
+/// @param <C> the type of the command that has the effect of several of them, it should have its own handler.
+public interface CommandCoalescer<T, C> {
+    /// @return a command with the same effect as the given one that others can be merged into, or null when the
+    /// given command can not be merged with others.
+    C open(T command);
+
+    /// @return a command with the effect of the given pending command followed by the given command, or null when
+    /// they can not be merged.
+    C merge(C pending, T command);
+}
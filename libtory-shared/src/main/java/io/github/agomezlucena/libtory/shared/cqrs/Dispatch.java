@@ -0,0 +1,133 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/// a message being dispatched by a bus through its [BusInterceptor].
+///
+/// one instance is created per dispatch and it is also the cursor of the interceptor chain, so intercepting
+/// a message only allocates this object.
+public final class Dispatch {
+    private static final BusInterceptor[] NO_INTERCEPTORS = new BusInterceptor[0];
+
+    private final String bus;
+    private final Object message;
+    private final Function<Object, Object> target;
+    private final BusInterceptor[] interceptors;
+    private final long startTime;
+    private int nextInterceptor;
+    private int startedInterceptors;
+
+    private Dispatch(String bus, Object message, Function<Object, Object> target, BusInterceptor[] interceptors) {
+        this.bus = bus;
+        this.message = message;
+        this.target = target;
+        this.interceptors = interceptors;
+        this.startTime = System.nanoTime();
+    }
+
+    /// @return the name of the bus that dispatches the message, `command` or `query`.
+    public String bus() {
+        return bus;
+    }
+
+    public Object message() {
+        return message;
+    }
+
+    public Class<?> messageType() {
+        return message.getClass();
+    }
+
+    /// @return the nanoseconds elapsed since the dispatch started.
+    public long elapsedNanos() {
+        return System.nanoTime() - startTime;
+    }
+
+    /// calls to the next interceptor of the chain or to the handler when there are no more interceptors.
+    ///
+    /// it can be called more than once by the same interceptor, e.g. to retry the rest of the chain.
+    public Object proceed() {
+        var current = nextInterceptor;
+        nextInterceptor = current + 1;
+        try {
+            return current < interceptors.length ? interceptors[current].around(this) : target.apply(message);
+        } finally {
+            nextInterceptor = current;
+        }
+    }
+
+    static BusInterceptor[] noInterceptors() {
+        return NO_INTERCEPTORS;
+    }
+
+    /// dispatches the message through the whole interceptor chain.
+    static Object invoke(
+            String bus,
+            Object message,
+            Function<Object, Object> target,
+            BusInterceptor[] interceptors
+    ) {
+        if (interceptors.length == 0) {
+            return target.apply(message);
+        }
+
+        var dispatch = new Dispatch(bus, message, target, interceptors);
+        Object result = null;
+        Throwable error = null;
+        try {
+            dispatch.runBefore();
+            result = dispatch.proceed();
+            return result;
+        } catch (RuntimeException | Error e) {
+            error = e;
+            throw e;
+        } finally {
+            dispatch.runAfter(result, error);
+        }
+    }
+
+    /// dispatches the message through the whole interceptor chain when the target starts an asynchronous
+    /// execution, the interceptors are notified when the returned future completes.
+    @SuppressWarnings("unchecked")
+    static <R> CompletableFuture<R> invokeAsync(
+            String bus,
+            Object message,
+            Function<Object, CompletableFuture<R>> target,
+            BusInterceptor[] interceptors
+    ) {
+        if (interceptors.length == 0) {
+            return target.apply(message);
+        }
+
+        var dispatch = new Dispatch(bus, message, (Function<Object, Object>) (Function<?, ?>) target, interceptors);
+        final CompletableFuture<R> execution;
+        try {
+            dispatch.runBefore();
+            execution = (CompletableFuture<R>) dispatch.proceed();
+        } catch (RuntimeException | Error e) {
+            dispatch.runAfter(null, e);
+            throw e;
+        }
+        execution.whenComplete((result, error) -> dispatch.runAfter(
+                result,
+                error instanceof CompletionException && error.getCause() != null ? error.getCause() : error
+        ));
+        return execution;
+    }
+
+    private void runBefore() {
+        for (var interceptor : interceptors) {
+            interceptor.before(this);
+            startedInterceptors++;
+        }
+    }
+
+    /// only the interceptors which [BusInterceptor#before] was called are notified.
+    private void runAfter(Object result, Throwable error) {
+        for (int i = startedInterceptors - 1; i >= 0; i--) {
+            interceptors[i].after(this, result, error);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+
+/// immutable table that resolves the entry registered for a type, or for its closest supertype when the type
+/// itself has not been registered.
+///
+/// the resolution walks first the superclasses and then the interfaces of the type, breadth first, and is
+/// made only once per type: the result is kept in a [ClassValue], so every later lookup is a constant time
+/// read without hashing nor reflection.
+///
+/// @param <E> type of the registered entries.
+final class DispatchTable<E> {
+    private final Map<Class<?>, E> entries;
+    private final ClassValue<Optional<E>> resolvedEntries = new ClassValue<>() {
+        @Override
+        protected Optional<E> computeValue(Class<?> type) {
+            return Optional.ofNullable(resolve(type));
+        }
+    };
+
+    DispatchTable(Map<Class<?>, E> entries) {
+        this.entries = Map.copyOf(entries);
+    }
+
+    /// @return the entry for the given type or null when neither the type nor its supertypes were registered.
+    E get(Class<?> type) {
+        return resolvedEntries.get(type).orElse(null);
+    }
+
+    private E resolve(Class<?> type) {
+        for (var current = type; current != null; current = current.getSuperclass()) {
+            var entry = entries.get(current);
+            if (entry != null) return entry;
+        }
+
+        var pendingTypes = new ArrayDeque<Class<?>>();
+        var visitedTypes = new HashSet<Class<?>>();
+        for (var current = type; current != null; current = current.getSuperclass()) {
+            pendingTypes.add(current);
+        }
+        while (!pendingTypes.isEmpty()) {
+            for (var anInterface : pendingTypes.poll().getInterfaces()) {
+                if (!visitedTypes.add(anInterface)) continue;
+                var entry = entries.get(anInterface);
+                if (entry != null) return entry;
+                pendingTypes.add(anInterface);
+            }
+        }
+        return null;
+    }
+}
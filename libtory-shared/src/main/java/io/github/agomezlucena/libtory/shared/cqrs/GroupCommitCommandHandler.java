@@ -0,0 +1,239 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// handles the commands that arrive concurrently with one call to [BatchCommandHandler#handleAll], so they
+/// share a single write and a single commit instead of paying one each.
+///
+/// a batch is opened by its first command and collects the rest until it reaches its maximum size or its window
+/// passes, then the caller that closes it handles the whole batch, so no other thread is needed to do it. Every
+/// caller waits until its batch has been handled and gets its own outcome, the failure of one command does not
+/// fail the rest of its batch.
+///
+/// the commands sent through a bus should be announced when they are sent with the send interceptor given by
+/// [#announcer], before they wait in their lanes. The window of a batch then starts when its first command is
+/// sent, so it passes while the commands wait in their lanes, and a batch with an announced command is handled as
+/// soon as every announced command still on its way to this handler waits behind one of the batch in its lane,
+/// since those can not arrive before the batch has been handled. A command is so delayed at most by the window
+/// beyond the time it waits in its lane, and not at all when no other command can join its batch.
+///
+/// every caller holds its lane while it waits, so a batch has at most one command of every lane and the maximum
+/// size of a batch can not be larger than the amount of lanes of the bus.
+///
+/// @param <T> the type of the handled command.
+public class GroupCommitCommandHandler<T> implements CommandHandler<T> {
+    private final BatchCommandHandler<T> handler;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchClosed = lock.newCondition();
+    // the lane of every announced command that has not reached this handler yet, and the amount of them waiting
+    // in every lane, guarded by the lock.
+    private final Map<Object, Integer> commandsOnTheirWay = new IdentityHashMap<>();
+    private final Map<Integer, Integer> commandsOnTheirWayByLane = new HashMap<>();
+    private final ClassValue<Boolean> handledTypes = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return canHandle(type);
+        }
+    };
+
+    private Batch<T> openBatch;
+
+    public GroupCommitCommandHandler(BatchCommandHandler<T> handler, Duration window, int maxBatchSize) {
+        Objects.requireNonNull(window, "window is required");
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window should be positive");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("max batch size should be at least 1");
+        }
+        this.handler = Objects.requireNonNull(handler, "handler is required");
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public boolean canHandle(Class<?> commandClass) {
+        return handler.canHandle(commandClass);
+    }
+
+    /// @param commandBus the bus where the interceptor is added.
+    /// @return an interceptor to be added with [CommandBus#addSendInterceptor] to the given bus, it announces the
+    /// commands handled by this handler when they are sent, and forgets them once they have been handled or have
+    /// failed before reaching this handler.
+    /// @throws IllegalArgumentException when the maximum size of a batch is larger than the amount of lanes of the
+    /// given bus, since such a batch could never be complete.
+    public BusInterceptor announcer(CommandBus commandBus) {
+        Objects.requireNonNull(commandBus, "command bus is required");
+        if (maxBatchSize > commandBus.getAmountOfLanes()) {
+            throw new IllegalArgumentException("max batch size should not be larger than the amount of lanes");
+        }
+        return new BusInterceptor() {
+            @Override
+            public Object around(Dispatch dispatch) {
+                if (handledTypes.get(dispatch.messageType())) {
+                    announce(dispatch.message(), commandBus.laneOf(dispatch.message()));
+                }
+                return dispatch.proceed();
+            }
+
+            @Override
+            public void after(Dispatch dispatch, Object result, Throwable error) {
+                if (handledTypes.get(dispatch.messageType())) forget(dispatch.message());
+            }
+        };
+    }
+
+    @Override
+    public void handleCommand(T command) {
+        Objects.requireNonNull(command, "command is required");
+        var outcome = new CompletableFuture<Void>();
+        final Batch<T> closedBatch;
+
+        lock.lock();
+        try {
+            var lane = arrive(command);
+            if (openBatch == null) {
+                openBatch = new Batch<>(System.nanoTime() + windowNanos);
+            }
+            var batch = openBatch;
+            batch.add(command, outcome, lane);
+            closedBatch = awaitTheRestOf(batch);
+        } finally {
+            lock.unlock();
+        }
+
+        if (closedBatch != null) {
+            closedBatch.handleWith(handler);
+        }
+
+        try {
+            outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+
+    private void announce(Object command, int lane) {
+        lock.lock();
+        try {
+            if (commandsOnTheirWay.put(command, lane) == null) {
+                commandsOnTheirWayByLane.merge(lane, 1, Integer::sum);
+            }
+            var now = System.nanoTime();
+            if (openBatch == null || (openBatch.size() == 0 && now - openBatch.closesAt >= 0)) {
+                openBatch = new Batch<>(now + windowNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void forget(Object command) {
+        lock.lock();
+        try {
+            if (arrive(command) != null) {
+                batchClosed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /// @return the lane of the given command when it was on its way, or null when it was not announced.
+    private Integer arrive(Object command) {
+        var lane = commandsOnTheirWay.remove(command);
+        if (lane != null) {
+            commandsOnTheirWayByLane.computeIfPresent(lane, (ignored, amount) -> amount == 1 ? null : amount - 1);
+        }
+        return lane;
+    }
+
+    /// @return the given batch when it has been closed by this caller, which has to handle it, or null when it has
+    /// been closed by another one.
+    private Batch<T> awaitTheRestOf(Batch<T> batch) {
+        try {
+            while (openBatch == batch) {
+                var remainingNanos = batch.closesAt - System.nanoTime();
+                if (isComplete(batch) || remainingNanos <= 0) {
+                    return close(batch);
+                }
+                batchClosed.awaitNanos(remainingNanos);
+            }
+            return null;
+        } catch (InterruptedException e) {
+            // the rest of the batch is still waiting for it, so it is handled right away.
+            Thread.currentThread().interrupt();
+            return openBatch == batch ? close(batch) : null;
+        }
+    }
+
+    private boolean isComplete(Batch<T> batch) {
+        if (batch.size() >= maxBatchSize) return true;
+        if (batch.heldLanes.isEmpty()) return false;
+        var blockedCommands = 0;
+        for (var lane : batch.heldLanes) {
+            blockedCommands += commandsOnTheirWayByLane.getOrDefault(lane, 0);
+        }
+        return blockedCommands == commandsOnTheirWay.size();
+    }
+
+    private Batch<T> close(Batch<T> batch) {
+        openBatch = null;
+        batchClosed.signalAll();
+        return batch;
+    }
+
+    private static final class Batch<T> {
+        private final long closesAt;
+        private final List<T> commands = new ArrayList<>();
+        private final List<CompletableFuture<Void>> outcomes = new ArrayList<>();
+        // the lanes held by the announced commands of the batch while they wait for it.
+        private final Set<Integer> heldLanes = new HashSet<>();
+
+        Batch(long closesAt) {
+            this.closesAt = closesAt;
+        }
+
+        void add(T command, CompletableFuture<Void> outcome, Integer lane) {
+            commands.add(command);
+            outcomes.add(outcome);
+            if (lane != null) heldLanes.add(lane);
+        }
+
+        int size() {
+            return commands.size();
+        }
+
+        void handleWith(BatchCommandHandler<T> handler) {
+            try {
+                var failures = handler.handleAll(List.copyOf(commands));
+                for (int i = 0; i < commands.size(); i++) {
+                    var failure = failures == null ? null : failures.get(commands.get(i));
+                    if (failure == null) {
+                        outcomes.get(i).complete(null);
+                    } else {
+                        outcomes.get(i).completeExceptionally(failure);
+                    }
+                }
+            } catch (RuntimeException | Error e) {
+                outcomes.forEach(it -> it.completeExceptionally(e));
+            }
+        }
+    }
+}
@@ -5,4 +5,11 @@ public interface PagedQuery<T> extends Query<T>{
     int getSize();
     String getSortingField();
     String getSortingDirection();
+
+    /// an opaque continuation token obtained from [PaginatedResult#nextCursor()], when is defined the query
+    /// will continue after the last element of the previous page instead of skipping `page * size` elements.
+    String getCursor();
+
+    /// how the total amount of elements of the result should be obtained.
+    TotalMode getTotalMode();
 }
@@ -3,20 +3,51 @@ package io.github.agomezlucena.libtory.shared.cqrs;
 import java.util.List;
 import java.util.function.Function;
 
+/// @param totalAmount amount of elements of the whole query, it will be null when the query was made with
+///                    [TotalMode#NONE] and could be approximated when it was made with [TotalMode#ESTIMATED].
+/// @param nextCursor  opaque token that allows to query the next page using keyset pagination, it will be null
+///                    when there is no more elements or when the result does not have a stable order.
+/// @param hasNext     informs if there are more elements after this page, it is only defined when the total
+///                    amount is not exact, otherwise it can be deduced from it.
 public record PaginatedResult<T> (
         List<T> items,
         int size,
-        int totalAmount,
+        Integer totalAmount,
         String sortingField,
-        String sortingDirection
+        String sortingDirection,
+        String nextCursor,
+        Boolean hasNext
 ) {
+    public PaginatedResult(
+            List<T> items,
+            int size,
+            Integer totalAmount,
+            String sortingField,
+            String sortingDirection,
+            String nextCursor
+    ) {
+        this(items, size, totalAmount, sortingField, sortingDirection, nextCursor, null);
+    }
+
+    public PaginatedResult(
+            List<T> items,
+            int size,
+            Integer totalAmount,
+            String sortingField,
+            String sortingDirection
+    ) {
+        this(items, size, totalAmount, sortingField, sortingDirection, null);
+    }
+
     public <U> PaginatedResult<U> map(Function<? super T, U> mapper) {
         return new PaginatedResult<>(
                 this.items.stream().map(mapper).toList(),
                 size,
                 totalAmount,
                 sortingField,
-                sortingDirection
+                sortingDirection,
+                nextCursor,
+                hasNext
         );
     }
 }
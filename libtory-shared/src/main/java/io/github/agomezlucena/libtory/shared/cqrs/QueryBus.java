@@ -1,23 +1,286 @@
 package io.github.agomezlucena.libtory.shared.cqrs;
 
+import io.github.agomezlucena.libtory.shared.concurrent.Deadline;
+import io.github.agomezlucena.libtory.shared.concurrent.DeadlineExceeded;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 
+/// dispatches every query to the handler registered for its type, or for its closest supertype.
+///
+/// the handlers and the rest of the settings of the bus are registered first and then frozen into an
+/// immutable dispatch table with [#freeze], which also happens on the first query handled by the bus at the
+/// latest. Once frozen the bus can not be modified anymore.
 public class QueryBus {
-    private final Map<Class<? extends Query<?>>, QueryHandler<?, ?>> handlers = new ConcurrentHashMap<>();
+    private static final String BUS_NAME = "query";
+
+    private final Map<Class<?>, QueryHandler<?, ?>> handlers = new HashMap<>();
+    private final Map<Class<?>, LongAdder> collapsedCallsByType = new ConcurrentHashMap<>();
+    private final Map<Query<?>, CompletableFuture<Object>> inFlightQueries = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Executor> executorsByType = new HashMap<>();
+    private final Executor defaultExecutor;
+    private final List<BusInterceptor> interceptors = new ArrayList<>();
+    // written before the dispatch table, so it is visible to everyone who has read the table.
+    private BusInterceptor[] interceptorChain = Dispatch.noInterceptors();
+    private volatile DispatchTable<QueryRoute> dispatchTable;
+
+    /// creates a bus that runs the asynchronous queries on a new virtual thread per query.
+    public QueryBus() {
+        this(newThreadPerTaskExecutor());
+    }
+
+    /// @param defaultExecutor the executor used to run the asynchronous queries which type has not been given
+    ///                        an executor with [#useExecutor].
+    public QueryBus(Executor defaultExecutor) {
+        this.defaultExecutor = Objects.requireNonNull(defaultExecutor, "default executor is required");
+    }
+
+    /// the threads share one factory, so they are numbered one after the other.
+    private static Executor newThreadPerTaskExecutor() {
+        var threadFactory = Thread.ofVirtual().name("query-bus-", 0).factory();
+        return task -> threadFactory.newThread(task).start();
+    }
 
-    public QueryBus addHandler(Class<? extends Query<?>> clazz, QueryHandler<?, ?> mockedHandler) {
+    public synchronized QueryBus addHandler(Class<? extends Query<?>> clazz, QueryHandler<?, ?> mockedHandler) {
+        checkIsNotFrozen();
         this.handlers.put(clazz, mockedHandler);
         return this;
     }
 
+    /// the asynchronous queries of the given type will be run in the given executor instead of the default one.
+    public synchronized QueryBus useExecutor(Class<? extends Query<?>> clazz, Executor executor) {
+        checkIsNotFrozen();
+        this.executorsByType.put(clazz, Objects.requireNonNull(executor, "executor is required"));
+        return this;
+    }
+
+    /// adds an interceptor that will be called on every query dispatched by the bus, see [BusInterceptor] for
+    /// the order in which the interceptors are called.
+    public synchronized QueryBus addInterceptor(BusInterceptor interceptor) {
+        checkIsNotFrozen();
+        this.interceptors.add(Objects.requireNonNull(interceptor, "interceptor is required"));
+        return this;
+    }
+
+    /// concurrent queries of the given type that are equal by value will share the execution of the handler
+    /// that started first and its result, instead of executing the handler once per caller.
+    ///
+    /// the query type must implement equals and hashCode by value, and the result of the handler is shared
+    /// between the callers, so it should not be modified by them.
+    public synchronized QueryBus enableCoalescing(Class<? extends Query<?>> clazz) {
+        checkIsNotFrozen();
+        this.collapsedCallsByType.putIfAbsent(clazz, new LongAdder());
+        return this;
+    }
+
+    /// builds the dispatch table of the bus, after that no handler nor setting can be added to it.
+    public synchronized QueryBus freeze() {
+        if (dispatchTable != null) return this;
+        var routes = new HashMap<Class<?>, QueryRoute>();
+        handlers.forEach((type, handler) -> routes.put(
+                type,
+                QueryRoute.of(
+                        handler,
+                        executorsByType.getOrDefault(type, defaultExecutor),
+                        collapsedCallsByType.get(type)
+                )
+        ));
+        interceptorChain = interceptors.toArray(BusInterceptor[]::new);
+        dispatchTable = new DispatchTable<>(routes);
+        return this;
+    }
+
+    /// @return the amount of calls of the given query type that were answered by an execution started by
+    /// another caller.
+    public long getCollapsedCalls(Class<? extends Query<?>> clazz) {
+        var collapsedCalls = collapsedCallsByType.get(clazz);
+        return collapsedCalls == null ? 0 : collapsedCalls.sum();
+    }
+
+    /// resolves the given query in the calling thread, within the [Deadline] of the thread when there is one.
     @SuppressWarnings("unchecked")
     public <T, R> R handle(Query<T> query) {
-        var handler = (QueryHandler<Query<T>, R>) handlers.get(query.getClass());
-        if (handler == null) {
+        Deadline.current().ifPresent(Deadline::checkNotExpired);
+        var route = getRoute(query);
+
+        if (route.collapsedCalls() == null) {
+            return (R) intercept(query, route);
+        }
+
+        return (R) handleCoalesced(query, route);
+    }
+
+    /// resolves the given query without blocking the calling thread.
+    ///
+    /// handlers that implement [AsyncQueryHandler] are called directly, the rest are run in the executor of
+    /// the query type and cancelling the returned future interrupts the thread that is running the handler.
+    /// When the query type shares its executions, cancelling the future of one caller does not cancel the
+    /// shared execution, as other callers may still be waiting for it.
+    ///
+    /// the [Deadline] of the calling thread is propagated to the handler, and when it expires the future is
+    /// completed with a [DeadlineExceeded] and the execution is cancelled.
+    ///
+    /// @return a future completed with the result of the handler or with the exception thrown by it.
+    @SuppressWarnings("unchecked")
+    public <T, R> CompletableFuture<R> handleAsync(Query<T> query) {
+        final QueryRoute route;
+        try {
+            Deadline.current().ifPresent(Deadline::checkNotExpired);
+            route = getRoute(query);
+        } catch (CqrsError | DeadlineExceeded e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        var collapsedCalls = route.collapsedCalls();
+        if (collapsedCalls == null) {
+            return (CompletableFuture<R>) startExecution(query, route);
+        }
+
+        var execution = new CompletableFuture<Object>();
+        var inFlightExecution = inFlightQueries.putIfAbsent(query, execution);
+        if (inFlightExecution != null) {
+            collapsedCalls.increment();
+            return (CompletableFuture<R>) inFlightExecution.copy();
+        }
+
+        startExecution(query, route).whenComplete((result, error) -> {
+            inFlightQueries.remove(query, execution);
+            if (error == null) {
+                execution.complete(result);
+            } else {
+                execution.completeExceptionally(error);
+            }
+        });
+        return (CompletableFuture<R>) execution.copy();
+    }
+
+    private QueryRoute getRoute(Query<?> query) {
+        var table = dispatchTable;
+        if (table == null) {
+            table = freeze().dispatchTable;
+        }
+        var route = table.get(query.getClass());
+        if (route == null) {
             throw new CqrsError("the query is not supported in this bus");
         }
+        return route;
+    }
+
+    private void checkIsNotFrozen() {
+        if (dispatchTable != null) {
+            throw new CqrsError("the bus can not be modified once it has been frozen");
+        }
+    }
+
+    private Object intercept(Query<?> query, QueryRoute route) {
+        return Dispatch.invoke(BUS_NAME, query, route.target(), interceptorChain);
+    }
+
+    private CompletableFuture<Object> startExecution(Query<?> query, QueryRoute route) {
+        if (route.asyncTarget() != null) {
+            try {
+                return Dispatch.invokeAsync(BUS_NAME, query, route.asyncTarget(), interceptorChain);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        // the execution gets its own deadline so it can be stopped, including its running statements, when
+        // the caller gives up on it without affecting other work of the same caller.
+        var deadline = Deadline.current().map(Deadline::child).orElseGet(Deadline::unbounded);
+        var result = new CompletableFuture<Object>();
+        var task = new FutureTask<>(() -> deadline.call(() -> intercept(query, route))) {
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    result.complete(get());
+                } catch (ExecutionException e) {
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                }
+            }
+        };
+        // the deadline of the execution is cancelled once it is answered, which also removes it from the deadline
+        // of the caller, and so is the timer of the deadline.
+        result.whenComplete((ignored, error) -> {
+            deadline.cancel();
+            if (!task.isDone()) task.cancel(true);
+        });
+        if (!deadline.isUnbounded()) {
+            var timer = new CompletableFuture<Void>().orTimeout(deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+            timer.whenComplete((ignored, error) -> {
+                if (error instanceof TimeoutException) {
+                    result.completeExceptionally(new DeadlineExceeded("the deadline of the query has expired"));
+                }
+            });
+            result.whenComplete((ignored, error) -> timer.cancel(false));
+        }
+
+        try {
+            route.executor().execute(task);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private Object handleCoalesced(Query<?> query, QueryRoute route) {
+        var execution = new CompletableFuture<Object>();
+        var inFlightExecution = inFlightQueries.putIfAbsent(query, execution);
+        if (inFlightExecution != null) {
+            route.collapsedCalls().increment();
+            return Deadline.current().orElseGet(Deadline::unbounded).await(inFlightExecution);
+        }
 
-        return handler.handle(query);
+        try {
+            var result = intercept(query, route);
+            execution.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightQueries.remove(query, execution);
+        }
+    }
+
+    /// everything needed to dispatch the queries of one type, the handler is also kept as functions so the
+    /// interceptor chain can call it without allocating.
+    private record QueryRoute(
+            Executor executor,
+            LongAdder collapsedCalls,
+            Function<Object, Object> target,
+            Function<Object, CompletableFuture<Object>> asyncTarget
+    ) {
+        @SuppressWarnings("unchecked")
+        static QueryRoute of(QueryHandler<?, ?> handler, Executor executor, LongAdder collapsedCalls) {
+            var queryHandler = (QueryHandler<Query<?>, Object>) handler;
+            Function<Object, CompletableFuture<Object>> asyncTarget = null;
+            if (queryHandler instanceof AsyncQueryHandler<Query<?>, Object> asyncHandler) {
+                asyncTarget = message -> asyncHandler.handleAsync((Query<?>) message);
+            }
+            return new QueryRoute(
+                    executor,
+                    collapsedCalls,
+                    message -> queryHandler.handle((Query<?>) message),
+                    asyncTarget
+            );
+        }
     }
 }
@@ -0,0 +1,28 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/// defines how the total amount of elements of a [PagedQuery] should be obtained.
+public enum TotalMode {
+    /// the total amount is counted, it is always accurate but requires to visit all the elements.
+    EXACT,
+    /// the total amount is obtained from the statistics of the storage, it is cheap but can be outdated.
+    ESTIMATED,
+    /// the total amount is not obtained, the result will only inform if there is a next page.
+    NONE;
+
+    public static TotalMode fromValue(String value) {
+        if (value == null) return EXACT;
+        return Arrays.stream(values())
+                .filter(it -> it.name().equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new InvalidQuery(
+                        String.format("invalid paginated query total mode %s is not valid", value)
+                ));
+    }
+
+    static TotalMode orDefault(TotalMode totalMode) {
+        return Optional.ofNullable(totalMode).orElse(EXACT);
+    }
+}
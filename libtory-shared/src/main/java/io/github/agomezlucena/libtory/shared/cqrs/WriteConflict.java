@@ -0,0 +1,12 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+/// thrown by a handler when its write conflicts with a concurrent write of the same data, e.g. because the data
+/// was written by someone else since the handler read it.
+///
+/// nothing has been written when it is thrown, so the message can be handled again from the start, reading the
+/// data again.
+public class WriteConflict extends RuntimeException {
+    public WriteConflict(String message) {
+        super(message);
+    }
+}
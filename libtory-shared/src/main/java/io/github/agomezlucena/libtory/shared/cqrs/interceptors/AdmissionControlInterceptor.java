@@ -0,0 +1,82 @@
+package io.github.agomezlucena.libtory.shared.cqrs.interceptors;
+
+import io.github.agomezlucena.libtory.shared.concurrent.AdaptiveLimitSettings;
+import io.github.agomezlucena.libtory.shared.concurrent.AimdLimiter;
+import io.github.agomezlucena.libtory.shared.cqrs.BusInterceptor;
+import io.github.agomezlucena.libtory.shared.cqrs.BusOverloaded;
+import io.github.agomezlucena.libtory.shared.cqrs.Dispatch;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Predicate;
+
+/// limits the concurrent dispatches of every message type with its own [AimdLimiter], rejecting the messages
+/// that can not be admitted with a [BusOverloaded].
+///
+/// every bus should have its own instance, so the limits of a bus are not shared with the other one. The
+/// permit of an asynchronous dispatch is kept until its execution completes.
+public class AdmissionControlInterceptor implements BusInterceptor {
+    private final Duration retryAfter;
+    private final Predicate<Throwable> isOverloadError;
+    private final ClassValue<AimdLimiter> limiters;
+
+    /// @param settings        the settings of the limiter of every message type.
+    /// @param retryAfter      how long the rejected callers are told to wait before retrying.
+    /// @param isOverloadError tells which failures are caused by an overload of the downstream resources, e.g.
+    ///                        timeouts, so the limit is decreased when they happen.
+    public AdmissionControlInterceptor(
+            AdaptiveLimitSettings settings,
+            Duration retryAfter,
+            Predicate<Throwable> isOverloadError
+    ) {
+        Objects.requireNonNull(settings, "settings are required");
+        this.retryAfter = Objects.requireNonNull(retryAfter, "retry after is required");
+        this.isOverloadError = Objects.requireNonNull(isOverloadError, "overload error predicate is required");
+        this.limiters = new ClassValue<>() {
+            @Override
+            protected AimdLimiter computeValue(Class<?> type) {
+                return new AimdLimiter(settings);
+            }
+        };
+    }
+
+    @Override
+    public Object around(Dispatch dispatch) {
+        var permit = limiterOf(dispatch.messageType())
+                .tryAcquire()
+                .orElseThrow(() -> new BusOverloaded(
+                        String.format(
+                                "the %s bus can not admit more %s now",
+                                dispatch.bus(),
+                                dispatch.messageType().getSimpleName()
+                        ),
+                        retryAfter
+                ));
+
+        final Object result;
+        try {
+            result = dispatch.proceed();
+        } catch (RuntimeException | Error e) {
+            permit.release(isOverloadError.test(e));
+            throw e;
+        }
+
+        if (result instanceof CompletableFuture<?> execution) {
+            execution.whenComplete((ignored, error) -> permit.release(error != null && isOverloadError.test(unwrap(error))));
+        } else {
+            permit.release();
+        }
+        return result;
+    }
+
+    /// @return the limiter of the given message type, created on its first dispatch.
+    public AimdLimiter limiterOf(Class<?> messageType) {
+        return limiters.get(messageType);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
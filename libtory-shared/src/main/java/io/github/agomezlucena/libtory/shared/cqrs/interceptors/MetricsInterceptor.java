@@ -0,0 +1,97 @@
+package io.github.agomezlucena.libtory.shared.cqrs.interceptors;
+
+import io.github.agomezlucena.libtory.shared.cqrs.BusInterceptor;
+import io.github.agomezlucena.libtory.shared.cqrs.Dispatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// records for every type of message dispatched by a bus:
+///
+/// - `libtory.bus.dispatch`: a timer with the latency histogram of the dispatches, tagged by outcome.
+/// - `libtory.bus.in.flight`: a gauge with the amount of dispatches that have not finished yet.
+/// - `libtory.bus.errors`: a counter of the failed dispatches, tagged by the class of the exception.
+///
+/// every meter is tagged with the name of the bus and the simple name of the message type. The meters of a
+/// type, and its error counters by exception, are created on first use and then reused, so recording a dispatch
+/// does not look up the registry.
+///
+/// every bus should have its own instance with a name that no other bus of the registry has, otherwise their
+/// in-flight gauges would collide and only the first one would be reported.
+public class MetricsInterceptor implements BusInterceptor {
+    public static final String DISPATCH_TIMER = "libtory.bus.dispatch";
+    public static final String IN_FLIGHT_GAUGE = "libtory.bus.in.flight";
+    public static final String ERROR_COUNTER = "libtory.bus.errors";
+
+    private final MeterRegistry registry;
+    private final String busName;
+    private final ClassValue<MessageMeters> meters = new ClassValue<>() {
+        @Override
+        protected MessageMeters computeValue(Class<?> type) {
+            return new MessageMeters(Tags.of("bus", busName, "type", type.getSimpleName()));
+        }
+    };
+
+    /// @param busName the name of the bus the interceptor is added to, used to tag its meters.
+    public MetricsInterceptor(MeterRegistry registry, String busName) {
+        this.registry = Objects.requireNonNull(registry, "meter registry is required");
+        this.busName = Objects.requireNonNull(busName, "bus name is required");
+    }
+
+    @Override
+    public void before(Dispatch dispatch) {
+        meters.get(dispatch.messageType()).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void after(Dispatch dispatch, Object result, Throwable error) {
+        var messageMeters = meters.get(dispatch.messageType());
+        messageMeters.inFlight.decrementAndGet();
+        if (error == null) {
+            messageMeters.succeeded.record(dispatch.elapsedNanos(), TimeUnit.NANOSECONDS);
+            return;
+        }
+        messageMeters.failed.record(dispatch.elapsedNanos(), TimeUnit.NANOSECONDS);
+        messageMeters.errors.get(error.getClass()).increment();
+    }
+
+    private Timer timer(Tags tags, String outcome) {
+        return Timer.builder(DISPATCH_TIMER)
+                .tags(tags)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /// the meters of one message type.
+    private final class MessageMeters {
+        private final Timer succeeded;
+        private final Timer failed;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final ClassValue<Counter> errors;
+
+        private MessageMeters(Tags tags) {
+            this.succeeded = timer(tags, "success");
+            this.failed = timer(tags, "error");
+            Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+                    .tags(tags)
+                    .strongReference(true)
+                    .register(registry);
+            this.errors = new ClassValue<>() {
+                @Override
+                protected Counter computeValue(Class<?> exceptionType) {
+                    return Counter.builder(ERROR_COUNTER)
+                            .tags(tags)
+                            .tag("exception", exceptionType.getSimpleName())
+                            .register(registry);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package io.github.agomezlucena.libtory.shared.cqrs.interceptors;
+
+import io.github.agomezlucena.libtory.shared.concurrent.Deadline;
+import io.github.agomezlucena.libtory.shared.concurrent.RetryBudget;
+import io.github.agomezlucena.libtory.shared.concurrent.RetrySettings;
+import io.github.agomezlucena.libtory.shared.cqrs.BusInterceptor;
+import io.github.agomezlucena.libtory.shared.cqrs.Dispatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/// dispatches again the messages which dispatch failed with a transient error, e.g. a deadlock or a write that
+/// conflicted with a concurrent one, waiting a random backoff before every retry.
+///
+/// only the message types given a [RetrySettings] with [#retry] are retried, and every retry of any type is
+/// taken from a shared [RetryBudget]. A message is not retried when its [Deadline] would expire during the
+/// backoff. The whole rest of the interceptor chain is run again on every retry, so the interceptors that
+/// should be run once per attempt, e.g. the one that opens the transaction of a command, must come after it.
+///
+/// only the failures thrown by the dispatch are retried, not the ones of the asynchronous executions it starts.
+public class RetryInterceptor implements BusInterceptor {
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    private final Map<Class<?>, RetryPolicy> policies = new ConcurrentHashMap<>();
+    private final Predicate<Throwable> isRetryable;
+    private final RetryBudget budget;
+
+    /// @param isRetryable tells which failures are transient, so the message can succeed when dispatched again.
+    /// @param budget      the budget shared by the retries of every message type.
+    public RetryInterceptor(Predicate<Throwable> isRetryable, RetryBudget budget) {
+        this.isRetryable = Objects.requireNonNull(isRetryable, "retryable error predicate is required");
+        this.budget = Objects.requireNonNull(budget, "retry budget is required");
+    }
+
+    /// @return a predicate that matches the failures caused by a [SQLException] with any of the given sql
+    /// states, e.g. `40001` for the serialization failures and `40P01` for the deadlocks in postgres.
+    public static Predicate<Throwable> hasSqlState(String... sqlStates) {
+        var states = Set.of(sqlStates);
+        return error -> {
+            for (var cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+                if (cause instanceof SQLException sqlException && states.contains(sqlException.getSQLState())) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    /// the failed dispatches of the given message type will be retried with the given settings.
+    public RetryInterceptor retry(Class<?> messageType, RetrySettings settings) {
+        policies.put(
+                Objects.requireNonNull(messageType, "message type is required"),
+                new RetryPolicy(Objects.requireNonNull(settings, "settings are required"))
+        );
+        return this;
+    }
+
+    @Override
+    public Object around(Dispatch dispatch) {
+        var policy = policies.get(dispatch.messageType());
+        if (policy == null) {
+            return dispatch.proceed();
+        }
+
+        budget.deposit();
+        for (int failedAttempts = 1; ; failedAttempts++) {
+            try {
+                return dispatch.proceed();
+            } catch (RuntimeException e) {
+                if (!isRetryable.test(e)) throw e;
+
+                var backoff = policy.settings().backoff(failedAttempts);
+                if (failedAttempts >= policy.settings().maxAttempts()
+                        || !fitsInDeadline(backoff)
+                        || !budget.tryWithdraw()) {
+                    policy.giveUps().increment();
+                    log.debug(
+                            "giving up on a {} after {} attempts: {}",
+                            dispatch.messageType().getSimpleName(),
+                            failedAttempts,
+                            e.getMessage()
+                    );
+                    throw e;
+                }
+
+                policy.retries().increment();
+                waitFor(backoff, e);
+            }
+        }
+    }
+
+    /// @return the amount of times the messages of the given type have been dispatched again.
+    public long getRetries(Class<?> messageType) {
+        var policy = policies.get(messageType);
+        return policy == null ? 0 : policy.retries().sum();
+    }
+
+    /// @return the amount of messages of the given type that failed with a transient error and were not
+    /// dispatched again, because they ran out of attempts, time or budget.
+    public long getGiveUps(Class<?> messageType) {
+        var policy = policies.get(messageType);
+        return policy == null ? 0 : policy.giveUps().sum();
+    }
+
+    private boolean fitsInDeadline(Duration backoff) {
+        return Deadline.current().map(it -> it.remaining().compareTo(backoff) > 0).orElse(true);
+    }
+
+    private void waitFor(Duration backoff, RuntimeException failure) {
+        try {
+            Thread.sleep(backoff);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw failure;
+        }
+    }
+
+    private record RetryPolicy(RetrySettings settings, LongAdder retries, LongAdder giveUps) {
+        RetryPolicy(RetrySettings settings) {
+            this(settings, new LongAdder(), new LongAdder());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.agomezlucena.libtory.shared.cqrs.interceptors;
+
+import io.github.agomezlucena.libtory.shared.cqrs.BusInterceptor;
+import io.github.agomezlucena.libtory.shared.cqrs.Dispatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/// logs a warning for every dispatch that takes at least the given threshold.
+public class SlowCallLoggingInterceptor implements BusInterceptor {
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+    private final long thresholdNanos;
+
+    public SlowCallLoggingInterceptor(Duration threshold) {
+        Objects.requireNonNull(threshold, "threshold is required");
+        if (threshold.isNegative()) {
+            throw new IllegalArgumentException("threshold can not be negative");
+        }
+        this.thresholdNanos = threshold.toNanos();
+    }
+
+    @Override
+    public void after(Dispatch dispatch, Object result, Throwable error) {
+        var elapsedNanos = dispatch.elapsedNanos();
+        if (elapsedNanos < thresholdNanos) return;
+
+        log.warn(
+                "slow {} {} took {} ms and {}",
+                dispatch.bus(),
+                dispatch.messageType().getSimpleName(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                error == null ? "succeeded" : "failed with " + error.getClass().getSimpleName()
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.agomezlucena.libtory.shared.csv;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/// reads the records of a comma separated values document one at a time, so a document of any size is read
+/// without keeping more than one record in memory.
+///
+/// fields can be quoted with double quotes, and then they can hold commas, line breaks and doubled double quotes,
+/// as described in RFC 4180. Records are separated by `\n` or `\r\n`, and the empty lines are skipped.
+public final class CsvReader implements Closeable {
+    private static final char SEPARATOR = ',';
+    private static final char QUOTE = '"';
+    private static final int END = -1;
+
+    private final Reader reader;
+    private final StringBuilder field = new StringBuilder();
+    private long lineNumber = 1;
+    private long recordLineNumber;
+
+    public CsvReader(Reader reader) {
+        Objects.requireNonNull(reader, "reader is required");
+        this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+    }
+
+    /// @return the fields of the next record, or null when the document has no more records.
+    public List<String> readRecord() throws IOException {
+        var next = skipEmptyLines();
+        if (next == END) return null;
+
+        recordLineNumber = lineNumber;
+        var fields = new ArrayList<String>();
+        while (true) {
+            field.setLength(0);
+            next = next == QUOTE ? readQuotedField() : readField(next);
+            fields.add(field.toString());
+            if (next != SEPARATOR) break;
+            next = reader.read();
+        }
+        if (next != END) lineNumber++;
+        return fields;
+    }
+
+    /// @return the line where the last read record starts, counting from one.
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int skipEmptyLines() throws IOException {
+        var next = reader.read();
+        while (next == '\r' || next == '\n') {
+            if (next == '\n') lineNumber++;
+            next = reader.read();
+        }
+        return next;
+    }
+
+    /// @return the character that ended the field, a separator, a line break or the end of the document.
+    private int readField(int next) throws IOException {
+        while (next != SEPARATOR && next != '\n' && next != END) {
+            if (next != '\r') field.append((char) next);
+            next = reader.read();
+        }
+        return next;
+    }
+
+    /// @return the character that ended the field, a separator, a line break or the end of the document.
+    private int readQuotedField() throws IOException {
+        var next = reader.read();
+        while (next != END) {
+            if (next == QUOTE) {
+                next = reader.read();
+                if (next != QUOTE) {
+                    // the quoted part has finished, anything before the next separator is kept as it is.
+                    return readField(next);
+                }
+            } else if (next == '\n') {
+                lineNumber++;
+            }
+            field.append((char) next);
+            next = reader.read();
+        }
+        return END;
+    }
+}
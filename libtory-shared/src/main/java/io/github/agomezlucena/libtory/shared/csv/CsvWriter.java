@@ -0,0 +1,56 @@
+package io.github.agomezlucena.libtory.shared.csv;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Objects;
+
+/// writes records as comma separated values that [CsvReader] can read back, quoting only the fields that need it.
+public final class CsvWriter implements Closeable, Flushable {
+    private final Writer writer;
+
+    public CsvWriter(Writer writer) {
+        this.writer = Objects.requireNonNull(writer, "writer is required");
+    }
+
+    /// writes the given fields as a single record, a null field is written as an empty one.
+    public void writeRecord(List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) writer.write(',');
+            writeField(fields.get(i));
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeField(String field) throws IOException {
+        if (field == null) return;
+        if (!needsQuotes(field)) {
+            writer.write(field);
+            return;
+        }
+
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static boolean needsQuotes(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            var character = field.charAt(i);
+            if (character == ',' || character == '"' || character == '\n' || character == '\r') return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,100 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("an AIMD limiter should")
+class AimdLimiterTest {
+
+    @Test
+    @DisplayName("reject the callers beyond the limit when the queue is full")
+    void shouldRejectTheCallersBeyondTheLimitWhenTheQueueIsFull() {
+        var testSubject = new AimdLimiter(settings(2, Duration.ofHours(1), 0, Duration.ZERO));
+
+        assertTrue(testSubject.tryAcquire().isPresent());
+        assertTrue(testSubject.tryAcquire().isPresent());
+        assertTrue(testSubject.tryAcquire().isEmpty());
+    }
+
+    @Test
+    @DisplayName("admit a queued caller when a permit is released")
+    void shouldAdmitAQueuedCallerWhenAPermitIsReleased() throws Exception {
+        var testSubject = new AimdLimiter(settings(1, Duration.ofHours(1), 1, Duration.ofMinutes(1)));
+        var permit = testSubject.tryAcquire().orElseThrow();
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var queued = executor.submit(() -> testSubject.tryAcquire().isPresent());
+            permit.release();
+
+            assertTrue(queued.get());
+        }
+    }
+
+    @Test
+    @DisplayName("reject a queued caller when the max queue wait elapses")
+    void shouldRejectAQueuedCallerWhenTheMaxQueueWaitElapses() {
+        var testSubject = new AimdLimiter(settings(1, Duration.ofHours(1), 1, Duration.ofMillis(10)));
+        testSubject.tryAcquire().orElseThrow();
+
+        assertTrue(testSubject.tryAcquire().isEmpty());
+    }
+
+    @Test
+    @DisplayName("increase the limit by one when a busy limiter observes fast executions")
+    void shouldIncreaseTheLimitByOneWhenABusyLimiterObservesFastExecutions() {
+        var testSubject = new AimdLimiter(settings(2, Duration.ofHours(1), 0, Duration.ZERO));
+
+        testSubject.tryAcquire().orElseThrow().release();
+
+        assertEquals(3, testSubject.getLimit());
+    }
+
+    @Test
+    @DisplayName("decrease the limit multiplicatively when it observes an overload")
+    void shouldDecreaseTheLimitMultiplicativelyWhenItObservesAnOverload() {
+        var testSubject = new AimdLimiter(settings(8, Duration.ofHours(1), 0, Duration.ZERO));
+
+        testSubject.tryAcquire().orElseThrow().release(true);
+
+        assertEquals(4, testSubject.getLimit());
+    }
+
+    @Test
+    @DisplayName("decrease the limit when an execution is slower than the latency threshold")
+    void shouldDecreaseTheLimitWhenAnExecutionIsSlowerThanTheLatencyThreshold() throws Exception {
+        var testSubject = new AimdLimiter(settings(8, Duration.ofMillis(1), 0, Duration.ZERO));
+        var permit = testSubject.tryAcquire().orElseThrow();
+
+        Thread.sleep(10);
+        permit.release();
+
+        assertEquals(4, testSubject.getLimit());
+    }
+
+    @Test
+    @DisplayName("ignore the releases after the first one of a permit")
+    void shouldIgnoreTheReleasesAfterTheFirstOneOfAPermit() {
+        var testSubject = new AimdLimiter(settings(8, Duration.ofHours(1), 0, Duration.ZERO));
+        var permit = testSubject.tryAcquire().orElseThrow();
+
+        permit.release(true);
+        permit.release(true);
+
+        assertEquals(4, testSubject.getLimit());
+        assertEquals(0, testSubject.getInFlight());
+    }
+
+    private static AdaptiveLimitSettings settings(
+            int initialLimit,
+            Duration latencyThreshold,
+            int maxQueueSize,
+            Duration maxQueueWait
+    ) {
+        return new AdaptiveLimitSettings(initialLimit, 1, 16, latencyThreshold, 0.5, maxQueueSize, maxQueueWait);
+    }
+}
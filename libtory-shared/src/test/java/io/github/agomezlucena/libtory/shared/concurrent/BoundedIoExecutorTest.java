@@ -0,0 +1,151 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("bounded io executor should")
+class BoundedIoExecutorTest {
+
+    @Test
+    @DisplayName("not run more tasks at the same time than its max concurrency")
+    void shouldNotRunMoreTasksAtTheSameTimeThanItsMaxConcurrency() {
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+
+        try (var testSubject = new BoundedIoExecutor("test", 3)) {
+            var tasks = IntStream.range(0, 50)
+                    .mapToObj(it -> CompletableFuture.runAsync(() -> {
+                        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        sleep(5);
+                        running.decrementAndGet();
+                    }, testSubject))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(tasks).join();
+        }
+
+        assertEquals(3, maxRunning.get());
+    }
+
+    @Test
+    @DisplayName("expose the tasks that are waiting and running and record how long they waited")
+    void shouldExposeTheTasksThatAreWaitingAndRunningAndRecordHowLongTheyWaited() throws Exception {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(2);
+        var recordedWaits = new LongAdder();
+
+        try (var testSubject = new BoundedIoExecutor("test", 2, ignored -> recordedWaits.increment())) {
+            for (int i = 0; i < 5; i++) {
+                testSubject.execute(() -> {
+                    started.countDown();
+                    await(release);
+                });
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            waitUntil(() -> testSubject.getQueueDepth() == 3);
+
+            assertEquals(2, testSubject.getActiveCount());
+            release.countDown();
+        }
+
+        assertEquals(5, recordedWaits.sum());
+    }
+
+    @Test
+    @DisplayName("admit the waiting tasks in the order they were submitted")
+    void shouldAdmitTheWaitingTasksInTheOrderTheyWereSubmitted() throws Exception {
+        var release = new CountDownLatch(1);
+        var admittedTasks = Collections.synchronizedList(new ArrayList<Integer>());
+
+        try (var testSubject = new BoundedIoExecutor("test", 1)) {
+            testSubject.execute(() -> await(release));
+            for (int i = 0; i < 20; i++) {
+                var task = i;
+                testSubject.execute(() -> admittedTasks.add(task));
+            }
+            assertEquals(20, testSubject.getQueueDepth());
+            release.countDown();
+        }
+
+        assertEquals(IntStream.range(0, 20).boxed().toList(), admittedTasks);
+    }
+
+    @Test
+    @DisplayName("reject the tasks submitted after being shut down")
+    void shouldRejectTheTasksSubmittedAfterBeingShutDown() {
+        var testSubject = new BoundedIoExecutor("test", 1);
+        testSubject.shutdown();
+
+        assertThrows(RejectedExecutionException.class, () -> testSubject.execute(() -> {}));
+        assertEquals(0, testSubject.getQueueDepth());
+    }
+
+    @Test
+    @DisplayName("return the waiting tasks without running them when it is shut down now")
+    void shouldReturnTheWaitingTasksWithoutRunningThemWhenItIsShutDownNow() throws Exception {
+        var started = new CountDownLatch(1);
+        var interrupted = new CountDownLatch(1);
+        var waitingTasks = new AtomicInteger();
+        var testSubject = new BoundedIoExecutor("test", 1);
+        testSubject.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        });
+        testSubject.execute(waitingTasks::incrementAndGet);
+        testSubject.execute(waitingTasks::incrementAndGet);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        var obtainedTasks = testSubject.shutdownNow();
+
+        assertEquals(2, obtainedTasks.size());
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        assertTrue(testSubject.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(0, waitingTasks.get());
+    }
+
+    @Test
+    @DisplayName("not allow a max concurrency lower than one")
+    void shouldNotAllowAMaxConcurrencyLowerThanOne() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedIoExecutor("test", 0));
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("the condition was not met in time");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("deadline should")
+class DeadlineTest {
+
+    @Test
+    @DisplayName("be the current one only while running the given action")
+    void shouldBeTheCurrentOneOnlyWhileRunningTheGivenAction() {
+        var outer = Deadline.after(Duration.ofSeconds(10));
+        var inner = Deadline.after(Duration.ofSeconds(1));
+
+        var obtainedDeadlines = outer.call(() -> new Object[]{
+                Deadline.current().orElseThrow(),
+                inner.call(() -> Deadline.current().orElseThrow()),
+                Deadline.current().orElseThrow()
+        });
+
+        assertArrayEquals(new Object[]{outer, inner, outer}, obtainedDeadlines);
+        assertTrue(Deadline.current().isEmpty());
+    }
+
+    @Test
+    @DisplayName("throw a DeadlineExceeded once it has expired")
+    void shouldThrowADeadlineExceededOnceItHasExpired() {
+        var testSubject = Deadline.after(Duration.ZERO);
+
+        assertTrue(testSubject.isExpired());
+        assertEquals(Duration.ZERO, testSubject.remaining());
+        assertThrows(DeadlineExceeded.class, testSubject::checkNotExpired);
+    }
+
+    @Test
+    @DisplayName("never expire when it is unbounded")
+    void shouldNeverExpireWhenItIsUnbounded() {
+        var testSubject = Deadline.unbounded();
+
+        assertFalse(testSubject.isExpired());
+        assertDoesNotThrow(testSubject::checkNotExpired);
+        assertEquals(Duration.ofNanos(Long.MAX_VALUE), testSubject.remaining());
+    }
+
+    @Test
+    @DisplayName("throw a DeadlineExceeded when the awaited future does not complete in time")
+    void shouldThrowADeadlineExceededWhenTheAwaitedFutureDoesNotCompleteInTime() {
+        var testSubject = Deadline.after(Duration.ofMillis(50));
+        assertThrows(DeadlineExceeded.class, () -> testSubject.await(new CompletableFuture<>()));
+    }
+
+    @Test
+    @DisplayName("rethrow the exception of the awaited future")
+    void shouldRethrowTheExceptionOfTheAwaitedFuture() {
+        var expectedException = new IllegalStateException("test failure");
+        var testSubject = Deadline.after(Duration.ofSeconds(10));
+
+        var obtainedException = assertThrows(
+                IllegalStateException.class,
+                () -> testSubject.await(CompletableFuture.failedFuture(expectedException))
+        );
+        assertSame(expectedException, obtainedException);
+    }
+
+    @Test
+    @DisplayName("run the registered callbacks once when it is cancelled")
+    void shouldRunTheRegisteredCallbacksOnceWhenItIsCancelled() {
+        var calls = new AtomicInteger();
+        var testSubject = Deadline.unbounded();
+        testSubject.onCancel(calls::incrementAndGet);
+
+        testSubject.cancel();
+        testSubject.cancel();
+
+        assertEquals(1, calls.get());
+        assertTrue(testSubject.isExpired());
+    }
+
+    @Test
+    @DisplayName("not run the callbacks which registration has been closed")
+    void shouldNotRunTheCallbacksWhichRegistrationHasBeenClosed() {
+        var calls = new AtomicInteger();
+        var testSubject = Deadline.unbounded();
+        try (var ignored = testSubject.onCancel(calls::incrementAndGet)) {
+            assertEquals(0, calls.get());
+        }
+
+        testSubject.cancel();
+
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    @DisplayName("run the callbacks registered after being cancelled right away")
+    void shouldRunTheCallbacksRegisteredAfterBeingCancelledRightAway() {
+        var calls = new AtomicInteger();
+        var testSubject = Deadline.unbounded();
+        testSubject.cancel();
+
+        testSubject.onCancel(calls::incrementAndGet);
+
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("cancel its children but not its parent")
+    void shouldCancelItsChildrenButNotItsParent() {
+        var parent = Deadline.after(Duration.ofSeconds(10));
+        var cancelledChild = parent.child();
+        var grandChild = cancelledChild.child();
+        var otherChild = parent.child();
+
+        cancelledChild.cancel();
+
+        assertTrue(cancelledChild.isExpired());
+        assertTrue(grandChild.isExpired());
+        assertFalse(otherChild.isExpired());
+        assertFalse(parent.isExpired());
+
+        parent.cancel();
+        assertTrue(otherChild.isExpired());
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("a micro batcher should")
+class MicroBatcherTest {
+
+    @Test
+    @DisplayName("resolve the keys submitted during the window with one call to the loader")
+    void shouldResolveTheKeysSubmittedDuringTheWindowWithOneCallToTheLoader() {
+        var loadedBatches = new CopyOnWriteArrayList<Set<Integer>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = new MicroBatcher<Integer, String>(
+                    Duration.ofMillis(200),
+                    100,
+                    keys -> {
+                        loadedBatches.add(keys);
+                        return keys.stream().collect(Collectors.toMap(Function.identity(), String::valueOf));
+                    },
+                    executor
+            );
+
+            var first = testSubject.submit(1);
+            var second = testSubject.submit(2);
+            var third = testSubject.submit(3);
+
+            assertEquals("1", first.join());
+            assertEquals("2", second.join());
+            assertEquals("3", third.join());
+        }
+        assertEquals(List.of(Set.of(1, 2, 3)), loadedBatches);
+    }
+
+    @Test
+    @DisplayName("dispatch the batch without waiting the window when it reaches the maximum size")
+    void shouldDispatchTheBatchWithoutWaitingTheWindowWhenItReachesTheMaximumSize() {
+        var loadedBatches = new CopyOnWriteArrayList<Set<Integer>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = new MicroBatcher<Integer, Integer>(
+                    Duration.ofHours(1),
+                    2,
+                    keys -> {
+                        loadedBatches.add(keys);
+                        return keys.stream().collect(Collectors.toMap(Function.identity(), it -> it * 10));
+                    },
+                    executor
+            );
+
+            var first = testSubject.submit(1);
+            var second = testSubject.submit(2);
+
+            assertEquals(10, first.join());
+            assertEquals(20, second.join());
+        }
+        assertEquals(List.of(Set.of(1, 2)), loadedBatches);
+    }
+
+    @Test
+    @DisplayName("load only once the keys submitted several times in the same batch")
+    void shouldLoadOnlyOnceTheKeysSubmittedSeveralTimesInTheSameBatch() {
+        var loadedBatches = new CopyOnWriteArrayList<Set<Integer>>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = new MicroBatcher<Integer, String>(
+                    Duration.ofHours(1),
+                    2,
+                    keys -> {
+                        loadedBatches.add(keys);
+                        return keys.stream().collect(Collectors.toMap(Function.identity(), String::valueOf));
+                    },
+                    executor
+            );
+
+            var first = testSubject.submit(1);
+            var repeated = testSubject.submit(1);
+            var second = testSubject.submit(2);
+
+            assertEquals("1", first.join());
+            assertEquals("1", repeated.join());
+            assertEquals("2", second.join());
+        }
+        assertEquals(List.of(Set.of(1, 2)), loadedBatches);
+    }
+
+    @Test
+    @DisplayName("complete with null the keys that the loader did not resolve")
+    void shouldCompleteWithNullTheKeysThatTheLoaderDidNotResolve() {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = new MicroBatcher<Integer, String>(
+                    Duration.ofMillis(1),
+                    10,
+                    keys -> Map.of(),
+                    executor
+            );
+
+            assertNull(testSubject.submit(1).join());
+        }
+    }
+
+    @Test
+    @DisplayName("fail every caller of the batch when the loader fails")
+    void shouldFailEveryCallerOfTheBatchWhenTheLoaderFails() {
+        var expectedException = new IllegalStateException("test failure");
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = new MicroBatcher<Integer, String>(
+                    Duration.ofHours(1),
+                    2,
+                    keys -> {
+                        throw expectedException;
+                    },
+                    executor
+            );
+
+            var first = testSubject.submit(1);
+            var second = testSubject.submit(2);
+
+            assertSame(expectedException, assertThrows(CompletionException.class, first::join).getCause());
+            assertSame(expectedException, assertThrows(CompletionException.class, second::join).getCause());
+        }
+    }
+
+    @Test
+    @DisplayName("not allow to create a batcher with invalid settings")
+    void shouldNotAllowToCreateABatcherWithInvalidSettings() {
+        Function<Set<Integer>, Map<Integer, String>> loader = keys -> Map.of();
+        var executor = (java.util.concurrent.Executor) Runnable::run;
+        assertThrows(IllegalArgumentException.class, () -> new MicroBatcher<>(Duration.ZERO, 1, loader, executor));
+        assertThrows(IllegalArgumentException.class, () -> new MicroBatcher<>(Duration.ofMillis(1), 0, loader, executor));
+    }
+}
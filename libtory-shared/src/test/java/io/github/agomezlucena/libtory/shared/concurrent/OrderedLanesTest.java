@@ -0,0 +1,125 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ordered lanes should")
+class OrderedLanesTest {
+
+    @Test
+    @DisplayName("run the tasks with the same key in the order they were submitted")
+    void shouldRunTheTasksWithTheSameKeyInTheOrderTheyWereSubmitted() {
+        var amountOfTasks = 500;
+        var runTasks = Collections.synchronizedList(new ArrayList<Integer>());
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = new OrderedLanes(4, executor);
+            var results = IntStream.range(0, amountOfTasks)
+                    .mapToObj(it -> testSubject.submit("9781914602108", () -> runTasks.add(it)))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(results).join();
+        }
+
+        assertEquals(IntStream.range(0, amountOfTasks).boxed().toList(), runTasks);
+    }
+
+    @Test
+    @DisplayName("run the tasks of different lanes in parallel")
+    void shouldRunTheTasksOfDifferentLanesInParallel() throws Exception {
+        var blockedLane = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = new OrderedLanes(2, executor);
+            var blocked = testSubject.submit(0, () -> await(blockedLane));
+            var other = testSubject.submit(1, () -> "done");
+
+            assertEquals("done", other.get(10, TimeUnit.SECONDS));
+            assertFalse(blocked.isDone());
+            blockedLane.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("keep running the tasks of a lane after one of them fails")
+    void shouldKeepRunningTheTasksOfALaneAfterOneOfThemFails() throws Exception {
+        var expectedException = new IllegalStateException("test failure");
+        var testSubject = new OrderedLanes(1, Runnable::run);
+
+        var failed = testSubject.submit("key", () -> {
+            throw expectedException;
+        });
+        var next = testSubject.submit("key", () -> "done");
+
+        assertSame(expectedException, assertThrows(ExecutionException.class, failed::get).getCause());
+        assertEquals("done", next.get());
+    }
+
+    @Test
+    @DisplayName("not run the next task of a lane before a cancelled one has finished")
+    void shouldNotRunTheNextTaskOfALaneBeforeACancelledOneHasFinished() throws Exception {
+        var release = new CountDownLatch(1);
+        var runTasks = Collections.synchronizedList(new ArrayList<String>());
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = new OrderedLanes(1, executor);
+            var cancelled = testSubject.submit("key", () -> {
+                await(release);
+                return runTasks.add("cancelled");
+            });
+            var next = testSubject.submit("key", () -> runTasks.add("next"));
+
+            cancelled.cancel(true);
+            Thread.sleep(50);
+            assertFalse(next.isDone());
+            release.countDown();
+            next.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(List.of("cancelled", "next"), runTasks);
+    }
+
+    @Test
+    @DisplayName("hold only the lane of the given key while the action runs")
+    void shouldHoldOnlyTheLaneOfTheGivenKeyWhileTheActionRuns() throws Exception {
+        var runTasks = Collections.synchronizedList(new ArrayList<String>());
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = new OrderedLanes(2, Runnable::run);
+            var sameLane = testSubject.withLaneOf(0, () -> {
+                testSubject.submit(0, () -> runTasks.add("own"));
+                var otherLane = executor.submit(() -> testSubject.submit(1, () -> runTasks.add("other lane")).join());
+                var waiting = executor.submit(() -> testSubject.submit(0, () -> runTasks.add("same lane")).join());
+                assertDoesNotThrow(() -> otherLane.get(10, TimeUnit.SECONDS));
+                assertThrows(TimeoutException.class, () -> waiting.get(50, TimeUnit.MILLISECONDS));
+                return waiting;
+            });
+
+            sameLane.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(List.of("own", "other lane", "same lane"), runTasks);
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await();
+            return "released";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
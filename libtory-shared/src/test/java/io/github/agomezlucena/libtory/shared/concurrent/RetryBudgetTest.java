@@ -0,0 +1,48 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("a retry budget should")
+class RetryBudgetTest {
+
+    @Test
+    @DisplayName("allow as many retries as its max balance before any execution")
+    void shouldAllowAsManyRetriesAsItsMaxBalanceBeforeAnyExecution() {
+        var testSubject = new RetryBudget(0.1, 2);
+
+        assertTrue(testSubject.tryWithdraw());
+        assertTrue(testSubject.tryWithdraw());
+        assertFalse(testSubject.tryWithdraw());
+    }
+
+    @Test
+    @DisplayName("allow a retry for every executions given by its retry ratio")
+    void shouldAllowARetryForEveryExecutionsGivenByItsRetryRatio() {
+        var testSubject = new RetryBudget(0.1, 2);
+        while (testSubject.tryWithdraw()) {
+            // spends the initial balance.
+        }
+
+        IntStream.range(0, 9).forEach(it -> testSubject.deposit());
+        assertFalse(testSubject.tryWithdraw());
+
+        testSubject.deposit();
+        assertTrue(testSubject.tryWithdraw());
+        assertFalse(testSubject.tryWithdraw());
+    }
+
+    @Test
+    @DisplayName("never save more retries than its max balance")
+    void shouldNeverSaveMoreRetriesThanItsMaxBalance() {
+        var testSubject = new RetryBudget(1, 2);
+
+        IntStream.range(0, 10).forEach(it -> testSubject.deposit());
+
+        assertEquals(2, testSubject.getBalance());
+    }
+}
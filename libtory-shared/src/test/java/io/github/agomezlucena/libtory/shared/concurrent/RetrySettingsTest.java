@@ -0,0 +1,34 @@
+package io.github.agomezlucena.libtory.shared.concurrent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("the retry settings should")
+class RetrySettingsTest {
+
+    @Test
+    @DisplayName("wait at most the exponential backoff of the attempt before retrying it")
+    void shouldWaitAtMostTheExponentialBackoffOfTheAttemptBeforeRetryingIt() {
+        var settings = new RetrySettings(10, Duration.ofMillis(10), Duration.ofMillis(50));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(settings.backoff(1).compareTo(Duration.ofMillis(10)) <= 0);
+            assertTrue(settings.backoff(2).compareTo(Duration.ofMillis(20)) <= 0);
+            assertTrue(settings.backoff(64).compareTo(Duration.ofMillis(50)) <= 0);
+            assertFalse(settings.backoff(3).isNegative());
+        }
+    }
+
+    @Test
+    @DisplayName("not allow a max backoff shorter than the initial one")
+    void shouldNotAllowAMaxBackoffShorterThanTheInitialOne() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new RetrySettings(3, Duration.ofMillis(10), Duration.ofMillis(5))
+        );
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("a batching query handler should")
+class BatchingQueryHandlerTest {
+
+    @Test
+    @DisplayName("resolve concurrent queries with one call to the batch handler")
+    void shouldResolveConcurrentQueriesWithOneCallToTheBatchHandler() throws Exception {
+        TestBatchQueryHandler batchHandler = mock();
+        when(batchHandler.handleAll(any())).thenReturn(Map.of(1, "one", 2, "two"));
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = new BatchingQueryHandler<>(batchHandler, Duration.ofHours(1), 2, executor);
+            var first = executor.submit(() -> testSubject.handle(new TestQuery(1)));
+            var second = executor.submit(() -> testSubject.handle(new TestQuery(2)));
+
+            assertEquals("one", first.get());
+            assertEquals("two", second.get());
+        }
+        verify(batchHandler).handleAll(Set.of(1, 2));
+        verify(batchHandler, never()).handle(any());
+    }
+
+    @Test
+    @DisplayName("throw the exception of the batch handler to the caller")
+    void shouldThrowTheExceptionOfTheBatchHandlerToTheCaller() {
+        var expectedException = new CqrsError("test failure");
+        TestBatchQueryHandler batchHandler = mock();
+        when(batchHandler.handleAll(any())).thenThrow(expectedException);
+
+        var testSubject = new BatchingQueryHandler<>(batchHandler, Duration.ofHours(1), 1, Runnable::run);
+
+        assertSame(expectedException, assertThrows(CqrsError.class, () -> testSubject.handle(new TestQuery(1))));
+    }
+
+    @Test
+    @DisplayName("return a future that is completed when the batch of the query is resolved")
+    void shouldReturnAFutureThatIsCompletedWhenTheBatchOfTheQueryIsResolved() throws Exception {
+        TestBatchQueryHandler batchHandler = mock();
+        when(batchHandler.handleAll(any())).thenReturn(Map.of(1, "one", 2, "two"));
+
+        var testSubject = new BatchingQueryHandler<>(batchHandler, Duration.ofHours(1), 2, Runnable::run);
+        var first = testSubject.handleAsync(new TestQuery(1));
+
+        assertFalse(first.isDone());
+        var second = testSubject.handleAsync(new TestQuery(2));
+
+        assertEquals("one", first.get());
+        assertEquals("two", second.get());
+    }
+
+    private record TestQuery(int id) implements SingletonQuery<String, Integer> {
+        @Override
+        public Integer getDiscriminatorValue() {
+            return id;
+        }
+    }
+
+    private interface TestBatchQueryHandler extends BatchQueryHandler<TestQuery, Integer, String> {
+    }
+}
@@ -1,9 +1,26 @@
 package io.github.agomezlucena.libtory.shared.cqrs;
 
+import io.github.agomezlucena.libtory.shared.concurrent.AdaptiveLimitSettings;
+import io.github.agomezlucena.libtory.shared.cqrs.interceptors.AdmissionControlInterceptor;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.stream.IntStream;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.*;
 
 @DisplayName("A command bus should")
@@ -51,7 +68,319 @@ class CommandBusTest {
         verify(mockedHandler).canHandle(FakeCommand.class);
     }
 
+    @Test
+    @DisplayName("handle the commands with the same aggregate key in the order they were sent")
+    void shouldHandleTheCommandsWithTheSameAggregateKeyInTheOrderTheyWereSent() {
+        var handledCommands = Collections.synchronizedList(new ArrayList<Integer>());
+        // an anonymous class keeps the generic type of the command, so the handler is able to tell what it handles.
+        var handler = new CommandHandler<FakeAggregateCommand>() {
+            @Override
+            public void handleCommand(FakeAggregateCommand command) {
+                handledCommands.add(command.sequence());
+            }
+        };
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = CommandBus.getNewCommandBus(4, executor);
+            testSubject.addHandler(FakeAggregateCommand.class, handler)
+                    .routeBy(FakeAggregateCommand.class, FakeAggregateCommand::aggregateId);
+
+            var results = IntStream.range(0, 200)
+                    .mapToObj(it -> testSubject.sendCommandAsync(new FakeAggregateCommand("aggregate", it)))
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(results).join();
+        }
+
+        assertEquals(IntStream.range(0, 200).boxed().toList(), handledCommands);
+    }
+
+    @Test
+    @DisplayName("run every asynchronous command of the default executor in its own numbered thread")
+    void shouldRunEveryAsynchronousCommandOfTheDefaultExecutorInItsOwnNumberedThread() {
+        var threadNames = Collections.synchronizedList(new ArrayList<String>());
+        var testSubject = CommandBus.getNewCommandBus()
+                .addHandler(FakeCommand.class, new CommandHandler<FakeCommand>() {
+                    @Override
+                    public void handleCommand(FakeCommand command) {
+                        threadNames.add(Thread.currentThread().getName());
+                    }
+                });
+
+        testSubject.sendCommandAsync(new FakeCommand()).join();
+        testSubject.sendCommandAsync(new FakeCommand()).join();
+
+        assertEquals(2, threadNames.size());
+        assertTrue(threadNames.stream().allMatch(it -> it.startsWith("command-bus-")));
+        assertNotEquals(threadNames.get(0), threadNames.get(1));
+    }
+
+    @Test
+    @DisplayName("complete the future exceptionally when the handler of an asynchronous command fails")
+    void shouldCompleteTheFutureExceptionallyWhenTheHandlerOfAnAsynchronousCommandFails() {
+        var expectedException = new CqrsError("test failure");
+        var handler = new CommandHandler<FakeAggregateCommand>() {
+            @Override
+            public void handleCommand(FakeAggregateCommand command) {
+                throw expectedException;
+            }
+        };
+        var testSubject = CommandBus.getNewCommandBus(1, Runnable::run)
+                .addHandler(FakeAggregateCommand.class, handler);
+
+        var result = testSubject.sendCommandAsync(new FakeAggregateCommand("aggregate", 0));
+
+        assertSame(expectedException, assertThrows(ExecutionException.class, result::get).getCause());
+    }
+
+    @Test
+    @DisplayName("complete the future exceptionally when there is no handler for an asynchronous command")
+    void shouldCompleteTheFutureExceptionallyWhenThereIsNoHandlerForAnAsynchronousCommand() {
+        var testSubject = CommandBus.getNewCommandBus(1, Runnable::run);
+
+        var result = testSubject.sendCommandAsync(1);
+
+        assertInstanceOf(CqrsError.class, assertThrows(ExecutionException.class, result::get).getCause());
+    }
+
+    @Test
+    @DisplayName("merge the commands sent to an aggregate while the previous one is waiting in its lane")
+    void shouldMergeTheCommandsSentToAnAggregateWhileThePreviousOneIsWaitingInItsLane() throws Exception {
+        var handledCommands = Collections.synchronizedList(new ArrayList<Object>());
+        var released = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = coalescingBus(executor, handledCommands, released);
+
+            var blocking = testSubject.sendCommandAsync(new FakeBlockingCommand("aggregate"));
+            var results = IntStream.range(0, 3)
+                    .mapToObj(it -> testSubject.sendCommandAsync(new FakeAggregateCommand("aggregate", it)))
+                    .toArray(CompletableFuture[]::new);
+            released.countDown();
+            CompletableFuture.allOf(Stream.concat(Stream.of(blocking), Stream.of(results))
+                    .toArray(CompletableFuture[]::new)).get();
+
+            assertEquals(2, testSubject.getCoalescedCommands(FakeAggregateCommand.class));
+        }
+        assertEquals(
+                List.of(new FakeBlockingCommand("aggregate"), new FakeMergedCommand("aggregate", List.of(0, 1, 2))),
+                handledCommands
+        );
+    }
+
+    @Test
+    @DisplayName("handle the merged commands one by one when the command they were merged into fails")
+    void shouldHandleTheMergedCommandsOneByOneWhenTheCommandTheyWereMergedIntoFails() throws Exception {
+        var handledCommands = Collections.synchronizedList(new ArrayList<Object>());
+        var released = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = coalescingBus(executor, handledCommands, released);
+
+            var blocking = testSubject.sendCommandAsync(new FakeBlockingCommand("aggregate"));
+            var first = testSubject.sendCommandAsync(new FakeAggregateCommand("aggregate", 0));
+            var invalid = testSubject.sendCommandAsync(new FakeAggregateCommand("aggregate", -1));
+            var last = testSubject.sendCommandAsync(new FakeAggregateCommand("aggregate", 2));
+            released.countDown();
+            blocking.get();
+
+            assertNull(first.get());
+            assertInstanceOf(CqrsError.class, assertThrows(ExecutionException.class, invalid::get).getCause());
+            assertNull(last.get());
+            assertEquals(2, testSubject.getCoalescedCommands(FakeAggregateCommand.class));
+        }
+        assertEquals(
+                List.of(
+                        new FakeBlockingCommand("aggregate"),
+                        new FakeAggregateCommand("aggregate", 0),
+                        new FakeAggregateCommand("aggregate", 2)
+                ),
+                handledCommands
+        );
+    }
+
+    @Test
+    @DisplayName("not merge the commands sent to an aggregate before and after a command of another type")
+    void shouldNotMergeTheCommandsSentToAnAggregateBeforeAndAfterACommandOfAnotherType() throws Exception {
+        var handledCommands = Collections.synchronizedList(new ArrayList<Object>());
+        var released = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var testSubject = coalescingBus(executor, handledCommands, released);
+
+            var results = Stream.of(
+                    new FakeBlockingCommand("aggregate"),
+                    new FakeAggregateCommand("aggregate", 0),
+                    new FakeBlockingCommand("aggregate"),
+                    new FakeAggregateCommand("aggregate", 1)
+            ).map(testSubject::sendCommandAsync).toArray(CompletableFuture[]::new);
+            released.countDown();
+            CompletableFuture.allOf(results).get();
+
+            assertEquals(0, testSubject.getCoalescedCommands(FakeAggregateCommand.class));
+        }
+        assertEquals(
+                List.of(
+                        new FakeBlockingCommand("aggregate"),
+                        new FakeAggregateCommand("aggregate", 0),
+                        new FakeBlockingCommand("aggregate"),
+                        new FakeAggregateCommand("aggregate", 1)
+                ),
+                handledCommands
+        );
+    }
+
+    @Test
+    @DisplayName("reject the asynchronous commands in the sending thread before they wait in their lane")
+    void shouldRejectTheAsynchronousCommandsInTheSendingThreadBeforeTheyWaitInTheirLane() {
+        var queuedTasks = new ArrayList<Runnable>();
+        CommandHandler<FakeCommand> mockedHandler = mock();
+        when(mockedHandler.canHandle(FakeCommand.class)).thenReturn(true);
+        var oneAtATime = new AdaptiveLimitSettings(1, 1, 1, Duration.ofHours(1), 0.5, 0, Duration.ZERO);
+        var testSubject = CommandBus.getNewCommandBus(1, queuedTasks::add)
+                .addSendInterceptor(new AdmissionControlInterceptor(oneAtATime, Duration.ofSeconds(1), it -> false))
+                .addHandler(FakeCommand.class, mockedHandler);
+
+        var admitted = testSubject.sendCommandAsync(new FakeCommand());
+        var rejected = testSubject.sendCommandAsync(new FakeCommand());
+
+        assertInstanceOf(BusOverloaded.class, rejected.exceptionNow());
+        assertEquals(1, queuedTasks.size());
+        queuedTasks.removeFirst().run();
+        assertNull(admitted.join());
+        testSubject.sendCommandAsync(new FakeCommand());
+        assertEquals(1, queuedTasks.size());
+        verify(mockedHandler, times(1)).handleCommand(any());
+    }
+
+    @Test
+    @DisplayName("keep its handlers apart from the handlers of other buses")
+    void shouldKeepItsHandlersApartFromTheHandlersOfOtherBuses() {
+        CommandHandler<FakeCommand> mockedHandler = mock();
+        when(mockedHandler.canHandle(FakeCommand.class)).thenReturn(true);
+        CommandBus.getNewCommandBus().addHandler(FakeCommand.class, mockedHandler);
+
+        var testSubject = CommandBus.getNewCommandBus();
+
+        assertThrows(CqrsError.class, () -> testSubject.sendCommand(new FakeCommand()));
+        verify(mockedHandler, never()).handleCommand(any());
+    }
+
+    @Test
+    @DisplayName("not allow to add handlers once it has been frozen")
+    void shouldNotAllowToAddHandlersOnceItHasBeenFrozen() {
+        CommandHandler<FakeCommand> mockedHandler = mock();
+        when(mockedHandler.canHandle(FakeCommand.class)).thenReturn(true);
+        var testSubject = CommandBus.getNewCommandBus().freeze();
+
+        var obtainedException = assertThrows(
+                CqrsError.class,
+                () -> testSubject.addHandler(FakeCommand.class, mockedHandler)
+        );
+        assertEquals("the bus can not be modified once it has been frozen", obtainedException.getMessage());
+    }
+
+    @Test
+    @DisplayName("send the command to the handler of its closest supertype")
+    void shouldSendTheCommandToTheHandlerOfItsClosestSupertype() {
+        CommandHandler<FakeMarkerCommand> mockedHandler = mock();
+        when(mockedHandler.canHandle(FakeMarkerCommand.class)).thenReturn(true);
+        var testSubject = CommandBus.getNewCommandBus().addHandler(FakeMarkerCommand.class, mockedHandler);
+        var givenCommand = new FakeMarkedCommand();
+
+        testSubject.sendCommand(givenCommand);
+
+        verify(mockedHandler).handleCommand(givenCommand);
+    }
+
+    @Test
+    @DisplayName("notify its interceptors when a command fails")
+    void shouldNotifyItsInterceptorsWhenACommandFails() {
+        var expectedException = new CqrsError("test failure");
+        CommandHandler<FakeCommand> mockedHandler = mock();
+        when(mockedHandler.canHandle(FakeCommand.class)).thenReturn(true);
+        doThrow(expectedException).when(mockedHandler).handleCommand(any());
+        BusInterceptor mockedInterceptor = mock();
+        when(mockedInterceptor.around(any())).thenCallRealMethod();
+        var testSubject = CommandBus.getNewCommandBus()
+                .addHandler(FakeCommand.class, mockedHandler)
+                .addInterceptor(mockedInterceptor);
+
+        assertThrows(CqrsError.class, () -> testSubject.sendCommand(new FakeCommand()));
+
+        verify(mockedInterceptor).before(any());
+        verify(mockedInterceptor).after(any(), isNull(), same(expectedException));
+    }
+
+    private static CommandBus coalescingBus(
+            Executor executor,
+            List<Object> handledCommands,
+            CountDownLatch released
+    ) {
+        return CommandBus.getNewCommandBus(1, executor)
+                .addHandler(FakeBlockingCommand.class, new CommandHandler<FakeBlockingCommand>() {
+                    @Override
+                    public void handleCommand(FakeBlockingCommand command) {
+                        try {
+                            released.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        handledCommands.add(command);
+                    }
+                })
+                .addHandler(FakeAggregateCommand.class, new CommandHandler<FakeAggregateCommand>() {
+                    @Override
+                    public void handleCommand(FakeAggregateCommand command) {
+                        if (command.sequence() < 0) throw new CqrsError("invalid sequence");
+                        handledCommands.add(command);
+                    }
+                })
+                .addHandler(FakeMergedCommand.class, new CommandHandler<FakeMergedCommand>() {
+                    @Override
+                    public void handleCommand(FakeMergedCommand command) {
+                        if (command.sequences().stream().anyMatch(it -> it < 0)) {
+                            throw new CqrsError("invalid sequence");
+                        }
+                        handledCommands.add(command);
+                    }
+                })
+                .routeBy(FakeBlockingCommand.class, FakeBlockingCommand::aggregateId)
+                .routeBy(FakeAggregateCommand.class, FakeAggregateCommand::aggregateId)
+                .routeBy(FakeMergedCommand.class, FakeMergedCommand::aggregateId)
+                .enableCoalescing(
+                        FakeAggregateCommand.class,
+                        new CommandCoalescer<FakeAggregateCommand, FakeMergedCommand>() {
+                            @Override
+                            public FakeMergedCommand open(FakeAggregateCommand command) {
+                                return new FakeMergedCommand(command.aggregateId(), List.of(command.sequence()));
+                            }
+
+                            @Override
+                            public FakeMergedCommand merge(FakeMergedCommand pending, FakeAggregateCommand command) {
+                                var sequences = new ArrayList<>(pending.sequences());
+                                sequences.add(command.sequence());
+                                return new FakeMergedCommand(pending.aggregateId(), List.copyOf(sequences));
+                            }
+                        }
+                );
+    }
+
+    private interface FakeMarkerCommand {
+    }
+
+    private record FakeMarkedCommand() implements FakeMarkerCommand {
+    }
+
     private record FakeCommand(){
 
     }
+
+    private record FakeAggregateCommand(String aggregateId, int sequence) {
+    }
+
+    private record FakeBlockingCommand(String aggregateId) {
+    }
+
+    private record FakeMergedCommand(String aggregateId, List<Integer> sequences) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("a dispatch table should")
+class DispatchTableTest {
+
+    @Test
+    @DisplayName("resolve the entry registered for the exact type")
+    void shouldResolveTheEntryRegisteredForTheExactType() {
+        var testSubject = new DispatchTable<>(Map.of(Base.class, "base", Child.class, "child"));
+        assertEquals("child", testSubject.get(Child.class));
+    }
+
+    @Test
+    @DisplayName("resolve the entry of the closest superclass when the type is not registered")
+    void shouldResolveTheEntryOfTheClosestSuperclassWhenTheTypeIsNotRegistered() {
+        var testSubject = new DispatchTable<>(Map.of(Base.class, "base", Marker.class, "marker"));
+        assertEquals("base", testSubject.get(GrandChild.class));
+    }
+
+    @Test
+    @DisplayName("resolve the entry of an interface when no superclass is registered")
+    void shouldResolveTheEntryOfAnInterfaceWhenNoSuperclassIsRegistered() {
+        var testSubject = new DispatchTable<>(Map.of(Marker.class, "marker"));
+        assertEquals("marker", testSubject.get(GrandChild.class));
+        assertEquals("marker", testSubject.get(OtherMarker.class));
+    }
+
+    @Test
+    @DisplayName("return null when neither the type nor its supertypes are registered")
+    void shouldReturnNullWhenNeitherTheTypeNorItsSupertypesAreRegistered() {
+        var testSubject = new DispatchTable<>(Map.of(Base.class, "base"));
+        assertNull(testSubject.get(String.class));
+    }
+
+    @Test
+    @DisplayName("not be affected by later changes of the given entries")
+    void shouldNotBeAffectedByLaterChangesOfTheGivenEntries() {
+        var givenEntries = new HashMap<Class<?>, String>(Map.of(Base.class, "base"));
+        var testSubject = new DispatchTable<>(givenEntries);
+
+        givenEntries.put(Child.class, "child");
+
+        assertEquals("base", testSubject.get(Child.class));
+    }
+
+    private interface Marker {
+    }
+
+    private interface OtherMarker extends Marker {
+    }
+
+    private static class Base {
+    }
+
+    private static class Child extends Base {
+    }
+
+    private static class GrandChild extends Child implements OtherMarker {
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.agomezlucena.libtory.shared.cqrs;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("a group commit command handler should")
+class GroupCommitCommandHandlerTest {
+
+    @Test
+    @DisplayName("handle concurrent commands with one call to the batch handler")
+    void shouldHandleConcurrentCommandsWithOneCallToTheBatchHandler() throws Exception {
+        var batchHandler = new RecordingBatchHandler(commands -> Map.of());
+        var testSubject = new GroupCommitCommandHandler<>(batchHandler, Duration.ofHours(1), 2);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(() -> testSubject.handleCommand(1));
+            var second = executor.submit(() -> testSubject.handleCommand(2));
+
+            first.get();
+            second.get();
+        }
+        assertEquals(1, batchHandler.batches.size());
+        assertEquals(List.of(1, 2), batchHandler.batches.getFirst().stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("handle a command alone once the window has passed without others")
+    void shouldHandleACommandAloneOnceTheWindowHasPassedWithoutOthers() {
+        var batchHandler = new RecordingBatchHandler(commands -> Map.of());
+        var testSubject = new GroupCommitCommandHandler<>(batchHandler, Duration.ofMillis(1), 64);
+
+        testSubject.handleCommand(1);
+        testSubject.handleCommand(2);
+
+        assertEquals(List.of(List.of(1), List.of(2)), batchHandler.batches);
+    }
+
+    @Test
+    @DisplayName("handle an announced command right away when no other command is on its way")
+    void shouldHandleAnAnnouncedCommandRightAwayWhenNoOtherCommandIsOnItsWay() throws Exception {
+        var batchHandler = new RecordingBatchHandler(commands -> Map.of());
+        var testSubject = new GroupCommitCommandHandler<>(batchHandler, Duration.ofHours(1), 16);
+        var commandBus = CommandBus.getNewCommandBus(16);
+        commandBus.addSendInterceptor(testSubject.announcer(commandBus)).addHandler(Integer.class, testSubject);
+
+        commandBus.sendCommandAsync(1).get(10, TimeUnit.SECONDS);
+
+        assertEquals(List.of(List.of(1)), batchHandler.batches);
+    }
+
+    @Test
+    @DisplayName("handle the commands announced together once all of them have reached it")
+    void shouldHandleTheCommandsAnnouncedTogetherOnceAllOfThemHaveReachedIt() throws Exception {
+        var batchHandler = new RecordingBatchHandler(commands -> Map.of());
+        var testSubject = new GroupCommitCommandHandler<>(batchHandler, Duration.ofHours(1), 4);
+        var queuedTasks = new ArrayList<Runnable>();
+        var commandBus = CommandBus.getNewCommandBus(4, queuedTasks::add);
+        commandBus.addSendInterceptor(testSubject.announcer(commandBus)).addHandler(Integer.class, testSubject);
+
+        var first = commandBus.sendCommandAsync(1);
+        var second = commandBus.sendCommandAsync(2);
+        assertEquals(2, queuedTasks.size());
+        queuedTasks.forEach(Thread::startVirtualThread);
+
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        assertEquals(1, batchHandler.batches.size());
+        assertEquals(List.of(1, 2), batchHandler.batches.getFirst().stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("handle its batch once the commands on their way wait behind it in their lanes")
+    void shouldHandleItsBatchOnceTheCommandsOnTheirWayWaitBehindItInTheirLanes() throws Exception {
+        var batchHandler = new RecordingBatchHandler(commands -> Map.of());
+        var testSubject = new GroupCommitCommandHandler<>(batchHandler, Duration.ofHours(1), 2);
+        var commandBus = CommandBus.getNewCommandBus(2, Thread::startVirtualThread);
+        commandBus.addSendInterceptor(testSubject.announcer(commandBus)).addHandler(Integer.class, testSubject);
+
+        // both commands wait in the same lane, the second one behind the first.
+        var first = commandBus.sendCommandAsync(1);
+        var second = commandBus.sendCommandAsync(3);
+
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of(1), List.of(3)), batchHandler.batches);
+    }
+
+    @Test
+    @DisplayName("reject a maximum batch size larger than the amount of lanes of its bus")
+    void shouldRejectAMaximumBatchSizeLargerThanTheAmountOfLanesOfItsBus() {
+        var testSubject = new GroupCommitCommandHandler<>(
+                new RecordingBatchHandler(commands -> Map.of()),
+                Duration.ofMillis(1),
+                3
+        );
+        var commandBus = CommandBus.getNewCommandBus(2, Runnable::run);
+
+        assertThrows(IllegalArgumentException.class, () -> testSubject.announcer(commandBus));
+    }
+
+    @Test
+    @DisplayName("throw to every caller only the failure of its own command")
+    void shouldThrowToEveryCallerOnlyTheFailureOfItsOwnCommand() throws Exception {
+        var expectedException = new IllegalArgumentException("invalid command");
+        var batchHandler = new RecordingBatchHandler(commands -> Map.of(2, expectedException));
+        var testSubject = new GroupCommitCommandHandler<>(batchHandler, Duration.ofHours(1), 2);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(() -> testSubject.handleCommand(1));
+            var second = executor.submit(() -> testSubject.handleCommand(2));
+
+            assertDoesNotThrow(() -> first.get());
+            var obtainedException = assertThrows(ExecutionException.class, second::get);
+            assertSame(expectedException, obtainedException.getCause());
+        }
+        assertEquals(1, batchHandler.batches.size());
+    }
+
+    @Test
+    @DisplayName("throw the failure of the whole batch to every caller")
+    void shouldThrowTheFailureOfTheWholeBatchToEveryCaller() {
+        var expectedException = new CqrsError("test failure");
+        var batchHandler = new RecordingBatchHandler(commands -> {
+            throw expectedException;
+        });
+        var testSubject = new GroupCommitCommandHandler<>(batchHandler, Duration.ofMillis(1), 1);
+
+        assertSame(expectedException, assertThrows(CqrsError.class, () -> testSubject.handleCommand(1)));
+    }
+
+    @Test
+    @DisplayName("handle the same commands that its batch handler")
+    void shouldHandleTheSameCommandsThatItsBatchHandler() {
+        var testSubject = new GroupCommitCommandHandler<>(
+                new RecordingBatchHandler(commands -> Map.of()),
+                Duration.ofMillis(1),
+                1
+        );
+
+        assertTrue(testSubject.canHandle(Integer.class));
+        assertFalse(testSubject.canHandle(String.class));
+    }
+
+    @Test
+    @DisplayName("reject invalid settings")
+    void shouldRejectInvalidSettings() {
+        var batchHandler = new RecordingBatchHandler(commands -> Map.of());
+
+        assertThrows(IllegalArgumentException.class, () -> new GroupCommitCommandHandler<>(batchHandler, Duration.ZERO, 1));
+        assertThrows(IllegalArgumentException.class, () -> new GroupCommitCommandHandler<>(batchHandler, Duration.ofMillis(1), 0));
+        assertThrows(NullPointerException.class, () -> new GroupCommitCommandHandler<>(null, Duration.ofMillis(1), 1));
+    }
+
+    private static final class RecordingBatchHandler implements BatchCommandHandler<Integer> {
+        private final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<>());
+        private final Function<List<Integer>, Map<Integer, RuntimeException>> outcome;
+
+        private RecordingBatchHandler(Function<List<Integer>, Map<Integer, RuntimeException>> outcome) {
+            this.outcome = outcome;
+        }
+
+        @Override
+        public void handleCommand(Integer command) {
+            throw new UnsupportedOperationException("commands should be handled in batches");
+        }
+
+        @Override
+        public Map<Integer, RuntimeException> handleAll(List<Integer> commands) {
+            batches.add(commands);
+            return outcome.apply(commands);
+        }
+    }
+}
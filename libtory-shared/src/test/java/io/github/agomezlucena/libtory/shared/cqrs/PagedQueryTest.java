@@ -86,12 +86,75 @@ class PagedQueryTest {
 
     }
 
+    @Test
+    @DisplayName("should throw an InvalidQuery when a cursor is given with a page different to the first one")
+    void shouldThrowAnInvalidQueryWhenACursorIsGivenWithAPageDifferentToTheFirstOne() {
+        var expectedMessage = "invalid paginated query page can not be defined when a cursor is given";
+        var obtainedException = assertThrows(
+                InvalidQuery.class,
+                () -> new TestPagedQuery(1, null, "title", null, "cursor")
+        );
+        assertEquals(expectedMessage, obtainedException.getMessage());
+    }
+
+    @Test
+    @DisplayName("should ignore the cursor when is blank")
+    void shouldIgnoreTheCursorWhenIsBlank() {
+        var testSubject = new TestPagedQuery(null, null, null, null, " ");
+        assertNull(testSubject.getCursor());
+    }
+
+    @Test
+    @DisplayName("should count the total amount exactly when total mode is not defined")
+    void shouldCountTheTotalAmountExactlyWhenTotalModeIsNotDefined() {
+        var testSubject = new TestPagedQuery(null, null, null, null);
+        assertEquals(TotalMode.EXACT, testSubject.getTotalMode());
+    }
+
+    @Test
+    @DisplayName("should obtain the total mode from its value ignoring the case")
+    void shouldObtainTheTotalModeFromItsValueIgnoringTheCase() {
+        assertEquals(TotalMode.ESTIMATED, TotalMode.fromValue("estimated"));
+        assertEquals(TotalMode.NONE, TotalMode.fromValue("NONE"));
+        assertEquals(TotalMode.EXACT, TotalMode.fromValue(null));
+    }
+
+    @Test
+    @DisplayName("should throw an InvalidQuery when the total mode does not exist")
+    void shouldThrowAnInvalidQueryWhenTheTotalModeDoesNotExist() {
+        var expectedMessage = "invalid paginated query total mode approximated is not valid";
+        var obtainedException = assertThrows(InvalidQuery.class, () -> TotalMode.fromValue("approximated"));
+        assertEquals(expectedMessage, obtainedException.getMessage());
+    }
+
+    @Test
+    @DisplayName("should be equal to another query of the same type with the same parameters")
+    void shouldBeEqualToAnotherQueryOfTheSameTypeWithTheSameParameters() {
+        var testSubject = new TestPagedQuery(1, 10, "title", "DESC");
+        var sameQuery = new TestPagedQuery(1, 10, "title", "DESC");
+        var anotherPage = new TestPagedQuery(2, 10, "title", "DESC");
+
+        assertEquals(sameQuery, testSubject);
+        assertEquals(sameQuery.hashCode(), testSubject.hashCode());
+        assertNotEquals(anotherPage, testSubject);
+    }
+
     public static class TestPagedQuery extends AbstractPagedQuery<Object> {
 
         public TestPagedQuery(Integer page, Integer size, String sortingField, String sortingDirection) {
             super(page, size, sortingField, sortingDirection);
         }
 
+        public TestPagedQuery(
+                Integer page,
+                Integer size,
+                String sortingField,
+                String sortingDirection,
+                String cursor
+        ) {
+            super(page, size, sortingField, sortingDirection, cursor);
+        }
+
         @Override
         public boolean sortingFieldIsInvalid(String sortingField) {
             return Objects.nonNull(sortingField) && !sortingField.equals("title");
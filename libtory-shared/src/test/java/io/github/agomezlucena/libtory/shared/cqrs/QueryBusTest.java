@@ -1,13 +1,29 @@
 package io.github.agomezlucena.libtory.shared.cqrs;
 
+import io.github.agomezlucena.libtory.shared.concurrent.Deadline;
+import io.github.agomezlucena.libtory.shared.concurrent.DeadlineExceeded;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 class QueryBusTest {
@@ -52,6 +68,394 @@ class QueryBusTest {
         assertEquals(expectedErrorMessage,obtainedException);
     }
 
+    @Test
+    @DisplayName("should share one execution between equal concurrent queries when coalescing is enabled")
+    void shouldShareOneExecutionBetweenEqualConcurrentQueriesWhenCoalescingIsEnabled() throws Exception {
+        var testSubject = new QueryBus();
+        var expectedValue = List.of(new TestEntity(1,"test"));
+        var concurrentCallers = 8;
+        var executions = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> {
+            executions.incrementAndGet();
+            await(release);
+            return expectedValue;
+        };
+        testSubject.addHandler(TestEntityPagedQuery.class, handler)
+                .enableCoalescing(TestEntityPagedQuery.class);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var results = IntStream.range(0, concurrentCallers)
+                    .mapToObj(it -> executor.submit(
+                            () -> testSubject.<TestEntity, List<TestEntity>>handle(new TestEntityPagedQuery(0,1,null,null))
+                    ))
+                    .toList();
+            while (testSubject.getCollapsedCalls(TestEntityPagedQuery.class) < concurrentCallers - 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (var result : results) {
+                assertSame(expectedValue, result.get());
+            }
+        }
+        assertEquals(1, executions.get());
+        assertEquals(concurrentCallers - 1, testSubject.getCollapsedCalls(TestEntityPagedQuery.class));
+    }
+
+    @Test
+    @DisplayName("should propagate the failure of a shared execution to every caller")
+    void shouldPropagateTheFailureOfASharedExecutionToEveryCaller() throws Exception {
+        var testSubject = new QueryBus();
+        var expectedException = new InvalidQuery("test failure");
+        var release = new CountDownLatch(1);
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> {
+            await(release);
+            throw expectedException;
+        };
+        testSubject.addHandler(TestEntityPagedQuery.class, handler)
+                .enableCoalescing(TestEntityPagedQuery.class);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(() -> testSubject.handle(new TestEntityPagedQuery(0,1,null,null)));
+            var second = executor.submit(() -> testSubject.handle(new TestEntityPagedQuery(0,1,null,null)));
+            while (testSubject.getCollapsedCalls(TestEntityPagedQuery.class) < 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertSame(expectedException, assertThrows(ExecutionException.class, first::get).getCause());
+            assertSame(expectedException, assertThrows(ExecutionException.class, second::get).getCause());
+        }
+    }
+
+    @Test
+    @DisplayName("should execute the handler again once the shared execution has finished")
+    void shouldExecuteTheHandlerAgainOnceTheSharedExecutionHasFinished() {
+        var testSubject = new QueryBus();
+        var executions = new AtomicInteger();
+        QueryHandler<TestEntityPagedQuery, Integer> handler = query -> executions.incrementAndGet();
+        testSubject.addHandler(TestEntityPagedQuery.class, handler)
+                .enableCoalescing(TestEntityPagedQuery.class);
+
+        assertEquals(1, (Integer) testSubject.handle(new TestEntityPagedQuery(0,1,null,null)));
+        assertEquals(2, (Integer) testSubject.handle(new TestEntityPagedQuery(0,1,null,null)));
+        assertEquals(0, testSubject.getCollapsedCalls(TestEntityPagedQuery.class));
+    }
+
+    @Test
+    @DisplayName("should not share executions of query types that have not enabled coalescing")
+    void shouldNotShareExecutionsOfQueryTypesThatHaveNotEnabledCoalescing() {
+        var testSubject = new QueryBus();
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> mockedHandler = mock();
+        testSubject.addHandler(TestEntityPagedQuery.class, mockedHandler);
+
+        testSubject.handle(new TestEntityPagedQuery(0,1,null,null));
+        testSubject.handle(new TestEntityPagedQuery(0,1,null,null));
+
+        verify(mockedHandler, times(2)).handle(any());
+        assertEquals(0, testSubject.getCollapsedCalls(TestEntityPagedQuery.class));
+    }
+
+    @Test
+    @DisplayName("should resolve a query asynchronously in the executor of its type")
+    void shouldResolveAQueryAsynchronouslyInTheExecutorOfItsType() throws Exception {
+        var expectedValue = List.of(new TestEntity(1,"test"));
+        Executor executor = mock();
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(executor).execute(any());
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> expectedValue;
+        var testSubject = new QueryBus()
+                .addHandler(TestEntityPagedQuery.class, handler)
+                .useExecutor(TestEntityPagedQuery.class, executor);
+
+        CompletableFuture<List<TestEntity>> obtainedValue = testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null));
+
+        assertSame(expectedValue, obtainedValue.get());
+        verify(executor).execute(any());
+    }
+
+    @Test
+    @DisplayName("should run every asynchronous query of the default executor in its own numbered thread")
+    void shouldRunEveryAsynchronousQueryOfTheDefaultExecutorInItsOwnNumberedThread() {
+        QueryHandler<TestEntityPagedQuery, String> handler = query -> Thread.currentThread().getName();
+        var testSubject = new QueryBus().addHandler(TestEntityPagedQuery.class, handler);
+
+        CompletableFuture<String> firstThread = testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null));
+        CompletableFuture<String> secondThread = testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null));
+
+        assertTrue(firstThread.join().startsWith("query-bus-"));
+        assertTrue(secondThread.join().startsWith("query-bus-"));
+        assertNotEquals(firstThread.join(), secondThread.join());
+    }
+
+    @Test
+    @DisplayName("should complete the future exceptionally when the handler fails")
+    void shouldCompleteTheFutureExceptionallyWhenTheHandlerFails() {
+        var expectedException = new InvalidQuery("test failure");
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> {
+            throw expectedException;
+        };
+        var testSubject = new QueryBus().addHandler(TestEntityPagedQuery.class, handler);
+
+        var obtainedValue = testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null));
+
+        assertSame(expectedException, assertThrows(ExecutionException.class, obtainedValue::get).getCause());
+    }
+
+    @Test
+    @DisplayName("should complete the future exceptionally when the query is not supported")
+    void shouldCompleteTheFutureExceptionallyWhenTheQueryIsNotSupported() {
+        var testSubject = new QueryBus();
+
+        var obtainedValue = testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null));
+
+        assertInstanceOf(CqrsError.class, assertThrows(ExecutionException.class, obtainedValue::get).getCause());
+    }
+
+    @Test
+    @DisplayName("should interrupt the handler when the future is cancelled")
+    void shouldInterruptTheHandlerWhenTheFutureIsCancelled() throws Exception {
+        var started = new CountDownLatch(1);
+        var interrupted = new CountDownLatch(1);
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of();
+        };
+        var testSubject = new QueryBus().addHandler(TestEntityPagedQuery.class, handler);
+
+        var obtainedValue = testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null));
+        started.await();
+        obtainedValue.cancel(true);
+
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("should not call the handler when the deadline of the caller has expired")
+    void shouldNotCallTheHandlerWhenTheDeadlineOfTheCallerHasExpired() {
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = mock();
+        var testSubject = new QueryBus().addHandler(TestEntityPagedQuery.class, handler);
+        var expiredDeadline = Deadline.after(Duration.ZERO);
+
+        assertThrows(
+                DeadlineExceeded.class,
+                () -> expiredDeadline.call(() -> testSubject.handle(new TestEntityPagedQuery(0,1,null,null)))
+        );
+        var obtainedValue = expiredDeadline.call(() -> testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null)));
+        assertInstanceOf(DeadlineExceeded.class, assertThrows(ExecutionException.class, obtainedValue::get).getCause());
+        verifyNoInteractions(handler);
+    }
+
+    @Test
+    @DisplayName("should propagate the deadline of the caller to the asynchronous handler")
+    void shouldPropagateTheDeadlineOfTheCallerToTheAsynchronousHandler() throws Exception {
+        var callerDeadline = Deadline.after(Duration.ofSeconds(10));
+        QueryHandler<TestEntityPagedQuery, Duration> handler = query -> Deadline.current().orElseThrow().remaining();
+        var testSubject = new QueryBus().addHandler(TestEntityPagedQuery.class, handler);
+
+        CompletableFuture<Duration> obtainedValue = callerDeadline.call(
+                () -> testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null))
+        );
+
+        var obtainedRemaining = obtainedValue.get(10, TimeUnit.SECONDS);
+        assertTrue(obtainedRemaining.compareTo(callerDeadline.remaining()) >= 0);
+        assertTrue(obtainedRemaining.compareTo(Duration.ofSeconds(10)) <= 0);
+    }
+
+    @Test
+    @DisplayName("should release the deadline of the asynchronous handler once the query is answered")
+    void shouldReleaseTheDeadlineOfTheAsynchronousHandlerOnceTheQueryIsAnswered() throws Exception {
+        var released = new CountDownLatch(1);
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> {
+            Deadline.current().orElseThrow().onCancel(released::countDown);
+            return List.of();
+        };
+        var testSubject = new QueryBus().addHandler(TestEntityPagedQuery.class, handler);
+
+        var obtainedValue = Deadline.after(Duration.ofMinutes(1)).call(
+                () -> testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null))
+        );
+
+        assertEquals(List.of(), obtainedValue.get(10, TimeUnit.SECONDS));
+        assertTrue(released.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("should complete the future with a DeadlineExceeded and cancel the handler when the deadline expires")
+    void shouldCompleteTheFutureWithADeadlineExceededAndCancelTheHandlerWhenTheDeadlineExpires() throws Exception {
+        var cancelled = new CountDownLatch(1);
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> {
+            Deadline.current().orElseThrow().onCancel(cancelled::countDown);
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of();
+        };
+        var testSubject = new QueryBus().addHandler(TestEntityPagedQuery.class, handler);
+
+        var obtainedValue = Deadline.after(Duration.ofMillis(100)).call(
+                () -> testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null))
+        );
+
+        var obtainedException = assertThrows(ExecutionException.class, () -> obtainedValue.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(DeadlineExceeded.class, obtainedException.getCause());
+        assertTrue(cancelled.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("should call directly to the handlers that are able to resolve the query asynchronously")
+    void shouldCallDirectlyToTheHandlersThatAreAbleToResolveTheQueryAsynchronously() {
+        var expectedValue = new CompletableFuture<List<TestEntity>>();
+        Executor executor = mock();
+        AsyncQueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> expectedValue;
+        var testSubject = new QueryBus(executor).addHandler(TestEntityPagedQuery.class, handler);
+
+        var obtainedValue = testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null));
+
+        assertSame(expectedValue, obtainedValue);
+        verifyNoInteractions(executor);
+    }
+
+    @Test
+    @DisplayName("should share one asynchronous execution between equal concurrent queries when coalescing is enabled")
+    void shouldShareOneAsynchronousExecutionBetweenEqualConcurrentQueriesWhenCoalescingIsEnabled() throws Exception {
+        var expectedValue = List.of(new TestEntity(1,"test"));
+        var execution = new CompletableFuture<List<TestEntity>>();
+        var executions = new AtomicInteger();
+        AsyncQueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> {
+            executions.incrementAndGet();
+            return execution;
+        };
+        var testSubject = new QueryBus()
+                .addHandler(TestEntityPagedQuery.class, handler)
+                .enableCoalescing(TestEntityPagedQuery.class);
+
+        CompletableFuture<List<TestEntity>> first = testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null));
+        CompletableFuture<List<TestEntity>> second = testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null));
+        second.cancel(true);
+        execution.complete(expectedValue);
+
+        assertSame(expectedValue, first.get());
+        assertEquals(1, executions.get());
+        assertEquals(1, testSubject.getCollapsedCalls(TestEntityPagedQuery.class));
+    }
+
+    @Test
+    @DisplayName("should not allow to add handlers once it has been frozen")
+    void shouldNotAllowToAddHandlersOnceItHasBeenFrozen() {
+        QueryHandler<PagedQuery<TestEntity>, List<TestEntity>> mockedHandler = mock();
+        var testSubject = new QueryBus().freeze();
+
+        var obtainedException = assertThrows(
+                CqrsError.class,
+                () -> testSubject.addHandler(TestEntityPagedQuery.class, mockedHandler)
+        );
+        assertEquals("the bus can not be modified once it has been frozen", obtainedException.getMessage());
+    }
+
+    @Test
+    @DisplayName("should be frozen after handling its first query")
+    void shouldBeFrozenAfterHandlingItsFirstQuery() {
+        QueryHandler<PagedQuery<TestEntity>, List<TestEntity>> mockedHandler = mock();
+        var testSubject = new QueryBus().addHandler(TestEntityPagedQuery.class, mockedHandler);
+
+        testSubject.handle(new TestEntityPagedQuery(0,1,null,null));
+
+        assertThrows(CqrsError.class, () -> testSubject.enableCoalescing(TestEntityPagedQuery.class));
+    }
+
+    @Test
+    @DisplayName("should call to the handler of the closest supertype of the query")
+    void shouldCallToTheHandlerOfTheClosestSupertypeOfTheQuery() {
+        var expectedValue = List.of(new TestEntity(1,"test"));
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> expectedValue;
+        var testSubject = new QueryBus().addHandler(TestEntityPagedQuery.class, handler);
+
+        var obtainedValue = testSubject.handle(new SortedTestEntityPagedQuery());
+
+        assertSame(expectedValue, obtainedValue);
+    }
+
+    @Test
+    @DisplayName("should call to the interceptors in the order they were added")
+    void shouldCallToTheInterceptorsInTheOrderTheyWereAdded() {
+        var calls = new ArrayList<String>();
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> {
+            calls.add("handler");
+            return List.of();
+        };
+        var testSubject = new QueryBus()
+                .addHandler(TestEntityPagedQuery.class, handler)
+                .addInterceptor(new RecordingInterceptor("first", calls))
+                .addInterceptor(new RecordingInterceptor("second", calls));
+
+        testSubject.handle(new TestEntityPagedQuery(0,1,null,null));
+
+        assertEquals(
+                List.of(
+                        "first before", "second before", "first around", "second around", "handler",
+                        "second after", "first after"
+                ),
+                calls
+        );
+    }
+
+    @Test
+    @DisplayName("should return the result of an interceptor that does not proceed with the dispatch")
+    void shouldReturnTheResultOfAnInterceptorThatDoesNotProceedWithTheDispatch() {
+        var expectedValue = List.of(new TestEntity(1,"test"));
+        QueryHandler<TestEntityPagedQuery, List<TestEntity>> mockedHandler = mock();
+        var testSubject = new QueryBus()
+                .addHandler(TestEntityPagedQuery.class, mockedHandler)
+                .addInterceptor(new BusInterceptor() {
+                    @Override
+                    public Object around(Dispatch dispatch) {
+                        return expectedValue;
+                    }
+                });
+
+        var obtainedValue = testSubject.handle(new TestEntityPagedQuery(0,1,null,null));
+
+        assertSame(expectedValue, obtainedValue);
+        verifyNoInteractions(mockedHandler);
+    }
+
+    @Test
+    @DisplayName("should notify the interceptors when an asynchronous handler completes")
+    void shouldNotifyTheInterceptorsWhenAnAsynchronousHandlerCompletes() {
+        var calls = new ArrayList<String>();
+        var execution = new CompletableFuture<List<TestEntity>>();
+        AsyncQueryHandler<TestEntityPagedQuery, List<TestEntity>> handler = query -> execution;
+        var testSubject = new QueryBus()
+                .addHandler(TestEntityPagedQuery.class, handler)
+                .addInterceptor(new RecordingInterceptor("interceptor", calls));
+
+        testSubject.handleAsync(new TestEntityPagedQuery(0,1,null,null));
+        assertEquals(List.of("interceptor before", "interceptor around"), calls);
+
+        execution.complete(List.of());
+        assertEquals(List.of("interceptor before", "interceptor around", "interceptor after"), calls);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
     private record TestEntity(int id, String name) {}
 
     private static class TestEntityPagedQuery extends AbstractPagedQuery<TestEntity> {
@@ -64,4 +468,28 @@ class QueryBusTest {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    private static class SortedTestEntityPagedQuery extends TestEntityPagedQuery {
+        public SortedTestEntityPagedQuery() {
+            super(0, 1, "name", "ASC");
+        }
+    }
+
+    private record RecordingInterceptor(String name, List<String> calls) implements BusInterceptor {
+        @Override
+        public void before(Dispatch dispatch) {
+            calls.add(name + " before");
+        }
+
+        @Override
+        public Object around(Dispatch dispatch) {
+            calls.add(name + " around");
+            return dispatch.proceed();
+        }
+
+        @Override
+        public void after(Dispatch dispatch, Object result, Throwable error) {
+            calls.add(name + " after");
+        }
+    }
+}
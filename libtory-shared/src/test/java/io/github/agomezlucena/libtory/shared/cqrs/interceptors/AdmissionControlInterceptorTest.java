@@ -0,0 +1,79 @@
+package io.github.agomezlucena.libtory.shared.cqrs.interceptors;
+
+import io.github.agomezlucena.libtory.shared.concurrent.AdaptiveLimitSettings;
+import io.github.agomezlucena.libtory.shared.cqrs.AsyncQueryHandler;
+import io.github.agomezlucena.libtory.shared.cqrs.BusOverloaded;
+import io.github.agomezlucena.libtory.shared.cqrs.Query;
+import io.github.agomezlucena.libtory.shared.cqrs.QueryBus;
+import io.github.agomezlucena.libtory.shared.cqrs.QueryHandler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("the admission control interceptor should")
+class AdmissionControlInterceptorTest {
+    private static final AdaptiveLimitSettings ONE_AT_A_TIME = new AdaptiveLimitSettings(
+            1, 1, 1, Duration.ofHours(1), 0.5, 0, Duration.ZERO
+    );
+
+    @Test
+    @DisplayName("reject the messages that exceed the limit of their type")
+    void shouldRejectTheMessagesThatExceedTheLimitOfTheirType() {
+        var execution = new CompletableFuture<String>();
+        AsyncQueryHandler<TestQuery, String> handler = query -> execution;
+        var expectedRetryAfter = Duration.ofSeconds(2);
+        var testSubject = new QueryBus()
+                .addHandler(TestQuery.class, handler)
+                .addInterceptor(new AdmissionControlInterceptor(ONE_AT_A_TIME, expectedRetryAfter, it -> false));
+
+        testSubject.handleAsync(new TestQuery());
+        var rejected = testSubject.<String, String>handleAsync(new TestQuery());
+
+        var obtainedException = assertInstanceOf(BusOverloaded.class, rejected.exceptionNow());
+        assertEquals(expectedRetryAfter, obtainedException.getRetryAfter());
+        assertEquals("the query bus can not admit more TestQuery now", obtainedException.getMessage());
+    }
+
+    @Test
+    @DisplayName("admit a new message once the previous asynchronous execution has completed")
+    void shouldAdmitANewMessageOnceThePreviousAsynchronousExecutionHasCompleted() {
+        var execution = new CompletableFuture<String>();
+        AsyncQueryHandler<TestQuery, String> handler = query -> execution;
+        var testSubject = new QueryBus()
+                .addHandler(TestQuery.class, handler)
+                .addInterceptor(new AdmissionControlInterceptor(ONE_AT_A_TIME, Duration.ofSeconds(1), it -> false));
+
+        testSubject.handleAsync(new TestQuery());
+        execution.complete("done");
+
+        assertEquals("done", testSubject.<String, String>handleAsync(new TestQuery()).join());
+    }
+
+    @Test
+    @DisplayName("decrease the limit of the type when the handler fails because of an overload")
+    void shouldDecreaseTheLimitOfTheTypeWhenTheHandlerFailsBecauseOfAnOverload() {
+        var settings = new AdaptiveLimitSettings(8, 1, 16, Duration.ofHours(1), 0.5, 0, Duration.ZERO);
+        var interceptor = new AdmissionControlInterceptor(
+                settings,
+                Duration.ofSeconds(1),
+                it -> it.getCause() instanceof TimeoutException
+        );
+        QueryHandler<TestQuery, String> handler = query -> {
+            throw new IllegalStateException(new TimeoutException());
+        };
+        var testSubject = new QueryBus().addHandler(TestQuery.class, handler).addInterceptor(interceptor);
+
+        assertThrows(IllegalStateException.class, () -> testSubject.handle(new TestQuery()));
+
+        assertEquals(4, interceptor.limiterOf(TestQuery.class).getLimit());
+        assertEquals(0, interceptor.limiterOf(TestQuery.class).getInFlight());
+    }
+
+    private record TestQuery() implements Query<String> {
+    }
+}
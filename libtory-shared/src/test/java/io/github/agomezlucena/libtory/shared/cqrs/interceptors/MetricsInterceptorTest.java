@@ -0,0 +1,148 @@
+package io.github.agomezlucena.libtory.shared.cqrs.interceptors;
+
+import io.github.agomezlucena.libtory.shared.cqrs.CqrsError;
+import io.github.agomezlucena.libtory.shared.cqrs.Query;
+import io.github.agomezlucena.libtory.shared.cqrs.QueryBus;
+import io.github.agomezlucena.libtory.shared.cqrs.QueryHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+
+import static io.github.agomezlucena.libtory.shared.cqrs.interceptors.MetricsInterceptor.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("the metrics interceptor should")
+class MetricsInterceptorTest {
+
+    @Test
+    @DisplayName("time every dispatch by message type and outcome")
+    void shouldTimeEveryDispatchByMessageTypeAndOutcome() {
+        var registry = new SimpleMeterRegistry();
+        QueryHandler<TestQuery, String> handler = query -> "result";
+        var testSubject = new QueryBus()
+                .addHandler(TestQuery.class, handler)
+                .addInterceptor(new MetricsInterceptor(registry, "query"));
+
+        testSubject.handle(new TestQuery());
+        testSubject.handle(new TestQuery());
+
+        var timer = registry.get(DISPATCH_TIMER)
+                .tags("bus", "query", "type", "TestQuery", "outcome", "success")
+                .timer();
+        assertEquals(2, timer.count());
+    }
+
+    @Test
+    @DisplayName("count the failed dispatches by exception")
+    void shouldCountTheFailedDispatchesByException() {
+        var registry = new SimpleMeterRegistry();
+        QueryHandler<TestQuery, String> handler = query -> {
+            throw new CqrsError("test failure");
+        };
+        var testSubject = new QueryBus()
+                .addHandler(TestQuery.class, handler)
+                .addInterceptor(new MetricsInterceptor(registry, "query"));
+
+        assertThrows(CqrsError.class, () -> testSubject.handle(new TestQuery()));
+
+        var errors = registry.get(ERROR_COUNTER)
+                .tags("bus", "query", "type", "TestQuery", "exception", "CqrsError")
+                .counter();
+        assertEquals(1, errors.count());
+        assertEquals(
+                1,
+                registry.get(DISPATCH_TIMER).tags("outcome", "error").timer().count()
+        );
+    }
+
+    @Test
+    @DisplayName("track the dispatches that have not finished yet")
+    void shouldTrackTheDispatchesThatHaveNotFinishedYet() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        QueryHandler<TestQuery, String> handler = query -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "result";
+        };
+        var testSubject = new QueryBus()
+                .addHandler(TestQuery.class, handler)
+                .addInterceptor(new MetricsInterceptor(registry, "query"));
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var result = executor.submit(() -> testSubject.handle(new TestQuery()));
+            started.await();
+            var inFlight = registry.get(IN_FLIGHT_GAUGE).tags("type", "TestQuery").gauge();
+
+            assertEquals(1, inFlight.value());
+            release.countDown();
+            result.get();
+            assertEquals(0, inFlight.value());
+        }
+    }
+
+    private record TestQuery() implements Query<String> {
+    }
+
+    @Test
+    @DisplayName("reuse the error counter of an exception instead of looking it up on every failure")
+    void shouldReuseTheErrorCounterOfAnExceptionInsteadOfLookingItUpOnEveryFailure() {
+        var registry = new SimpleMeterRegistry();
+        QueryHandler<TestQuery, String> handler = query -> {
+            throw new CqrsError("test failure");
+        };
+        var testSubject = new QueryBus()
+                .addHandler(TestQuery.class, handler)
+                .addInterceptor(new MetricsInterceptor(registry, "query"));
+
+        assertThrows(CqrsError.class, () -> testSubject.handle(new TestQuery()));
+        var errors = registry.get(ERROR_COUNTER).tags("exception", "CqrsError").counter();
+        registry.remove(errors);
+        assertThrows(CqrsError.class, () -> testSubject.handle(new TestQuery()));
+
+        assertEquals(2, errors.count());
+    }
+
+    @Test
+    @DisplayName("track apart the dispatches of the buses that share a registry")
+    void shouldTrackApartTheDispatchesOfTheBusesThatShareARegistry() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        QueryHandler<TestQuery, String> blockingHandler = query -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "result";
+        };
+        QueryHandler<TestQuery, String> handler = query -> "result";
+        var firstBus = new QueryBus()
+                .addHandler(TestQuery.class, handler)
+                .addInterceptor(new MetricsInterceptor(registry, "first"));
+        var secondBus = new QueryBus()
+                .addHandler(TestQuery.class, blockingHandler)
+                .addInterceptor(new MetricsInterceptor(registry, "second"));
+
+        firstBus.handle(new TestQuery());
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var result = executor.submit(() -> secondBus.handle(new TestQuery()));
+            started.await();
+
+            assertEquals(0, registry.get(IN_FLIGHT_GAUGE).tags("bus", "first").gauge().value());
+            assertEquals(1, registry.get(IN_FLIGHT_GAUGE).tags("bus", "second").gauge().value());
+            release.countDown();
+            result.get();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.agomezlucena.libtory.shared.cqrs.interceptors;
+
+import io.github.agomezlucena.libtory.shared.concurrent.Deadline;
+import io.github.agomezlucena.libtory.shared.concurrent.RetryBudget;
+import io.github.agomezlucena.libtory.shared.concurrent.RetrySettings;
+import io.github.agomezlucena.libtory.shared.cqrs.CommandBus;
+import io.github.agomezlucena.libtory.shared.cqrs.CommandHandler;
+import io.github.agomezlucena.libtory.shared.cqrs.WriteConflict;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("the retry interceptor should")
+class RetryInterceptorTest {
+    private static final RetrySettings THREE_ATTEMPTS = new RetrySettings(
+            3,
+            Duration.ofMillis(1),
+            Duration.ofMillis(2)
+    );
+
+    @Test
+    @DisplayName("dispatch again the commands that failed with a retryable error until they succeed")
+    void shouldDispatchAgainTheCommandsThatFailedWithARetryableErrorUntilTheySucceed() {
+        var attempts = new AtomicInteger();
+        var interceptor = new RetryInterceptor(WriteConflict.class::isInstance, RetryBudget.unlimited())
+                .retry(TestCommand.class, THREE_ATTEMPTS);
+        var testSubject = busWithHandler(interceptor, command -> {
+            if (attempts.incrementAndGet() < 3) throw new WriteConflict("written by someone else");
+        });
+
+        testSubject.sendCommand(new TestCommand());
+
+        assertEquals(3, attempts.get());
+        assertEquals(2, interceptor.getRetries(TestCommand.class));
+        assertEquals(0, interceptor.getGiveUps(TestCommand.class));
+    }
+
+    @Test
+    @DisplayName("give up once the command has run out of attempts")
+    void shouldGiveUpOnceTheCommandHasRunOutOfAttempts() {
+        var attempts = new AtomicInteger();
+        var expectedException = new WriteConflict("written by someone else");
+        var interceptor = new RetryInterceptor(WriteConflict.class::isInstance, RetryBudget.unlimited())
+                .retry(TestCommand.class, THREE_ATTEMPTS);
+        var testSubject = busWithHandler(interceptor, command -> {
+            attempts.incrementAndGet();
+            throw expectedException;
+        });
+
+        var obtainedException = assertThrows(WriteConflict.class, () -> testSubject.sendCommand(new TestCommand()));
+
+        assertSame(expectedException, obtainedException);
+        assertEquals(3, attempts.get());
+        assertEquals(2, interceptor.getRetries(TestCommand.class));
+        assertEquals(1, interceptor.getGiveUps(TestCommand.class));
+    }
+
+    @Test
+    @DisplayName("not dispatch again the commands that failed with an error that is not retryable")
+    void shouldNotDispatchAgainTheCommandsThatFailedWithAnErrorThatIsNotRetryable() {
+        var attempts = new AtomicInteger();
+        var interceptor = new RetryInterceptor(WriteConflict.class::isInstance, RetryBudget.unlimited())
+                .retry(TestCommand.class, THREE_ATTEMPTS);
+        var testSubject = busWithHandler(interceptor, command -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("invalid command");
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> testSubject.sendCommand(new TestCommand()));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0, interceptor.getGiveUps(TestCommand.class));
+    }
+
+    @Test
+    @DisplayName("not dispatch again the commands of a type without retry settings")
+    void shouldNotDispatchAgainTheCommandsOfATypeWithoutRetrySettings() {
+        var attempts = new AtomicInteger();
+        var interceptor = new RetryInterceptor(WriteConflict.class::isInstance, RetryBudget.unlimited());
+        var testSubject = busWithHandler(interceptor, command -> {
+            attempts.incrementAndGet();
+            throw new WriteConflict("written by someone else");
+        });
+
+        assertThrows(WriteConflict.class, () -> testSubject.sendCommand(new TestCommand()));
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    @DisplayName("give up when the retry budget has been spent")
+    void shouldGiveUpWhenTheRetryBudgetHasBeenSpent() {
+        var attempts = new AtomicInteger();
+        var interceptor = new RetryInterceptor(WriteConflict.class::isInstance, new RetryBudget(0, 1))
+                .retry(TestCommand.class, THREE_ATTEMPTS);
+        var testSubject = busWithHandler(interceptor, command -> {
+            attempts.incrementAndGet();
+            throw new WriteConflict("written by someone else");
+        });
+
+        assertThrows(WriteConflict.class, () -> testSubject.sendCommand(new TestCommand()));
+        assertThrows(WriteConflict.class, () -> testSubject.sendCommand(new TestCommand()));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1, interceptor.getRetries(TestCommand.class));
+        assertEquals(2, interceptor.getGiveUps(TestCommand.class));
+    }
+
+    @Test
+    @DisplayName("give up when the deadline of the command would expire during the backoff")
+    void shouldGiveUpWhenTheDeadlineOfTheCommandWouldExpireDuringTheBackoff() {
+        var attempts = new AtomicInteger();
+        var slowRetries = new RetrySettings(3, Duration.ofHours(1), Duration.ofHours(1));
+        var interceptor = new RetryInterceptor(WriteConflict.class::isInstance, RetryBudget.unlimited())
+                .retry(TestCommand.class, slowRetries);
+        var testSubject = busWithHandler(interceptor, command -> {
+            attempts.incrementAndGet();
+            throw new WriteConflict("written by someone else");
+        });
+        var deadline = Deadline.after(Duration.ofMillis(1));
+
+        // the backoff is random, so the first attempts could still be retried within the deadline.
+        assertThrows(WriteConflict.class, () -> deadline.call(() -> {
+            testSubject.sendCommand(new TestCommand());
+            return null;
+        }));
+
+        assertEquals(1, interceptor.getGiveUps(TestCommand.class));
+        assertTrue(attempts.get() >= 1);
+    }
+
+    @Test
+    @DisplayName("match the errors caused by a sql exception with any of the given sql states")
+    void shouldMatchTheErrorsCausedByASqlExceptionWithAnyOfTheGivenSqlStates() {
+        var testSubject = RetryInterceptor.hasSqlState("40001", "40P01");
+
+        assertTrue(testSubject.test(new IllegalStateException(new SQLException("deadlock detected", "40P01"))));
+        assertTrue(testSubject.test(new RuntimeException(new RuntimeException(new SQLException("", "40001")))));
+        assertFalse(testSubject.test(new IllegalStateException(new SQLException("unique violation", "23505"))));
+        assertFalse(testSubject.test(new IllegalStateException("without cause")));
+    }
+
+    private static CommandBus busWithHandler(RetryInterceptor interceptor, Consumer<TestCommand> handler) {
+        return CommandBus.getNewCommandBus()
+                .addInterceptor(interceptor)
+                .addHandler(TestCommand.class, new CommandHandler<TestCommand>() {
+                    @Override
+                    public void handleCommand(TestCommand command) {
+                        handler.accept(command);
+                    }
+                });
+    }
+
+    private record TestCommand() {
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.agomezlucena.libtory.shared.csv;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("a csv reader should")
+class CsvReaderTest {
+
+    @Test
+    @DisplayName("read every record of the document one at a time")
+    void shouldReadEveryRecordOfTheDocumentOneAtATime() throws IOException {
+        var testSubject = new CsvReader(new StringReader("isbn,title\r\n9780321125217,Domain Driven Design\n"));
+
+        assertEquals(List.of("isbn", "title"), testSubject.readRecord());
+        assertEquals(List.of("9780321125217", "Domain Driven Design"), testSubject.readRecord());
+        assertNull(testSubject.readRecord());
+    }
+
+    @Test
+    @DisplayName("read the quoted fields with separators, line breaks and doubled quotes")
+    void shouldReadTheQuotedFieldsWithSeparatorsLineBreaksAndDoubledQuotes() throws IOException {
+        var testSubject = new CsvReader(new StringReader("\"a, \"\"quoted\"\"\nfield\",plain"));
+
+        assertEquals(List.of("a, \"quoted\"\nfield", "plain"), testSubject.readRecord());
+        assertNull(testSubject.readRecord());
+    }
+
+    @Test
+    @DisplayName("keep the empty fields and skip the empty lines")
+    void shouldKeepTheEmptyFieldsAndSkipTheEmptyLines() throws IOException {
+        var testSubject = new CsvReader(new StringReader("a,,\n\n\r\n,b\n"));
+
+        assertEquals(List.of("a", "", ""), testSubject.readRecord());
+        assertEquals(List.of("", "b"), testSubject.readRecord());
+        assertNull(testSubject.readRecord());
+    }
+
+    @Test
+    @DisplayName("tell the line where every record starts")
+    void shouldTellTheLineWhereEveryRecordStarts() throws IOException {
+        var testSubject = new CsvReader(new StringReader("first\n\n\"second\nrecord\"\nthird"));
+
+        testSubject.readRecord();
+        assertEquals(1, testSubject.getRecordLineNumber());
+        testSubject.readRecord();
+        assertEquals(3, testSubject.getRecordLineNumber());
+        testSubject.readRecord();
+        assertEquals(5, testSubject.getRecordLineNumber());
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.agomezlucena.libtory.shared.csv;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("a csv writer should")
+class CsvWriterTest {
+
+    @Test
+    @DisplayName("quote only the fields that need it")
+    void shouldQuoteOnlyTheFieldsThatNeedIt() throws IOException {
+        var written = new StringWriter();
+        try (var testSubject = new CsvWriter(written)) {
+            testSubject.writeRecord(Arrays.asList("plain", "with, comma", "with \"quotes\"", null));
+        }
+
+        assertEquals("plain,\"with, comma\",\"with \"\"quotes\"\"\",\n", written.toString());
+    }
+
+    @Test
+    @DisplayName("write records that a csv reader reads back as they were")
+    void shouldWriteRecordsThatACsvReaderReadsBackAsTheyWere() throws IOException {
+        var record = List.of("multi\nline", "\"", "", "trailing\r\n");
+        var written = new StringWriter();
+        try (var testSubject = new CsvWriter(written)) {
+            testSubject.writeRecord(record);
+        }
+
+        try (var reader = new CsvReader(new StringReader(written.toString()))) {
+            assertEquals(record, reader.readRecord());
+            assertNull(reader.readRecord());
+        }
+    }
+}